@@ -15,6 +15,8 @@ android {
         val versionFile = rootProject.file("APP_VERSION")
         val versionNameFromFile = versionFile.readText().trim()
         versionName = versionNameFromFile
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
     }
 
     buildTypes {
@@ -67,4 +69,9 @@ dependencies {
     
     // ICU4J для точного форматирования валют
     implementation("com.ibm.icu:icu4j:74.2")
+
+    // Инструментальные тесты и замеры на устройстве
+    androidTestImplementation("androidx.test.ext:junit:1.1.5")
+    androidTestImplementation("androidx.test:runner:1.5.2")
+    androidTestImplementation("junit:junit:4.13.2")
 }
\ No newline at end of file
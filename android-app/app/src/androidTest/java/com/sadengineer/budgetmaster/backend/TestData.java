@@ -0,0 +1,102 @@
+package com.sadengineer.budgetmaster.backend;
+
+import android.content.Context;
+
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.Category;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тестовые данные в рабочей БД приложения
+ * Строки пишутся напрямую через DAO (мимо сервисов) с уникальными названиями
+ * и удаляются в cleanUp(): счета вместе с операциями каскадом, затем категории
+ */
+public class TestData {
+    public static final String USER = "test_user";
+
+    private final BudgetMasterDatabase database;
+    private final String prefix = "test-" + System.nanoTime() + "-";
+    private final List<Account> accounts = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+
+    public TestData(Context context) {
+        this.database = BudgetMasterDatabase.getDatabase(context);
+    }
+
+    /**
+     * Создает счет в валюте по умолчанию
+     * @param amount баланс и начальный остаток в копейках
+     * @return счет с присвоенным ID
+     */
+    public Account account(long amount) {
+        Account account = new Account();
+        account.setTitle(prefix + "account-" + accounts.size());
+        account.setPosition(Integer.MAX_VALUE - accounts.size());
+        account.setAmount(amount);
+        account.setOpeningAmount(amount);
+        account.setType(ModelConstants.ACCOUNT_TYPE_CURRENT);
+        account.setCurrencyId(ModelConstants.DEFAULT_CURRENCY_ID);
+        account.setCreateTime(LocalDateTime.now());
+        account.setCreatedBy(USER);
+        account.setId((int) database.accountDao().insert(account));
+        accounts.add(account);
+        return account;
+    }
+
+    /**
+     * Создает родительскую категорию
+     * @param operationType тип операций категории
+     * @return категория с присвоенным ID
+     */
+    public Category category(int operationType) {
+        Category category = new Category();
+        category.setTitle(prefix + "category-" + categories.size());
+        category.setPosition(Integer.MAX_VALUE - categories.size());
+        category.setOperationType(operationType);
+        category.setType(ModelConstants.CATEGORY_TYPE_PARENT);
+        category.setCreateTime(LocalDateTime.now());
+        category.setCreatedBy(USER);
+        category.setId((int) database.categoryDao().insert(category));
+        categories.add(category);
+        return category;
+    }
+
+    /**
+     * Создает операцию в валюте по умолчанию
+     * @return операция с присвоенным ID
+     */
+    public Operation operation(Account account, Category category, int type, long amount, LocalDateTime date) {
+        Operation operation = new Operation();
+        operation.setAccountId(account.getId());
+        operation.setCategoryId(category.getId());
+        operation.setType(type);
+        operation.setAmount(amount);
+        operation.setCurrencyId(ModelConstants.DEFAULT_CURRENCY_ID);
+        operation.setDescription(prefix + "operation");
+        operation.setOperationDate(date);
+        operation.setCreateTime(LocalDateTime.now());
+        operation.setCreatedBy(USER);
+        operation.setId((int) database.operationDao().insert(operation));
+        return operation;
+    }
+
+    /**
+     * Удаляет все созданные строки
+     */
+    public void cleanUp() {
+        for (Account account : accounts) {
+            database.accountDao().delete(account);
+        }
+        for (Category category : categories) {
+            database.categoryDao().delete(category);
+        }
+        accounts.clear();
+        categories.clear();
+    }
+}
@@ -0,0 +1,201 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.TestData;
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.Category;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Выгрузка совпадает с исходными таблицами: количество строк, набор колонок схемы
+ * и суммы в копейках (построчно для засеянных операций и в целом по таблице)
+ */
+@RunWith(AndroidJUnit4.class)
+public class DataExportServiceTest {
+    private static final String[] TABLES = {
+            RepositoryConstants.TABLE_CURRENCIES, RepositoryConstants.TABLE_ACCOUNTS,
+            RepositoryConstants.TABLE_CATEGORIES, RepositoryConstants.TABLE_BUDGETS,
+            RepositoryConstants.TABLE_OPERATIONS
+    };
+
+    /** Колонки схемы, которые выгружаются под именами из resorses/*.csv */
+    private static final Map<String, String> RENAMED_COLUMNS = new HashMap<>();
+    static {
+        RENAMED_COLUMNS.put("operationDate", "date");
+        RENAMED_COLUMNS.put("description", "comment");
+    }
+
+    private BudgetMasterDatabase database;
+    private DataExportService export;
+    private TestData data;
+    private final Map<Integer, Long> seededAmounts = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = BudgetMasterDatabase.getDatabase(context);
+        export = BackendContainer.get(context).dataExport();
+        data = new TestData(context);
+
+        Category expense = data.category(ModelConstants.OPERATION_TYPE_EXPENSE);
+        Category income = data.category(ModelConstants.OPERATION_TYPE_INCOME);
+        Account account = data.account(12_345);
+        LocalDateTime date = LocalDateTime.now().withNano(0);
+        long[] amounts = {1, 99, 100_00, 123_456_789_01L, 9_000_000_000_000L};
+        for (int i = 0; i < amounts.length; i++) {
+            Category category = i % 2 == 0 ? expense : income;
+            Operation operation = data.operation(account, category, category.getOperationType(),
+                    amounts[i], date.minusDays(i));
+            seededAmounts.put(operation.getId(), amounts[i]);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        data.cleanUp();
+    }
+
+    @Test
+    public void jsonExportMatchesSourceTables() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = export.export(out, DataExportService.Format.JSON, false, null, null);
+
+        JSONObject tables = new JSONObject(out.toString("UTF-8")).getJSONObject("data");
+        long total = 0;
+        for (String table : TABLES) {
+            JSONArray rows = tables.getJSONArray(table);
+            assertEquals(table, count(table), rows.length());
+            total += rows.length();
+            if (rows.length() > 0) {
+                assertHasSchemaColumns(table, rows.getJSONObject(0));
+            }
+        }
+        assertEquals(total, exported);
+
+        JSONArray operations = tables.getJSONArray(RepositoryConstants.TABLE_OPERATIONS);
+        long exportedSum = 0;
+        int seededFound = 0;
+        for (int i = 0; i < operations.length(); i++) {
+            JSONObject row = operations.getJSONObject(i);
+            long amount = row.getLong("amount");
+            exportedSum += amount;
+            Long seeded = seededAmounts.get(row.getInt("id"));
+            if (seeded != null) {
+                assertEquals(seeded.longValue(), amount);
+                seededFound++;
+            }
+        }
+        assertEquals(seededAmounts.size(), seededFound);
+        assertEquals(sum(RepositoryConstants.TABLE_OPERATIONS), exportedSum);
+
+        JSONArray accounts = tables.getJSONArray(RepositoryConstants.TABLE_ACCOUNTS);
+        long accountSum = 0;
+        for (int i = 0; i < accounts.length(); i++) {
+            accountSum += accounts.getJSONObject(i).getLong("amount");
+        }
+        assertEquals(sum(RepositoryConstants.TABLE_ACCOUNTS), accountSum);
+    }
+
+    @Test
+    public void csvExportHasOneEntryPerTableWithAllRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.export(out, DataExportService.Format.CSV, true, null, null);
+
+        Map<String, Integer> rowsByEntry = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                rowsByEntry.put(entry.getName(), countCsvRecords(zip) - 1);
+            }
+        }
+        assertEquals(TABLES.length, rowsByEntry.size());
+        for (String table : TABLES) {
+            Integer rows = rowsByEntry.get(table + ".csv");
+            assertNotNull(table, rows);
+            assertEquals(table, count(table), rows.intValue());
+        }
+    }
+
+    /**
+     * Проверяет, что каждая колонка схемы таблицы есть в строке выгрузки
+     */
+    private void assertHasSchemaColumns(String table, JSONObject row) {
+        try (Cursor cursor = database.query("PRAGMA table_info(" + table + ")", null)) {
+            int nameIndex = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                String column = cursor.getString(nameIndex);
+                String exported = RENAMED_COLUMNS.containsKey(column) && table.equals(RepositoryConstants.TABLE_OPERATIONS)
+                        ? RENAMED_COLUMNS.get(column) : column;
+                assertTrue(table + "." + column, row.has(exported));
+            }
+        }
+    }
+
+    private int count(String table) {
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM " + table, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private long sum(String table) {
+        try (Cursor cursor = database.query("SELECT COALESCE(SUM(amount), 0) FROM " + table, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    /**
+     * Считает записи CSV текущего элемента архива (переводы строк в кавычках не разделяют записи)
+     */
+    private static int countCsvRecords(InputStream in) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+        String text = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        int records = 0;
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                records++;
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.TestData;
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.Category;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.filters.OperationPeriod;
+import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
+import com.sadengineer.budgetmaster.calculators.OperationCalculatorConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Кэш сумм операций не должен отдавать суммы, прочитанные до записи,
+ * в том числе когда операции удаляются каскадом вместе со счетом
+ */
+@RunWith(AndroidJUnit4.class)
+public class OperationTotalsCacheTest {
+
+    private BackendContainer container;
+    private TestData data;
+    private OperationService operations;
+    private OperationCalculatorConfig config;
+    private Account first;
+    private Account second;
+    private Operation firstExpense;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        container = BackendContainer.get(context);
+        data = new TestData(context);
+        operations = container.operations(TestData.USER);
+
+        Category category = data.category(ModelConstants.OPERATION_TYPE_EXPENSE);
+        first = data.account(0);
+        second = data.account(0);
+        LocalDateTime now = LocalDateTime.now();
+        firstExpense = data.operation(first, category, ModelConstants.OPERATION_TYPE_EXPENSE, 1000, now);
+        data.operation(second, category, ModelConstants.OPERATION_TYPE_EXPENSE, 500, now);
+
+        // Строки выше записаны мимо сервисов - начинаем с пустого кэша
+        container.operationTotals().invalidateAll();
+        config = new OperationCalculatorConfig(OperationPeriod.MONTH, LocalDate.now(), OperationTypeFilter.EXPENSE,
+                category.getId(), ModelConstants.DEFAULT_CURRENCY_ID, EntityFilter.ACTIVE);
+    }
+
+    @After
+    public void tearDown() {
+        data.cleanUp();
+    }
+
+    @Test
+    public void repeatedReadIsServedFromCache() {
+        long hits = container.operationTotals().getHitCount();
+        assertEquals(1500, operations.getTotalAmountByConfigSync(config));
+        assertEquals(1500, operations.getTotalAmountByConfigSync(config));
+        assertEquals(hits + 1, container.operationTotals().getHitCount());
+    }
+
+    @Test
+    public void deletingAccountDropsCascadedOperationsFromTotals() {
+        assertEquals(1500, operations.getTotalAmountByConfigSync(config));
+
+        container.accounts(TestData.USER).deleteAccountInTransaction(first);
+
+        assertEquals(500, operations.getTotalAmountByConfigSync(config));
+    }
+
+    @Test
+    public void deletingOperationUpdatesTotals() {
+        assertEquals(1500, operations.getTotalAmountByConfigSync(config));
+
+        operations.deleteOperationInTransaction(firstExpense);
+
+        assertEquals(500, operations.getTotalAmountByConfigSync(config));
+    }
+}
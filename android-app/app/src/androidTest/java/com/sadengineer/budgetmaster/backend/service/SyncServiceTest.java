@@ -0,0 +1,166 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.TestData;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.converter.DateTimeConverter;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.sync.HttpSyncTransport;
+import com.sadengineer.budgetmaster.backend.sync.LocalSyncServer;
+import com.sadengineer.budgetmaster.backend.sync.SyncCodec;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Синхронизация с LocalSyncServer: отправка, получение и разрешение конфликтов
+ * (побеждает более поздняя версия строки). Второе устройство имитируется прямыми
+ * запросами HttpSyncTransport с другим ID устройства.
+ * Номера синхронизации в настройках восстанавливаются после теста
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyncServiceTest {
+    private static final String OTHER_DEVICE = "test-other-device";
+    private static final String PREF_NAME = "sync";
+
+    private Context context;
+    private TestData data;
+    private SyncService sync;
+    private LocalSyncServer server;
+    private HttpSyncTransport otherDevice;
+    private Map<String, ?> savedPreferences;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        savedPreferences = preferences().getAll();
+        data = new TestData(context);
+        server = new LocalSyncServer();
+        otherDevice = new HttpSyncTransport(server.getUrl());
+        sync = BackendContainer.get(context).sync();
+        sync.setTransport(new HttpSyncTransport(server.getUrl()));
+        // Новый сервер пуст: начинаем получение с начала и отправляем накопленный журнал
+        preferences().edit().remove("last_pulled_seq").commit();
+        assertNotNull(sync.sync());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sync.setTransport(null);
+        server.close();
+        data.cleanUp();
+        SharedPreferences.Editor editor = preferences().edit().clear();
+        for (Map.Entry<String, ?> entry : savedPreferences.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Long) {
+                editor.putLong(entry.getKey(), (Long) value);
+            } else if (value instanceof String) {
+                editor.putString(entry.getKey(), (String) value);
+            }
+        }
+        editor.commit();
+    }
+
+    @Test
+    public void pushSendsLocalChanges() {
+        Account account = data.account(100);
+
+        SyncService.SyncResult result = sync.sync();
+
+        assertNotNull(result);
+        assertTrue(result.getPushedChanges() >= 1);
+        assertEquals(result.getPushedChanges(), result.getAcceptedChanges());
+        assertEquals(0, sync.getPendingCount());
+        assertEquals(account.getTitle(), accountTitle(account.getId()));
+    }
+
+    @Test
+    public void pullAppliesNewerRemoteChange() throws Exception {
+        Account account = data.account(100);
+        sync.sync();
+
+        assertEquals(1, pushFromOtherDevice(account, "remote-newer", LocalDateTime.now().plusHours(1)));
+        SyncService.SyncResult result = sync.sync();
+
+        assertNotNull(result);
+        assertEquals(1, result.getAppliedChanges());
+        assertEquals(0, result.getConflictsSkipped());
+        assertEquals("remote-newer", accountTitle(account.getId()));
+    }
+
+    @Test
+    public void olderRemoteChangeLosesToLocal() throws Exception {
+        Account account = data.account(100);
+        LocalDateTime older = account.getCreateTime().minusDays(1);
+
+        // Более старая версия другого устройства попадает на сервер раньше локальной
+        assertEquals(1, pushFromOtherDevice(account, "remote-older", older));
+        SyncService.SyncResult result = sync.sync();
+
+        assertNotNull(result);
+        assertEquals(result.getPushedChanges(), result.getAcceptedChanges());
+        assertEquals(0, result.getAppliedChanges());
+        assertEquals(account.getTitle(), accountTitle(account.getId()));
+
+        // После отправки локальной версии сервер отклоняет более старую
+        assertEquals(0, pushFromOtherDevice(account, "remote-older", older));
+        result = sync.sync();
+        assertNotNull(result);
+        assertEquals(0, result.getAppliedChanges());
+        assertEquals(account.getTitle(), accountTitle(account.getId()));
+    }
+
+    /**
+     * Отправляет на сервер изменение счета от другого устройства с заданной версией
+     * @return сколько изменений сервер принял (0 - версия сервера новее)
+     */
+    private int pushFromOtherDevice(Account account, String title, LocalDateTime version) throws Exception {
+        String time = DateTimeConverter.dateToString(version);
+        JSONObject row = new JSONObject()
+                .put("id", account.getId())
+                .put("title", title)
+                .put("position", account.getPosition())
+                .put("amount", account.getAmount())
+                .put("openingAmount", account.getOpeningAmount())
+                .put("type", account.getType())
+                .put("currencyId", account.getCurrencyId())
+                .put("closed", account.getClosed())
+                .put("createTime", time)
+                .put("updateTime", time)
+                .put("createdBy", account.getCreatedBy());
+        JSONObject change = new JSONObject()
+                .put("table", RepositoryConstants.TABLE_ACCOUNTS)
+                .put("id", account.getId())
+                .put("row", row)
+                .put("version", time);
+        byte[] payload = SyncCodec.encode(new JSONObject().put("changes", new JSONArray().put(change)));
+        JSONObject response = SyncCodec.decode(otherDevice.push(OTHER_DEVICE, payload));
+        return response.getInt("accepted");
+    }
+
+    private String accountTitle(int accountId) {
+        return BudgetMasterDatabase.getDatabase(context).accountDao().getByIdSync(accountId).getTitle();
+    }
+
+    private SharedPreferences preferences() {
+        return context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+}
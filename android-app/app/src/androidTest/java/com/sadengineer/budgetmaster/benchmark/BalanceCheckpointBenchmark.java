@@ -0,0 +1,114 @@
+package com.sadengineer.budgetmaster.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.dao.BalanceCheckpointDao;
+import com.sadengineer.budgetmaster.backend.database.DatabasePerformanceProfile;
+import com.sadengineer.budgetmaster.backend.entity.BalanceCheckpoint;
+import com.sadengineer.budgetmaster.backend.entity.MonthlyMovement;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Баланс на дату по контрольным точкам против суммы всех операций до даты
+ * История одного счета растет до 1 000 000 операций назад во времени с постоянной плотностью,
+ * поэтому месяц запроса содержит одно и то же число операций: время запроса по точкам
+ * должно оставаться постоянным, а полная сумма - расти вместе с историей.
+ * Точки пересчитываются так же, как BalanceCheckpointService.rebuildForAccount
+ */
+@RunWith(AndroidJUnit4.class)
+public class BalanceCheckpointBenchmark {
+    private static final String DATABASE = "benchmark_checkpoints.db";
+    private static final int[] HISTORY_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int OPERATIONS_PER_DAY = 300;
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    @Test
+    public void balanceAtDateStaysConstantAsHistoryGrows() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        try (BenchmarkDatabase db = BenchmarkDatabase.open(context, DATABASE)) {
+            DatabasePerformanceProfile.BULK_IMPORT.applyToWriter(db.getWritable());
+            BalanceCheckpointDao checkpoints = db.getDatabase().balanceCheckpointDao();
+            int account = db.insertAccount("Карта");
+            int[] accounts = {account};
+            int[] categories = {
+                    db.insertCategory("Расходы", ModelConstants.OPERATION_TYPE_EXPENSE),
+                    db.insertCategory("Доходы", ModelConstants.OPERATION_TYPE_INCOME)
+            };
+            Random random = new Random(42);
+            LocalDateTime end = LocalDateTime.now().withNano(0);
+            LocalDateTime date = end.minusDays(15);
+
+            int inserted = 0;
+            long firstCheckpointNanos = 0;
+            long lastCheckpointNanos = 0;
+            long lastFullNanos = 0;
+            for (int size : HISTORY_SIZES) {
+                // Новые операции дописываются перед уже вставленными: плотность истории не меняется
+                int days = (size - inserted) / OPERATIONS_PER_DAY;
+                LocalDateTime start = end.minusDays(size / OPERATIONS_PER_DAY);
+                db.insertOperations(size - inserted, accounts, categories, start, days, random);
+                inserted = size;
+                rebuildCheckpoints(checkpoints, account);
+
+                long[] balances = new long[2];
+                long full = Benchmark.measure("balance at date, full sum, " + size + " operations", 2, 9,
+                        () -> balances[0] = checkpoints.getMovementByDateRange(account, HISTORY_START, date));
+                long checkpoint = Benchmark.measure("balance at date, checkpoint, " + size + " operations", 2, 9,
+                        () -> balances[1] = balanceFromCheckpoint(checkpoints, account, date));
+                assertEquals(balances[0], balances[1]);
+                Benchmark.report("%d operations: checkpoint %.1fx faster than full sum", size, (double) full / checkpoint);
+
+                if (firstCheckpointNanos == 0) {
+                    firstCheckpointNanos = checkpoint;
+                }
+                lastCheckpointNanos = checkpoint;
+                lastFullNanos = full;
+            }
+            Benchmark.report("checkpoint query growth from %d to %d operations: %.2fx",
+                    HISTORY_SIZES[0], inserted, (double) lastCheckpointNanos / firstCheckpointNanos);
+            assertTrue(lastCheckpointNanos < lastFullNanos);
+        }
+    }
+
+    /**
+     * Баланс на дату: точка на конец предыдущего месяца + движения с начала месяца даты
+     * (начальный остаток счета в бенчмарке нулевой)
+     */
+    private static long balanceFromCheckpoint(BalanceCheckpointDao dao, int accountId, LocalDateTime date) {
+        BalanceCheckpoint checkpoint = dao.getLatestBefore(accountId, YearMonth.from(date).toString());
+        if (checkpoint == null) {
+            return dao.getMovementByDateRange(accountId, HISTORY_START, date);
+        }
+        LocalDateTime from = YearMonth.parse(checkpoint.getYearMonth()).plusMonths(1).atDay(1).atStartOfDay();
+        return checkpoint.getClosingBalance() + dao.getMovementByDateRange(accountId, from, date);
+    }
+
+    /**
+     * Точки на конец каждого месяца с движениями (история плотная, пропусков нет)
+     */
+    private static void rebuildCheckpoints(BalanceCheckpointDao dao, int accountId) {
+        List<BalanceCheckpoint> points = new ArrayList<>();
+        long balance = 0;
+        for (MonthlyMovement movement : dao.getMonthlyMovements(accountId)) {
+            balance += movement.getMovement();
+            points.add(new BalanceCheckpoint(accountId, movement.getYearMonth(), balance));
+        }
+        dao.deleteByAccount(accountId);
+        dao.insertAll(points);
+    }
+}
@@ -0,0 +1,51 @@
+package com.sadengineer.budgetmaster.benchmark;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Замеры времени для инструментальных бенчмарков
+ * Каждый замер - несколько прогревочных прогонов и медиана по измеренным прогонам;
+ * результаты пишутся в logcat с тегом Benchmark (adb logcat -s Benchmark)
+ */
+public final class Benchmark {
+    public static final String TAG = "Benchmark";
+
+    private Benchmark() {
+    }
+
+    /**
+     * Измеряет медианное время выполнения
+     * @param name название замера для лога
+     * @param warmups число прогревочных прогонов (не учитываются)
+     * @param runs число измеряемых прогонов
+     * @param body измеряемый код
+     * @return медиана в наносекундах
+     */
+    public static long measure(String name, int warmups, int runs, Runnable body) {
+        for (int i = 0; i < warmups; i++) {
+            body.run();
+        }
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            body.run();
+            samples[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+        Arrays.sort(samples);
+        long median = samples[runs / 2];
+        report("%s: median=%.3f ms, min=%.3f ms, max=%.3f ms (runs=%d)",
+                name, median / 1e6, samples[0] / 1e6, samples[runs - 1] / 1e6, runs);
+        return median;
+    }
+
+    /**
+     * Пишет строку результата в лог
+     */
+    public static void report(String format, Object... args) {
+        Log.i(TAG, String.format(Locale.ROOT, format, args));
+    }
+}
@@ -0,0 +1,138 @@
+package com.sadengineer.budgetmaster.benchmark;
+
+import android.content.Context;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.converter.DateTimeConverter;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.Category;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Отдельная база для бенчмарков с конфигурацией рабочей (BudgetMasterDatabase.createDetached)
+ * Файл удаляется при открытии и закрытии, рабочая база приложения не затрагивается.
+ * Операции вставляются подготовленным запросом пачками в транзакциях - с триггерами
+ * поиска и журнала синхронизации, как в приложении
+ */
+public final class BenchmarkDatabase implements Closeable {
+    private static final int INSERT_BATCH = 10_000;
+    private static final String[] WORDS = {
+            "Продукты", "Такси", "Кафе", "Аптека", "Бензин", "Зарплата", "Подписка", "Кино",
+            "Метро", "Ремонт", "Подарок", "Коммунальные", "Интернет", "Одежда", "Книги", "Спорт"
+    };
+
+    private final Context context;
+    private final String name;
+    private final BudgetMasterDatabase database;
+
+    private BenchmarkDatabase(Context context, String name) {
+        this.context = context;
+        this.name = name;
+        context.deleteDatabase(name);
+        this.database = BudgetMasterDatabase.createDetached(context, name);
+    }
+
+    /**
+     * Открывает пустую базу бенчмарка
+     * @param context контекст
+     * @param name имя файла
+     * @return база бенчмарка
+     */
+    public static BenchmarkDatabase open(Context context, String name) {
+        return new BenchmarkDatabase(context, name);
+    }
+
+    public BudgetMasterDatabase getDatabase() {
+        return database;
+    }
+
+    public SupportSQLiteDatabase getWritable() {
+        return database.getOpenHelper().getWritableDatabase();
+    }
+
+    /**
+     * Создает счет с нулевым начальным остатком
+     * @return ID счета
+     */
+    public int insertAccount(String title) {
+        Account account = new Account();
+        account.setTitle(title);
+        account.setType(ModelConstants.ACCOUNT_TYPE_CURRENT);
+        account.setCurrencyId(ModelConstants.DEFAULT_CURRENCY_ID);
+        account.setCreateTime(LocalDateTime.now());
+        return (int) database.accountDao().insert(account);
+    }
+
+    /**
+     * Создает родительскую категорию
+     * @return ID категории
+     */
+    public int insertCategory(String title, int operationType) {
+        Category category = new Category();
+        category.setTitle(title);
+        category.setOperationType(operationType);
+        category.setType(ModelConstants.CATEGORY_TYPE_PARENT);
+        category.setCreateTime(LocalDateTime.now());
+        return (int) database.categoryDao().insert(category);
+    }
+
+    /**
+     * Вставляет операции со случайными суммами, описаниями и датами в пределах периода
+     * @param count количество операций
+     * @param accountIds счета (выбираются по кругу)
+     * @param categoryIds категории (выбираются случайно)
+     * @param start дата первой операции
+     * @param days длина периода в днях
+     * @param random генератор (с фиксированным зерном для повторяемости)
+     */
+    public void insertOperations(int count, int[] accountIds, int[] categoryIds,
+                                 LocalDateTime start, int days, Random random) {
+        SupportSQLiteDatabase db = getWritable();
+        String now = DateTimeConverter.dateToString(LocalDateTime.now());
+        try (SupportSQLiteStatement insert = db.compileStatement(
+                "INSERT INTO operations (accountId, categoryId, amount, description, operationDate, type, " +
+                "currencyId, createTime, createdBy) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'benchmark')")) {
+            for (int done = 0; done < count; ) {
+                int batch = Math.min(INSERT_BATCH, count - done);
+                db.beginTransaction();
+                try {
+                    for (int i = 0; i < batch; i++, done++) {
+                        LocalDateTime date = start.plusMinutes((long) done * days * 24 * 60 / count);
+                        insert.bindLong(1, accountIds[done % accountIds.length]);
+                        insert.bindLong(2, categoryIds[random.nextInt(categoryIds.length)]);
+                        insert.bindLong(3, 100 + random.nextInt(1_000_000));
+                        insert.bindString(4, WORDS[random.nextInt(WORDS.length)] + " "
+                                + WORDS[random.nextInt(WORDS.length)].toLowerCase() + " " + random.nextInt(1000));
+                        insert.bindString(5, DateTimeConverter.dateToString(date));
+                        insert.bindLong(6, random.nextInt(4) == 0
+                                ? ModelConstants.OPERATION_TYPE_INCOME : ModelConstants.OPERATION_TYPE_EXPENSE);
+                        insert.bindLong(7, ModelConstants.DEFAULT_CURRENCY_ID);
+                        insert.bindString(8, now);
+                        insert.executeInsert();
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Закрывает базу и удаляет файл
+     */
+    @Override
+    public void close() {
+        database.close();
+        context.deleteDatabase(name);
+    }
+}
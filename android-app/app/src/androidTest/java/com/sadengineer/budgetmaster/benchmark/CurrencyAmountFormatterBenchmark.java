@@ -0,0 +1,76 @@
+package com.sadengineer.budgetmaster.benchmark;
+
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Привязка 10 000 строк списка: форматтер на каждую строку (как было в StandartViewHolder)
+ * против общего форматтера из CurrencyAmountFormatterPool.
+ * Каждая строка форматирует сумму из копеек и компактную сумму, как строки списков операций
+ */
+@RunWith(AndroidJUnit4.class)
+public class CurrencyAmountFormatterBenchmark {
+    private static final int ROWS = 10_000;
+    private static final String[] CURRENCIES = {"RUB", "USD", "EUR"};
+
+    private final long[] amounts = new long[ROWS];
+    private final String[] currencies = new String[ROWS];
+    private final String[] sink = new String[2];
+
+    public CurrencyAmountFormatterBenchmark() {
+        Random random = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = (long) (Math.pow(10, random.nextInt(12)) * random.nextDouble());
+            currencies[i] = CURRENCIES[i % CURRENCIES.length];
+        }
+    }
+
+    @Test
+    public void bindRows() {
+        long perRow = Benchmark.measure("bind " + ROWS + " rows, new formatter per row", 1, 5, () -> {
+            for (int i = 0; i < ROWS; i++) {
+                bind(new CurrencyAmountFormatter(CurrencyAmountFormatter.getLocaleForCurrency(currencies[i]),
+                        currencies[i]), amounts[i]);
+            }
+        });
+        long pooled = Benchmark.measure("bind " + ROWS + " rows, pooled formatter", 3, 15, () -> {
+            for (int i = 0; i < ROWS; i++) {
+                bind(CurrencyAmountFormatterPool.forCurrency(currencies[i]), amounts[i]);
+            }
+        });
+        Benchmark.report("formatter pool speedup: %.1fx", (double) perRow / pooled);
+        assertTrue(pooled < perRow);
+    }
+
+    @Test
+    public void formatCompact() {
+        CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
+        long reference = Benchmark.measure("compact " + ROWS + " amounts, String.format", 3, 15, () -> {
+            for (int i = 0; i < ROWS; i++) {
+                sink[0] = String.format(Locale.ROOT, "%.1fK", amounts[i] / 1e3);
+            }
+        });
+        long builder = Benchmark.measure("compact " + ROWS + " amounts, formatCompact(long)", 3, 15, () -> {
+            for (int i = 0; i < ROWS; i++) {
+                sink[0] = formatter.formatCompact(amounts[i]);
+            }
+        });
+        Benchmark.report("formatCompact speedup over String.format: %.1fx", (double) reference / builder);
+        assertTrue(builder < reference);
+    }
+
+    private void bind(CurrencyAmountFormatter formatter, long amount) {
+        sink[0] = formatter.formatFromCents(amount);
+        sink[1] = formatter.formatCompact(amount);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sadengineer.budgetmaster.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabasePerformanceProfile;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Профили производительности SQLite: скорость вставки операций и время агрегирующего
+ * запроса (суммы по категориям и месяцам) для каждого профиля.
+ * Профиль применяется к соединению записи так же, как BudgetMasterDatabase.runWithProfile
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseProfileBenchmark {
+    private static final String DATABASE = "benchmark_profiles.db";
+    private static final int HISTORY = 100_000;
+    private static final int INSERT_ROUND = 20_000;
+    private static final String AGGREGATE =
+            "SELECT categoryId, substr(operationDate, 1, 7) AS month, SUM(amount) FROM operations " +
+            "WHERE deleteTime IS NULL GROUP BY categoryId, month";
+
+    @Test
+    public void compareProfiles() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        for (DatabasePerformanceProfile profile : DatabasePerformanceProfile.values()) {
+            try (BenchmarkDatabase db = BenchmarkDatabase.open(context, DATABASE)) {
+                profile.applyToWriter(db.getWritable());
+                Benchmark.report("profile %s: %s", profile, DatabasePerformanceProfile.readBack(db.getWritable()));
+
+                int[] accounts = {db.insertAccount("Карта"), db.insertAccount("Наличные")};
+                int[] categories = new int[12];
+                for (int i = 0; i < categories.length; i++) {
+                    categories[i] = db.insertCategory("Категория " + i, ModelConstants.OPERATION_TYPE_EXPENSE);
+                }
+                Random random = new Random(42);
+                LocalDateTime start = LocalDateTime.now().minusYears(5);
+                db.insertOperations(HISTORY, accounts, categories, start, 5 * 365, random);
+
+                long insertNanos = Benchmark.measure(profile + " insert " + INSERT_ROUND + " operations", 0, 3,
+                        () -> db.insertOperations(INSERT_ROUND, accounts, categories, start, 5 * 365, random));
+                Benchmark.report("%s insert throughput: %.0f rows/s", profile, INSERT_ROUND / (insertNanos / 1e9));
+
+                Benchmark.measure(profile + " aggregate by category and month", 2, 15, () -> {
+                    try (Cursor cursor = db.getWritable().query(AGGREGATE)) {
+                        while (cursor.moveToNext()) {
+                            cursor.getLong(2);
+                        }
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sadengineer.budgetmaster.benchmark;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabasePerformanceProfile;
+import com.sadengineer.budgetmaster.backend.util.SearchQueryBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Поиск операций по описанию на 100 000 строк: полнотекстовый индекс (запрос как в
+ * OperationDao.search - первая страница с ранжированием) против сканирования LIKE '%слово%'
+ */
+@RunWith(AndroidJUnit4.class)
+public class OperationSearchBenchmark {
+    private static final String DATABASE = "benchmark_search.db";
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 50;
+    private static final String[] TERMS = {"такс", "подпис", "коммунал"};
+
+    private static final String FTS_QUERY =
+            "SELECT o.* FROM " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + " " +
+            "JOIN operations o ON o.id = " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + ".rowid " +
+            "WHERE " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + " MATCH :match AND o.deleteTime IS NULL " +
+            "ORDER BY " + RepositoryConstants.SQL_SEARCH_ORDER + " LIMIT " + PAGE_SIZE;
+    private static final String LIKE_QUERY =
+            "SELECT o.* FROM operations o WHERE o.description LIKE ? AND o.deleteTime IS NULL " +
+            "ORDER BY o.operationDate DESC, o.id DESC LIMIT " + PAGE_SIZE;
+
+    @Test
+    public void ftsAgainstLike() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        try (BenchmarkDatabase db = BenchmarkDatabase.open(context, DATABASE)) {
+            DatabasePerformanceProfile.BULK_IMPORT.applyToWriter(db.getWritable());
+            int[] accounts = {db.insertAccount("Карта"), db.insertAccount("Наличные")};
+            int[] categories = {
+                    db.insertCategory("Повседневные", ModelConstants.OPERATION_TYPE_EXPENSE),
+                    db.insertCategory("Регулярные", ModelConstants.OPERATION_TYPE_EXPENSE)
+            };
+            db.insertOperations(ROWS, accounts, categories, LocalDateTime.now().minusYears(3), 3 * 365,
+                    new Random(42));
+            DatabasePerformanceProfile.BALANCED.applyToWriter(db.getWritable());
+            SupportSQLiteDatabase sql = db.getWritable();
+
+            for (String term : TERMS) {
+                String match = SearchQueryBuilder.prefixQuery(term);
+                int[] found = new int[2];
+                long fts = Benchmark.measure("FTS '" + match + "' on " + ROWS + " rows", 3, 21,
+                        () -> found[0] = readAll(sql.query(FTS_QUERY, new Object[]{match})));
+                long like = Benchmark.measure("LIKE '%" + term + "%' on " + ROWS + " rows", 3, 21,
+                        () -> found[1] = readAll(sql.query(LIKE_QUERY, new Object[]{"%" + term + "%"})));
+                Benchmark.report("'%s': FTS %.1fx faster than LIKE (first page: FTS %d rows, LIKE %d rows)",
+                        term, (double) like / fts, found[0], found[1]);
+                assertTrue(found[0] > 0);
+            }
+        }
+    }
+
+    private static int readAll(Cursor cursor) {
+        try (Cursor c = cursor) {
+            int rows = 0;
+            while (c.moveToNext()) {
+                rows++;
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.sadengineer.budgetmaster.backend.sync;
+
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Локальный сервер синхронизации: заменяет настоящий сервер при разработке и проверках
+ * Слушает 127.0.0.1 на свободном порту, понимает запросы HttpSyncTransport и хранит
+ * последнее изменение каждой строки в памяти со своим номером. Конфликты решаются так же,
+ * как на устройстве: побеждает более поздняя версия, при равных версиях - пришедшая первой.
+ * Изменения устройства не возвращаются ему же при получении.
+ * Запросы обрабатываются по одному в своем потоке, состояние теряется при остановке
+ */
+public class LocalSyncServer implements Closeable {
+    private static final String TAG = "LocalSyncServer";
+
+    /**
+     * Изменение строки на сервере
+     */
+    private static final class StoredChange {
+        final long seq;
+        final String origin;
+        final JSONObject change;
+
+        StoredChange(long seq, String origin, JSONObject change) {
+            this.seq = seq;
+            this.origin = origin;
+            this.change = change;
+        }
+    }
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+
+    // Состояние защищено монитором this
+    private final NavigableMap<Long, StoredChange> log = new TreeMap<>();
+    private final Map<String, StoredChange> latest = new HashMap<>();
+    private long lastSeq;
+    private long bytesReceived;
+    private long bytesSent;
+
+    /**
+     * Запускает сервер на свободном порту
+     * @throws IOException если порт не удалось открыть
+     */
+    public LocalSyncServer() throws IOException {
+        serverSocket = new ServerSocket(0, 0, InetAddress.getByName("127.0.0.1"));
+        acceptThread = new Thread(this::acceptLoop, TAG);
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        Log.d(TAG, "Локальный сервер синхронизации запущен: " + getUrl());
+    }
+
+    /**
+     * Адрес сервера для HttpSyncTransport
+     * @return http://127.0.0.1:порт
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /** Количество строк, изменения которых хранит сервер */
+    public synchronized int getChangeCount() {
+        return latest.size();
+    }
+
+    /** Последний номер изменения сервера */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /** Всего получено байт в телах запросов */
+    public synchronized long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /** Всего отправлено байт в телах ответов */
+    public synchronized long getBytesSent() {
+        return bytesSent;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptThread.interrupt();
+        Log.d(TAG, "Локальный сервер синхронизации остановлен");
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                handle(socket);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    Log.e(TAG, "Ошибка соединения: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Разбирает один HTTP-запрос и отвечает на него
+     */
+    private void handle(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        String requestLine = readLine(in);
+        if (requestLine == null) {
+            return;
+        }
+        int contentLength = 0;
+        String header;
+        while ((header = readLine(in)) != null && !header.isEmpty()) {
+            int colon = header.indexOf(':');
+            if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                contentLength = Integer.parseInt(header.substring(colon + 1).trim());
+            }
+        }
+        byte[] body = new byte[contentLength];
+        int offset = 0;
+        while (offset < contentLength) {
+            int read = in.read(body, offset, contentLength - offset);
+            if (read == -1) {
+                throw new IOException("Тело запроса оборвано");
+            }
+            offset += read;
+        }
+
+        String[] parts = requestLine.split(" ");
+        String method = parts.length > 0 ? parts[0] : "";
+        String target = parts.length > 1 ? parts[1] : "";
+        int question = target.indexOf('?');
+        String path = question >= 0 ? target.substring(0, question) : target;
+        Map<String, String> params = parseQuery(question >= 0 ? target.substring(question + 1) : "");
+
+        OutputStream out = socket.getOutputStream();
+        try {
+            byte[] response;
+            if ("POST".equals(method) && "/sync/push".equals(path)) {
+                response = SyncCodec.encode(push(params.get("device"), SyncCodec.decode(body), body.length));
+            } else if ("GET".equals(method) && "/sync/pull".equals(path)) {
+                response = SyncCodec.encode(pull(params.get("device"),
+                        Long.parseLong(params.get("since")), Integer.parseInt(params.get("limit"))));
+            } else {
+                writeResponse(out, 404, "Not Found", new byte[0]);
+                return;
+            }
+            synchronized (this) {
+                bytesSent += response.length;
+            }
+            writeResponse(out, 200, "OK", response);
+        } catch (IOException | JSONException | RuntimeException e) {
+            Log.w(TAG, "Некорректный запрос " + requestLine + ": " + e.getMessage());
+            writeResponse(out, 400, "Bad Request", new byte[0]);
+        }
+    }
+
+    /**
+     * Принимает изменения устройства; более старые версии, чем хранящиеся, отклоняются
+     */
+    private synchronized JSONObject push(String device, JSONObject request, int size) throws JSONException {
+        bytesReceived += size;
+        JSONArray changes = request.getJSONArray("changes");
+        int accepted = 0;
+        for (int i = 0; i < changes.length(); i++) {
+            JSONObject change = changes.getJSONObject(i);
+            String key = change.getString("table") + "#" + change.getInt("id");
+            StoredChange current = latest.get(key);
+            if (current != null && SyncCodec.compareVersions(change.optString("version", null),
+                    current.change.optString("version", null)) <= 0) {
+                continue;
+            }
+            if (current != null) {
+                log.remove(current.seq);
+            }
+            StoredChange stored = new StoredChange(++lastSeq, device, change);
+            log.put(stored.seq, stored);
+            latest.put(key, stored);
+            accepted++;
+        }
+        Log.d(TAG, String.format(Locale.ROOT, "push %s: %d из %d", device, accepted, changes.length()));
+        return new JSONObject().put("accepted", accepted);
+    }
+
+    /**
+     * Отдает изменения других устройств после номера since
+     */
+    private synchronized JSONObject pull(String device, long since, int limit) throws JSONException {
+        JSONArray changes = new JSONArray();
+        long scanned = since;
+        boolean more = false;
+        for (StoredChange stored : log.tailMap(since, false).values()) {
+            if (changes.length() >= limit) {
+                more = true;
+                break;
+            }
+            scanned = stored.seq;
+            if (!stored.origin.equals(device)) {
+                changes.put(stored.change);
+            }
+        }
+        Log.d(TAG, String.format(Locale.ROOT, "pull %s после %d: %d", device, since, changes.length()));
+        return new JSONObject().put("changes", changes).put("lastSeq", scanned).put("more", more);
+    }
+
+    private static void writeResponse(OutputStream out, int code, String reason, byte[] body) throws IOException {
+        String head = "HTTP/1.1 " + code + " " + reason + "\r\n" +
+                "Content-Type: " + ServiceConstants.SYNC_CONTENT_TYPE + "\r\n" +
+                "Content-Length: " + body.length + "\r\n" +
+                "Connection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * Читает строку заголовка до CRLF
+     * @return строка без CRLF или null в конце потока
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return line.toString("US-ASCII");
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+                        URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return params;
+    }
+}
@@ -17,6 +17,7 @@ import com.sadengineer.budgetmaster.backend.validator.AccountValidator;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.util.List;
@@ -38,7 +39,7 @@ public class AccountsEditActivity extends BaseEditActivity<Account> {
     // ViewModel для работы с данными
     private AccountsSharedViewModel mViewModel;
     private AccountValidator mAccountValidator = new AccountValidator();
-    private CurrencyAmountFormatter mFormatter = new CurrencyAmountFormatter();
+    private CurrencyAmountFormatter mFormatter = CurrencyAmountFormatterPool.get();
     
     // Поля для хранения данных счета
     private Account mCurrentAccount;
@@ -7,10 +7,13 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.IoScheduler;
 import com.sadengineer.budgetmaster.backend.entity.Account;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.service.AccountService;
 import com.sadengineer.budgetmaster.backend.service.CurrencyService;
+import com.sadengineer.budgetmaster.backend.service.ReferenceDataCache;
 import com.sadengineer.budgetmaster.base.SelectionListViewModel;
 import com.sadengineer.budgetmaster.calculators.AccountCalculatorViewModel;
 import com.sadengineer.budgetmaster.backend.filters.AccountTypeFilter;
@@ -18,11 +21,7 @@ import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Shared ViewModel для экрана счетов. Держит общий режим выбора и
@@ -55,11 +54,12 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
     private AccountCalculatorViewModel mSavingsCalculator;
     private AccountCalculatorViewModel mCreditCalculator;
 
-    // Кэш валют
-    private final Map<Integer, String> mCurrencyCache = new HashMap<>();
-    private final MutableLiveData<Boolean> mIsCurrencyCacheLoaded = new MutableLiveData<>(false);
+    // Справочные данные (кэш валют)
+    private final ReferenceDataCache mReferenceData;
 
-    private final ExecutorService mIoExecutor = Executors.newSingleThreadExecutor();
+    // Последовательная очередь на общем пуле; при закрытии ViewModel дорабатывает
+    // уже поставленные сохранения (экран редактирования закрывается сразу после сохранения)
+    private final IoScheduler.Lane mIoLane = IoScheduler.getInstance().openDrainingLane(TAG);
 
     /**
      * Конструктор
@@ -67,12 +67,11 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
      */
     public AccountsSharedViewModel(@NonNull Application application) {
         super(application);
+        addCloseable(mIoLane);
         // Сервисы для работы с данными
-        mAccountService = new AccountService(application.getApplicationContext(), userName);
-        mCurrencyService = new CurrencyService(application.getApplicationContext(), userName);
-        
-        // Загружаем кэш валют при инициализации
-        loadCurrencyCache();
+        mAccountService = BackendContainer.get(application).accounts(userName);
+        mCurrencyService = BackendContainer.get(application).currencies(userName);
+        mReferenceData = BackendContainer.get(application).referenceData();
     }
 
     /**
@@ -128,7 +127,7 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
     }
 
     /**
-     * Делает softDelete для каждого счета из переданного списка в фоне.
+     * Делает пакетный softDelete счетов из переданного списка в фоне.
      */
     public void deleteAccountsSoft(List<Account> accounts) {
         if (accounts == null || accounts.isEmpty()) {
@@ -157,24 +156,20 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
         LogManager.d(TAG, "Начато удаление счетов. Количество: " + accountsToDelete.size());
         // Устанавливаем состояние удаления
         mDeleting.setValue(true);
-        mIoExecutor.execute(() -> {
-            int deletedCount = 0;
-            for (Account account : accountsToDelete) {
-                try {
-                    LogManager.d(TAG, "Удаление счёта: ID=" + account.getId());
-                    mAccountService.delete(account, true);
-                    deletedCount++;
-                    LogManager.d(TAG, "Счет ID: " + account.getId() + " успешно удален");
-                } catch (Exception e) {
-                    LogManager.e(TAG, "Ошибка удаления счёта: ID=" + account.getId() + ", причина: " + e.getMessage());
-                }
-            }
-            mDeleting.postValue(false);
-            mSoftDeletionDone.postValue(deletedCount);
-            mSelectionMode.postValue(false);
-            mSelectedAccounts.postValue(null);
-            LogManager.d(TAG, "Удаление завершено. Удалено счетов: " + deletedCount);
-        });
+        List<Integer> ids = new ArrayList<>();
+        for (Account account : accountsToDelete) {
+            ids.add(account.getId());
+        }
+        // Один пакет: одна транзакция и одна инвалидация наблюдающих запросов
+        mAccountService.softDeleteAll(ids, (processed, total) ->
+                LogManager.d(TAG, "Удалено счетов: " + processed + " из " + total))
+            .thenAccept(deletedCount -> {
+                mDeleting.postValue(false);
+                mSoftDeletionDone.postValue(deletedCount);
+                mSelectionMode.postValue(false);
+                mSelectedAccounts.postValue(null);
+                LogManager.d(TAG, "Удаление завершено. Удалено счетов: " + deletedCount);
+            });
     }
 
      /**
@@ -303,7 +298,7 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
         }
         
         mSaving.setValue(true);
-        mIoExecutor.execute(() -> {
+        mIoLane.execute(() -> {
             try {
                 if (account.getId() > 0) {
                     // Обновление существующего счета
@@ -340,58 +335,26 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
     }
     
     /**
-     * Загружает кэш валют
-     */
-    private void loadCurrencyCache() {
-        try {
-            // observeForever должен вызываться в главном потоке
-            mCurrencyService.getAll(EntityFilter.ALL).observeForever(currencies -> {
-                try {
-                    if (currencies != null) {
-                        mCurrencyCache.clear();
-                        for (Currency currency : currencies) {
-                            if (currency.getShortName() != null && !currency.getShortName().isEmpty()) {
-                                mCurrencyCache.put(currency.getId(), currency.getShortName());
-                            }
-                        }
-                        mIsCurrencyCacheLoaded.postValue(true);
-                        LogManager.d(TAG, "Кэш валют загружен: " + mCurrencyCache.size() + " валют");
-                    } else {
-                        LogManager.w(TAG, "Список валют пуст");
-                        mIsCurrencyCacheLoaded.postValue(false);
-                    }
-                } catch (Exception e) {
-                    LogManager.e(TAG, "Ошибка обработки валют: " + e.getMessage(), e);
-                    mIsCurrencyCacheLoaded.postValue(false);
-                }
-            });
-        } catch (Exception e) {
-            LogManager.e(TAG, "Ошибка загрузки кэша валют: " + e.getMessage(), e);
-            mIsCurrencyCacheLoaded.postValue(false);
-        }
-    }
-    
-    /**
-     * Получает короткое имя валюты по ID
+     * Получает короткое имя валюты по ID из общего снимка справочных данных
+     * @return короткое имя или пустая строка, если валюта неизвестна
      */
     public String getCurrencyShortName(int currencyId) {
-        return mCurrencyCache.getOrDefault(currencyId, "RUB");
+        String shortName = mReferenceData.get().getCurrencyShortName(currencyId);
+        return shortName != null ? shortName : "";
     }
     
     /**
      * Возвращает состояние загрузки кэша валют
      */
     public LiveData<Boolean> isCurrencyCacheLoaded() {
-        return mIsCurrencyCacheLoaded;
+        return mReferenceData.isLoaded();
     }
     
     /**
      * Перезагружает кэш валют
      */
     public void reloadCurrencyCache() {
-        mCurrencyCache.clear();
-        mIsCurrencyCacheLoaded.setValue(false);
-        loadCurrencyCache();
+        mReferenceData.invalidate();
     }
     
     /**
@@ -400,10 +363,6 @@ public class AccountsSharedViewModel extends AndroidViewModel implements Selecti
     @Override
     protected void onCleared() {
         super.onCleared();
-        // Очищаем ExecutorService
-        if (mIoExecutor != null && !mIoExecutor.isShutdown()) {
-            mIoExecutor.shutdown();
-        }
         LogManager.d(TAG, "AccountsSharedViewModel очищен");
     }
 }
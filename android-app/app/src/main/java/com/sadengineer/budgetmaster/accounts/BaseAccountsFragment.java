@@ -13,6 +13,7 @@ import com.sadengineer.budgetmaster.backend.entity.Account;
 import com.sadengineer.budgetmaster.backend.service.AccountService;
 import com.sadengineer.budgetmaster.base.BaseListFragmentN;
 import com.sadengineer.budgetmaster.base.TabInteractionManager;
+import com.sadengineer.budgetmaster.navigation.ScreenPrefetcher;
 import com.sadengineer.budgetmaster.backend.filters.AccountTypeFilter;
 import com.sadengineer.budgetmaster.calculators.AccountCalculatorViewModel;
 
@@ -85,6 +86,12 @@ public abstract class BaseAccountsFragment extends BaseListFragmentN<Account,
     protected void performDataLoading() {
         // Получаем данные из ViewModel по типу счетов
         if (mViewModel != null) {
+            // Данные, предзагруженные на соседнем экране, показываем сразу
+            List<Account> prefetched = ScreenPrefetcher.getInstance(requireContext())
+                .take(requireActivity().getClass(), ScreenPrefetcher.accountsKey(mAccountType));
+            if (prefetched != null) {
+                handleDataLoaded(prefetched);
+            }
             mViewModel.loadAccountsByType(mAccountType).observe(getViewLifecycleOwner(), this::handleDataLoaded);
         }
     }
@@ -16,6 +16,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import com.sadengineer.budgetmaster.interfaces.ISelectionAdapter;
 import com.sadengineer.budgetmaster.backend.interfaces.IService;
 import com.sadengineer.budgetmaster.navigation.BaseNavigationActivity;
+import com.sadengineer.budgetmaster.navigation.ScreenPrefetcher;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.io.Serializable;
@@ -137,6 +138,9 @@ public abstract class BaseListFragmentN<T extends Serializable,
             }
             setAdapterData(items);
             LogManager.d(TAG, "Список данных обновлён");
+            if (getActivity() != null) {
+                ScreenPrefetcher.getInstance(requireContext()).reportFirstContent(getActivity().getClass());
+            }
         } else {
             LogManager.i(TAG, "Данные не найдены");
         }
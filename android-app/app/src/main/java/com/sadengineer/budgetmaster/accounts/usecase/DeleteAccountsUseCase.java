@@ -22,43 +22,27 @@ public class DeleteAccountsUseCase implements AsyncUseCaseWithParams<List<Accoun
     
     @Override
     public CompletableFuture<Integer> executeAsync(List<Account> accounts) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (accounts == null || accounts.isEmpty()) {
-                    LogManager.d(TAG, "Нет счетов для удаления");
-                    return 0;
-                }
-                
-                List<Account> accountsToDelete = accounts.stream()
-                    .filter(account -> account != null && !account.isDeleted())
-                    .collect(Collectors.toList());
-                
-                if (accountsToDelete.isEmpty()) {
-                    LogManager.w(TAG, "Нет счетов для удаления - все уже удалены");
-                    return 0;
-                }
-                
-                LogManager.d(TAG, "Начато удаление счетов. Количество: " + accountsToDelete.size());
-                
-                int deletedCount = 0;
-                for (Account account : accountsToDelete) {
-                    try {
-                        LogManager.d(TAG, "Удаление счёта: ID=" + account.getId());
-                        accountService.delete(account, true); // Soft delete
-                        deletedCount++;
-                        LogManager.d(TAG, "Счет ID: " + account.getId() + " успешно удален");
-                    } catch (Exception e) {
-                        LogManager.e(TAG, "Ошибка удаления счёта: ID=" + account.getId() + ", причина: " + e.getMessage());
-                    }
-                }
-                
+        if (accounts == null || accounts.isEmpty()) {
+            LogManager.d(TAG, "Нет счетов для удаления");
+            return CompletableFuture.completedFuture(0);
+        }
+        
+        List<Integer> ids = accounts.stream()
+            .filter(account -> account != null && !account.isDeleted())
+            .map(Account::getId)
+            .collect(Collectors.toList());
+        
+        if (ids.isEmpty()) {
+            LogManager.w(TAG, "Нет счетов для удаления - все уже удалены");
+            return CompletableFuture.completedFuture(0);
+        }
+        
+        LogManager.d(TAG, "Начато удаление счетов. Количество: " + ids.size());
+        return accountService.softDeleteAll(ids, (processed, total) ->
+                LogManager.d(TAG, "Удалено счетов: " + processed + " из " + total))
+            .thenApply(deletedCount -> {
                 LogManager.d(TAG, "Удаление завершено. Удалено счетов: " + deletedCount);
                 return deletedCount;
-                
-            } catch (Exception e) {
-                LogManager.e(TAG, "Критическая ошибка при удалении счетов: " + e.getMessage(), e);
-                return 0;
-            }
-        });
+            });
     }
 }
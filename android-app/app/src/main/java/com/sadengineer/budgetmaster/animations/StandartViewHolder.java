@@ -10,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 /**
@@ -38,7 +39,7 @@ public class StandartViewHolder extends RecyclerView.ViewHolder {
     private int boundItemId = -1;
     
     // Форматтер для сумм
-    private CurrencyAmountFormatter formatter = new CurrencyAmountFormatter();
+    private CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
     
     // Обработчики
     private OnItemClickListener itemClickListener;
@@ -492,15 +493,22 @@ public class StandartViewHolder extends RecyclerView.ViewHolder {
     
     /**
      * Привязывает данные операции (доход/расход)
+     * Сумма и дата форматируются при каждой привязке - для списков используйте
+     * перегрузку с подготовленными строками (OperationRowModel)
      */
     public void bindOperation(int position, String category, String description, int id, long sum, String shortName, String date, boolean isSelectionMode, boolean isSelected) {
+        String formattedSum = formatter.formatCompact(sum / 100.0);
+        bindOperation(position, category, description, id, formattedSum, shortName, date, isSelectionMode, isSelected);
+    }
+    
+    /**
+     * Привязывает данные операции с заранее отформатированными строками
+     */
+    public void bindOperation(int position, CharSequence category, CharSequence description, int id, CharSequence sum, CharSequence shortName, CharSequence date, boolean isSelectionMode, boolean isSelected) {
         this.boundItemId = id;
         this.isSelectionMode = isSelectionMode;
         this.isSelected = isSelected;
         
-        LogManager.d(TAG, "bindOperation() для операции " + id + " (позиция " + position + "): " + 
-            "isSelectionMode=" + isSelectionMode + ", isSelected=" + isSelected);
-        
         // Устанавливаем значения
         if (titleText != null) {
             titleText.setText(category);
@@ -512,10 +520,7 @@ public class StandartViewHolder extends RecyclerView.ViewHolder {
             dateText.setText(date);
         }
         if (sumText != null) {
-            double rubles = sum / 100.0;
-            String formattedSum = formatter.formatCompact(rubles);
-            sumText.setText(formattedSum);
-            LogManager.d(TAG, "Установлена сумма операции: " + formattedSum + " (исходная сумма в копейках: " + sum + ")");
+            sumText.setText(sum);
         }
         if (shortNameText != null) {
             shortNameText.setText(shortName != null ? shortName : "₽");
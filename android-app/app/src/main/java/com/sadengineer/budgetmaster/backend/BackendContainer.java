@@ -0,0 +1,302 @@
+package com.sadengineer.budgetmaster.backend;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.analytics.OperationSnapshot;
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsEngine;
+import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
+import com.sadengineer.budgetmaster.backend.repository.BalanceCheckpointRepository;
+import com.sadengineer.budgetmaster.backend.repository.BudgetRepository;
+import com.sadengineer.budgetmaster.backend.repository.CategoryRepository;
+import com.sadengineer.budgetmaster.backend.repository.CurrencyRateRepository;
+import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
+import com.sadengineer.budgetmaster.backend.repository.OperationRepository;
+import com.sadengineer.budgetmaster.backend.repository.SyncChangeRepository;
+import com.sadengineer.budgetmaster.backend.service.AccountBalanceLedger;
+import com.sadengineer.budgetmaster.backend.service.AccountService;
+import com.sadengineer.budgetmaster.backend.service.BalanceCheckpointService;
+import com.sadengineer.budgetmaster.backend.service.BudgetService;
+import com.sadengineer.budgetmaster.backend.service.CategoryService;
+import com.sadengineer.budgetmaster.backend.service.CurrencyRateService;
+import com.sadengineer.budgetmaster.backend.service.CurrencyService;
+import com.sadengineer.budgetmaster.backend.service.DataExportService;
+import com.sadengineer.budgetmaster.backend.service.DataRetentionService;
+import com.sadengineer.budgetmaster.backend.service.OperationService;
+import com.sadengineer.budgetmaster.backend.service.OperationSuggestionIndex;
+import com.sadengineer.budgetmaster.backend.service.OperationTotalsCache;
+import com.sadengineer.budgetmaster.backend.service.ReferenceDataCache;
+import com.sadengineer.budgetmaster.backend.service.SyncService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Контейнер зависимостей backend
+ * Владеет одним экземпляром каждого репозитория на процесс и кэширует сервисы
+ * по имени пользователя, от имени которого сервис записывает createdBy/updatedBy/deletedBy.
+ * Экраны и адаптеры получают сервисы отсюда вместо создания новых при каждом открытии.
+ */
+public class BackendContainer {
+    private static final String TAG = "BackendContainer";
+
+    /** Пользователь, если вызывающий код не передал имя */
+    private static final String DEFAULT_USER = "default_user";
+
+    private static volatile BackendContainer INSTANCE;
+
+    private final Context context;
+
+    // Репозитории (создаются лениво при первом обращении, один экземпляр на процесс)
+    private final Lazy<AccountRepository> accountRepository = new Lazy<>(() -> new AccountRepository(context));
+    private final Lazy<BudgetRepository> budgetRepository = new Lazy<>(() -> new BudgetRepository(context));
+    private final Lazy<CategoryRepository> categoryRepository = new Lazy<>(() -> new CategoryRepository(context));
+    private final Lazy<CurrencyRepository> currencyRepository = new Lazy<>(() -> new CurrencyRepository(context));
+    private final Lazy<OperationRepository> operationRepository = new Lazy<>(() -> new OperationRepository(context));
+    private final Lazy<BalanceCheckpointRepository> balanceCheckpointRepository = new Lazy<>(() -> new BalanceCheckpointRepository(context));
+    private final Lazy<SyncChangeRepository> syncChangeRepository = new Lazy<>(() -> new SyncChangeRepository(context));
+    private final Lazy<CurrencyRateRepository> currencyRateRepository = new Lazy<>(() -> new CurrencyRateRepository(context));
+
+    // Сервисы без пользователя
+    private final Lazy<BalanceCheckpointService> balanceCheckpointService = new Lazy<>(() -> new BalanceCheckpointService(context));
+    private final Lazy<AccountBalanceLedger> accountBalanceLedger = new Lazy<>(() -> new AccountBalanceLedger(context));
+    private final Lazy<OperationSnapshot> operationSnapshot = new Lazy<>(() -> new OperationSnapshot(context));
+    private final Lazy<StatisticsEngine> statisticsEngine = new Lazy<>(() -> new StatisticsEngine(context));
+    private final Lazy<DataExportService> dataExportService = new Lazy<>(() -> new DataExportService(context));
+    private final Lazy<DataRetentionService> dataRetentionService = new Lazy<>(() -> new DataRetentionService(context));
+    private final Lazy<OperationTotalsCache> operationTotalsCache = new Lazy<>(OperationTotalsCache::new);
+    private final Lazy<SyncService> syncService = new Lazy<>(() -> new SyncService(context));
+    private final Lazy<CurrencyRateService> currencyRateService = new Lazy<>(() -> new CurrencyRateService(context));
+    private final Lazy<ReferenceDataCache> referenceDataCache = new Lazy<>(() -> new ReferenceDataCache(context));
+    private final Lazy<OperationSuggestionIndex> operationSuggestionIndex = new Lazy<>(() -> new OperationSuggestionIndex(context));
+
+    // Сервисы по пользователю
+    private final Map<String, AccountService> accountServices = new ConcurrentHashMap<>();
+    private final Map<String, BudgetService> budgetServices = new ConcurrentHashMap<>();
+    private final Map<String, CategoryService> categoryServices = new ConcurrentHashMap<>();
+    private final Map<String, CurrencyService> currencyServices = new ConcurrentHashMap<>();
+    private final Map<String, OperationService> operationServices = new ConcurrentHashMap<>();
+
+    private BackendContainer(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Получение контейнера
+     * @param context любой контекст (используется контекст приложения)
+     * @return контейнер зависимостей
+     */
+    public static BackendContainer get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (BackendContainer.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new BackendContainer(context.getApplicationContext());
+                    Log.d(TAG, "BackendContainer инициализирован");
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // ========== Репозитории ==========
+
+    public AccountRepository accountRepository() {
+        return accountRepository.get();
+    }
+
+    public BudgetRepository budgetRepository() {
+        return budgetRepository.get();
+    }
+
+    public CategoryRepository categoryRepository() {
+        return categoryRepository.get();
+    }
+
+    public CurrencyRepository currencyRepository() {
+        return currencyRepository.get();
+    }
+
+    public OperationRepository operationRepository() {
+        return operationRepository.get();
+    }
+
+    public BalanceCheckpointRepository balanceCheckpointRepository() {
+        return balanceCheckpointRepository.get();
+    }
+
+    public SyncChangeRepository syncChangeRepository() {
+        return syncChangeRepository.get();
+    }
+
+    public CurrencyRateRepository currencyRateRepository() {
+        return currencyRateRepository.get();
+    }
+
+    // ========== Сервисы без пользователя ==========
+
+    public BalanceCheckpointService balanceCheckpoints() {
+        return balanceCheckpointService.get();
+    }
+
+    public AccountBalanceLedger ledger() {
+        return accountBalanceLedger.get();
+    }
+
+    /**
+     * Колоночный снимок операций для аналитики
+     * Создается при первом обращении и начинает загрузку в фоне (см. whenLoaded)
+     * @return общий снимок операций
+     */
+    public OperationSnapshot operationSnapshot() {
+        return operationSnapshot.get();
+    }
+
+    /**
+     * Движок статистики поверх снимка операций
+     * @return общий движок статистики
+     */
+    public StatisticsEngine statistics() {
+        return statisticsEngine.get();
+    }
+
+    /**
+     * Сервис выгрузки данных в CSV/JSON
+     * @return общий сервис выгрузки
+     */
+    public DataExportService dataExport() {
+        return dataExportService.get();
+    }
+
+    /**
+     * Сервис очистки помеченных удаленными строк
+     * @return общий сервис очистки
+     */
+    public DataRetentionService dataRetention() {
+        return dataRetentionService.get();
+    }
+
+    /**
+     * Кэш сумм операций по конфигурации калькулятора (общий для сервисов всех пользователей)
+     * @return общий кэш сумм
+     */
+    public OperationTotalsCache operationTotals() {
+        return operationTotalsCache.get();
+    }
+
+    /**
+     * Сервис инкрементальной синхронизации с сервером
+     * @return общий сервис синхронизации
+     */
+    public SyncService sync() {
+        return syncService.get();
+    }
+
+    /**
+     * История курсов валют и пересчет сумм по курсу на дату
+     * @return общий сервис курсов
+     */
+    public CurrencyRateService currencyRates() {
+        return currencyRateService.get();
+    }
+
+    /**
+     * Снимок справочных данных: счета, категории и валюты
+     * @return общий кэш справочных данных
+     */
+    public ReferenceDataCache referenceData() {
+        return referenceDataCache.get();
+    }
+
+    /**
+     * Индекс подсказок категории и счета по началу описания операции
+     * @return общий индекс подсказок
+     */
+    public OperationSuggestionIndex suggestions() {
+        return operationSuggestionIndex.get();
+    }
+
+    // ========== Сервисы по пользователю ==========
+
+    /**
+     * Сервис счетов, записывающий изменения от имени пользователя
+     * @param user имя пользователя
+     * @return общий экземпляр сервиса для этого пользователя
+     */
+    public AccountService accounts(String user) {
+        return forUser(accountServices, user, u -> new AccountService(context, u));
+    }
+
+    /**
+     * Сервис бюджетов, записывающий изменения от имени пользователя
+     * @param user имя пользователя
+     * @return общий экземпляр сервиса для этого пользователя
+     */
+    public BudgetService budgets(String user) {
+        return forUser(budgetServices, user, u -> new BudgetService(context, u));
+    }
+
+    /**
+     * Сервис категорий, записывающий изменения от имени пользователя
+     * @param user имя пользователя
+     * @return общий экземпляр сервиса для этого пользователя
+     */
+    public CategoryService categories(String user) {
+        return forUser(categoryServices, user, u -> new CategoryService(context, u));
+    }
+
+    /**
+     * Сервис валют, записывающий изменения от имени пользователя
+     * @param user имя пользователя
+     * @return общий экземпляр сервиса для этого пользователя
+     */
+    public CurrencyService currencies(String user) {
+        return forUser(currencyServices, user, u -> new CurrencyService(context, u));
+    }
+
+    /**
+     * Сервис операций, записывающий изменения от имени пользователя
+     * @param user имя пользователя
+     * @return общий экземпляр сервиса для этого пользователя
+     */
+    public OperationService operations(String user) {
+        return forUser(operationServices, user, u -> new OperationService(context, u));
+    }
+
+    /**
+     * Возвращает сервис пользователя, создавая его при первом обращении
+     * Сервисы легкие: репозитории берутся из контейнера, поэтому экземпляр на пользователя дешев
+     */
+    private static <T> T forUser(Map<String, T> services, String user, Function<String, T> factory) {
+        return services.computeIfAbsent(user != null ? user : DEFAULT_USER, factory);
+    }
+
+    /**
+     * Ленивый экземпляр компонента
+     * Создание идет под общим монитором контейнера: компоненты создают зависимости
+     * в своих конструкторах, и отдельный монитор на каждый мог бы дать взаимную блокировку
+     */
+    private final class Lazy<T> {
+        private final Supplier<T> factory;
+        private volatile T instance;
+
+        Lazy(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        T get() {
+            T result = instance;
+            if (result == null) {
+                synchronized (BackendContainer.this) {
+                    result = instance;
+                    if (result == null) {
+                        result = factory.get();
+                        instance = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.sadengineer.budgetmaster.backend;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.sadengineer.budgetmaster.backend.constants.ThreadManagerConstants;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Планировщик фоновых задач с последовательными очередями (lane) по владельцам
+ * Задачи одной очереди выполняются строго по порядку, но все очереди используют
+ * общий пул ThreadManager, поэтому число потоков не растет с числом экранов.
+ * Очередь владельца закрывается вместе с ним (например, через ViewModel.addCloseable),
+ * невыполненные задачи при этом отменяются. Очереди пользовательских записей открываются
+ * через openDrainingLane: после закрытия они не принимают новых задач, но дорабатывают
+ * уже поставленные, чтобы сохранение не терялось при закрытии экрана.
+ */
+public class IoScheduler {
+    private static final String TAG = "IoScheduler";
+
+    private static final IoScheduler INSTANCE = new IoScheduler(ThreadManager.getExecutor());
+
+    private final ExecutorService pool;
+    private final AtomicInteger openLanes = new AtomicInteger();
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+
+    private IoScheduler(ExecutorService pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Получение экземпляра планировщика
+     * @return общий планировщик
+     */
+    public static IoScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Открывает последовательную очередь для владельца
+     * @param name имя очереди (обычно TAG владельца)
+     * @return очередь; закрыть через close() при уничтожении владельца
+     */
+    public Lane openLane(String name) {
+        return open(name, false);
+    }
+
+    /**
+     * Открывает последовательную очередь, которая при закрытии дорабатывает поставленные задачи
+     * Используется для пользовательских записей (сохранение, удаление)
+     * @param name имя очереди (обычно TAG владельца)
+     * @return очередь; закрыть через close() при уничтожении владельца
+     */
+    public Lane openDrainingLane(String name) {
+        return open(name, true);
+    }
+
+    private Lane open(String name, boolean drainOnClose) {
+        openLanes.incrementAndGet();
+        Log.d(TAG, String.format(ThreadManagerConstants.MSG_LANE_OPENED, name, getMetrics()));
+        return new Lane(name, drainOnClose);
+    }
+
+    /**
+     * Количество потоков общего пула
+     * @return число потоков (не превышает THREAD_POOL_SIZE)
+     */
+    public int getThreadCount() {
+        return pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getPoolSize() : -1;
+    }
+
+    /**
+     * Количество задач, ожидающих выполнения во всех очередях
+     * @return глубина очередей
+     */
+    public int getQueueDepth() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * Количество открытых очередей
+     * @return число очередей
+     */
+    public int getOpenLaneCount() {
+        return openLanes.get();
+    }
+
+    /**
+     * Метрики планировщика для логов
+     * @return строка с метриками
+     */
+    public String getMetrics() {
+        return "threads=" + getThreadCount() + ", queued=" + getQueueDepth() + ", lanes=" + getOpenLaneCount();
+    }
+
+    /**
+     * Последовательная очередь задач одного владельца
+     * В пул отправляется по одной задаче за раз, поэтому очереди не занимают потоки,
+     * пока им нечего выполнять, и не блокируют друг друга
+     */
+    public final class Lane implements Executor, Closeable {
+        private final String name;
+        private final boolean drainOnClose;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled = false;
+        private boolean closed = false;
+
+        private Lane(String name, boolean drainOnClose) {
+            this.name = name;
+            this.drainOnClose = drainOnClose;
+        }
+
+        /**
+         * Ставит задачу в очередь; после закрытия очереди задача отклоняется
+         * @param task задача
+         */
+        @Override
+        public void execute(@NonNull Runnable task) {
+            synchronized (this) {
+                if (closed) {
+                    Log.w(TAG, String.format(ThreadManagerConstants.MSG_LANE_REJECTED, name));
+                    return;
+                }
+                tasks.add(task);
+                queuedTasks.incrementAndGet();
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            pool.execute(this::runNext);
+        }
+
+        /**
+         * Выполняет одну задачу и, если очередь не пуста, отправляет следующую в пул
+         */
+        private void runNext() {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                if (task == null) {
+                    scheduled = false;
+                    return;
+                }
+                queuedTasks.decrementAndGet();
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                Log.e(TAG, String.format(ThreadManagerConstants.MSG_LANE_TASK_ERROR, name) + e.getMessage(), e);
+            }
+            synchronized (this) {
+                if (tasks.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            pool.execute(this::runNext);
+        }
+
+        /**
+         * Закрывает очередь и отменяет невыполненные задачи
+         * Уже выполняющаяся задача завершается; очередь с drainOnClose дорабатывает
+         * все поставленные задачи и только перестает принимать новые
+         */
+        @Override
+        public void close() {
+            int cancelled = 0;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (!drainOnClose) {
+                    cancelled = tasks.size();
+                    tasks.clear();
+                    queuedTasks.addAndGet(-cancelled);
+                }
+            }
+            openLanes.decrementAndGet();
+            Log.d(TAG, String.format(ThreadManagerConstants.MSG_LANE_CLOSED, name, cancelled, getMetrics()));
+        }
+
+        /**
+         * Проверить, закрыта ли очередь
+         * @return true, если очередь закрыта
+         */
+        public synchronized boolean isClosed() {
+            return closed;
+        }
+    }
+}
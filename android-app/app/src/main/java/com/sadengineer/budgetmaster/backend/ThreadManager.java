@@ -17,6 +17,12 @@ public class ThreadManager {
     
     private static final ExecutorService executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
     
+    // Отдельные пулы Room: запросы не конкурируют с задачами сервисов,
+    // транзакции выполняются последовательно в одном потоке
+    private static final ExecutorService databaseQueryExecutor =
+            Executors.newFixedThreadPool(ThreadManagerConstants.DATABASE_QUERY_POOL_SIZE);
+    private static final ExecutorService databaseTransactionExecutor = Executors.newSingleThreadExecutor();
+    
     /**
      * Получить общий ExecutorService для всех сервисов
      * @return ExecutorService
@@ -25,6 +31,22 @@ public class ThreadManager {
         return executorService;
     }
     
+    /**
+     * Получить ExecutorService для запросов Room
+     * @return ExecutorService
+     */
+    public static ExecutorService getDatabaseQueryExecutor() {
+        return databaseQueryExecutor;
+    }
+    
+    /**
+     * Получить ExecutorService для транзакций Room
+     * @return ExecutorService
+     */
+    public static ExecutorService getDatabaseTransactionExecutor() {
+        return databaseTransactionExecutor;
+    }
+    
     /**
      * Завершить работу ExecutorService
      * Должен вызываться при завершении работы приложения
@@ -0,0 +1,822 @@
+package com.sadengineer.budgetmaster.backend.analytics;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+import android.util.SparseIntArray;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.IoScheduler;
+import com.sadengineer.budgetmaster.backend.constants.AnalyticsConstants;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.repository.OperationRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Колоночный снимок активных операций в памяти для аналитики
+ * Каждое поле операции хранится в отдельном примитивном массиве (amount, epochDay, categoryId,
+ * accountId, currencyId, type, descriptionId), поэтому группировки и фильтры проходят по массивам без создания
+ * объектов на каждую строку и без обращений к БД.
+ * Снимок загружается один раз и затем обновляется по изменениям таблицы операций (DatabaseChangeBus):
+ * читаются только строки с новым ID или с updateTime/deleteTime после прошлого обновления.
+ * Все обновления выполняются в одной последовательной очереди IoScheduler.
+ * Описания операций хранятся в словаре: строка получает постоянный ID при первой встрече,
+ * поэтому ID описания, полученный из запроса, остается действительным после обновлений.
+ */
+public class OperationSnapshot {
+    private static final String TAG = "OperationSnapshot";
+
+    /** Число строк в одной задаче ForkJoin при параллельной группировке */
+    private static final int FORK_LEAF_ROWS = AnalyticsConstants.SNAPSHOT_PARALLEL_THRESHOLD / 4;
+
+    /**
+     * Измерение группировки
+     */
+    public enum Dimension {
+        /** По категории (ключ - ID категории) */
+        CATEGORY,
+        /** По счету (ключ - ID счета) */
+        ACCOUNT,
+        /** По валюте (ключ - ID валюты) */
+        CURRENCY,
+        /** По типу (ключ - ModelConstants.OPERATION_TYPE_* или SNAPSHOT_TYPE_TRANSFER) */
+        TYPE,
+        /** По дню (ключ - номер дня от 1970-01-01) */
+        DAY,
+        /** По дню недели (ключ - 0 для понедельника ... 6 для воскресенья) */
+        WEEKDAY,
+        /** По месяцу (ключ - номер месяца от 1970-01, см. epochMonth) */
+        MONTH,
+        /** По описанию (ключ - ID описания, см. getDescription) */
+        DESCRIPTION
+    }
+
+    /**
+     * Подписчик на обновления снимка
+     */
+    public interface OnSnapshotChangedListener {
+        /**
+         * Вызывается в фоновом потоке после применения изменений
+         * @param version новая версия снимка
+         */
+        void onSnapshotChanged(long version);
+    }
+
+    /**
+     * Посетитель строк снимка (поля передаются примитивами, без создания объектов)
+     */
+    public interface RowVisitor {
+        void visit(long amount, int epochDay, int categoryId, int accountId, int currencyId, int type, int descriptionId);
+    }
+
+    private final OperationRepository repo;
+    private final IoScheduler.Lane lane;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+    /** Следующее обновление должно перечитать все операции, а не только изменения */
+    private final AtomicBoolean fullReloadRequested = new AtomicBoolean(false);
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private final List<OnSnapshotChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private final Dictionary descriptions = new Dictionary();
+
+    // Колонки (под lock); заменяются целиком при полной загрузке
+    private Columns columns = new Columns(0);
+    private volatile long version = 0;
+
+    // Состояние инкрементального обновления (только в очереди lane)
+    private LocalDateTime lastRefreshStart;
+
+    public OperationSnapshot(Context context) {
+        this.repo = BackendContainer.get(context).operationRepository();
+        // Очередь живет вместе со снимком, то есть до конца процесса
+        this.lane = IoScheduler.getInstance().openLane(TAG);
+        DatabaseChangeBus.getInstance(context)
+                .addListener(tables -> requestRefresh(), RepositoryConstants.TABLE_OPERATIONS);
+        requestRefresh();
+    }
+
+    // ========== Жизненный цикл ==========
+
+    /**
+     * Future, завершающийся после первой загрузки снимка
+     * @return future готовности снимка
+     */
+    public CompletableFuture<Void> whenLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Версия снимка; увеличивается при каждом применении изменений
+     * Используется для инвалидации кэшей, построенных по снимку
+     * @return версия
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Количество строк (активных операций) в снимке
+     * @return количество строк
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Описание операции по ID из словаря
+     * @param descriptionId ID описания (ключ измерения DESCRIPTION или поле RowVisitor)
+     * @return описание (пустая строка, если у операции нет описания)
+     */
+    public String getDescription(int descriptionId) {
+        return descriptions.get(descriptionId);
+    }
+
+    public void addListener(OnSnapshotChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OnSnapshotChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Ставит обновление в очередь; повторные запросы до начала обновления объединяются
+     */
+    public void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            lane.execute(() -> {
+                refreshQueued.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Ставит в очередь полную перезагрузку снимка
+     * Нужна после записей в обход OperationService (например, полученных при синхронизации):
+     * у таких строк updateTime может быть раньше прошлого обновления, и выборка изменений их не увидит
+     */
+    public void requestFullReload() {
+        fullReloadRequested.set(true);
+        requestRefresh();
+    }
+
+    /**
+     * Обновляет снимок (очередь lane): первая загрузка целиком, далее - только изменения
+     */
+    private void refresh() {
+        LocalDateTime start = LocalDateTime.now();
+        boolean fullReload = fullReloadRequested.getAndSet(false);
+        try {
+            if (fullReload || lastRefreshStart == null || !applyDelta(lastRefreshStart)) {
+                fullLoad();
+            }
+            lastRefreshStart = start.minusNanos(AnalyticsConstants.SNAPSHOT_DELTA_OVERLAP_MS * 1_000_000L);
+            long newVersion = ++version;
+            for (OnSnapshotChangedListener listener : listeners) {
+                listener.onSnapshotChanged(newVersion);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, AnalyticsConstants.MSG_SNAPSHOT_REFRESH_ERROR + e.getMessage(), e);
+            lastRefreshStart = null;
+        } finally {
+            loaded.complete(null);
+        }
+    }
+
+    /**
+     * Загружает все активные операции в новые колонки и подменяет ими текущие
+     * Чтение идет вне блокировки, запросы к старому снимку не ждут загрузки
+     */
+    private void fullLoad() {
+        long startMs = System.currentTimeMillis();
+        Columns loadedColumns;
+        try (Cursor cursor = repo.getSnapshotCursor()) {
+            loadedColumns = new Columns(Math.max(cursor.getCount(), AnalyticsConstants.SNAPSHOT_INITIAL_CAPACITY));
+            while (cursor.moveToNext()) {
+                loadedColumns.put(cursor, descriptions);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            columns = loadedColumns;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Log.d(TAG, String.format(AnalyticsConstants.MSG_SNAPSHOT_LOADED,
+                loadedColumns.size, System.currentTimeMillis() - startMs));
+    }
+
+    /**
+     * Применяет операции, добавленные или измененные после since
+     * Физическое удаление строк не оставляет следов, поэтому после применения число строк
+     * сверяется с БД; при расхождении вызывающий код выполняет полную загрузку.
+     * @return false, если снимок разошелся с БД
+     */
+    private boolean applyDelta(LocalDateTime since) {
+        Columns current;
+        lock.readLock().lock();
+        try {
+            current = columns;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Columns changed = new Columns(0);
+        int[] deletedIds = new int[16];
+        int deletedCount = 0;
+        try (Cursor cursor = repo.getSnapshotDeltaCursor(current.maxId, since)) {
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(8) != 0) {
+                    if (deletedCount == deletedIds.length) {
+                        deletedIds = Arrays.copyOf(deletedIds, deletedCount * 2);
+                    }
+                    deletedIds[deletedCount++] = cursor.getInt(0);
+                } else {
+                    changed.put(cursor, descriptions);
+                }
+            }
+        }
+        int activeInDb = repo.count(EntityFilter.ACTIVE);
+
+        int size;
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < changed.size; row++) {
+                current.copyFrom(changed, row);
+            }
+            for (int i = 0; i < deletedCount; i++) {
+                current.remove(deletedIds[i]);
+            }
+            current.maxId = Math.max(current.maxId, changed.maxId);
+            for (int i = 0; i < deletedCount; i++) {
+                current.maxId = Math.max(current.maxId, deletedIds[i]);
+            }
+            size = current.size;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (size != activeInDb) {
+            Log.w(TAG, String.format(AnalyticsConstants.MSG_SNAPSHOT_DELTA_MISMATCH, size, activeInDb));
+            return false;
+        }
+        Log.d(TAG, String.format(AnalyticsConstants.MSG_SNAPSHOT_DELTA_APPLIED, changed.size, deletedCount, size));
+        return true;
+    }
+
+    // ========== Запросы ==========
+
+    /**
+     * Обходит строки, прошедшие фильтр (последовательно, под блокировкой чтения)
+     * Посетитель не должен обращаться к снимку на запись
+     * @param filter фильтр
+     * @param visitor посетитель
+     */
+    public void forEach(Filter filter, RowVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            for (int row = 0; row < c.size; row++) {
+                if (filter.matches(c, row)) {
+                    visitor.visit(c.amount[row], c.epochDay[row], c.categoryId[row],
+                            c.accountId[row], c.currencyId[row], c.type[row], c.descriptionId[row]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сумма по строкам, прошедшим фильтр
+     * @param filter фильтр
+     * @return сумма amount в копейках
+     */
+    public long sum(Filter filter) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            long total = 0;
+            for (int row = 0; row < c.size; row++) {
+                if (filter.matches(c, row)) {
+                    total += c.amount[row];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество строк, прошедших фильтр
+     * @param filter фильтр
+     * @return количество строк
+     */
+    public int count(Filter filter) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            int total = 0;
+            for (int row = 0; row < c.size; row++) {
+                if (filter.matches(c, row)) {
+                    total++;
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Группирует строки, прошедшие фильтр, по измерению
+     * Результат - плотные массивы сумм и количеств по диапазону ключей; на строку объекты не создаются.
+     * Для больших снимков (SNAPSHOT_PARALLEL_THRESHOLD строк и больше) проход делится между потоками ForkJoinPool.
+     * @param dimension измерение
+     * @param filter фильтр
+     * @return суммы и количества по ключам
+     */
+    public GroupedSums groupBy(Dimension dimension, Filter filter) {
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            int[] range = keyRange(c, dimension, filter);
+            if (range == null) {
+                return GroupedSums.EMPTY;
+            }
+            int base = range[0];
+            int length = range[1] - range[0] + 1;
+            long[] sums;
+            int[] counts;
+            if (c.size >= AnalyticsConstants.SNAPSHOT_PARALLEL_THRESHOLD) {
+                long[] merged = ForkJoinPool.commonPool()
+                        .invoke(new GroupTask(c, dimension, filter, base, length, 0, c.size));
+                sums = Arrays.copyOf(merged, length);
+                counts = new int[length];
+                for (int i = 0; i < length; i++) {
+                    counts[i] = (int) merged[length + i];
+                }
+            } else {
+                sums = new long[length];
+                counts = new int[length];
+                for (int row = 0; row < c.size; row++) {
+                    if (filter.matches(c, row)) {
+                        int index = c.key(dimension, row) - base;
+                        sums[index] += c.amount[row];
+                        counts[index]++;
+                    }
+                }
+            }
+            return new GroupedSums(base, sums, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Диапазон ключей измерения по всем строкам снимка
+     * Границы могут быть шире фактических значений (сужаются только при полной загрузке)
+     * @param dimension измерение
+     * @return {min, max} или null, если снимок пуст
+     */
+    public int[] keyRange(Dimension dimension) {
+        lock.readLock().lock();
+        try {
+            return keyRange(columns, dimension, new Filter());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] keyRange(Columns c, Dimension dimension, Filter filter) {
+        if (dimension == Dimension.DESCRIPTION) {
+            return c.size == 0 ? null : new int[]{0, descriptions.size() - 1};
+        }
+        return c.keyRange(dimension, filter);
+    }
+
+    /**
+     * Параллельная группировка диапазона строк
+     * Возвращает массив длины 2 * length: суммы, затем количества
+     */
+    private static final class GroupTask extends RecursiveTask<long[]> {
+        private final Columns c;
+        private final Dimension dimension;
+        private final Filter filter;
+        private final int base;
+        private final int length;
+        private final int from;
+        private final int to;
+
+        GroupTask(Columns c, Dimension dimension, Filter filter, int base, int length, int from, int to) {
+            this.c = c;
+            this.dimension = dimension;
+            this.filter = filter;
+            this.base = base;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= FORK_LEAF_ROWS) {
+                long[] result = new long[length * 2];
+                for (int row = from; row < to; row++) {
+                    if (filter.matches(c, row)) {
+                        int index = c.key(dimension, row) - base;
+                        result[index] += c.amount[row];
+                        result[length + index]++;
+                    }
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            GroupTask left = new GroupTask(c, dimension, filter, base, length, from, middle);
+            GroupTask right = new GroupTask(c, dimension, filter, base, length, middle, to);
+            left.fork();
+            long[] result = right.compute();
+            long[] other = left.join();
+            for (int i = 0; i < result.length; i++) {
+                result[i] += other[i];
+            }
+            return result;
+        }
+    }
+
+    // ========== Месяцы ==========
+
+    /**
+     * Номер месяца от 1970-01 по номеру дня (без создания LocalDate)
+     * @param epochDay номер дня от 1970-01-01
+     * @return номер месяца (1970-01 = 0)
+     */
+    public static int epochMonth(int epochDay) {
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097L);
+        long dayOfEra = z - era * 146097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) ((year - 1970) * 12 + month - 1);
+    }
+
+    /**
+     * Номер месяца от 1970-01
+     * @param month месяц
+     * @return номер месяца (1970-01 = 0)
+     */
+    public static int epochMonth(YearMonth month) {
+        return (month.getYear() - 1970) * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Месяц по номеру от 1970-01
+     * @param epochMonth номер месяца
+     * @return месяц
+     */
+    public static YearMonth toYearMonth(int epochMonth) {
+        return YearMonth.of(1970 + Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+    }
+
+    // ========== Фильтр и результат ==========
+
+    /**
+     * Фильтр строк снимка
+     * Условия задаются цепочкой вызовов; -1 означает "любое значение".
+     * Экземпляр можно переиспользовать, но не изменять во время запроса.
+     */
+    public static final class Filter {
+        private int fromEpochDay = Integer.MIN_VALUE;
+        private int toEpochDay = Integer.MAX_VALUE;
+        private int type = -1;
+        private int currencyId = -1;
+        private int accountId = -1;
+        private int categoryId = -1;
+
+        /**
+         * Период по датам операций (включительно)
+         */
+        public Filter period(LocalDate from, LocalDate to) {
+            this.fromEpochDay = (int) from.toEpochDay();
+            this.toEpochDay = (int) to.toEpochDay();
+            return this;
+        }
+
+        public Filter type(int type) {
+            this.type = type;
+            return this;
+        }
+
+        public Filter currency(int currencyId) {
+            this.currencyId = currencyId;
+            return this;
+        }
+
+        public Filter account(int accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        public Filter category(int categoryId) {
+            this.categoryId = categoryId;
+            return this;
+        }
+
+        boolean matches(Columns c, int row) {
+            int day = c.epochDay[row];
+            return day >= fromEpochDay && day <= toEpochDay
+                    && (type < 0 || c.type[row] == type)
+                    && (currencyId < 0 || c.currencyId[row] == currencyId)
+                    && (accountId < 0 || c.accountId[row] == accountId)
+                    && (categoryId < 0 || c.categoryId[row] == categoryId);
+        }
+    }
+
+    /**
+     * Результат группировки: плотные суммы и количества по ключам base..base+size()-1
+     */
+    public static final class GroupedSums {
+        static final GroupedSums EMPTY = new GroupedSums(0, new long[0], new int[0]);
+
+        private final int base;
+        private final long[] sums;
+        private final int[] counts;
+
+        GroupedSums(int base, long[] sums, int[] counts) {
+            this.base = base;
+            this.sums = sums;
+            this.counts = counts;
+        }
+
+        public int size() {
+            return sums.length;
+        }
+
+        public int keyAt(int index) {
+            return base + index;
+        }
+
+        public long sumAt(int index) {
+            return sums[index];
+        }
+
+        public int countAt(int index) {
+            return counts[index];
+        }
+
+        /**
+         * Сумма по ключу
+         * @param key ключ измерения
+         * @return сумма (0, если ключ вне диапазона)
+         */
+        public long sumFor(int key) {
+            int index = key - base;
+            return index >= 0 && index < sums.length ? sums[index] : 0;
+        }
+
+        /**
+         * Количество строк по ключу
+         * @param key ключ измерения
+         * @return количество (0, если ключ вне диапазона)
+         */
+        public int countFor(int key) {
+            int index = key - base;
+            return index >= 0 && index < counts.length ? counts[index] : 0;
+        }
+    }
+
+    // ========== Колонки ==========
+
+    /**
+     * Примитивные колонки снимка
+     * Удаление строки переносит на ее место последнюю, поэтому порядок строк не сохраняется.
+     * Границы ключей (max*, min/maxEpochDay) только расширяются до следующей полной загрузки.
+     */
+    private static final class Columns {
+        int size;
+        int[] id;
+        long[] amount;
+        int[] epochDay;
+        int[] epochMonth;
+        int[] categoryId;
+        int[] accountId;
+        int[] currencyId;
+        byte[] type;
+        int[] descriptionId;
+        final SparseIntArray rowById = new SparseIntArray();
+
+        int maxId;
+        int maxCategoryId;
+        int maxAccountId;
+        int maxCurrencyId;
+        int maxType;
+        int minEpochDay = Integer.MAX_VALUE;
+        int maxEpochDay = Integer.MIN_VALUE;
+
+        Columns(int capacity) {
+            id = new int[capacity];
+            amount = new long[capacity];
+            epochDay = new int[capacity];
+            epochMonth = new int[capacity];
+            categoryId = new int[capacity];
+            accountId = new int[capacity];
+            currencyId = new int[capacity];
+            type = new byte[capacity];
+            descriptionId = new int[capacity];
+        }
+
+        /**
+         * Добавляет или заменяет строку из курсора (колонки RepositoryConstants.SQL_SNAPSHOT_COLUMNS)
+         */
+        void put(Cursor cursor, Dictionary descriptions) {
+            put(cursor.getInt(0), cursor.getLong(1), cursor.getInt(2), cursor.getInt(3),
+                    cursor.getInt(4), cursor.getInt(5), (byte) cursor.getInt(6),
+                    descriptions.intern(cursor.getString(7)));
+        }
+
+        /**
+         * Добавляет или заменяет строку из других колонок
+         */
+        void copyFrom(Columns other, int row) {
+            put(other.id[row], other.amount[row], other.epochDay[row], other.categoryId[row],
+                    other.accountId[row], other.currencyId[row], other.type[row], other.descriptionId[row]);
+        }
+
+        void put(int operationId, long operationAmount, int day, int category, int account, int currency,
+                 byte operationType, int description) {
+            int row = rowById.get(operationId, -1);
+            if (row < 0) {
+                ensureCapacity(size + 1);
+                row = size++;
+                id[row] = operationId;
+                rowById.put(operationId, row);
+            }
+            amount[row] = operationAmount;
+            epochDay[row] = day;
+            epochMonth[row] = OperationSnapshot.epochMonth(day);
+            categoryId[row] = category;
+            accountId[row] = account;
+            currencyId[row] = currency;
+            type[row] = operationType;
+            descriptionId[row] = description;
+
+            maxId = Math.max(maxId, operationId);
+            maxCategoryId = Math.max(maxCategoryId, category);
+            maxAccountId = Math.max(maxAccountId, account);
+            maxCurrencyId = Math.max(maxCurrencyId, currency);
+            maxType = Math.max(maxType, operationType);
+            minEpochDay = Math.min(minEpochDay, day);
+            maxEpochDay = Math.max(maxEpochDay, day);
+        }
+
+        void remove(int operationId) {
+            int row = rowById.get(operationId, -1);
+            if (row < 0) {
+                return;
+            }
+            rowById.delete(operationId);
+            int last = --size;
+            if (row != last) {
+                id[row] = id[last];
+                amount[row] = amount[last];
+                epochDay[row] = epochDay[last];
+                epochMonth[row] = epochMonth[last];
+                categoryId[row] = categoryId[last];
+                accountId[row] = accountId[last];
+                currencyId[row] = currencyId[last];
+                type[row] = type[last];
+                descriptionId[row] = descriptionId[last];
+                rowById.put(id[row], row);
+            }
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= id.length) {
+                return;
+            }
+            int capacity = Math.max(required, Math.max(id.length * 2, AnalyticsConstants.SNAPSHOT_INITIAL_CAPACITY));
+            id = Arrays.copyOf(id, capacity);
+            amount = Arrays.copyOf(amount, capacity);
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            epochMonth = Arrays.copyOf(epochMonth, capacity);
+            categoryId = Arrays.copyOf(categoryId, capacity);
+            accountId = Arrays.copyOf(accountId, capacity);
+            currencyId = Arrays.copyOf(currencyId, capacity);
+            type = Arrays.copyOf(type, capacity);
+            descriptionId = Arrays.copyOf(descriptionId, capacity);
+        }
+
+        int key(Dimension dimension, int row) {
+            switch (dimension) {
+                case CATEGORY:
+                    return categoryId[row];
+                case ACCOUNT:
+                    return accountId[row];
+                case CURRENCY:
+                    return currencyId[row];
+                case TYPE:
+                    return type[row];
+                case DAY:
+                    return epochDay[row];
+                case WEEKDAY:
+                    // 1970-01-01 - четверг
+                    return Math.floorMod(epochDay[row] + 3, 7);
+                case DESCRIPTION:
+                    return descriptionId[row];
+                case MONTH:
+                default:
+                    return epochMonth[row];
+            }
+        }
+
+        /**
+         * Диапазон ключей измерения с учетом периода фильтра
+         * @return {min, max} или null, если строк нет
+         */
+        int[] keyRange(Dimension dimension, Filter filter) {
+            if (size == 0) {
+                return null;
+            }
+            int fromDay = Math.max(minEpochDay, filter.fromEpochDay);
+            int toDay = Math.min(maxEpochDay, filter.toEpochDay);
+            switch (dimension) {
+                case CATEGORY:
+                    return new int[]{0, maxCategoryId};
+                case ACCOUNT:
+                    return new int[]{0, maxAccountId};
+                case CURRENCY:
+                    return new int[]{0, maxCurrencyId};
+                case TYPE:
+                    return new int[]{0, maxType};
+                case WEEKDAY:
+                    return new int[]{0, 6};
+                case DAY:
+                    return fromDay > toDay ? null : new int[]{fromDay, toDay};
+                case MONTH:
+                default:
+                    return fromDay > toDay ? null
+                            : new int[]{OperationSnapshot.epochMonth(fromDay), OperationSnapshot.epochMonth(toDay)};
+            }
+        }
+    }
+
+    /**
+     * Словарь описаний: строка - постоянный ID (только добавление)
+     * ID 0 зарезервирован для операций без описания
+     */
+    private static final class Dictionary {
+        private final ArrayList<String> values = new ArrayList<>();
+        private final HashMap<String, Integer> ids = new HashMap<>();
+
+        Dictionary() {
+            values.add("");
+            ids.put("", 0);
+        }
+
+        synchronized int intern(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        synchronized String get(int id) {
+            return id >= 0 && id < values.size() ? values.get(id) : "";
+        }
+
+        synchronized int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sadengineer.budgetmaster.backend.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Интервал группировки временного ряда статистики
+ * Номер интервала считается от 1970-01-01 арифметикой по номеру дня, без создания LocalDate на операцию
+ */
+public enum StatisticsBucket {
+
+    /**
+     * По дням
+     */
+    DAY {
+        @Override
+        public int numberOf(int epochDay) {
+            return epochDay;
+        }
+
+        @Override
+        public LocalDate startOf(int number) {
+            return LocalDate.ofEpochDay(number);
+        }
+    },
+
+    /**
+     * По неделям (с понедельника)
+     */
+    WEEK {
+        @Override
+        public int numberOf(int epochDay) {
+            // 1970-01-01 - четверг, неделя 0 начинается с понедельника 1969-12-29
+            return Math.floorDiv(epochDay + 3, 7);
+        }
+
+        @Override
+        public LocalDate startOf(int number) {
+            return LocalDate.ofEpochDay(number * 7L - 3);
+        }
+    },
+
+    /**
+     * По месяцам
+     */
+    MONTH {
+        @Override
+        public int numberOf(int epochDay) {
+            return OperationSnapshot.epochMonth(epochDay);
+        }
+
+        @Override
+        public LocalDate startOf(int number) {
+            return OperationSnapshot.toYearMonth(number).atDay(1);
+        }
+    },
+
+    /**
+     * По годам
+     */
+    YEAR {
+        @Override
+        public int numberOf(int epochDay) {
+            return Math.floorDiv(OperationSnapshot.epochMonth(epochDay), 12);
+        }
+
+        @Override
+        public LocalDate startOf(int number) {
+            return LocalDate.of(1970 + number, 1, 1);
+        }
+    };
+
+    /**
+     * Получить номер интервала, в который попадает день
+     * @param epochDay номер дня от 1970-01-01
+     * @return номер интервала
+     */
+    public abstract int numberOf(int epochDay);
+
+    /**
+     * Получить первый день интервала
+     * @param number номер интервала
+     * @return дата начала интервала
+     */
+    public abstract LocalDate startOf(int number);
+}
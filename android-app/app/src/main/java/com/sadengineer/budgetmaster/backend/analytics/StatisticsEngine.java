@@ -0,0 +1,281 @@
+package com.sadengineer.budgetmaster.backend.analytics;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.AnalyticsConstants;
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
+import com.sadengineer.budgetmaster.backend.filters.OperationPeriod;
+import com.sadengineer.budgetmaster.backend.service.CurrencyRateService;
+import com.sadengineer.budgetmaster.backend.service.CurrencyRateTimeline;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Движок статистики по операциям
+ * Строит StatisticsReport за один проход по колоночному снимку операций (OperationSnapshot):
+ * каждая строка пересчитывается в валюту отображения по кросс-курсу месяца операции (таблица курсов
+ * валюта × месяц строится до прохода из CurrencyRateTimeline) и одновременно попадает во временной ряд,
+ * сводную таблицу категория × месяц и счетчики топов.
+ * Отчеты кэшируются по ключу запроса (включая валюту отображения); кэш сбрасывается при обновлении снимка и при изменении валют.
+ */
+public class StatisticsEngine {
+    private static final String TAG = "StatisticsEngine";
+
+    /** Индексы сторон в массивах итогов */
+    private static final int SIDE_EXPENSE = 0;
+    private static final int SIDE_INCOME = 1;
+
+    private final OperationSnapshot snapshot;
+    private final CurrencyRateService currencyRates;
+    private final Map<String, StatisticsReport> cache =
+            new LinkedHashMap<String, StatisticsReport>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, StatisticsReport> eldest) {
+                    return size() > AnalyticsConstants.STATISTICS_CACHE_SIZE;
+                }
+            };
+
+    public StatisticsEngine(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+        this.snapshot = container.operationSnapshot();
+        this.currencyRates = container.currencyRates();
+        snapshot.addListener(version -> clearCache());
+        DatabaseChangeBus.getInstance(context).addListener(tables -> clearCache(),
+                RepositoryConstants.TABLE_CURRENCIES, RepositoryConstants.TABLE_CURRENCY_RATES);
+    }
+
+    /**
+     * Рассчитывает отчет в фоновом потоке после первой загрузки снимка
+     * Поток пула не ждет загрузку: расчет ставится в пул только после завершения whenLoaded(),
+     * иначе ожидающие отчеты могли бы занять все потоки пула, в котором грузится сам снимок
+     * @param period период
+     * @param baseDate базовая дата периода
+     * @param bucket интервал временного ряда
+     * @param topN размер топов категорий и описаний
+     * @param displayCurrencyId ID валюты, в которой считаются суммы отчета
+     * @return future с отчетом (null при ошибке)
+     */
+    public CompletableFuture<StatisticsReport> getReportAsync(OperationPeriod period, LocalDate baseDate,
+                                                              StatisticsBucket bucket, int topN,
+                                                              int displayCurrencyId) {
+        return snapshot.whenLoaded()
+            .thenApplyAsync(v -> getReport(period, baseDate, bucket, topN, displayCurrencyId),
+                    ThreadManager.getExecutor())
+            .exceptionally(e -> {
+                Log.e(TAG, AnalyticsConstants.MSG_STATISTICS_ERROR + e.getMessage(), e);
+                return null;
+            });
+    }
+
+    /**
+     * Рассчитывает отчет по текущему состоянию снимка (синхронно, без ожидания загрузки)
+     * До первой загрузки снимка отчет пустой; дождаться загрузки - через getReportAsync
+     * @param period период
+     * @param baseDate базовая дата периода
+     * @param bucket интервал временного ряда
+     * @param topN размер топов категорий и описаний
+     * @param displayCurrencyId ID валюты, в которой считаются суммы отчета
+     * @return отчет
+     */
+    public StatisticsReport getReport(OperationPeriod period, LocalDate baseDate, StatisticsBucket bucket, int topN,
+                                      int displayCurrencyId) {
+        LocalDate startDate = period.getStartDate(baseDate);
+        LocalDate endDate = period.getEndDate(baseDate);
+        String key = period + "|" + startDate + "|" + endDate + "|" + bucket + "|" + topN + "|" + displayCurrencyId;
+
+        long version = snapshot.getVersion();
+        synchronized (cache) {
+            StatisticsReport cached = cache.get(key);
+            if (cached != null && cached.getVersion() == version) {
+                return cached;
+            }
+        }
+
+        long startMs = System.currentTimeMillis();
+        StatisticsReport report = compute(version, period, startDate, endDate, bucket, topN, displayCurrencyId);
+        // Если снимок обновился во время расчета, отчет мог не увидеть часть строк - не кэшируем
+        if (snapshot.getVersion() == version) {
+            synchronized (cache) {
+                cache.put(key, report);
+            }
+        }
+        Log.d(TAG, String.format(AnalyticsConstants.MSG_STATISTICS_COMPUTED, key, System.currentTimeMillis() - startMs));
+        return report;
+    }
+
+    /**
+     * Очищает кэш отчетов
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Один проход по снимку с накоплением всех частей отчета
+     */
+    private StatisticsReport compute(long version, OperationPeriod period, LocalDate startDate, LocalDate endDate,
+                                     StatisticsBucket bucket, int topN, int displayCurrencyId) {
+        int fromDay = (int) startDate.toEpochDay();
+        int toDay = (int) endDate.toEpochDay();
+        if (period == OperationPeriod.ALL_TIME) {
+            // "Все время" ограничено датами 1900-2100 - сужаем до фактических дат операций
+            int[] days = snapshot.keyRange(OperationSnapshot.Dimension.DAY);
+            if (days != null) {
+                fromDay = Math.max(fromDay, days[0]);
+                toDay = Math.max(fromDay, Math.min(toDay, days[1]));
+            } else {
+                fromDay = toDay = (int) LocalDate.now().toEpochDay();
+            }
+        }
+
+        final int firstBucket = bucket.numberOf(fromDay);
+        final int firstMonth = OperationSnapshot.epochMonth(fromDay);
+        final int months = OperationSnapshot.epochMonth(toDay) - firstMonth + 1;
+        final int categories = upperBound(OperationSnapshot.Dimension.CATEGORY);
+        final int descriptions = upperBound(OperationSnapshot.Dimension.DESCRIPTION);
+        final double[][] rates = monthlyRates(firstMonth, months, toDay, displayCurrencyId);
+
+        final long[] income = new long[bucket.numberOf(toDay) - firstBucket + 1];
+        final long[] expense = new long[income.length];
+        final long[] pivot = new long[categories * months];
+        final long[][] categoryTotals = new long[2][categories];
+        final int[][] categoryCounts = new int[2][categories];
+        final long[][] descriptionTotals = new long[2][descriptions];
+        final int[][] descriptionCounts = new int[2][descriptions];
+
+        OperationSnapshot.Filter filter = new OperationSnapshot.Filter()
+                .period(LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay));
+        snapshot.forEach(filter, (amount, epochDay, categoryId, accountId, currencyId, type, descriptionId) -> {
+            int side;
+            if (type == ModelConstants.OPERATION_TYPE_EXPENSE) {
+                side = SIDE_EXPENSE;
+            } else if (type == ModelConstants.OPERATION_TYPE_INCOME) {
+                side = SIDE_INCOME;
+            } else {
+                return;
+            }
+            long value = currencyId < rates.length
+                    ? Math.round(amount * rates[currencyId][OperationSnapshot.epochMonth(epochDay) - firstMonth])
+                    : amount;
+
+            int bucketIndex = bucket.numberOf(epochDay) - firstBucket;
+            if (side == SIDE_EXPENSE) {
+                expense[bucketIndex] += value;
+            } else {
+                income[bucketIndex] += value;
+            }
+            // Ключи за границами - строки, добавленные после расчета границ; версия отчета это учтет
+            if (categoryId < categories) {
+                pivot[categoryId * months + OperationSnapshot.epochMonth(epochDay) - firstMonth] += value;
+                categoryTotals[side][categoryId] += value;
+                categoryCounts[side][categoryId]++;
+            }
+            if (descriptionId < descriptions) {
+                descriptionTotals[side][descriptionId] += value;
+                descriptionCounts[side][descriptionId]++;
+            }
+        });
+
+        // Строки сводной таблицы - категории с оборотом, по убыванию суммы
+        List<PivotRow> rows = new ArrayList<>();
+        for (int categoryId = 0; categoryId < categories; categoryId++) {
+            long total = categoryTotals[SIDE_EXPENSE][categoryId] + categoryTotals[SIDE_INCOME][categoryId];
+            if (categoryCounts[SIDE_EXPENSE][categoryId] + categoryCounts[SIDE_INCOME][categoryId] > 0) {
+                rows.add(new PivotRow(categoryId, total));
+            }
+        }
+        rows.sort((a, b) -> Long.compare(b.total, a.total));
+        int[] pivotCategoryIds = new int[rows.size()];
+        long[] pivotValues = new long[rows.size() * months];
+        for (int row = 0; row < rows.size(); row++) {
+            int categoryId = rows.get(row).key;
+            pivotCategoryIds[row] = categoryId;
+            System.arraycopy(pivot, categoryId * months, pivotValues, row * months, months);
+        }
+
+        return new StatisticsReport(version, LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay),
+                bucket, firstBucket, income, expense,
+                firstMonth, months, pivotCategoryIds, pivotValues,
+                top(categoryTotals[SIDE_INCOME], categoryCounts[SIDE_INCOME], topN, false),
+                top(categoryTotals[SIDE_EXPENSE], categoryCounts[SIDE_EXPENSE], topN, false),
+                top(descriptionTotals[SIDE_INCOME], descriptionCounts[SIDE_INCOME], topN, true),
+                top(descriptionTotals[SIDE_EXPENSE], descriptionCounts[SIDE_EXPENSE], topN, true));
+    }
+
+    /**
+     * Выбирает topN ключей с наибольшей суммой (частичный выбор без сортировки всех ключей)
+     * @param withLabels true - ключи являются ID описаний (пустое описание пропускается)
+     */
+    private List<StatisticsReport.TopEntry> top(long[] totals, int[] counts, int topN, boolean withLabels) {
+        List<StatisticsReport.TopEntry> result = new ArrayList<>(topN);
+        boolean[] taken = new boolean[totals.length];
+        int first = withLabels ? 1 : 0;
+        for (int n = 0; n < topN; n++) {
+            int best = -1;
+            for (int key = first; key < totals.length; key++) {
+                if (!taken[key] && counts[key] > 0 && (best < 0 || totals[key] > totals[best])) {
+                    best = key;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            taken[best] = true;
+            String label = withLabels ? snapshot.getDescription(best) : null;
+            result.add(new StatisticsReport.TopEntry(best, label, totals[best], counts[best]));
+        }
+        return result;
+    }
+
+    /**
+     * Размер плотного массива для ключей измерения (наибольший ключ + 1)
+     */
+    private int upperBound(OperationSnapshot.Dimension dimension) {
+        int[] range = snapshot.keyRange(dimension);
+        return range == null ? 0 : range[1] + 1;
+    }
+
+    /**
+     * Кросс-курсы валют к валюте отображения по ID валюты и месяцу периода
+     * Курс месяца - действовавший в последний день месяца (но не позже конца периода),
+     * поэтому в проходе по строкам курс не ищется, а берется из таблицы.
+     * Если курс одной из валют неизвестен, курс 1.0 - сумма не пересчитывается
+     */
+    private double[][] monthlyRates(int firstMonth, int months, int toDay, int displayCurrencyId) {
+        CurrencyRateTimeline timeline = currencyRates.getTimeline();
+        int maxId = upperBound(OperationSnapshot.Dimension.CURRENCY);
+        double[][] rates = new double[maxId][months];
+        for (int currencyId = 0; currencyId < maxId; currencyId++) {
+            for (int month = 0; month < months; month++) {
+                int monthEnd = (int) OperationSnapshot.toYearMonth(firstMonth + month).atEndOfMonth().toEpochDay();
+                rates[currencyId][month] = timeline.crossRateAt(currencyId, displayCurrencyId, Math.min(monthEnd, toDay));
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Категория с итоговой суммой для сортировки строк сводной таблицы
+     */
+    private static final class PivotRow {
+        final int key;
+        final long total;
+
+        PivotRow(int key, long total) {
+            this.key = key;
+            this.total = total;
+        }
+    }
+}
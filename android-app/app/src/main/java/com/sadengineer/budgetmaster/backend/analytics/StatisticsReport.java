@@ -0,0 +1,201 @@
+package com.sadengineer.budgetmaster.backend.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Результат расчета статистики за период (неизменяемый)
+ * Все суммы в копейках отображаемой валюты; переводы между счетами не учитываются.
+ * Содержит:
+ * - временной ряд доходов и расходов по интервалам StatisticsBucket;
+ * - сводную таблицу категория × месяц (строки отсортированы по убыванию суммы);
+ * - топ категорий и описаний отдельно для доходов и расходов.
+ */
+public final class StatisticsReport {
+
+    /**
+     * Элемент топа (категория или описание)
+     */
+    public static final class TopEntry {
+        private final int key;
+        private final String label;
+        private final long amount;
+        private final int count;
+
+        TopEntry(int key, String label, long amount, int count) {
+            this.key = key;
+            this.label = label;
+            this.amount = amount;
+            this.count = count;
+        }
+
+        /** ID категории или ID описания в словаре снимка */
+        public int getKey() {
+            return key;
+        }
+
+        /** Описание (для топа описаний) или null (для топа категорий) */
+        public String getLabel() {
+            return label;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private final long version;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    // Временной ряд
+    private final StatisticsBucket bucket;
+    private final int firstBucket;
+    private final long[] income;
+    private final long[] expense;
+    private final long totalIncome;
+    private final long totalExpense;
+
+    // Категория × месяц: values[row * months + column]
+    private final int firstMonth;
+    private final int months;
+    private final int[] pivotCategoryIds;
+    private final long[] pivotValues;
+
+    // Топы
+    private final List<TopEntry> topIncomeCategories;
+    private final List<TopEntry> topExpenseCategories;
+    private final List<TopEntry> topIncomeDescriptions;
+    private final List<TopEntry> topExpenseDescriptions;
+
+    StatisticsReport(long version, LocalDate startDate, LocalDate endDate,
+                     StatisticsBucket bucket, int firstBucket, long[] income, long[] expense,
+                     int firstMonth, int months, int[] pivotCategoryIds, long[] pivotValues,
+                     List<TopEntry> topIncomeCategories, List<TopEntry> topExpenseCategories,
+                     List<TopEntry> topIncomeDescriptions, List<TopEntry> topExpenseDescriptions) {
+        this.version = version;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.bucket = bucket;
+        this.firstBucket = firstBucket;
+        this.income = income;
+        this.expense = expense;
+        this.firstMonth = firstMonth;
+        this.months = months;
+        this.pivotCategoryIds = pivotCategoryIds;
+        this.pivotValues = pivotValues;
+        this.topIncomeCategories = Collections.unmodifiableList(topIncomeCategories);
+        this.topExpenseCategories = Collections.unmodifiableList(topExpenseCategories);
+        this.topIncomeDescriptions = Collections.unmodifiableList(topIncomeDescriptions);
+        this.topExpenseDescriptions = Collections.unmodifiableList(topExpenseDescriptions);
+
+        long incomeSum = 0;
+        long expenseSum = 0;
+        for (int i = 0; i < income.length; i++) {
+            incomeSum += income[i];
+            expenseSum += expense[i];
+        }
+        this.totalIncome = incomeSum;
+        this.totalExpense = expenseSum;
+    }
+
+    /** Версия снимка операций, по которой построен отчет */
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public long getTotalIncome() {
+        return totalIncome;
+    }
+
+    public long getTotalExpense() {
+        return totalExpense;
+    }
+
+    // ========== Временной ряд ==========
+
+    public StatisticsBucket getBucket() {
+        return bucket;
+    }
+
+    public int getBucketCount() {
+        return income.length;
+    }
+
+    /**
+     * Дата начала интервала ряда
+     * @param index индекс интервала (0..getBucketCount()-1)
+     * @return первый день интервала
+     */
+    public LocalDate getBucketStart(int index) {
+        return bucket.startOf(firstBucket + index);
+    }
+
+    public long getIncome(int index) {
+        return income[index];
+    }
+
+    public long getExpense(int index) {
+        return expense[index];
+    }
+
+    // ========== Категория × месяц ==========
+
+    public int getPivotCategoryCount() {
+        return pivotCategoryIds.length;
+    }
+
+    public int getPivotCategoryId(int row) {
+        return pivotCategoryIds[row];
+    }
+
+    public int getPivotMonthCount() {
+        return months;
+    }
+
+    public YearMonth getPivotMonth(int column) {
+        return OperationSnapshot.toYearMonth(firstMonth + column);
+    }
+
+    /**
+     * Сумма категории за месяц
+     * @param row строка (категория)
+     * @param column столбец (месяц)
+     * @return сумма в копейках отображаемой валюты
+     */
+    public long getPivotValue(int row, int column) {
+        return pivotValues[row * months + column];
+    }
+
+    // ========== Топы ==========
+
+    public List<TopEntry> getTopIncomeCategories() {
+        return topIncomeCategories;
+    }
+
+    public List<TopEntry> getTopExpenseCategories() {
+        return topExpenseCategories;
+    }
+
+    public List<TopEntry> getTopIncomeDescriptions() {
+        return topIncomeDescriptions;
+    }
+
+    public List<TopEntry> getTopExpenseDescriptions() {
+        return topExpenseDescriptions;
+    }
+}
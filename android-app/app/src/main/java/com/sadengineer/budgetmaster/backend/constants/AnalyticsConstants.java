@@ -0,0 +1,55 @@
+package com.sadengineer.budgetmaster.backend.constants;
+
+/**
+ * Константы аналитики
+ * Содержит параметры колоночного снимка операций и сообщения для логирования
+ */
+public class AnalyticsConstants {
+
+    // ========================================
+    // КОЛОНОЧНЫЙ СНИМОК ОПЕРАЦИЙ
+    // ========================================
+
+    /**
+     * Тип строки снимка для переводов между счетами
+     * Доходы и расходы хранят ModelConstants.OPERATION_TYPE_*
+     */
+    public static final byte SNAPSHOT_TYPE_TRANSFER = 0;
+
+    /** Начальная емкость колонок снимка */
+    public static final int SNAPSHOT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * Число строк, начиная с которого группировка делится между потоками ForkJoinPool
+     * На меньших объемах накладные расходы на задачи больше выигрыша
+     */
+    public static final int SNAPSHOT_PARALLEL_THRESHOLD = 50_000;
+
+    /**
+     * Запас по времени при выборке изменений с прошлого обновления (мс)
+     * Строки, попавшие в запас дважды, применяются повторно без вреда
+     */
+    public static final long SNAPSHOT_DELTA_OVERLAP_MS = 1_000;
+
+    // ========================================
+    // СТАТИСТИКА
+    // ========================================
+
+    /** Количество отчетов статистики в кэше (по ключу запроса) */
+    public static final int STATISTICS_CACHE_SIZE = 16;
+
+    /** Размер топов категорий и описаний по умолчанию */
+    public static final int STATISTICS_DEFAULT_TOP_N = 5;
+
+    // ========================================
+    // СООБЩЕНИЯ ДЛЯ ЛОГИРОВАНИЯ
+    // ========================================
+
+    public static final String MSG_SNAPSHOT_LOADED = "Снимок операций загружен: %d строк за %d мс";
+    public static final String MSG_SNAPSHOT_DELTA_APPLIED = "Снимок операций обновлен: изменено %d, удалено %d, строк %d";
+    public static final String MSG_SNAPSHOT_DELTA_MISMATCH = "Снимок операций расходится с БД (%d против %d), полная перезагрузка";
+    public static final String MSG_SNAPSHOT_REFRESH_ERROR = "Ошибка обновления снимка операций: ";
+    public static final String MSG_STATISTICS_COMPUTED = "Статистика %s рассчитана за %d мс";
+    public static final String MSG_STATISTICS_ERROR = "Ошибка расчета статистики: ";
+
+}
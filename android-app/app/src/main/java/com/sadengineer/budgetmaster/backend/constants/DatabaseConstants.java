@@ -12,6 +12,59 @@ public class DatabaseConstants {
     // Путь к базе данных
     public static final String DATABASE_PATH = "budget_master.db";
     
+    // Версия схемы базы данных (BudgetMasterDatabase, DatabaseMigrations)
+    public static final int DATABASE_VERSION = 7;
+    
+    // ========================================
+    // ПРОФИЛИ ПРОИЗВОДИТЕЛЬНОСТИ
+    // ========================================
+    
+    // Профиль по умолчанию (DatabasePerformanceProfile)
+    public static final String DEFAULT_PERFORMANCE_PROFILE = "balanced";
+    
+    public static final String MSG_PROFILE_APPLIED = "Применен профиль производительности: %s, фактически: %s";
+    public static final String MSG_PROFILE_ERROR = "Ошибка применения профиля производительности: ";
+    
+    // ========================================
+    // ФАЗЫ ЗАПУСКА
+    // ========================================
+    
+    public static final String PHASE_CHECK_FILE = "check_file";
+    public static final String PHASE_OPEN = "open";
+    public static final String PHASE_SEED = "seed";
+    public static final String PHASE_STATISTICS = "statistics";
+    public static final String PHASE_WARM_UP = "warm_up";
+    public static final String PHASE_VERIFY_BALANCES = "verify_balances";
+    
+    public static final String MSG_WARM_UP_COMPLETE = "Прогрев кэшей завершен: %d валют, %d сумм за месяц";
+    public static final String MSG_WARM_UP_ERROR = "Ошибка прогрева кэшей: ";
+    public static final String MSG_STARTUP_TRACE = "Трасса запуска БД: ";
+    
+    // ========================================
+    // ШИНА ИЗМЕНЕНИЙ БАЗЫ ДАННЫХ
+    // ========================================
+    
+    // Окно объединения инвалидаций таблиц (примерно один кадр), мс
+    public static final long CHANGE_BUS_DEBOUNCE_MS = 16;
+    
+    public static final String MSG_CHANGE_BUS_REGISTERED = "Шина изменений подписана на InvalidationTracker";
+    public static final String MSG_CHANGE_BUS_DISPATCH = "Изменены таблицы: %s, подписчиков: %d";
+    public static final String MSG_CHANGE_BUS_LISTENER_ERROR = "Ошибка в подписчике шины изменений: ";
+    public static final String MSG_QUERY_ERROR = "Ошибка фонового запроса: ";
+    
+    // ========================================
+    // ОБСЛУЖИВАНИЕ ФАЙЛА БАЗЫ ДАННЫХ
+    // ========================================
+    
+    // Значение PRAGMA auto_vacuum для режима INCREMENTAL
+    public static final int AUTO_VACUUM_INCREMENTAL = 2;
+    
+    // Сколько свободных страниц возвращать системе за один шаг incremental_vacuum
+    public static final int VACUUM_PAGES_PER_STEP = 256;
+    
+    public static final String MSG_AUTO_VACUUM_ENABLED = "Включен auto_vacuum=INCREMENTAL (выполнен VACUUM)";
+    public static final String MSG_VACUUM_COMPLETE = "incremental_vacuum: освобождено страниц %d";
+    
     // ========================================
     // СООБЩЕНИЯ ДЛЯ DATABASE MANAGER
     // ========================================
@@ -14,5 +14,264 @@ public class RepositoryConstants {
     public static final String TABLE_CATEGORIES = "categories";
     public static final String TABLE_CURRENCIES = "currencies";
     public static final String TABLE_OPERATIONS = "operations";
+    public static final String TABLE_BALANCE_CHECKPOINTS = "balance_checkpoints";
+    public static final String TABLE_OPERATIONS_SEARCH = "operations_fts";
+    public static final String TABLE_SYNC_CHANGES = "sync_changes";
+    public static final String TABLE_CURRENCY_RATES = "currency_rates";
 
-} 
\ No newline at end of file
+    // ========================================
+    // ПАКЕТНЫЕ ЗАПИСИ
+    // ========================================
+
+    // Размер пачки ID в одном UPDATE ... WHERE id IN (...)
+    // (лимит SQLite - 999 параметров, часть запросов использует список дважды)
+    public static final int BULK_WRITE_CHUNK_SIZE = 400;
+
+    // ========================================
+    // SQL ЖУРНАЛА БАЛАНСОВ СЧЕТОВ
+    // ========================================
+
+    /**
+     * Изменение баланса счета-источника операцией (псевдоним таблицы операций - o)
+     * Доход +amount, расход -amount, перевод -amount
+     */
+    public static final String SQL_OPERATION_SOURCE_DELTA =
+            "CASE " +
+            "WHEN o.toAccountId IS NOT NULL THEN -o.amount " +
+            "WHEN o.type = " + ModelConstants.OPERATION_TYPE_INCOME + " THEN o.amount " +
+            "WHEN o.type = " + ModelConstants.OPERATION_TYPE_EXPENSE + " THEN -o.amount " +
+            "ELSE 0 END";
+
+    /**
+     * Изменение баланса счета-получателя перевода (псевдоним таблицы операций - o)
+     * +toAmount (или +amount, если toAmount не задан)
+     */
+    public static final String SQL_OPERATION_TARGET_DELTA = "COALESCE(o.toAmount, o.amount)";
+
+    /**
+     * Сумма изменений баланса счета по активным операциям (коррелирует с accounts.id)
+     */
+    public static final String SQL_ACCOUNT_LEDGER_SUM =
+            "COALESCE((SELECT SUM(" + SQL_OPERATION_SOURCE_DELTA + ") " +
+            "FROM " + TABLE_OPERATIONS + " o WHERE o.accountId = " + TABLE_ACCOUNTS + ".id AND o.deleteTime IS NULL), 0) + " +
+            "COALESCE((SELECT SUM(" + SQL_OPERATION_TARGET_DELTA + ") " +
+            "FROM " + TABLE_OPERATIONS + " o WHERE o.toAccountId = " + TABLE_ACCOUNTS + ".id AND o.deleteTime IS NULL), 0)";
+
+    // ========================================
+    // SQL АНАЛИТИЧЕСКОГО СНИМКА ОПЕРАЦИЙ
+    // ========================================
+
+    /**
+     * Номер дня от 1970-01-01 по дате операции (без разбора строки на стороне Java)
+     */
+    public static final String SQL_OPERATION_EPOCH_DAY =
+            "CAST(julianday(substr(operationDate, 1, 10)) - 2440587.5 AS INTEGER)";
+
+    /**
+     * Колонки строки снимка: id, amount, epochDay, categoryId, accountId, currencyId, type, description
+     * Переводы получают тип AnalyticsConstants.SNAPSHOT_TYPE_TRANSFER (0)
+     */
+    public static final String SQL_SNAPSHOT_COLUMNS =
+            "id, amount, " + SQL_OPERATION_EPOCH_DAY + " AS epochDay, categoryId, accountId, currencyId, " +
+            "CASE WHEN toAccountId IS NOT NULL THEN 0 ELSE type END AS type, description";
+
+    // ========================================
+    // SQL ВЫГРУЗКИ ДАННЫХ
+    // ========================================
+    // Колонки и их порядок повторяют файлы resorses/*.csv; поля схемы, которых там нет,
+    // добавлены в конец. Даты выгружаются в формате yyyy-MM-dd HH:mm:ss.
+
+    /**
+     * Общие колонки сущностей: id и поля аудита
+     */
+    public static final String SQL_EXPORT_BASE_COLUMNS =
+            "id, " +
+            "replace(substr(createTime, 1, 19), 'T', ' ') AS createTime, " +
+            "replace(substr(updateTime, 1, 19), 'T', ' ') AS updateTime, " +
+            "replace(substr(deleteTime, 1, 19), 'T', ' ') AS deleteTime, " +
+            "createdBy, updatedBy, deletedBy";
+
+    public static final String SQL_EXPORT_CURRENCY_COLUMNS =
+            SQL_EXPORT_BASE_COLUMNS + ", position, title, shortName, exchangeRate";
+
+    public static final String SQL_EXPORT_ACCOUNT_COLUMNS =
+            SQL_EXPORT_BASE_COLUMNS + ", position, title, amount, type, currencyId, closed, " +
+            "creditCardLimit, creditCardCategoryId, creditCardCommissionCategoryId, openingAmount";
+
+    public static final String SQL_EXPORT_CATEGORY_COLUMNS =
+            SQL_EXPORT_BASE_COLUMNS + ", position, title, operationType, type, parentId";
+
+    public static final String SQL_EXPORT_BUDGET_COLUMNS =
+            SQL_EXPORT_BASE_COLUMNS + ", amount, currencyId, categoryId, position";
+
+    /**
+     * Колонки операций: date и comment - имена из resorses/operations.csv
+     */
+    public static final String SQL_EXPORT_OPERATION_COLUMNS =
+            "id, replace(substr(operationDate, 1, 19), 'T', ' ') AS date, amount, description AS comment, " +
+            "categoryId, accountId, currencyId, type, toAccountId, toCurrencyId, toAmount, " +
+            "replace(substr(createTime, 1, 19), 'T', ' ') AS createTime, " +
+            "replace(substr(updateTime, 1, 19), 'T', ' ') AS updateTime, " +
+            "replace(substr(deleteTime, 1, 19), 'T', ' ') AS deleteTime, " +
+            "createdBy, updatedBy, deletedBy";
+
+    // ========================================
+    // SQL ПОЛНОТЕКСТОВОГО ПОИСКА
+    // ========================================
+
+    // Наибольшее число слов запроса, превращаемых в условия MATCH
+    public static final int SEARCH_MAX_TERMS = 8;
+
+    /**
+     * Текст для индекса: unicode61 снимает диакритику только с латиницы,
+     * поэтому "ё" приводится к "е" заранее (запрос приводится так же - SearchQueryBuilder)
+     */
+    private static String searchText(String column) {
+        return "replace(replace(" + column + ", 'ё', 'е'), 'Ё', 'Е')";
+    }
+
+    /**
+     * Строка индекса для операции NEW: описание и названия категории и счета
+     */
+    private static final String SQL_SEARCH_INSERT_NEW =
+            "INSERT INTO " + TABLE_OPERATIONS_SEARCH + "(rowid, description, categoryTitle, accountTitle) VALUES (NEW.id, " +
+            searchText("NEW.description") + ", " +
+            "(SELECT " + searchText("title") + " FROM " + TABLE_CATEGORIES + " WHERE id = NEW.categoryId), " +
+            "(SELECT " + searchText("title") + " FROM " + TABLE_ACCOUNTS + " WHERE id = NEW.accountId)); ";
+
+    /**
+     * Триггеры, поддерживающие индекс в актуальном состоянии
+     * Создаются при создании базы и в миграции 3 -> 4
+     */
+    public static final String[] SQL_SEARCH_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS operations_fts_ai AFTER INSERT ON " + TABLE_OPERATIONS + " BEGIN " +
+            SQL_SEARCH_INSERT_NEW + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS operations_fts_au AFTER UPDATE OF description, categoryId, accountId ON " +
+            TABLE_OPERATIONS + " BEGIN " +
+            "DELETE FROM " + TABLE_OPERATIONS_SEARCH + " WHERE rowid = OLD.id; " +
+            SQL_SEARCH_INSERT_NEW + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS operations_fts_ad AFTER DELETE ON " + TABLE_OPERATIONS + " BEGIN " +
+            "DELETE FROM " + TABLE_OPERATIONS_SEARCH + " WHERE rowid = OLD.id; END",
+
+            "CREATE TRIGGER IF NOT EXISTS categories_fts_au AFTER UPDATE OF title ON " + TABLE_CATEGORIES + " BEGIN " +
+            "UPDATE " + TABLE_OPERATIONS_SEARCH + " SET categoryTitle = " + searchText("NEW.title") + " WHERE rowid IN " +
+            "(SELECT id FROM " + TABLE_OPERATIONS + " WHERE categoryId = NEW.id); END",
+
+            "CREATE TRIGGER IF NOT EXISTS accounts_fts_au AFTER UPDATE OF title ON " + TABLE_ACCOUNTS + " BEGIN " +
+            "UPDATE " + TABLE_OPERATIONS_SEARCH + " SET accountTitle = " + searchText("NEW.title") + " WHERE rowid IN " +
+            "(SELECT id FROM " + TABLE_OPERATIONS + " WHERE accountId = NEW.id); END"
+    };
+
+    /**
+     * Полное заполнение индекса по существующим операциям
+     */
+    public static final String SQL_SEARCH_REBUILD =
+            "INSERT INTO " + TABLE_OPERATIONS_SEARCH + "(rowid, description, categoryTitle, accountTitle) " +
+            "SELECT o.id, " + searchText("o.description") + ", " + searchText("c.title") + ", " + searchText("a.title") + " FROM " + TABLE_OPERATIONS + " o " +
+            "LEFT JOIN " + TABLE_CATEGORIES + " c ON c.id = o.categoryId " +
+            "LEFT JOIN " + TABLE_ACCOUNTS + " a ON a.id = o.accountId";
+
+    /**
+     * Ранжирование совпадений (псевдоним таблицы операций - o): сначала совпадения
+     * в описании, затем более свежие операции. В FTS4 нет встроенного bm25
+     */
+    public static final String SQL_SEARCH_ORDER =
+            "(o.id IN (SELECT rowid FROM " + TABLE_OPERATIONS_SEARCH + " WHERE description MATCH :match)) DESC, " +
+            "o.operationDate DESC, o.id DESC";
+
+    // ========================================
+    // SQL ЖУРНАЛА ИЗМЕНЕНИЙ ДЛЯ СИНХРОНИЗАЦИИ
+    // ========================================
+
+    /**
+     * Синхронизируемые таблицы в порядке внешних ключей (родители раньше детей)
+     * Контрольные точки баланса и индекс поиска производные и не синхронизируются
+     */
+    public static final String[] SYNC_TABLES = {
+            TABLE_CURRENCIES, TABLE_ACCOUNTS, TABLE_CATEGORIES, TABLE_BUDGETS, TABLE_OPERATIONS
+    };
+
+    /**
+     * Запись строки в журнал изменений: прежняя запись той же строки удаляется,
+     * поэтому в журнале не больше одной записи на строку, а ее seq - последний
+     */
+    private static String syncLogRow(String table, String rowId) {
+        return "DELETE FROM " + TABLE_SYNC_CHANGES + " WHERE tableName = '" + table + "' AND rowId = " + rowId + "; " +
+               "INSERT INTO " + TABLE_SYNC_CHANGES + "(tableName, rowId, changeTime) VALUES ('" + table + "', " + rowId + ", " +
+               "strftime('%Y-%m-%dT%H:%M:%S', 'now', 'localtime')); ";
+    }
+
+    /**
+     * Триггеры журнала изменений для синхронизируемых таблиц
+     * Изменение записывается, только если изменилось время обновления или удаления:
+     * производные поля (баланс счета по журналу, позиции при сдвиге) не попадают в журнал
+     */
+    public static final String[] SQL_SYNC_TRIGGERS = buildSyncTriggers();
+
+    private static String[] buildSyncTriggers() {
+        String[] triggers = new String[SYNC_TABLES.length * 3];
+        int i = 0;
+        for (String table : SYNC_TABLES) {
+            triggers[i++] = "CREATE TRIGGER IF NOT EXISTS " + table + "_sync_ai AFTER INSERT ON " + table + " BEGIN " +
+                    syncLogRow(table, "NEW.id") + "END";
+            triggers[i++] = "CREATE TRIGGER IF NOT EXISTS " + table + "_sync_au AFTER UPDATE ON " + table + " " +
+                    "WHEN NEW.updateTime IS NOT OLD.updateTime OR NEW.deleteTime IS NOT OLD.deleteTime BEGIN " +
+                    syncLogRow(table, "NEW.id") + "END";
+            triggers[i++] = "CREATE TRIGGER IF NOT EXISTS " + table + "_sync_ad AFTER DELETE ON " + table + " BEGIN " +
+                    syncLogRow(table, "OLD.id") + "END";
+        }
+        return triggers;
+    }
+
+    /**
+     * Заполнение журнала всеми существующими строками таблицы (первая синхронизация
+     * после обновления схемы отправляет все данные)
+     */
+    public static String syncSeedSql(String table) {
+        return "INSERT INTO " + TABLE_SYNC_CHANGES + "(tableName, rowId, changeTime) " +
+               "SELECT '" + table + "', id, COALESCE(updateTime, createTime) FROM " + table + " ORDER BY id";
+    }
+
+    // ========================================
+    // SQL ИСТОРИИ КУРСОВ ВАЛЮТ
+    // ========================================
+
+    /**
+     * Текущий день от 1970-01-01 по локальному времени устройства
+     */
+    private static final String SQL_TODAY_EPOCH_DAY =
+            "CAST(julianday('now', 'localtime', 'start of day') - 2440587.5 AS INTEGER)";
+
+    /**
+     * Курс валюты NEW, действующий с сегодняшнего дня (повторное изменение в тот же день
+     * заменяет курс дня)
+     */
+    private static final String SQL_CURRENCY_RATE_FROM_TODAY =
+            "INSERT OR REPLACE INTO " + TABLE_CURRENCY_RATES + "(currencyId, validFromEpochDay, rate) " +
+            "VALUES (NEW.id, " + SQL_TODAY_EPOCH_DAY + ", NEW.exchangeRate); ";
+
+    /**
+     * Триггеры, записывающие каждое изменение курса валюты в историю курсов
+     * Курс меняется любым путем (редактирование, смена отображаемой валюты, синхронизация),
+     * поэтому история ведется в базе, а не в сервисе
+     */
+    public static final String[] SQL_CURRENCY_RATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS currencies_rate_ai AFTER INSERT ON " + TABLE_CURRENCIES + " " +
+            "WHEN NEW.exchangeRate > 0 BEGIN " + SQL_CURRENCY_RATE_FROM_TODAY + "END",
+
+            "CREATE TRIGGER IF NOT EXISTS currencies_rate_au AFTER UPDATE OF exchangeRate ON " + TABLE_CURRENCIES + " " +
+            "WHEN NEW.exchangeRate > 0 AND NEW.exchangeRate IS NOT OLD.exchangeRate BEGIN " +
+            SQL_CURRENCY_RATE_FROM_TODAY + "END"
+    };
+
+    /**
+     * Начальная история: текущий курс каждой валюты действует с 1970-01-01
+     * (до появления истории все операции пересчитывались по текущему курсу)
+     */
+    public static final String SQL_CURRENCY_RATE_SEED =
+            "INSERT OR IGNORE INTO " + TABLE_CURRENCY_RATES + "(currencyId, validFromEpochDay, rate) " +
+            "SELECT id, 0, exchangeRate FROM " + TABLE_CURRENCIES + " WHERE exchangeRate > 0";
+
+}
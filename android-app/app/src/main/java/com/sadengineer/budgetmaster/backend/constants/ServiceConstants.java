@@ -35,14 +35,53 @@ public class ServiceConstants {
     public static final String MSG_SOFT_DELETE_OPERATION_SUCCESS = "Операция успешно soft deleted";
     public static final String MSG_SOFT_DELETE_OPERATION_ERROR = "Ошибка при soft delete операции %s: ";
 
+    // Пакетные soft delete и восстановление операций
+    public static final String MSG_BULK_SOFT_DELETE_OPERATIONS_REQUEST = "Запрос на пакетный softDelete операций: %d";
+    public static final String MSG_BULK_SOFT_DELETE_OPERATIONS_SUCCESS = "Пакетно soft deleted операций: %d";
+    public static final String MSG_BULK_SOFT_DELETE_OPERATIONS_ERROR = "Ошибка при пакетном soft delete операций: ";
+    public static final String MSG_BULK_RESTORE_OPERATIONS_REQUEST = "Запрос на пакетное восстановление операций: %d";
+    public static final String MSG_BULK_RESTORE_OPERATIONS_SUCCESS = "Пакетно восстановлено операций: %d";
+    public static final String MSG_BULK_RESTORE_OPERATIONS_ERROR = "Ошибка при пакетном восстановлении операций: ";
+
     // Обновление операции
     public static final String MSG_UPDATE_OPERATION_NOT_FOUND = "Операция не найдена для обновления. Обновление было отменено";
     public static final String MSG_UPDATE_OPERATION_REQUEST = "Запрос на обновление операции ";
     public static final String MSG_UPDATE_OPERATION_SUCCESS = "Операция успешно обновлена";
     public static final String MSG_UPDATE_OPERATION_ERROR = "Ошибка при обновлении операции %s: ";
 
+    // Кэш сумм операций по конфигурации калькулятора
+    public static final int OPERATION_TOTALS_CACHE_SIZE = 128;
+    public static final String MSG_OPERATION_TOTALS_INVALIDATED = "Сброшены суммы операций за %s (валюта %d): %d";
+
+    // Суммы операций по интервалам периода
+    public static final int BUCKET_TOTALS_MAX_BUCKETS = 5000;
+    public static final String MSG_BUCKET_TOTALS_TOO_MANY = "Слишком много интервалов для сумм по периоду: %d (%s)";
+    public static final String MSG_BUCKET_TOTALS_ERROR = "Ошибка при получении сумм по интервалам: ";
+
+    // Поиск операций
+    public static final String MSG_SEARCH_OPERATIONS_EMPTY_QUERY = "Пустой поисковый запрос, поиск не выполняется";
+
     // Тексты ошибок и сообщений
 
+    // ========================================
+    // СООБЩЕНИЯ ДЛЯ ЖУРНАЛА БАЛАНСОВ СЧЕТОВ
+    // ========================================
+
+    public static final String MSG_LEDGER_VERIFY_OK = "Сверка балансов: расхождений нет";
+    public static final String MSG_LEDGER_DRIFT_FOUND = "Сверка балансов: найдено расхождений: %d";
+    public static final String MSG_LEDGER_DRIFT = "Расхождение баланса: %s";
+    public static final String MSG_LEDGER_REPAIRED = "Балансы счетов пересчитаны по операциям";
+    public static final String MSG_LEDGER_VERIFY_ERROR = "Ошибка сверки балансов: ";
+
+    // ========================================
+    // СООБЩЕНИЯ ДЛЯ КОНТРОЛЬНЫХ ТОЧЕК БАЛАНСА
+    // ========================================
+
+    public static final String MSG_CHECKPOINTS_BACKFILL_START = "Заполнение контрольных точек баланса...";
+    public static final String MSG_CHECKPOINTS_ACCOUNT_REBUILT = "Контрольные точки счета %d пересчитаны: %d мес.";
+    public static final String MSG_CHECKPOINTS_BACKFILL_COMPLETE = "Контрольные точки заполнены для счетов: %d";
+    public static final String MSG_CHECKPOINTS_BACKFILL_ERROR = "Ошибка заполнения контрольных точек: ";
+
     // ========================================
     // СООБЩЕНИЯ ДЛЯ ACCOUNT SERVICE
     // ========================================
@@ -68,6 +107,14 @@ public class ServiceConstants {
     public static final String MSG_SOFT_DELETE_ACCOUNT_ERROR = "Ошибка при soft delete счета %s: ";
     public static final String MSG_ACCOUNT_SOFT_DELETED = "Счет %s успешно soft deleted";
 
+    // Пакетные soft delete и восстановление счетов
+    public static final String MSG_BULK_SOFT_DELETE_ACCOUNTS_REQUEST = "Запрос на пакетный softDelete счетов: %d";
+    public static final String MSG_BULK_SOFT_DELETE_ACCOUNTS_SUCCESS = "Пакетно soft deleted счетов: %d";
+    public static final String MSG_BULK_SOFT_DELETE_ACCOUNTS_ERROR = "Ошибка при пакетном soft delete счетов: ";
+    public static final String MSG_BULK_RESTORE_ACCOUNTS_REQUEST = "Запрос на пакетное восстановление счетов: %d";
+    public static final String MSG_BULK_RESTORE_ACCOUNTS_SUCCESS = "Пакетно восстановлено счетов: %d";
+    public static final String MSG_BULK_RESTORE_ACCOUNTS_ERROR = "Ошибка при пакетном восстановлении счетов: ";
+
     // Обновление счета
     public static final String MSG_UPDATE_ACCOUNT_NOT_FOUND = "Счет не найден для обновления. Обновление было отменено";
     public static final String MSG_UPDATE_ACCOUNT_REQUEST = "Запрос на обновление счета для категории %s";
@@ -185,4 +232,98 @@ public class ServiceConstants {
     public static final String MSG_DELETE_CATEGORY_WITH_BUDGET_SUCCESS = "Категория '%s' с бюджетом успешно удалена";
     public static final String MSG_DELETE_CATEGORY_WITH_BUDGET_ERROR = "Ошибка при удалении категории '%s' с бюджетом: ";
 
-}
\ No newline at end of file
+    // ========================================
+    // ВЫГРУЗКА ДАННЫХ
+    // ========================================
+
+    /** Размер буферов потока выгрузки (байт) */
+    public static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    /** Через сколько строк сообщать о прогрессе и проверять отмену выгрузки */
+    public static final int EXPORT_PROGRESS_STEP = 1000;
+
+    public static final String MSG_EXPORT_START = "Выгрузка данных (%s, сжатие: %s), строк: %d";
+    public static final String MSG_EXPORT_TABLE_DONE = "Таблица %s выгружена, строк: %d";
+    public static final String MSG_EXPORT_COMPLETE = "Выгрузка завершена: %d строк за %d мс";
+    public static final String MSG_EXPORT_CANCELLED = "Выгрузка данных отменена";
+    public static final String MSG_EXPORT_ERROR = "Ошибка выгрузки данных: ";
+
+    // ========================================
+    // ОЧИСТКА УДАЛЕННЫХ ДАННЫХ
+    // ========================================
+
+    /** Срок хранения помеченных удаленными строк по умолчанию (дней) */
+    public static final int RETENTION_DEFAULT_DAYS = 90;
+
+    /** Наименьший допустимый срок хранения (дней) */
+    public static final int RETENTION_MIN_DAYS = 1;
+
+    /** Сколько строк удалять одним запросом */
+    public static final int RETENTION_BATCH_SIZE = 500;
+
+    /** Пауза между пачками, чтобы не держать блокировку записи подряд (мс) */
+    public static final long RETENTION_BATCH_PAUSE_MS = 20;
+
+    /** Наименьший интервал между фоновыми очистками (часов) */
+    public static final long RETENTION_INTERVAL_HOURS = 24;
+
+    public static final String MSG_RETENTION_START = "Очистка удаленных данных старше %s";
+    public static final String MSG_RETENTION_COMPLETE = "Очистка удаленных данных завершена: %s";
+    public static final String MSG_RETENTION_NOT_DUE = "Очистка удаленных данных не требуется, последняя: %d мс назад";
+    public static final String MSG_RETENTION_ERROR = "Ошибка очистки удаленных данных: ";
+
+    // ========================================
+    // СИНХРОНИЗАЦИЯ
+    // ========================================
+
+    /** Сколько изменений отправлять и получать одним запросом */
+    public static final int SYNC_BATCH_SIZE = 200;
+
+    /** Тип содержимого запросов и ответов: JSON, сжатый gzip */
+    public static final String SYNC_CONTENT_TYPE = "application/gzip";
+
+    /** Таймауты соединения и чтения HTTP-транспорта (мс) */
+    public static final int SYNC_CONNECT_TIMEOUT_MS = 10_000;
+    public static final int SYNC_READ_TIMEOUT_MS = 30_000;
+
+    public static final String MSG_SYNC_START = "Синхронизация: отправлено до %d, получено до %d, ожидают отправки: %d";
+    public static final String MSG_SYNC_PUSHED = "Отправлено изменений: %d (%d байт), сервер принял: %d";
+    public static final String MSG_SYNC_PULLED = "Получено изменений: %d (%d байт), применено: %d, пропущено конфликтов: %d";
+    public static final String MSG_SYNC_COMPLETE = "Синхронизация завершена: %s";
+    public static final String MSG_SYNC_NOT_CONFIGURED = "Сервер синхронизации не настроен";
+    public static final String MSG_SYNC_ERROR = "Ошибка синхронизации: ";
+
+    // ========================================
+    // ИСТОРИЯ КУРСОВ ВАЛЮТ
+    // ========================================
+
+    public static final String MSG_CURRENCY_RATES_LOADED = "Загружена история курсов: %d записей за %d мс";
+    public static final String MSG_CURRENCY_RATE_SET = "Курс валюты %d с %s: %s";
+    public static final String MSG_CURRENCY_RATE_REMOVED = "Удален курс валюты %d с %s: %d";
+    public static final String MSG_CURRENCY_RATE_ERROR = "Ошибка изменения истории курсов: ";
+    public static final String MSG_CONVERTED_TOTALS = "Суммы с пересчетом по курсу на дату: %d групп (валюта, месяц)";
+
+    // ========================================
+    // СПРАВОЧНЫЕ ДАННЫЕ
+    // ========================================
+
+    public static final String MSG_REFERENCE_DATA_LOADED = "Снимок справочных данных %d: валют %d, счетов %d, категорий %d за %d мс";
+    public static final String MSG_REFERENCE_DATA_ERROR = "Ошибка загрузки справочных данных: ";
+
+    // ========================================
+    // ПОДСКАЗКИ ПО ОПИСАНИЮ ОПЕРАЦИИ
+    // ========================================
+
+    /** Предел числа узлов префиксного дерева подсказок (по умолчанию) */
+    public static final int SUGGESTION_MAX_NODES = 100_000;
+
+    /** Наибольшая длина начала описания, учитываемая индексом (символов) */
+    public static final int SUGGESTION_MAX_PREFIX_LENGTH = 32;
+
+    /** Количество подсказанных категорий и счетов */
+    public static final int SUGGESTION_TOP_N = 3;
+
+    public static final String MSG_SUGGESTION_INDEX_BUILT = "Индекс подсказок построен: операций %d, узлов %d за %d мс";
+    public static final String MSG_SUGGESTION_INDEX_ERROR = "Ошибка построения индекса подсказок: ";
+
+}
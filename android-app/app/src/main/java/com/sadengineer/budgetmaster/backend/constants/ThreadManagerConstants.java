@@ -16,6 +16,12 @@ public class ThreadManagerConstants {
      */
     public static final int THREAD_POOL_SIZE = 4;
 
+    /**
+     * Размер пула потоков для запросов Room (LiveData, чтение)
+     * В режиме WAL читающие соединения работают параллельно с записью
+     */
+    public static final int DATABASE_QUERY_POOL_SIZE = 4;
+
     // ========================================
     // СООБЩЕНИЯ ДЛЯ ЛОГИРОВАНИЯ
     // ========================================
@@ -23,4 +29,13 @@ public class ThreadManagerConstants {
     public static final String INFO_SHUTDOWN = "Завершение работы ThreadManager";
     public static final String INFO_SHUTDOWN_NOW = "Принудительное завершение работы ThreadManager";
 
+    // ========================================
+    // СООБЩЕНИЯ ДЛЯ IO SCHEDULER
+    // ========================================
+
+    public static final String MSG_LANE_OPENED = "Открыта очередь %s (%s)";
+    public static final String MSG_LANE_CLOSED = "Закрыта очередь %s, отменено задач: %d (%s)";
+    public static final String MSG_LANE_REJECTED = "Очередь %s закрыта, задача отклонена";
+    public static final String MSG_LANE_TASK_ERROR = "Ошибка задачи в очереди %s: ";
+
 }
@@ -1,5 +1,7 @@
 package com.sadengineer.budgetmaster.backend.dao;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -8,9 +10,12 @@ import androidx.room.Query;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.AccountBalanceDrift;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -68,6 +73,17 @@ public interface AccountDao {
            "ORDER BY CASE WHEN position = 0 THEN 1 ELSE 0 END, position ASC")
     LiveData<List<Account>> getAllByCurrency(int currencyId, EntityFilter filter);
     
+    /**
+     * Получить все счета по фильтру (синхронно)
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return список счетов
+     */
+    @Query("SELECT * FROM accounts WHERE " +
+           "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL'))")
+    List<Account> getAllSync(EntityFilter filter);
+
     /**
      * Получить все счета по ID валюты (синхронно)
      * @param currencyId ID валюты
@@ -92,6 +108,19 @@ public interface AccountDao {
            "(:filter = 'ALL')) " +
            "ORDER BY CASE WHEN position = 0 THEN 1 ELSE 0 END, position ASC")
     LiveData<List<Account>> getAllByType(int type, EntityFilter filter);
+
+    /**
+     * Получает все счета по типу по фильтру синхронно
+     * @param type тип счета
+     * @param filter фильтр (ACTIVE, DELETED, ALL)
+     * @return список счетов с указанным типом в том же порядке, что и getAllByType
+     */
+    @Query("SELECT * FROM accounts WHERE type = :type AND " +
+           "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL')) " +
+           "ORDER BY CASE WHEN position = 0 THEN 1 ELSE 0 END, position ASC")
+    List<Account> getAllByTypeSync(int type, EntityFilter filter);
     
     /**
      * Получает счет по ID (включая удаленные)
@@ -178,12 +207,127 @@ public interface AccountDao {
      * @param currencyId ID валюты
      * @param type тип счета (1 - текущие, 2 - сбережения, 3 - кредитные)
      * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
-     * @return общая сумма счетов по ID валюты, типу счета, фильтру
+     * @return общая сумма счетов по ID валюты, типу счета, фильтру (null, если счетов нет)
      */
     @Query("SELECT SUM(amount) FROM accounts WHERE currencyId = :currencyId AND type = :type AND " +
            "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
            "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
            "(:filter = 'ALL'))")
-    LiveData<Long> getTotalAmountByCurrencyAndType(int currencyId, int type, EntityFilter filter);
+    Long getTotalAmountByCurrencyAndTypeSync(int currencyId, int type, EntityFilter filter);
 
-} 
\ No newline at end of file
+    /**
+     * Помечает счета удаленными одним запросом и сбрасывает их позиции (только еще не удаленные)
+     * @param ids ID счетов
+     * @param deleteTime время удаления
+     * @param deletedBy пользователь
+     * @return количество измененных строк
+     */
+    @Query("UPDATE accounts SET position = 0, deleteTime = :deleteTime, deletedBy = :deletedBy " +
+           "WHERE id IN (:ids) AND deleteTime IS NULL")
+    int softDeleteByIds(List<Integer> ids, LocalDateTime deleteTime, String deletedBy);
+
+    /**
+     * Восстанавливает удаленные счета одним запросом
+     * @param ids ID счетов
+     * @param updateTime время изменения
+     * @param updatedBy пользователь
+     * @return количество измененных строк
+     */
+    @Query("UPDATE accounts SET deleteTime = NULL, deletedBy = NULL, updateTime = :updateTime, updatedBy = :updatedBy " +
+           "WHERE id IN (:ids) AND deleteTime IS NOT NULL")
+    int restoreByIds(List<Integer> ids, LocalDateTime updateTime, String updatedBy);
+
+    /**
+     * Назначает удаленным счетам из списка позиции после указанной (в порядке ID)
+     * Вызывается перед restoreByIds
+     * @param ids ID счетов
+     * @param basePosition позиция, после которой размещаются счета
+     */
+    @Query("UPDATE accounts SET position = :basePosition + " +
+           "(SELECT COUNT(*) FROM accounts a2 WHERE a2.id IN (:ids) AND a2.deleteTime IS NOT NULL AND a2.id <= accounts.id) " +
+           "WHERE id IN (:ids) AND deleteTime IS NOT NULL")
+    void assignPositionsAfter(List<Integer> ids, int basePosition);
+
+    /**
+     * Уплотняет позиции активных счетов (1..N без пропусков) одним запросом
+     */
+    @Query("UPDATE accounts SET position = " +
+           "(SELECT COUNT(*) FROM accounts a2 WHERE a2.deleteTime IS NULL AND a2.position > 0 AND a2.position <= accounts.position) " +
+           "WHERE deleteTime IS NULL AND position > 0")
+    void compactPositions();
+
+    /**
+     * Получает счет по ID синхронно (включая удаленные)
+     * @param id ID счета
+     * @return счет с указанным ID
+     */
+    @Query("SELECT * FROM accounts WHERE id = :id")
+    Account getByIdSync(int id);
+
+    /**
+     * Прибавляет изменение к балансу счета (журнал балансов)
+     * @param accountId ID счета
+     * @param delta изменение в копейках (может быть отрицательным)
+     */
+    @Query("UPDATE accounts SET amount = amount + :delta WHERE id = :accountId")
+    void addToAmount(int accountId, long delta);
+
+    /**
+     * Устанавливает начальный остаток счета
+     * @param accountId ID счета
+     * @param openingAmount начальный остаток в копейках
+     */
+    @Query("UPDATE accounts SET openingAmount = :openingAmount WHERE id = :accountId")
+    void setOpeningAmount(int accountId, long openingAmount);
+
+    /**
+     * Сумма изменений баланса счета по всем активным операциям
+     * @param accountId ID счета
+     * @return сумма изменений в копейках
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_ACCOUNT_LEDGER_SUM + " FROM accounts WHERE id = :accountId")
+    long getLedgerSumSync(int accountId);
+
+    /**
+     * Пересчитывает балансы всех счетов с нуля: начальный остаток + журнал операций
+     */
+    @Query("UPDATE accounts SET amount = openingAmount + " + RepositoryConstants.SQL_ACCOUNT_LEDGER_SUM)
+    void rebuildAmountsFromLedger();
+
+    /**
+     * Пересчитывает балансы указанных счетов: начальный остаток + журнал операций
+     * @param ids ID счетов
+     */
+    @Query("UPDATE accounts SET amount = openingAmount + " + RepositoryConstants.SQL_ACCOUNT_LEDGER_SUM +
+           " WHERE id IN (:ids)")
+    void rebuildAmountsFromLedger(List<Integer> ids);
+
+    /**
+     * Находит счета, у которых сохраненный баланс расходится с пересчитанным по операциям
+     * @return список расхождений
+     */
+    @Query("SELECT * FROM (SELECT id AS accountId, amount AS storedAmount, " +
+           "openingAmount + " + RepositoryConstants.SQL_ACCOUNT_LEDGER_SUM + " AS expectedAmount " +
+           "FROM accounts) WHERE storedAmount != expectedAmount")
+    List<AccountBalanceDrift> getBalanceDriftsSync();
+
+    /**
+     * Курсор для выгрузки по всем счетам (включая удаленные) в порядке ID
+     * Курсор читается вперед и закрывается вызывающим кодом
+     * @return курсор (колонки RepositoryConstants.SQL_EXPORT_ACCOUNT_COLUMNS)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_EXPORT_ACCOUNT_COLUMNS + " FROM accounts ORDER BY id")
+    Cursor getExportCursor();
+
+    /**
+     * Окончательно удаляет пачку счетов, помеченных удаленными раньше указанного времени
+     * Пропускаются счета, по которым еще есть операции; контрольные точки баланса удаляются каскадно
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    @Query("DELETE FROM accounts WHERE id IN (SELECT a.id FROM accounts a " +
+           "WHERE a.deleteTime IS NOT NULL AND a.deleteTime < :before " +
+           "AND NOT EXISTS (SELECT 1 FROM operations o WHERE o.accountId = a.id OR o.toAccountId = a.id) LIMIT :limit)")
+    int purgeDeleted(LocalDateTime before, int limit);
+}
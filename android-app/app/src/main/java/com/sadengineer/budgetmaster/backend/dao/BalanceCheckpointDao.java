@@ -0,0 +1,118 @@
+package com.sadengineer.budgetmaster.backend.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.entity.BalanceCheckpoint;
+import com.sadengineer.budgetmaster.backend.entity.MonthlyMovement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Access Object для работы с BalanceCheckpoint Entity
+ */
+@Dao
+public interface BalanceCheckpointDao {
+
+    /**
+     * Вставляет или заменяет контрольные точки
+     * @param checkpoints контрольные точки
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<BalanceCheckpoint> checkpoints);
+
+    /**
+     * Удаляет контрольные точки счета
+     * @param accountId ID счета
+     */
+    @Query("DELETE FROM balance_checkpoints WHERE accountId = :accountId")
+    void deleteByAccount(int accountId);
+
+    /**
+     * Удаляет все контрольные точки
+     */
+    @Query("DELETE FROM balance_checkpoints")
+    void deleteAll();
+
+    /**
+     * Прибавляет изменение к контрольным точкам счета начиная с указанного месяца
+     * @param accountId ID счета
+     * @param fromYearMonth месяц операции (yyyy-MM)
+     * @param delta изменение в копейках (может быть отрицательным)
+     */
+    @Query("UPDATE balance_checkpoints SET closingBalance = closingBalance + :delta " +
+           "WHERE accountId = :accountId AND yearMonth >= :fromYearMonth")
+    void addDelta(int accountId, String fromYearMonth, long delta);
+
+    /**
+     * Прибавляет изменение ко всем контрольным точкам счета (изменение начального остатка)
+     * @param accountId ID счета
+     * @param delta изменение в копейках (может быть отрицательным)
+     */
+    @Query("UPDATE balance_checkpoints SET closingBalance = closingBalance + :delta WHERE accountId = :accountId")
+    void addDeltaForAccount(int accountId, long delta);
+
+    /**
+     * Получает последнюю контрольную точку счета до указанного месяца
+     * @param accountId ID счета
+     * @param yearMonth месяц (yyyy-MM), не включая
+     * @return контрольная точка или null
+     */
+    @Query("SELECT * FROM balance_checkpoints WHERE accountId = :accountId AND yearMonth < :yearMonth " +
+           "ORDER BY yearMonth DESC LIMIT 1")
+    BalanceCheckpoint getLatestBefore(int accountId, String yearMonth);
+
+    /**
+     * Получает последний месяц, для которого у счета есть контрольная точка
+     * @param accountId ID счета
+     * @return месяц (yyyy-MM) или null
+     */
+    @Query("SELECT MAX(yearMonth) FROM balance_checkpoints WHERE accountId = :accountId")
+    String getLastYearMonth(int accountId);
+
+    /**
+     * Получает контрольные точки счета за период месяцев (для графика баланса)
+     * @param accountId ID счета
+     * @param fromYearMonth первый месяц (yyyy-MM)
+     * @param toYearMonth последний месяц (yyyy-MM)
+     * @return контрольные точки по возрастанию месяца
+     */
+    @Query("SELECT * FROM balance_checkpoints WHERE accountId = :accountId " +
+           "AND yearMonth BETWEEN :fromYearMonth AND :toYearMonth ORDER BY yearMonth")
+    List<BalanceCheckpoint> getRange(int accountId, String fromYearMonth, String toYearMonth);
+
+    /**
+     * Суммы движений по счету, сгруппированные по месяцам (для заполнения контрольных точек)
+     * Дата хранится в ISO-формате, поэтому месяц - первые 7 символов
+     * @param accountId ID счета
+     * @return движения по возрастанию месяца
+     */
+    @Query("SELECT yearMonth, SUM(delta) AS movement FROM (" +
+           "SELECT substr(o.operationDate, 1, 7) AS yearMonth, " + RepositoryConstants.SQL_OPERATION_SOURCE_DELTA + " AS delta " +
+           "FROM operations o WHERE o.accountId = :accountId AND o.deleteTime IS NULL AND o.operationDate IS NOT NULL " +
+           "UNION ALL " +
+           "SELECT substr(o.operationDate, 1, 7) AS yearMonth, " + RepositoryConstants.SQL_OPERATION_TARGET_DELTA + " AS delta " +
+           "FROM operations o WHERE o.toAccountId = :accountId AND o.deleteTime IS NULL AND o.operationDate IS NOT NULL" +
+           ") GROUP BY yearMonth ORDER BY yearMonth")
+    List<MonthlyMovement> getMonthlyMovements(int accountId);
+
+    /**
+     * Сумма движений по счету за период (границы включительно)
+     * @param accountId ID счета
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @return сумма изменений баланса в копейках
+     */
+    @Query("SELECT " +
+           "COALESCE((SELECT SUM(" + RepositoryConstants.SQL_OPERATION_SOURCE_DELTA + ") FROM operations o " +
+           "WHERE o.accountId = :accountId AND o.deleteTime IS NULL " +
+           "AND o.operationDate BETWEEN :startDate AND :endDate), 0) + " +
+           "COALESCE((SELECT SUM(" + RepositoryConstants.SQL_OPERATION_TARGET_DELTA + ") FROM operations o " +
+           "WHERE o.toAccountId = :accountId AND o.deleteTime IS NULL " +
+           "AND o.operationDate BETWEEN :startDate AND :endDate), 0)")
+    long getMovementByDateRange(int accountId, LocalDateTime startDate, LocalDateTime endDate);
+}
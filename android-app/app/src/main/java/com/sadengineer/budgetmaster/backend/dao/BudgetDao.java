@@ -1,6 +1,8 @@
 package com.sadengineer.budgetmaster.backend.dao;
 
 import androidx.lifecycle.LiveData;
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -8,9 +10,11 @@ import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.entity.Budget;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -71,6 +75,22 @@ public interface BudgetDao {
            "ORDER BY b.position ASC")
     LiveData<List<Budget>> getAllByOperationType(int operationType, EntityFilter filter);
 
+    /**
+     * Получает все бюджеты по типу операций категорий и по фильтру синхронно
+     * @param operationType тип операции
+     * @param filter фильтр (ACTIVE, DELETED, ALL)
+     * @return список бюджетов в том же порядке, что и getAllByOperationType
+     */
+    @Query("SELECT b.* FROM budgets b " +
+           "INNER JOIN categories c ON b.categoryId = c.id " +
+           "WHERE b.deleteTime IS NULL AND c.deleteTime IS NULL AND " +
+           "c.operationType = :operationType AND " +
+           "((:filter = 'ACTIVE' AND b.deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND b.deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL')) " +
+           "ORDER BY b.position ASC")
+    List<Budget> getAllByOperationTypeSync(int operationType, EntityFilter filter);
+
     /**
      * Получает все бюджеты по ID валюты и по фильтру
      * @param currencyId ID валюты
@@ -168,11 +188,29 @@ public interface BudgetDao {
      * Получает общую сумму бюджета по ID валюты по фильтру
      * @param filter фильтр (ACTIVE, DELETED, ALL)
      * @param currencyId ID валюты
+     * @return общая сумма бюджетов (null, если бюджетов нет)
      */
     @Query("SELECT SUM(amount) FROM budgets WHERE currencyId = :currencyId AND " +
            "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
            "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
            "(:filter = 'ALL'))")
-    LiveData<Long> getTotalAmountByCurrency(int currencyId, EntityFilter filter);
+    Long getTotalAmountByCurrencySync(int currencyId, EntityFilter filter);
 
-} 
\ No newline at end of file
+    /**
+     * Курсор для выгрузки по всем бюджетам (включая удаленные) в порядке ID
+     * Курсор читается вперед и закрывается вызывающим кодом
+     * @return курсор (колонки RepositoryConstants.SQL_EXPORT_BUDGET_COLUMNS)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_EXPORT_BUDGET_COLUMNS + " FROM budgets ORDER BY id")
+    Cursor getExportCursor();
+
+    /**
+     * Окончательно удаляет пачку бюджетов, помеченных удаленными раньше указанного времени
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    @Query("DELETE FROM budgets WHERE id IN (SELECT b.id FROM budgets b " +
+           "WHERE b.deleteTime IS NOT NULL AND b.deleteTime < :before LIMIT :limit)")
+    int purgeDeleted(LocalDateTime before, int limit);
+}
@@ -1,5 +1,7 @@
 package com.sadengineer.budgetmaster.backend.dao;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -8,9 +10,11 @@ import androidx.room.Query;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.entity.Category;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -180,4 +184,27 @@ public interface CategoryDao {
      */
     @Update
     void update(Category category);
-} 
\ No newline at end of file
+
+    /**
+     * Курсор для выгрузки по всем категориям (включая удаленные) в порядке ID
+     * Курсор читается вперед и закрывается вызывающим кодом
+     * @return курсор (колонки RepositoryConstants.SQL_EXPORT_CATEGORY_COLUMNS)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_EXPORT_CATEGORY_COLUMNS + " FROM categories ORDER BY id")
+    Cursor getExportCursor();
+
+    /**
+     * Окончательно удаляет пачку категорий, помеченных удаленными раньше указанного времени
+     * Пропускаются категории, на которые еще ссылаются операции, бюджеты, подкатегории или кредитные счета
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    @Query("DELETE FROM categories WHERE id IN (SELECT c.id FROM categories c " +
+           "WHERE c.deleteTime IS NOT NULL AND c.deleteTime < :before " +
+           "AND NOT EXISTS (SELECT 1 FROM operations o WHERE o.categoryId = c.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM budgets b WHERE b.categoryId = c.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM categories ch WHERE ch.parentId = c.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM accounts a WHERE a.creditCardCategoryId = c.id OR a.creditCardCommissionCategoryId = c.id) LIMIT :limit)")
+    int purgeDeleted(LocalDateTime before, int limit);
+}
@@ -1,5 +1,7 @@
 package com.sadengineer.budgetmaster.backend.dao;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -8,9 +10,11 @@ import androidx.room.Query;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -55,6 +59,18 @@ public interface CurrencyDao {
            "(:filter = 'ALL')) " +
            "ORDER BY CASE WHEN position = 0 THEN 1 ELSE 0 END, position ASC")
     LiveData<List<Currency>> getAll(EntityFilter filter);
+
+    /**
+     * Получает все валюты синхронно по фильтру
+     * @param filter фильтр (ACTIVE, DELETED, ALL)
+     * @return список валют, отсортированных по позиции (валюты с позицией 0 в конце)
+     */
+    @Query("SELECT * FROM currencies WHERE " +
+           "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL')) " +
+           "ORDER BY CASE WHEN position = 0 THEN 1 ELSE 0 END, position ASC")
+    List<Currency> getAllSync(EntityFilter filter);
     
     /**
      * Получает валюту по ID (включая удаленные)
@@ -220,4 +236,26 @@ public interface CurrencyDao {
            "(:filter = 'ALL')) ORDER BY id ASC")
     List<Integer> getAvailableIdsSync(EntityFilter filter);
     
-} 
\ No newline at end of file
+
+    /**
+     * Курсор для выгрузки по всем валютам (включая удаленные) в порядке ID
+     * Курсор читается вперед и закрывается вызывающим кодом
+     * @return курсор (колонки RepositoryConstants.SQL_EXPORT_CURRENCY_COLUMNS)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_EXPORT_CURRENCY_COLUMNS + " FROM currencies ORDER BY id")
+    Cursor getExportCursor();
+
+    /**
+     * Окончательно удаляет пачку валют, помеченных удаленными раньше указанного времени
+     * Пропускаются валюты, на которые еще ссылаются операции, счета или бюджеты
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    @Query("DELETE FROM currencies WHERE id IN (SELECT c.id FROM currencies c " +
+           "WHERE c.deleteTime IS NOT NULL AND c.deleteTime < :before " +
+           "AND NOT EXISTS (SELECT 1 FROM operations o WHERE o.currencyId = c.id OR o.toCurrencyId = c.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM accounts a WHERE a.currencyId = c.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM budgets b WHERE b.currencyId = c.id) LIMIT :limit)")
+    int purgeDeleted(LocalDateTime before, int limit);
+}
@@ -0,0 +1,49 @@
+package com.sadengineer.budgetmaster.backend.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.sadengineer.budgetmaster.backend.entity.CurrencyRate;
+
+import java.util.List;
+
+/**
+ * Data Access Object для работы с CurrencyRate Entity
+ */
+@Dao
+public interface CurrencyRateDao {
+
+    /**
+     * Вставляет или заменяет курс валюты на день
+     * @param rate курс
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(CurrencyRate rate);
+
+    /**
+     * Удаляет курс валюты, действующий с указанного дня
+     * @param currencyId ID валюты
+     * @param validFromEpochDay первый день действия курса
+     * @return количество удаленных записей
+     */
+    @Query("DELETE FROM currency_rates WHERE currencyId = :currencyId AND validFromEpochDay = :validFromEpochDay")
+    int delete(int currencyId, int validFromEpochDay);
+
+    /**
+     * Получает всю историю курсов (для построения временных рядов курсов)
+     * @return курсы по возрастанию валюты и дня
+     */
+    @Query("SELECT * FROM currency_rates ORDER BY currencyId, validFromEpochDay")
+    List<CurrencyRate> getAllSync();
+
+    /**
+     * Получает историю курсов валюты
+     * @param currencyId ID валюты
+     * @return курсы по возрастанию дня
+     */
+    @Query("SELECT * FROM currency_rates WHERE currencyId = :currencyId ORDER BY validFromEpochDay")
+    LiveData<List<CurrencyRate>> getByCurrency(int currencyId);
+}
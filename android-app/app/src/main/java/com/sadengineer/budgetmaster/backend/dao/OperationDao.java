@@ -1,14 +1,21 @@
 package com.sadengineer.budgetmaster.backend.dao;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
 import androidx.lifecycle.LiveData;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.entity.BucketTotal;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.entity.OperationAggregate;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
 import java.time.LocalDateTime;
@@ -282,6 +289,103 @@ public interface OperationDao {
     @Query("SELECT * FROM operations WHERE id = :id")
     LiveData<Operation> getById(int id);
 
+    /**
+     * Получает операцию по ID синхронно (включая удаленные)
+     * @param id ID операции
+     * @return операция с указанным ID
+     */
+    @Query("SELECT * FROM operations WHERE id = :id")
+    Operation getByIdSync(int id);
+
+    /**
+     * Получает операции по списку ID синхронно (включая удаленные)
+     * @param ids ID операций
+     * @return список операций
+     */
+    @Query("SELECT * FROM operations WHERE id IN (:ids)")
+    List<Operation> getByIdsSync(List<Integer> ids);
+
+    /**
+     * Курсор по активным операциям в колонках аналитического снимка
+     * Курсор закрывает вызывающий код
+     * @return курсор (колонки RepositoryConstants.SQL_SNAPSHOT_COLUMNS)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_SNAPSHOT_COLUMNS + " FROM operations WHERE deleteTime IS NULL")
+    Cursor getSnapshotCursor();
+
+    /**
+     * Курсор по операциям, добавленным или измененным после последнего обновления снимка
+     * Курсор закрывает вызывающий код
+     * @param afterId наибольший ID, уже известный снимку
+     * @param since время начала предыдущего обновления
+     * @return курсор (колонки снимка и признак deleted)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_SNAPSHOT_COLUMNS + ", deleteTime IS NOT NULL AS deleted " +
+           "FROM operations WHERE id > :afterId OR updateTime >= :since OR deleteTime >= :since")
+    Cursor getSnapshotDeltaCursor(int afterId, LocalDateTime since);
+
+    /**
+     * Курсор по активным доходам и расходам с описанием для индекса подсказок
+     * Курсор закрывает вызывающий код
+     * @return курсор (type, description, categoryId, accountId)
+     */
+    @Query("SELECT type, description, categoryId, accountId FROM operations " +
+           "WHERE deleteTime IS NULL AND toAccountId IS NULL AND description IS NOT NULL AND description <> ''")
+    Cursor getSuggestionCursor();
+
+    /**
+     * Полнотекстовый поиск операций по описанию и названиям категории и счета
+     * @param match выражение MATCH (SearchQueryBuilder)
+     * @param filter тип фильтра (ALL, ACTIVE, DELETED)
+     * @param limit размер страницы
+     * @param offset смещение страницы
+     * @return страница найденных операций (RepositoryConstants.SQL_SEARCH_ORDER)
+     */
+    @Query("SELECT o.* FROM " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + " " +
+           "JOIN operations o ON o.id = " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + ".rowid " +
+           "WHERE " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + " MATCH :match AND " +
+           "((:filter = 'ACTIVE' AND o.deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND o.deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL')) " +
+           "ORDER BY " + RepositoryConstants.SQL_SEARCH_ORDER + " LIMIT :limit OFFSET :offset")
+    LiveData<List<Operation>> search(String match, EntityFilter filter, int limit, int offset);
+
+    /**
+     * Количество операций, найденных полнотекстовым поиском
+     * @param match выражение MATCH (SearchQueryBuilder)
+     * @param filter тип фильтра (ALL, ACTIVE, DELETED)
+     * @return количество найденных операций
+     */
+    @Query("SELECT COUNT(*) FROM " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + " " +
+           "JOIN operations o ON o.id = " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + ".rowid " +
+           "WHERE " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + " MATCH :match AND " +
+           "((:filter = 'ACTIVE' AND o.deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND o.deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL'))")
+    LiveData<Integer> countSearch(String match, EntityFilter filter);
+
+    /**
+     * Помечает операции удаленными одним запросом (только еще не удаленные)
+     * @param ids ID операций
+     * @param deleteTime время удаления
+     * @param deletedBy пользователь
+     * @return количество измененных строк
+     */
+    @Query("UPDATE operations SET deleteTime = :deleteTime, deletedBy = :deletedBy " +
+           "WHERE id IN (:ids) AND deleteTime IS NULL")
+    int softDeleteByIds(List<Integer> ids, LocalDateTime deleteTime, String deletedBy);
+
+    /**
+     * Восстанавливает удаленные операции одним запросом
+     * @param ids ID операций
+     * @param updateTime время изменения
+     * @param updatedBy пользователь
+     * @return количество измененных строк
+     */
+    @Query("UPDATE operations SET deleteTime = NULL, deletedBy = NULL, updateTime = :updateTime, updatedBy = :updatedBy " +
+           "WHERE id IN (:ids) AND deleteTime IS NOT NULL")
+    int restoreByIds(List<Integer> ids, LocalDateTime updateTime, String updatedBy);
+
     /**
      * Получает общую сумму баланса по типу (в зависимости от фильтра)
      * @param type тип операции
@@ -378,6 +482,21 @@ public interface OperationDao {
            "(:filter = 'ALL'))")
     LiveData<Long> getTotalAmountByDateRange(LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter);
 
+    /**
+     * Получает общую сумму операций за период синхронно
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @param currencyId ID валюты
+     * @param filter фильтр сущностей
+     * @return общая сумма операций за период (null, если операций нет)
+     */
+    @Query("SELECT SUM(amount) FROM operations WHERE operationDate BETWEEN :startDate AND :endDate AND " +
+           "currencyId = :currencyId AND " +
+           "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL'))")
+    Long getTotalAmountByDateRangeSync(LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter);
+
     /**
      * Получает общую сумму операций по типу за период
      * @param type тип операций
@@ -394,6 +513,22 @@ public interface OperationDao {
            "(:filter = 'ALL'))")
     LiveData<Long> getTotalAmountByTypeAndDateRange(int type, LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter);
 
+    /**
+     * Получает общую сумму операций по типу за период синхронно
+     * @param type тип операций
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @param currencyId ID валюты
+     * @param filter фильтр сущностей
+     * @return общая сумма операций по типу за период (null, если операций нет)
+     */
+    @Query("SELECT SUM(amount) FROM operations WHERE type = :type AND operationDate BETWEEN :startDate AND :endDate AND " +
+           "currencyId = :currencyId AND " +
+           "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL'))")
+    Long getTotalAmountByTypeAndDateRangeSync(int type, LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter);
+
     /**
      * Получить операции по типу и диапазону дат
      * @param type тип операции
@@ -424,6 +559,22 @@ public interface OperationDao {
            "(:filter = 'ALL'))")
     LiveData<Long> getTotalAmountByCategoryAndDateRange(Integer categoryId, LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter);
 
+    /**
+     * Получает общую сумму операций по категории за период синхронно
+     * @param categoryId ID категории
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @param currencyId ID валюты
+     * @param filter фильтр сущностей
+     * @return общая сумма операций по категории за период (null, если операций нет)
+     */
+    @Query("SELECT SUM(amount) FROM operations WHERE categoryId = :categoryId AND operationDate BETWEEN :startDate AND :endDate AND " +
+           "currencyId = :currencyId AND " +
+           "((:filter = 'ACTIVE' AND deleteTime IS NULL) OR " +
+           "(:filter = 'DELETED' AND deleteTime IS NOT NULL) OR " +
+           "(:filter = 'ALL'))")
+    Long getTotalAmountByCategoryAndDateRangeSync(Integer categoryId, LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter);
+
     /**
      * Получает общую сумму операций за месяц
      * @param year год
@@ -497,4 +648,47 @@ public interface OperationDao {
     @Update
     void update(Operation operation);
 
-} 
\ No newline at end of file
+    /**
+     * Курсор для выгрузки по всем операциям (включая удаленные) в порядке ID
+     * Курсор читается вперед и закрывается вызывающим кодом
+     * @return курсор (колонки RepositoryConstants.SQL_EXPORT_OPERATION_COLUMNS)
+     */
+    @Query("SELECT " + RepositoryConstants.SQL_EXPORT_OPERATION_COLUMNS + " FROM operations ORDER BY id")
+    Cursor getExportCursor();
+
+    /**
+     * Окончательно удаляет пачку операций, помеченных удаленными раньше указанного времени
+     * Индекс поиска очищается триггером operations_fts_ad
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    @Query("DELETE FROM operations WHERE id IN (SELECT o.id FROM operations o " +
+           "WHERE o.deleteTime IS NOT NULL AND o.deleteTime < :before LIMIT :limit)")
+    int purgeDeleted(LocalDateTime before, int limit);
+
+    /**
+     * Сумма операций по скомпилированному агрегатному запросу (синхронно)
+     * @param query запрос
+     * @return сумма (null, если операций нет)
+     */
+    @RawQuery
+    Long getTotalAmountRawSync(SupportSQLiteQuery query);
+
+    /**
+     * Суммы операций по группам (синхронно)
+     * @param query запрос
+     * @return список групп в порядке ключа
+     */
+    @RawQuery
+    List<OperationAggregate> getAggregatesRawSync(SupportSQLiteQuery query);
+
+    /**
+     * Суммы операций по интервалам временного ряда (OperationAggregateQuery с bucket, синхронно)
+     * Интервалы без операций в результат не попадают
+     * @param query запрос
+     * @return суммы по номерам интервалов
+     */
+    @RawQuery
+    List<BucketTotal> getBucketTotalsRawSync(SupportSQLiteQuery query);
+}
@@ -0,0 +1,57 @@
+package com.sadengineer.budgetmaster.backend.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.sadengineer.budgetmaster.backend.entity.SyncChange;
+
+import java.util.List;
+
+/**
+ * Data Access Object для работы с SyncChange Entity
+ * Записи создаются только триггерами, DAO читает и подрезает журнал
+ */
+@Dao
+public interface SyncChangeDao {
+
+    /**
+     * Получает изменения после указанного номера
+     * @param afterSeq номер последнего отправленного изменения
+     * @param limit размер пачки
+     * @return изменения по возрастанию номера
+     */
+    @Query("SELECT * FROM sync_changes WHERE seq > :afterSeq ORDER BY seq LIMIT :limit")
+    List<SyncChange> getAfter(long afterSeq, int limit);
+
+    /**
+     * Считает изменения после указанного номера
+     * @param afterSeq номер последнего отправленного изменения
+     * @return количество изменений
+     */
+    @Query("SELECT COUNT(*) FROM sync_changes WHERE seq > :afterSeq")
+    int countAfter(long afterSeq);
+
+    /**
+     * Получает последний номер изменения
+     * @return номер или 0, если журнал пуст
+     */
+    @Query("SELECT COALESCE(MAX(seq), 0) FROM sync_changes")
+    long getMaxSeq();
+
+    /**
+     * Удаляет подтвержденные сервером изменения
+     * @param seq номер последнего подтвержденного изменения, включительно
+     * @return количество удаленных записей
+     */
+    @Query("DELETE FROM sync_changes WHERE seq <= :seq")
+    int deleteUpTo(long seq);
+
+    /**
+     * Удаляет изменения после указанного номера (записи, созданные применением
+     * полученных с сервера изменений, не отправляются обратно)
+     * @param seq номер, после которого удалять
+     * @return количество удаленных записей
+     */
+    @Query("DELETE FROM sync_changes WHERE seq > :seq")
+    int deleteAfter(long seq);
+}
@@ -1,22 +1,33 @@
 package com.sadengineer.budgetmaster.backend.database;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import android.content.Context;
+import android.util.Log;
 
+import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.backend.dao.AccountDao;
+import com.sadengineer.budgetmaster.backend.dao.BalanceCheckpointDao;
 import com.sadengineer.budgetmaster.backend.dao.BudgetDao;
 import com.sadengineer.budgetmaster.backend.dao.CategoryDao;
 import com.sadengineer.budgetmaster.backend.dao.CurrencyDao;
+import com.sadengineer.budgetmaster.backend.dao.CurrencyRateDao;
 import com.sadengineer.budgetmaster.backend.dao.OperationDao;
+import com.sadengineer.budgetmaster.backend.dao.SyncChangeDao;
 import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.BalanceCheckpoint;
 import com.sadengineer.budgetmaster.backend.entity.Budget;
 import com.sadengineer.budgetmaster.backend.entity.Category;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
+import com.sadengineer.budgetmaster.backend.entity.CurrencyRate;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.entity.OperationSearchIndex;
+import com.sadengineer.budgetmaster.backend.entity.SyncChange;
 import com.sadengineer.budgetmaster.backend.converter.DateTimeConverter;
 import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
 
@@ -29,13 +40,18 @@ import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
         Operation.class,
         Category.class,
         Budget.class,
-        Currency.class
+        Currency.class,
+        BalanceCheckpoint.class,
+        OperationSearchIndex.class,
+        SyncChange.class,
+        CurrencyRate.class
     },
-    version = 1,
+    version = DatabaseConstants.DATABASE_VERSION,
     exportSchema = false
 )
 @TypeConverters(DateTimeConverter.class)
 public abstract class BudgetMasterDatabase extends RoomDatabase {
+    private static final String TAG = "BudgetMasterDatabase";
     
     /**
      * DAO интерфейсы
@@ -45,6 +61,9 @@ public abstract class BudgetMasterDatabase extends RoomDatabase {
     public abstract CategoryDao categoryDao();
     public abstract BudgetDao budgetDao();
     public abstract CurrencyDao currencyDao();
+    public abstract BalanceCheckpointDao balanceCheckpointDao();
+    public abstract SyncChangeDao syncChangeDao();
+    public abstract CurrencyRateDao currencyRateDao();
     
     /**
      * Singleton для базы данных
@@ -60,16 +79,152 @@ public abstract class BudgetMasterDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (BudgetMasterDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
-                            context.getApplicationContext(),
-                            BudgetMasterDatabase.class,
-                            DatabaseConstants.DATABASE_PATH
-                    )
-                    .fallbackToDestructiveMigration()
-                    .build();
+                    INSTANCE = build(context, DatabaseConstants.DATABASE_PATH);
                 }
             }
         }
         return INSTANCE;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Создает отдельную базу с той же конфигурацией, что и основная (миграции, WAL, профиль, триггеры)
+     * Используется замерами производительности, чтобы не трогать рабочую базу приложения;
+     * закрывать через close()
+     * @param context контекст приложения
+     * @param name имя файла базы
+     * @return новый экземпляр базы данных
+     */
+    public static BudgetMasterDatabase createDetached(Context context, String name) {
+        return build(context, name);
+    }
+
+    private static BudgetMasterDatabase build(Context context, String name) {
+        return Room.databaseBuilder(
+                        context.getApplicationContext(),
+                        BudgetMasterDatabase.class,
+                        name
+                )
+                .addMigrations(DatabaseMigrations.ALL)
+                .fallbackToDestructiveMigration()
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(ThreadManager.getDatabaseQueryExecutor())
+                .setTransactionExecutor(ThreadManager.getDatabaseTransactionExecutor())
+                .addCallback(PROFILE_CALLBACK)
+                .addCallback(SEARCH_INDEX_CALLBACK)
+                .addCallback(SYNC_LOG_CALLBACK)
+                .addCallback(CURRENCY_RATES_CALLBACK)
+                .build();
+    }
+    
+    /**
+     * Текущий профиль производительности
+     */
+    private static volatile DatabasePerformanceProfile currentProfile =
+            DatabasePerformanceProfile.fromName(DatabaseConstants.DEFAULT_PERFORMANCE_PROFILE);
+    
+    /**
+     * При открытии базы регистрирует профиль по умолчанию для всех соединений (один раз);
+     * если в этот момент действует другой профиль, он применяется к соединению записи
+     */
+    private static final RoomDatabase.Callback PROFILE_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            DatabasePerformanceProfile base =
+                    DatabasePerformanceProfile.fromName(DatabaseConstants.DEFAULT_PERFORMANCE_PROFILE);
+            applyProfile(db, base, true);
+            if (currentProfile != base) {
+                applyProfile(db, currentProfile, false);
+            }
+        }
+    };
+    
+    /**
+     * Создает триггеры индекса полнотекстового поиска в новой базе
+     * (для обновляемых баз это делает MIGRATION_3_4)
+     */
+    private static final RoomDatabase.Callback SEARCH_INDEX_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            DatabaseMigrations.createSearchTriggers(db);
+        }
+    };
+    
+    /**
+     * Создает триггеры журнала изменений синхронизации в новой базе
+     * (для обновляемых баз это делает MIGRATION_5_6)
+     */
+    private static final RoomDatabase.Callback SYNC_LOG_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            DatabaseMigrations.createSyncTriggers(db);
+        }
+    };
+    
+    /**
+     * Создает триггеры истории курсов валют в новой базе
+     * (для обновляемых баз это делает MIGRATION_6_7)
+     */
+    private static final RoomDatabase.Callback CURRENCY_RATES_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            DatabaseMigrations.createCurrencyRateTriggers(db);
+        }
+    };
+    
+    /**
+     * Получить текущий профиль производительности
+     * @return текущий профиль
+     */
+    public static DatabasePerformanceProfile getPerformanceProfile() {
+        return currentProfile;
+    }
+    
+    /**
+     * Переключает профиль производительности
+     * Применяется к соединению записи; соединения чтения сохраняют профиль,
+     * зарегистрированный при открытии базы (см. DatabasePerformanceProfile.register).
+     * Вызывать только из фонового потока
+     * @param context контекст приложения
+     * @param profile новый профиль
+     */
+    public static void setPerformanceProfile(Context context, DatabasePerformanceProfile profile) {
+        currentProfile = profile;
+        applyProfile(getDatabase(context).getOpenHelper().getWritableDatabase(), profile, false);
+    }
+    
+    /**
+     * Выполняет действие с временно переключенным профилем и восстанавливает прежний
+     * Например, массовую запись с профилем BULK_IMPORT.
+     * Вызывать только из фонового потока
+     * @param context контекст приложения
+     * @param profile временный профиль
+     * @param action действие
+     */
+    public static void runWithProfile(Context context, DatabasePerformanceProfile profile, Runnable action) {
+        DatabasePerformanceProfile previous = currentProfile;
+        setPerformanceProfile(context, profile);
+        try {
+            action.run();
+        } finally {
+            setPerformanceProfile(context, previous);
+        }
+    }
+    
+    /**
+     * Применяет профиль, ошибки только логируются
+     * @param register true - регистрация для всех соединений при открытии, false - только соединение записи
+     */
+    private static void applyProfile(SupportSQLiteDatabase db, DatabasePerformanceProfile profile, boolean register) {
+        try {
+            if (register) {
+                profile.register(db);
+            } else {
+                profile.applyToWriter(db);
+            }
+            Log.d(TAG, String.format(DatabaseConstants.MSG_PROFILE_APPLIED, profile,
+                    DatabasePerformanceProfile.readBack(db)));
+        } catch (Exception e) {
+            Log.e(TAG, DatabaseConstants.MSG_PROFILE_ERROR + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.sadengineer.budgetmaster.backend.database;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Единая шина изменений базы данных
+ * Один раз подписывается на InvalidationTracker Room, объединяет инвалидации таблиц
+ * за короткое окно (CHANGE_BUS_DEBOUNCE_MS) и рассылает одно уведомление подписчикам.
+ * Подписчики получают уведомления в главном потоке и пересчитывают данные один раз на серию записей.
+ */
+public class DatabaseChangeBus {
+    private static final String TAG = "DatabaseChangeBus";
+
+    /** Таблицы, за которыми следит шина */
+    private static final String[] TRACKED_TABLES = {
+            RepositoryConstants.TABLE_ACCOUNTS,
+            RepositoryConstants.TABLE_BUDGETS,
+            RepositoryConstants.TABLE_CATEGORIES,
+            RepositoryConstants.TABLE_CURRENCIES,
+            RepositoryConstants.TABLE_CURRENCY_RATES,
+            RepositoryConstants.TABLE_OPERATIONS
+    };
+
+    private static volatile DatabaseChangeBus INSTANCE;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<OnTablesChangedListener, Set<String>> listeners = new ConcurrentHashMap<>();
+    private final Set<String> pendingTables = new HashSet<>();
+    private boolean dispatchScheduled = false;
+
+    /**
+     * Подписчик на изменения таблиц
+     */
+    public interface OnTablesChangedListener {
+        /**
+         * Вызывается в главном потоке один раз на серию изменений
+         * @param tables изменённые таблицы из числа тех, на которые подписан слушатель
+         */
+        void onTablesChanged(@NonNull Set<String> tables);
+    }
+
+    private DatabaseChangeBus(BudgetMasterDatabase database) {
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer(TRACKED_TABLES) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                onTablesInvalidated(tables);
+            }
+        };
+        // addObserver может обращаться к базе, поэтому подписываемся в фоновом потоке
+        ThreadManager.getExecutor().execute(() -> {
+            database.getInvalidationTracker().addObserver(observer);
+            Log.d(TAG, DatabaseConstants.MSG_CHANGE_BUS_REGISTERED);
+        });
+    }
+
+    /**
+     * Получение экземпляра шины
+     * @param context контекст приложения
+     * @return экземпляр шины изменений
+     */
+    public static DatabaseChangeBus getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (DatabaseChangeBus.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseChangeBus(BudgetMasterDatabase.getDatabase(context));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Подписывает слушателя на изменения указанных таблиц
+     * @param listener слушатель
+     * @param tables имена таблиц (RepositoryConstants.TABLE_*)
+     */
+    public void addListener(OnTablesChangedListener listener, String... tables) {
+        listeners.put(listener, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(tables))));
+    }
+
+    /**
+     * Отписывает слушателя
+     * @param listener слушатель
+     */
+    public void removeListener(OnTablesChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Накопление инвалидаций (вызывается из потока Room)
+     */
+    private void onTablesInvalidated(Set<String> tables) {
+        synchronized (pendingTables) {
+            pendingTables.addAll(tables);
+            if (dispatchScheduled) {
+                return;
+            }
+            dispatchScheduled = true;
+        }
+        mainHandler.postDelayed(this::dispatch, DatabaseConstants.CHANGE_BUS_DEBOUNCE_MS);
+    }
+
+    /**
+     * Рассылает накопленные изменения подписчикам (главный поток)
+     */
+    private void dispatch() {
+        Set<String> changed;
+        synchronized (pendingTables) {
+            changed = new HashSet<>(pendingTables);
+            pendingTables.clear();
+            dispatchScheduled = false;
+        }
+
+        int notified = 0;
+        for (Map.Entry<OnTablesChangedListener, Set<String>> entry : listeners.entrySet()) {
+            Set<String> relevant = new HashSet<>(entry.getValue());
+            relevant.retainAll(changed);
+            if (relevant.isEmpty()) {
+                continue;
+            }
+            try {
+                entry.getKey().onTablesChanged(relevant);
+                notified++;
+            } catch (Exception e) {
+                Log.e(TAG, DatabaseConstants.MSG_CHANGE_BUS_LISTENER_ERROR + e.getMessage(), e);
+            }
+        }
+        Log.d(TAG, String.format(DatabaseConstants.MSG_CHANGE_BUS_DISPATCH, changed, notified));
+    }
+}
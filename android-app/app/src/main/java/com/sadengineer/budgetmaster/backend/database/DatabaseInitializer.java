@@ -43,6 +43,10 @@ public class DatabaseInitializer {
         // TODO: Инициализируем тестовые операции (удалить в продакшене)
         initializeTestOperations(database);
         
+        // Тестовые операции вставляются напрямую через DAO, поэтому балансы счетов
+        // приводим к журналу одним пересчетом
+        database.accountDao().rebuildAmountsFromLedger();
+        
         Log.d(TAG, "initializeDefaultData: Инициализация завершена");
     }
 
@@ -261,6 +265,7 @@ public class DatabaseInitializer {
         account.setTitle(title);
         account.setPosition(position);
         account.setAmount(amount);
+        account.setOpeningAmount(amount);
         account.setType(type);
         account.setCurrencyId(currencyId);
         account.setClosed(closed);
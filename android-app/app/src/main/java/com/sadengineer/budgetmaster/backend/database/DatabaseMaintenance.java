@@ -0,0 +1,107 @@
+package com.sadengineer.budgetmaster.backend.database;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+/**
+ * Обслуживание файла базы данных: счетчики страниц, auto_vacuum, incremental_vacuum
+ * Все методы выполняются вне транзакции и только из фонового потока
+ */
+public final class DatabaseMaintenance {
+    private static final String TAG = "DatabaseMaintenance";
+
+    private DatabaseMaintenance() {
+    }
+
+    /**
+     * Количество страниц файла базы данных
+     * @param db соединение
+     * @return число страниц
+     */
+    public static long getPageCount(SupportSQLiteDatabase db) {
+        return queryLong(db, "PRAGMA page_count");
+    }
+
+    /**
+     * Количество свободных страниц внутри файла
+     * @param db соединение
+     * @return число свободных страниц
+     */
+    public static long getFreelistCount(SupportSQLiteDatabase db) {
+        return queryLong(db, "PRAGMA freelist_count");
+    }
+
+    /**
+     * Размер страницы базы данных
+     * @param db соединение
+     * @return размер страницы в байтах
+     */
+    public static long getPageSize(SupportSQLiteDatabase db) {
+        return queryLong(db, "PRAGMA page_size");
+    }
+
+    /**
+     * Включает auto_vacuum=INCREMENTAL, если он еще не включен
+     * Режим существующего файла меняется только полным VACUUM, поэтому это выполняется один раз
+     * @param db соединение
+     * @return true, если режим был переключен в этом вызове
+     */
+    public static boolean ensureIncrementalAutoVacuum(SupportSQLiteDatabase db) {
+        if (queryLong(db, "PRAGMA auto_vacuum") == DatabaseConstants.AUTO_VACUUM_INCREMENTAL) {
+            return false;
+        }
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+        db.execSQL("VACUUM");
+        Log.d(TAG, DatabaseConstants.MSG_AUTO_VACUUM_ENABLED);
+        return true;
+    }
+
+    /**
+     * Возвращает свободные страницы системе небольшими шагами, чтобы не держать блокировку записи
+     * @param db соединение
+     * @return число освобожденных страниц
+     */
+    public static long incrementalVacuum(SupportSQLiteDatabase db) {
+        long before = getFreelistCount(db);
+        long remaining = before;
+        while (remaining > 0) {
+            // Каждая строка результата - освобожденная страница, курсор нужно дочитать до конца
+            try (Cursor cursor = db.query("PRAGMA incremental_vacuum(" + DatabaseConstants.VACUUM_PAGES_PER_STEP + ")")) {
+                while (cursor.moveToNext()) {
+                    // шаг выполняется при чтении
+                }
+            }
+            long next = getFreelistCount(db);
+            if (next >= remaining) {
+                break;
+            }
+            remaining = next;
+        }
+        long reclaimed = before - remaining;
+        Log.d(TAG, String.format(DatabaseConstants.MSG_VACUUM_COMPLETE, reclaimed));
+        return reclaimed;
+    }
+
+    /**
+     * Объединяет сегменты индекса полнотекстового поиска после массового удаления
+     * @param db соединение
+     */
+    public static void optimizeSearchIndex(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + RepositoryConstants.TABLE_OPERATIONS_SEARCH + "(" +
+                RepositoryConstants.TABLE_OPERATIONS_SEARCH + ") VALUES('optimize')");
+    }
+
+    /**
+     * Выполняет запрос с одним числом в результате (курсор переходит к первой строке)
+     */
+    static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
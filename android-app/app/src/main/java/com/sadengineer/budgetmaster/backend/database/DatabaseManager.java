@@ -4,22 +4,37 @@ import android.content.Context;
 import android.util.Log;
 
 import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
+import com.sadengineer.budgetmaster.backend.service.OperationService;
+import com.sadengineer.budgetmaster.calculators.OperationCalculatorConfig;
 
 import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 /**
  * Менеджер для управления инициализацией базы данных
- * Использует явное управление транзакциями и асинхронные операции через Callable
+ * Использует явное управление транзакциями и асинхронные операции через CompletableFuture
  */
 public class DatabaseManager {
     private static final String TAG = "DatabaseManager";
 
     private static final String DATABASE_NAME = DatabaseConstants.DATABASE_PATH;
     
+    /** Типы операций, суммы которых за месяц показывает стартовый экран */
+    private static final OperationTypeFilter[] WARM_UP_OPERATION_TYPES =
+        {OperationTypeFilter.INCOME, OperationTypeFilter.EXPENSE};
+    
+    /** Трасса последнего запуска */
+    private static volatile StartupTrace lastStartupTrace;
+    
     private final Context context;
     private final ExecutorService executor;
     
@@ -29,55 +44,168 @@ public class DatabaseManager {
     }
     
     /**
-     * Инициализирует базу данных при первом запуске приложения
-     * Проверяет существование БД и создает дефолтные данные если нужно
+     * Инициализирует базу данных при запуске приложения
+     * Конвейер: проверка файла -> открытие БД (WAL, PRAGMA) -> параллельно
+     * заполнение/статистика и прогрев кэшей. Все фазы выполняются в фоновых потоках
+     * и записываются в StartupTrace.
      */
     public CompletableFuture<Boolean> initializeDatabase() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Log.d(TAG, DatabaseConstants.MSG_DATABASE_INIT_CHECK);
-                
-                // Получаем экземпляр базы данных
+        final StartupTrace trace = new StartupTrace();
+        lastStartupTrace = trace;
+        
+        return CompletableFuture.supplyAsync(() -> openDatabase(trace), executor)
+            .thenCompose(isNewDatabase -> {
                 BudgetMasterDatabase database = BudgetMasterDatabase.getDatabase(context);
                 
-                // Проверяем, существует ли файл базы данных
-                File databaseFile = context.getDatabasePath(DATABASE_NAME);
-                boolean isNewDatabase = !databaseFile.exists();
-                
-                if (isNewDatabase) {
-                    Log.d(TAG, DatabaseConstants.MSG_DATABASE_NOT_EXISTS);
-                    
-                    // Проверяем, есть ли дефолтные данные
-                    int currencyCount = database.currencyDao().count(EntityFilter.ALL);
-                    int categoryCount = database.categoryDao().count(EntityFilter.ALL);
-                    int accountCount = database.accountDao().count(EntityFilter.ALL);
-                    
-                    if (currencyCount == 0 && categoryCount == 0 && accountCount == 0) {
-                        Log.d(TAG, DatabaseConstants.MSG_CREATE_DEFAULT_DATA);
-                        DatabaseInitializer.initializeDefaultData(database);
-                        Log.d(TAG, DatabaseConstants.MSG_DEFAULT_DATA_CREATED);
+                CompletableFuture<Void> data = CompletableFuture.runAsync(() -> {
+                    if (isNewDatabase) {
+                        trace.measure(DatabaseConstants.PHASE_SEED, () -> seedDefaultData(database));
                     } else {
-                        Log.d(TAG, DatabaseConstants.MSG_DEFAULT_DATA_EXISTS);
+                        trace.measure(DatabaseConstants.PHASE_STATISTICS, () -> logStatistics(database));
+                        trace.measure(DatabaseConstants.PHASE_VERIFY_BALANCES, this::verifyBalances);
                     }
-                } else {
-                    Log.d(TAG, DatabaseConstants.MSG_DATABASE_EXISTS);
-                    
-                    // Проверяем, есть ли данные
-                    int currencyCount = database.currencyDao().count(EntityFilter.ALL);
-                    int categoryCount = database.categoryDao().count(EntityFilter.ALL);
-                    int accountCount = database.accountDao().count(EntityFilter.ALL);
-                    
-                    Log.d(TAG, String.format(DatabaseConstants.MSG_DATA_STATISTICS, 
-                          currencyCount, categoryCount, accountCount));
-                }
+                }, executor);
                 
+                // Новую базу прогреваем после заполнения, существующую - параллельно со статистикой
+                CompletableFuture<Void> warm = isNewDatabase
+                    ? data.thenCompose(ignored -> warmUpCaches(trace))
+                    : warmUpCaches(trace);
+                
+                return CompletableFuture.allOf(data, warm);
+            })
+            .thenApply(ignored -> {
+                trace.finish();
                 Log.d(TAG, DatabaseConstants.MSG_DATABASE_INIT_COMPLETE);
+                Log.d(TAG, DatabaseConstants.MSG_STARTUP_TRACE + trace);
+                // Контрольные точки баланса заполняются в фоне и не задерживают запуск
+                BackendContainer.get(context).balanceCheckpoints().backfillAsync();
+                // Очистка удаленных строк - когда главный поток простаивает
+                BackendContainer.get(context).dataRetention().scheduleOnIdle();
                 return true;
-                
-            } catch (Exception e) {
+            })
+            .exceptionally(e -> {
+                trace.finish();
                 Log.e(TAG, DatabaseConstants.MSG_DATABASE_INIT_ERROR + e.getMessage(), e);
                 return false;
+            });
+    }
+    
+    /**
+     * Получить трассу последнего запуска базы данных
+     * @return трасса или null, если инициализация не запускалась
+     */
+    public static StartupTrace getLastStartupTrace() {
+        return lastStartupTrace;
+    }
+    
+    /**
+     * Проверяет наличие файла и открывает базу данных
+     * Файл проверяется до getDatabase(), иначе проверка всегда видит уже созданную БД
+     * @return true, если база данных создается впервые
+     */
+    private boolean openDatabase(StartupTrace trace) {
+        Log.d(TAG, DatabaseConstants.MSG_DATABASE_INIT_CHECK);
+        
+        final boolean[] isNewDatabase = new boolean[1];
+        trace.measure(DatabaseConstants.PHASE_CHECK_FILE, () -> {
+            File databaseFile = context.getDatabasePath(DATABASE_NAME);
+            isNewDatabase[0] = !databaseFile.exists();
+        });
+        
+        // Открытие соединения применяет WAL и профиль производительности (см. BudgetMasterDatabase)
+        trace.measure(DatabaseConstants.PHASE_OPEN, () ->
+            BudgetMasterDatabase.getDatabase(context).getOpenHelper().getWritableDatabase());
+        
+        Log.d(TAG, isNewDatabase[0] ? DatabaseConstants.MSG_DATABASE_NOT_EXISTS : DatabaseConstants.MSG_DATABASE_EXISTS);
+        return isNewDatabase[0];
+    }
+    
+    /**
+     * Создает дефолтные данные, если база пуста
+     */
+    private void seedDefaultData(BudgetMasterDatabase database) {
+        int currencyCount = database.currencyDao().count(EntityFilter.ALL);
+        int categoryCount = database.categoryDao().count(EntityFilter.ALL);
+        int accountCount = database.accountDao().count(EntityFilter.ALL);
+        
+        if (currencyCount == 0 && categoryCount == 0 && accountCount == 0) {
+            Log.d(TAG, DatabaseConstants.MSG_CREATE_DEFAULT_DATA);
+            // Массовая запись дефолтных и тестовых данных
+            BudgetMasterDatabase.runWithProfile(context, DatabasePerformanceProfile.BULK_IMPORT,
+                () -> DatabaseInitializer.initializeDefaultData(database));
+            Log.d(TAG, DatabaseConstants.MSG_DEFAULT_DATA_CREATED);
+        } else {
+            Log.d(TAG, DatabaseConstants.MSG_DEFAULT_DATA_EXISTS);
+        }
+    }
+    
+    /**
+     * Сверяет балансы счетов с журналом операций и исправляет расхождения
+     * Ошибка сверки не прерывает запуск
+     */
+    private void verifyBalances() {
+        try {
+            BackendContainer.get(context).ledger().verify(true);
+        } catch (Exception e) {
+            Log.e(TAG, ServiceConstants.MSG_LEDGER_VERIFY_ERROR + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Выводит статистику данных существующей базы
+     */
+    private void logStatistics(BudgetMasterDatabase database) {
+        int currencyCount = database.currencyDao().count(EntityFilter.ALL);
+        int categoryCount = database.categoryDao().count(EntityFilter.ALL);
+        int accountCount = database.accountDao().count(EntityFilter.ALL);
+        
+        Log.d(TAG, String.format(DatabaseConstants.MSG_DATA_STATISTICS, 
+              currencyCount, categoryCount, accountCount));
+    }
+    
+    /**
+     * Прогревает кэши, которые сразу нужны стартовому экрану и экранам операций:
+     * снимок справочных данных (счета, категории, валюты), временные ряды курсов
+     * и кэш сумм доходов/расходов за текущий месяц по каждой валюте.
+     * Снимок справочных данных собирается в своей очереди IoScheduler того же пула, поэтому
+     * его готовность не ждется блокирующе, а объединяется с остальным прогревом.
+     * Ошибка прогрева не прерывает запуск
+     * @return future завершения прогрева (всегда завершается без исключения)
+     */
+    private CompletableFuture<Void> warmUpCaches(StartupTrace trace) {
+        long start = System.nanoTime();
+        CompletableFuture<Void> referenceData = BackendContainer.get(context).referenceData().whenLoaded();
+        CompletableFuture<Void> totals = CompletableFuture.runAsync(this::warmUpRatesAndTotals, executor);
+        return CompletableFuture.allOf(referenceData, totals)
+            .handle((ignored, e) -> {
+                trace.record(DatabaseConstants.PHASE_WARM_UP, System.nanoTime() - start);
+                return null;
+            });
+    }
+    
+    /**
+     * Загружает временные ряды курсов и кладет в OperationTotalsCache суммы за текущий месяц
+     * с теми же конфигурациями, что строят калькуляторы стартового экрана
+     */
+    private void warmUpRatesAndTotals() {
+        try {
+            BackendContainer container = BackendContainer.get(context);
+            container.currencyRates().getTimeline();
+            
+            List<Currency> currencies = container.currencyRepository().getAllSync(EntityFilter.ACTIVE);
+            OperationService operations = container.operations(null);
+            LocalDate today = LocalDate.now();
+            int totals = 0;
+            for (Currency currency : currencies) {
+                for (OperationTypeFilter type : WARM_UP_OPERATION_TYPES) {
+                    operations.getTotalAmountByConfigSync(
+                        OperationCalculatorConfig.forMonth(today, type, currency.getId(), EntityFilter.ACTIVE));
+                    totals++;
+                }
             }
-        }, executor);
+            Log.d(TAG, String.format(DatabaseConstants.MSG_WARM_UP_COMPLETE, currencies.size(), totals));
+        } catch (Exception e) {
+            Log.w(TAG, DatabaseConstants.MSG_WARM_UP_ERROR + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.sadengineer.budgetmaster.backend.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+/**
+ * Миграции схемы базы данных
+ * Каждая новая версия схемы добавляет сюда свою миграцию и регистрируется в ALL
+ */
+public final class DatabaseMigrations {
+
+    private DatabaseMigrations() {
+    }
+
+    /**
+     * 1 -> 2: журнал балансов счетов
+     * Добавляет начальный остаток счета, индекс по счету-получателю перевода
+     * и приводит балансы к виду "начальный остаток + движения по операциям".
+     * Текущий баланс принимается за начальный остаток, затем пересчитывается по операциям
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `accounts` ADD COLUMN `openingAmount` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `accounts` SET `openingAmount` = `amount`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_operations_toAccountId` ON `operations` (`toAccountId`)");
+            db.execSQL("UPDATE accounts SET amount = openingAmount + " + RepositoryConstants.SQL_ACCOUNT_LEDGER_SUM);
+        }
+    };
+
+    /**
+     * 2 -> 3: контрольные точки баланса
+     * Таблица заполняется в фоне при запуске (BalanceCheckpointService.backfillAsync).
+     * Индекс по счету-получателю заменяется составными индексами (счет, дата) для
+     * ограниченных по периоду сумм движений
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `balance_checkpoints` (" +
+                    "`accountId` INTEGER NOT NULL, `yearMonth` TEXT NOT NULL, `closingBalance` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`accountId`, `yearMonth`), " +
+                    "FOREIGN KEY(`accountId`) REFERENCES `accounts`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("DROP INDEX IF EXISTS `index_operations_toAccountId`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_operations_accountId_operationDate` ON `operations` (`accountId`, `operationDate`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_operations_toAccountId_operationDate` ON `operations` (`toAccountId`, `operationDate`)");
+        }
+    };
+
+    /**
+     * 3 -> 4: полнотекстовый поиск по операциям
+     * Создает виртуальную таблицу FTS4 (тот же SQL, что генерирует Room для OperationSearchIndex),
+     * триггеры синхронизации и заполняет индекс по существующим операциям
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `operations_fts` USING FTS4(" +
+                    "`description` TEXT, `categoryTitle` TEXT, `accountTitle` TEXT, tokenize=unicode61)");
+            createSearchTriggers(db);
+            db.execSQL(RepositoryConstants.SQL_SEARCH_REBUILD);
+        }
+    };
+
+    /**
+     * 4 -> 5: индекс (валюта, дата) для агрегатных запросов OperationAggregateQuery
+     * Суммы калькуляторов всегда ограничены валютой и периодом
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_operations_currencyId_operationDate` ON `operations` (`currencyId`, `operationDate`)");
+        }
+    };
+
+    /**
+     * 5 -> 6: журнал изменений для синхронизации
+     * Создает таблицу журнала (тот же SQL, что генерирует Room для SyncChange), триггеры
+     * и записывает в журнал все существующие строки, чтобы первая синхронизация их отправила
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_changes` (" +
+                    "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `tableName` TEXT NOT NULL, " +
+                    "`rowId` INTEGER NOT NULL, `changeTime` TEXT)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sync_changes_tableName_rowId` ON `sync_changes` (`tableName`, `rowId`)");
+            createSyncTriggers(db);
+            for (String table : RepositoryConstants.SYNC_TABLES) {
+                db.execSQL(RepositoryConstants.syncSeedSql(table));
+            }
+        }
+    };
+
+    /**
+     * 6 -> 7: история курсов валют
+     * Создает таблицу (тот же SQL, что генерирует Room для CurrencyRate), триггеры
+     * и записывает текущий курс каждой валюты как действующий с 1970-01-01
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `currency_rates` (" +
+                    "`currencyId` INTEGER NOT NULL, `validFromEpochDay` INTEGER NOT NULL, `rate` REAL NOT NULL, " +
+                    "PRIMARY KEY(`currencyId`, `validFromEpochDay`), " +
+                    "FOREIGN KEY(`currencyId`) REFERENCES `currencies`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            createCurrencyRateTriggers(db);
+            db.execSQL(RepositoryConstants.SQL_CURRENCY_RATE_SEED);
+        }
+    };
+
+    /** Все миграции в порядке версий */
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7
+    };
+
+    /**
+     * Создает триггеры индекса полнотекстового поиска (повторный вызов безопасен)
+     * @param db база данных
+     */
+    static void createSearchTriggers(SupportSQLiteDatabase db) {
+        for (String sql : RepositoryConstants.SQL_SEARCH_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Создает триггеры журнала изменений синхронизации (повторный вызов безопасен)
+     * @param db база данных
+     */
+    static void createSyncTriggers(SupportSQLiteDatabase db) {
+        for (String sql : RepositoryConstants.SQL_SYNC_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Создает триггеры истории курсов валют (повторный вызов безопасен)
+     * @param db база данных
+     */
+    static void createCurrencyRateTriggers(SupportSQLiteDatabase db) {
+        for (String sql : RepositoryConstants.SQL_CURRENCY_RATE_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.sadengineer.budgetmaster.backend.database;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Профили производительности SQLite
+ * Профиль применяется к базе через RoomDatabase.Callback при открытии
+ * и может быть временно переключен (например, на время массового импорта)
+ */
+public enum DatabasePerformanceProfile {
+
+    /**
+     * Сбалансированный профиль для обычной работы приложения
+     * synchronous=NORMAL безопасен в режиме WAL: при сбое питания теряется только последняя транзакция
+     */
+    BALANCED("balanced", 8 * 1024, 64L * 1024 * 1024, "NORMAL", "MEMORY"),
+
+    /**
+     * Профиль для массовой записи (импорт, заполнение тестовыми данными)
+     * Отключает синхронизацию с диском и увеличивает кэш страниц.
+     * Использовать только временно, через BudgetMasterDatabase.runWithProfile
+     */
+    BULK_IMPORT("bulk-import", 32 * 1024, 128L * 1024 * 1024, "OFF", "MEMORY");
+
+    private final String profileName;
+    private final int cacheSizeKib;
+    private final long mmapSizeBytes;
+    private final String synchronous;
+    private final String tempStore;
+
+    DatabasePerformanceProfile(String profileName, int cacheSizeKib, long mmapSizeBytes,
+                               String synchronous, String tempStore) {
+        this.profileName = profileName;
+        this.cacheSizeKib = cacheSizeKib;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.synchronous = synchronous;
+        this.tempStore = tempStore;
+    }
+
+    /**
+     * Регистрирует PRAGMA профиля для всех соединений базы (один раз, при открытии)
+     * Все четыре настройки действуют на одно соединение, а в режиме WAL у базы есть соединение
+     * записи и соединения чтения. Начиная с API 30 настройки регистрируются через
+     * execPerConnectionSQL: фреймворк выполняет их на всех открытых соединениях и повторяет
+     * на каждом новом. Зарегистрированные строки не удаляются, поэтому повторно регистрировать
+     * профиль нельзя: переключения после открытия выполняются через applyToWriter.
+     * На старых версиях настройки получает только соединение записи.
+     * @param db база данных
+     */
+    public void register(SupportSQLiteDatabase db) {
+        if (!db.isExecPerConnectionSQLSupported()) {
+            applyToWriter(db);
+            return;
+        }
+        for (String pragma : pragmas()) {
+            db.execPerConnectionSQL(pragma, null);
+        }
+    }
+
+    /**
+     * Применяет PRAGMA профиля к соединению записи (execSQL выполняется на нем)
+     * Используется для временного переключения, например на время массовой записи:
+     * соединения чтения сохраняют профиль, зарегистрированный при открытии
+     * @param db база данных
+     */
+    public void applyToWriter(SupportSQLiteDatabase db) {
+        for (String pragma : pragmas()) {
+            if (pragma.startsWith("PRAGMA mmap_size")) {
+                // mmap_size возвращает строку с новым значением: execSQL ее не принимает,
+                // а курсор выполняет PRAGMA только при переходе к первой строке
+                try (Cursor cursor = db.query(pragma)) {
+                    cursor.moveToFirst();
+                }
+            } else {
+                db.execSQL(pragma);
+            }
+        }
+    }
+
+    private String[] pragmas() {
+        // Отрицательное значение cache_size задается в КиБ
+        return new String[] {
+                "PRAGMA cache_size = -" + cacheSizeKib,
+                "PRAGMA mmap_size = " + mmapSizeBytes,
+                "PRAGMA synchronous = " + synchronous,
+                "PRAGMA temp_store = " + tempStore
+        };
+    }
+
+    /**
+     * Читает фактические значения настроек профиля для проверки
+     * @param db база данных
+     * @return строка вида "cache_size=-8192, mmap_size=67108864, synchronous=1, temp_store=2"
+     */
+    public static String readBack(SupportSQLiteDatabase db) {
+        return "cache_size=" + DatabaseMaintenance.queryLong(db, "PRAGMA cache_size")
+                + ", mmap_size=" + DatabaseMaintenance.queryLong(db, "PRAGMA mmap_size")
+                + ", synchronous=" + DatabaseMaintenance.queryLong(db, "PRAGMA synchronous")
+                + ", temp_store=" + DatabaseMaintenance.queryLong(db, "PRAGMA temp_store");
+    }
+
+    /**
+     * Найти профиль по имени
+     * @param name имя профиля ("balanced", "bulk-import")
+     * @return профиль или BALANCED, если имя неизвестно
+     */
+    public static DatabasePerformanceProfile fromName(String name) {
+        for (DatabasePerformanceProfile profile : values()) {
+            if (profile.profileName.equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        return BALANCED;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public int getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    @Override
+    public String toString() {
+        return profileName + "{cache_size=" + cacheSizeKib + "KiB, mmap_size=" + mmapSizeBytes
+                + ", synchronous=" + synchronous + ", temp_store=" + tempStore + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.sadengineer.budgetmaster.backend.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Запросы к базе данных в трех формах поверх одного синхронного запроса
+ * - синхронно: вызывающий фоновый поток получает значение;
+ * - CompletableFuture: запрос выполняется в пуле запросов Room
+ *   (ThreadManager.getDatabaseQueryExecutor()), несколько запросов можно объединять
+ *   в фоне без возврата в главный поток;
+ * - LiveData: тот же запрос перевыполняется по уведомлению DatabaseChangeBus об изменении
+ *   указанных таблиц, пока у LiveData есть активные наблюдатели.
+ */
+public final class DatabaseQueries {
+    private static final String TAG = "DatabaseQueries";
+
+    /**
+     * Синхронный запрос (выполняется в фоновом потоке)
+     */
+    public interface Query<T> {
+        T run();
+    }
+
+    private DatabaseQueries() {
+    }
+
+    /**
+     * Выполняет запрос в пуле запросов Room
+     * @param query синхронный запрос
+     * @return результат запроса; при ошибке future завершается исключением
+     */
+    public static <T> CompletableFuture<T> async(Query<T> query) {
+        return CompletableFuture.supplyAsync(query::run, ThreadManager.getDatabaseQueryExecutor());
+    }
+
+    /**
+     * LiveData поверх синхронного запроса
+     * Запрос выполняется при появлении активного наблюдателя и после каждого изменения таблиц;
+     * без наблюдателей подписка на шину изменений снимается
+     * @param context контекст
+     * @param query синхронный запрос
+     * @param tables таблицы, от которых зависит результат (RepositoryConstants.TABLE_*)
+     * @return LiveData с результатом запроса
+     */
+    public static <T> LiveData<T> live(Context context, Query<T> query, String... tables) {
+        return new QueryLiveData<>(DatabaseChangeBus.getInstance(context), query, tables);
+    }
+
+    private static final class QueryLiveData<T> extends LiveData<T> {
+        private final DatabaseChangeBus changeBus;
+        private final Query<T> query;
+        private final String[] tables;
+        /** Номер последнего запуска: результаты устаревших запусков не публикуются */
+        private final AtomicInteger generation = new AtomicInteger();
+        private final DatabaseChangeBus.OnTablesChangedListener changeListener = changed -> load();
+
+        QueryLiveData(DatabaseChangeBus changeBus, Query<T> query, String[] tables) {
+            this.changeBus = changeBus;
+            this.query = query;
+            this.tables = tables;
+        }
+
+        @Override
+        protected void onActive() {
+            changeBus.addListener(changeListener, tables);
+            load();
+        }
+
+        @Override
+        protected void onInactive() {
+            changeBus.removeListener(changeListener);
+        }
+
+        private void load() {
+            int started = generation.incrementAndGet();
+            async(query).whenComplete((value, error) -> {
+                if (error != null) {
+                    Log.e(TAG, DatabaseConstants.MSG_QUERY_ERROR + error.getMessage(), error);
+                } else if (started == generation.get()) {
+                    postValue(value);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sadengineer.budgetmaster.backend.database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Трасса запуска базы данных с длительностью каждой фазы
+ * Фазы могут выполняться параллельно в разных потоках
+ */
+public class StartupTrace {
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseDurations = new LinkedHashMap<>();
+    private volatile long totalNanos = -1;
+
+    /**
+     * Выполняет фазу и записывает её длительность
+     * @param phase имя фазы
+     * @param action действие фазы
+     */
+    public void measure(String phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Записывает длительность фазы
+     * @param phase имя фазы
+     * @param durationNanos длительность в наносекундах
+     */
+    public synchronized void record(String phase, long durationNanos) {
+        phaseDurations.put(phase, durationNanos);
+    }
+
+    /**
+     * Фиксирует общее время запуска
+     */
+    public void finish() {
+        totalNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Длительности фаз в миллисекундах в порядке завершения
+     * @return карта фаза -> мс
+     */
+    public synchronized Map<String, Long> getPhaseMillis() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : phaseDurations.entrySet()) {
+            result.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Общее время запуска в миллисекундах (-1, если запуск ещё не завершён)
+     * @return общее время в мс
+     */
+    public long getTotalMillis() {
+        long total = totalNanos;
+        return total < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(total);
+    }
+
+    @Override
+    public String toString() {
+        return "StartupTrace{total=" + getTotalMillis() + "ms, phases=" + getPhaseMillis() + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.sadengineer.budgetmaster.backend.entity;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
@@ -23,6 +24,8 @@ public class Account implements IEntity {
     private String title; // Название счета
     private int position; // Позиция для сортировки
     private long amount; // Сумма в копейках // Баланс счета
+    @ColumnInfo(defaultValue = "0")
+    private long openingAmount; // Начальный остаток в копейках (баланс без учета операций)
     private int type; // Тип счета (1=current, 2=savings, 3=credit)
     private int currencyId; // ID валюты
     private int closed; // Статус закрытия (0=open, 1=closed)
@@ -76,6 +79,14 @@ public class Account implements IEntity {
         this.amount = amount;
     }
     
+    public long getOpeningAmount() {
+        return openingAmount;
+    }
+    
+    public void setOpeningAmount(long openingAmount) {
+        this.openingAmount = openingAmount;
+    }
+    
     public int getType() {
         return type;
     }
@@ -0,0 +1,48 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+/**
+ * Результат сверки баланса счета с журналом операций (не таблица, результат запроса)
+ */
+public class AccountBalanceDrift {
+
+    private int accountId;
+    private long storedAmount; // Баланс, сохраненный в счете
+    private long expectedAmount; // Баланс, пересчитанный с нуля по операциям
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(int accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getStoredAmount() {
+        return storedAmount;
+    }
+
+    public void setStoredAmount(long storedAmount) {
+        this.storedAmount = storedAmount;
+    }
+
+    public long getExpectedAmount() {
+        return expectedAmount;
+    }
+
+    public void setExpectedAmount(long expectedAmount) {
+        this.expectedAmount = expectedAmount;
+    }
+
+    /**
+     * Расхождение: сохраненный баланс минус ожидаемый
+     */
+    public long getDrift() {
+        return storedAmount - expectedAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountBalanceDrift{accountId=" + accountId + ", stored=" + storedAmount
+                + ", expected=" + expectedAmount + ", drift=" + getDrift() + "}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+/**
+ * Entity класс для контрольных точек баланса счета
+ * Хранит баланс счета на конец месяца: начальный остаток + движения по активным операциям
+ * с датой до начала следующего месяца
+ */
+@Entity(tableName = RepositoryConstants.TABLE_BALANCE_CHECKPOINTS,
+        primaryKeys = {"accountId", "yearMonth"},
+        foreignKeys = {
+                @ForeignKey(entity = Account.class,
+                        parentColumns = "id",
+                        childColumns = "accountId",
+                        onDelete = ForeignKey.CASCADE)
+        })
+public class BalanceCheckpoint {
+
+    private int accountId;
+    @NonNull
+    private String yearMonth = ""; // Месяц в формате yyyy-MM (YearMonth.toString())
+    private long closingBalance; // Баланс на конец месяца в копейках
+
+    // Конструктор для Room
+    public BalanceCheckpoint() {}
+
+    public BalanceCheckpoint(int accountId, @NonNull String yearMonth, long closingBalance) {
+        this.accountId = accountId;
+        this.yearMonth = yearMonth;
+        this.closingBalance = closingBalance;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(int accountId) {
+        this.accountId = accountId;
+    }
+
+    @NonNull
+    public String getYearMonth() {
+        return yearMonth;
+    }
+
+    public void setYearMonth(@NonNull String yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+
+    public long getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(long closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceCheckpoint{accountId=" + accountId + ", yearMonth=" + yearMonth
+                + ", closingBalance=" + closingBalance + "}";
+    }
+}
@@ -0,0 +1,26 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+/**
+ * Сумма операций в интервале временного ряда (не таблица, результат запроса)
+ */
+public class BucketTotal {
+
+    private int bucket; // Номер интервала от начала периода (с 0)
+    private long total; // Сумма операций интервала в копейках
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
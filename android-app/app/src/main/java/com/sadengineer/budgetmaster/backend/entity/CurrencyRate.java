@@ -0,0 +1,60 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+/**
+ * Entity класс для истории курсов валют
+ * Курс действует с указанного дня до дня следующей записи той же валюты.
+ * Записи создаются триггером при изменении Currency.exchangeRate
+ * (RepositoryConstants.SQL_CURRENCY_RATE_TRIGGERS) или задаются задним числом
+ */
+@Entity(tableName = RepositoryConstants.TABLE_CURRENCY_RATES,
+        primaryKeys = {"currencyId", "validFromEpochDay"},
+        foreignKeys = {
+                @ForeignKey(entity = Currency.class,
+                        parentColumns = "id",
+                        childColumns = "currencyId",
+                        onDelete = ForeignKey.CASCADE)
+        })
+public class CurrencyRate {
+
+    private int currencyId;
+    private int validFromEpochDay; // Первый день действия курса (LocalDate.toEpochDay())
+    private double rate; // Курс к главной валюте, как Currency.exchangeRate
+
+    // Конструктор для Room
+    public CurrencyRate() {}
+
+    public CurrencyRate(int currencyId, int validFromEpochDay, double rate) {
+        this.currencyId = currencyId;
+        this.validFromEpochDay = validFromEpochDay;
+        this.rate = rate;
+    }
+
+    public int getCurrencyId() {
+        return currencyId;
+    }
+
+    public void setCurrencyId(int currencyId) {
+        this.currencyId = currencyId;
+    }
+
+    public int getValidFromEpochDay() {
+        return validFromEpochDay;
+    }
+
+    public void setValidFromEpochDay(int validFromEpochDay) {
+        this.validFromEpochDay = validFromEpochDay;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,26 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+/**
+ * Сумма движений по счету за месяц (не таблица, результат запроса)
+ */
+public class MonthlyMovement {
+
+    private String yearMonth; // Месяц в формате yyyy-MM
+    private long movement; // Сумма изменений баланса за месяц в копейках
+
+    public String getYearMonth() {
+        return yearMonth;
+    }
+
+    public void setYearMonth(String yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+
+    public long getMovement() {
+        return movement;
+    }
+
+    public void setMovement(long movement) {
+        this.movement = movement;
+    }
+}
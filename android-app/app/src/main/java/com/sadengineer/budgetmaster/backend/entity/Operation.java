@@ -28,7 +28,10 @@ import java.time.LocalDateTime;
         },
         indices = {
                 @Index("accountId"),
-                @Index("categoryId")
+                @Index("categoryId"),
+                @Index({"accountId", "operationDate"}),
+                @Index({"toAccountId", "operationDate"}),
+                @Index({"currencyId", "operationDate"})
         })
 @TypeConverters(DateTimeConverter.class)
 public class Operation implements IEntity {
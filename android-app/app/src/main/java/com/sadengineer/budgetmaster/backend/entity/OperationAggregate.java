@@ -0,0 +1,41 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+/**
+ * Сумма и количество операций в группе (не таблица, результат агрегатного запроса)
+ * groupKey - значения группировок через "|" в порядке OperationAggregateQuery.groupBy
+ */
+public class OperationAggregate {
+
+    private String groupKey; // Ключ группы, например "12" или "2024-05|12"
+    private long total; // Сумма операций группы в копейках
+    private int count; // Количество операций группы
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationAggregate{groupKey=" + groupKey + ", total=" + total + ", count=" + count + "}";
+    }
+}
@@ -0,0 +1,63 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+/**
+ * Entity класс полнотекстового индекса операций (виртуальная таблица FTS4)
+ * rowid строки совпадает с id операции. Таблица заполняется только триггерами
+ * (RepositoryConstants.SQL_SEARCH_TRIGGERS), из кода в нее не пишут.
+ * Токенизатор unicode61 приводит кириллицу к нижнему регистру, "ё" приводится к "е" триггерами
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = RepositoryConstants.TABLE_OPERATIONS_SEARCH)
+public class OperationSearchIndex {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowid; // ID операции
+
+    private String description; // Описание операции
+    private String categoryTitle; // Название категории
+    private String accountTitle; // Название счета
+
+    // Конструктор для Room
+    public OperationSearchIndex() {}
+
+    public int getRowid() {
+        return rowid;
+    }
+
+    public void setRowid(int rowid) {
+        this.rowid = rowid;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCategoryTitle() {
+        return categoryTitle;
+    }
+
+    public void setCategoryTitle(String categoryTitle) {
+        this.categoryTitle = categoryTitle;
+    }
+
+    public String getAccountTitle() {
+        return accountTitle;
+    }
+
+    public void setAccountTitle(String accountTitle) {
+        this.accountTitle = accountTitle;
+    }
+}
@@ -0,0 +1,63 @@
+package com.sadengineer.budgetmaster.backend.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity класс для журнала изменений синхронизации
+ * Заполняется триггерами (RepositoryConstants.SQL_SYNC_TRIGGERS): на каждую измененную
+ * строку синхронизируемой таблицы хранится одна запись с последним номером изменения
+ */
+@Entity(tableName = RepositoryConstants.TABLE_SYNC_CHANGES,
+        indices = {@Index({"tableName", "rowId"})})
+public class SyncChange {
+
+    @PrimaryKey(autoGenerate = true)
+    private long seq; // Монотонно растущий номер изменения
+    @NonNull
+    private String tableName = ""; // Имя измененной таблицы
+    private int rowId; // ID измененной строки
+    private LocalDateTime changeTime; // Время изменения
+
+    // Конструктор для Room
+    public SyncChange() {}
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    @NonNull
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(@NonNull String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(int rowId) {
+        this.rowId = rowId;
+    }
+
+    public LocalDateTime getChangeTime() {
+        return changeTime;
+    }
+
+    public void setChangeTime(LocalDateTime changeTime) {
+        this.changeTime = changeTime;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sadengineer.budgetmaster.backend.interfaces;
+
+/**
+ * Слушатель прогресса пакетной обработки (пакетная запись, выгрузка данных)
+ * Вызывается в фоновом потоке после каждой пачки, поэтому в UI значения нужно передавать через postValue
+ */
+public interface IBulkProgressListener {
+
+    /**
+     * Обработана очередная пачка
+     * @param processed количество обработанных ID (строк)
+     * @param total общее количество ID (строк)
+     */
+    void onProgress(int processed, int total);
+}
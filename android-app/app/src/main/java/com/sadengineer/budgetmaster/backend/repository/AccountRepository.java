@@ -1,28 +1,45 @@
 package com.sadengineer.budgetmaster.backend.repository;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.dao.AccountDao;
 import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.database.DatabaseQueries;
 import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.AccountBalanceDrift;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository класс для работы с Account Entity
  */
 public class AccountRepository {
 
+    private final Context context;
     private final AccountDao dao;
+    private final BudgetMasterDatabase database;
     
     public AccountRepository(Context context) {
-        BudgetMasterDatabase database = BudgetMasterDatabase.getDatabase(context);
+        this.context = context.getApplicationContext();
+        this.database = BudgetMasterDatabase.getDatabase(context);
         this.dao = database.accountDao();
     }
 
+    /**
+     * Выполняет действия в одной транзакции базы данных
+     * @param body действия транзакции
+     */
+    public void runInTransaction(Runnable body) {
+        database.runInTransaction(body);
+    }
+
     /**
      * Получить все счета по фильтру
      * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
@@ -42,6 +59,15 @@ public class AccountRepository {
         return dao.getAllByCurrency(currencyId, filter);
     }
     
+    /**
+     * Получить все счета по фильтру (синхронно)
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return список счетов
+     */
+    public List<Account> getAllSync(EntityFilter filter) {
+        return dao.getAllSync(filter);
+    }
+    
     /**
      * Получить все счета по ID валюты (синхронно)
      * @param currencyId ID валюты
@@ -61,6 +87,16 @@ public class AccountRepository {
     public LiveData<List<Account>> getAllByType(int type, EntityFilter filter) {
         return dao.getAllByType(type, filter);
     }
+
+    /**
+     * Получить все счета по типу и по фильтру синхронно
+     * @param type тип счета
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return список счетов
+     */
+    public List<Account> getAllByTypeSync(int type, EntityFilter filter) {
+        return dao.getAllByTypeSync(type, filter);
+    }
        
     /**
      * Получить счет по ID (включая удаленные)
@@ -70,6 +106,15 @@ public class AccountRepository {
     public LiveData<Account> getById(int id) {
         return dao.getById(id);
     }
+
+    /**
+     * Получить счет по ID синхронно (включая удаленные)
+     * @param id ID счета
+     * @return счет или null
+     */
+    public Account getByIdSync(int id) {
+        return dao.getByIdSync(id);
+    }
     
     /**
      * Получить счет по названию (включая удаленные)
@@ -160,10 +205,130 @@ public class AccountRepository {
      * @param currencyId ID валюты
      * @param type тип счета (1 - текущие, 2 - сбережения, 3 - кредитные)
      * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
-     * @return список пар "ID валюты - сумма" для указанной валюты
+     * @return LiveData с суммой (null, если счетов нет); обновляется при изменении счетов
      */
     public LiveData<Long> getTotalAmountByCurrencyAndType(int currencyId, int type, EntityFilter filter) {
-        return dao.getTotalAmountByCurrencyAndType(currencyId, type, filter);
+        return DatabaseQueries.live(context, () -> getTotalAmountByCurrencyAndTypeSync(currencyId, type, filter),
+                RepositoryConstants.TABLE_ACCOUNTS);
+    }
+
+    /**
+     * Получить сумму на счетах по типу и ID валюты (синхронно)
+     * @param currencyId ID валюты
+     * @param type тип счета (1 - текущие, 2 - сбережения, 3 - кредитные)
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return сумма (null, если счетов нет)
+     */
+    public Long getTotalAmountByCurrencyAndTypeSync(int currencyId, int type, EntityFilter filter) {
+        return dao.getTotalAmountByCurrencyAndTypeSync(currencyId, type, filter);
+    }
+
+    /**
+     * Получить сумму на счетах по типу и ID валюты в пуле запросов
+     * @param currencyId ID валюты
+     * @param type тип счета (1 - текущие, 2 - сбережения, 3 - кредитные)
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return future с суммой (null, если счетов нет)
+     */
+    public CompletableFuture<Long> getTotalAmountByCurrencyAndTypeAsync(int currencyId, int type, EntityFilter filter) {
+        return DatabaseQueries.async(() -> getTotalAmountByCurrencyAndTypeSync(currencyId, type, filter));
+    }
+
+    /**
+     * Пометить счета удаленными одним запросом
+     * @param ids ID счетов (не больше RepositoryConstants.BULK_WRITE_CHUNK_SIZE)
+     * @param deleteTime время удаления
+     * @param deletedBy пользователь
+     * @return количество измененных счетов
+     */
+    public int softDeleteByIds(List<Integer> ids, LocalDateTime deleteTime, String deletedBy) {
+        return dao.softDeleteByIds(ids, deleteTime, deletedBy);
     }
 
+    /**
+     * Восстановить удаленные счета одним запросом, разместив их в конце списка
+     * @param ids ID счетов (не больше RepositoryConstants.BULK_WRITE_CHUNK_SIZE)
+     * @param updateTime время изменения
+     * @param updatedBy пользователь
+     * @return количество восстановленных счетов
+     */
+    public int restoreByIds(List<Integer> ids, LocalDateTime updateTime, String updatedBy) {
+        dao.assignPositionsAfter(ids, dao.getMaxPosition());
+        return dao.restoreByIds(ids, updateTime, updatedBy);
+    }
+
+    /**
+     * Уплотнить позиции активных счетов
+     */
+    public void compactPositions() {
+        dao.compactPositions();
+    }
+
+    /**
+     * Изменить баланс счета на величину изменения
+     * @param accountId ID счета
+     * @param delta изменение баланса в копейках
+     */
+    public void addToAmount(int accountId, long delta) {
+        dao.addToAmount(accountId, delta);
+    }
+
+    /**
+     * Установить начальный остаток счета
+     * @param accountId ID счета
+     * @param openingAmount начальный остаток в копейках
+     */
+    public void setOpeningAmount(int accountId, long openingAmount) {
+        dao.setOpeningAmount(accountId, openingAmount);
+    }
+
+    /**
+     * Получить сумму движений по счету по активным операциям (синхронно)
+     * @param accountId ID счета
+     * @return сумма движений в копейках
+     */
+    public long getLedgerSumSync(int accountId) {
+        return dao.getLedgerSumSync(accountId);
+    }
+
+    /**
+     * Пересчитать балансы всех счетов как начальный остаток + движения по операциям
+     */
+    public void rebuildAmountsFromLedger() {
+        dao.rebuildAmountsFromLedger();
+    }
+
+    /**
+     * Пересчитать балансы указанных счетов как начальный остаток + движения по операциям
+     * @param ids ID счетов
+     */
+    public void rebuildAmountsFromLedger(List<Integer> ids) {
+        dao.rebuildAmountsFromLedger(ids);
+    }
+
+    /**
+     * Получить счета, у которых сохраненный баланс расходится с операциями (синхронно)
+     * @return список расхождений
+     */
+    public List<AccountBalanceDrift> getBalanceDriftsSync() {
+        return dao.getBalanceDriftsSync();
+    }
+
+    /**
+     * Курсор для выгрузки по всем счетам (вызывающий код закрывает курсор)
+     * @return курсор
+     */
+    public Cursor getExportCursor() {
+        return dao.getExportCursor();
+    }
+
+    /**
+     * Окончательно удаляет пачку счетов, помеченных удаленными раньше указанного времени (синхронно)
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    public int purgeDeleted(LocalDateTime before, int limit) {
+        return dao.purgeDeleted(before, limit);
+    }
 }
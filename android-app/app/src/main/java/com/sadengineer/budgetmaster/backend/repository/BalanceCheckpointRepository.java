@@ -0,0 +1,112 @@
+package com.sadengineer.budgetmaster.backend.repository;
+
+import android.content.Context;
+
+import com.sadengineer.budgetmaster.backend.dao.BalanceCheckpointDao;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.BalanceCheckpoint;
+import com.sadengineer.budgetmaster.backend.entity.MonthlyMovement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository класс для работы с BalanceCheckpoint Entity
+ */
+public class BalanceCheckpointRepository {
+
+    private final BalanceCheckpointDao dao;
+    private final BudgetMasterDatabase database;
+
+    public BalanceCheckpointRepository(Context context) {
+        this.database = BudgetMasterDatabase.getDatabase(context);
+        this.dao = database.balanceCheckpointDao();
+    }
+
+    /**
+     * Выполняет действия в одной транзакции базы данных
+     * @param body действия транзакции
+     */
+    public void runInTransaction(Runnable body) {
+        database.runInTransaction(body);
+    }
+
+    /**
+     * Заменить контрольные точки счета
+     * @param accountId ID счета
+     * @param checkpoints новые контрольные точки
+     */
+    public void replaceForAccount(int accountId, List<BalanceCheckpoint> checkpoints) {
+        dao.deleteByAccount(accountId);
+        dao.insertAll(checkpoints);
+    }
+
+    /**
+     * Прибавить изменение к контрольным точкам счета начиная с месяца операции
+     * @param accountId ID счета
+     * @param fromYearMonth месяц операции (yyyy-MM)
+     * @param delta изменение в копейках
+     */
+    public void addDelta(int accountId, String fromYearMonth, long delta) {
+        dao.addDelta(accountId, fromYearMonth, delta);
+    }
+
+    /**
+     * Прибавить изменение ко всем контрольным точкам счета
+     * @param accountId ID счета
+     * @param delta изменение в копейках
+     */
+    public void addDeltaForAccount(int accountId, long delta) {
+        dao.addDeltaForAccount(accountId, delta);
+    }
+
+    /**
+     * Получить последнюю контрольную точку счета до указанного месяца
+     * @param accountId ID счета
+     * @param yearMonth месяц (yyyy-MM), не включая
+     * @return контрольная точка или null
+     */
+    public BalanceCheckpoint getLatestBefore(int accountId, String yearMonth) {
+        return dao.getLatestBefore(accountId, yearMonth);
+    }
+
+    /**
+     * Получить последний месяц с контрольной точкой
+     * @param accountId ID счета
+     * @return месяц (yyyy-MM) или null
+     */
+    public String getLastYearMonth(int accountId) {
+        return dao.getLastYearMonth(accountId);
+    }
+
+    /**
+     * Получить контрольные точки счета за период месяцев
+     * @param accountId ID счета
+     * @param fromYearMonth первый месяц (yyyy-MM)
+     * @param toYearMonth последний месяц (yyyy-MM)
+     * @return контрольные точки по возрастанию месяца
+     */
+    public List<BalanceCheckpoint> getRange(int accountId, String fromYearMonth, String toYearMonth) {
+        return dao.getRange(accountId, fromYearMonth, toYearMonth);
+    }
+
+    /**
+     * Получить суммы движений по счету по месяцам
+     * @param accountId ID счета
+     * @return движения по возрастанию месяца
+     */
+    public List<MonthlyMovement> getMonthlyMovements(int accountId) {
+        return dao.getMonthlyMovements(accountId);
+    }
+
+    /**
+     * Получить сумму движений по счету за период
+     * @param accountId ID счета
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @return сумма изменений баланса в копейках
+     */
+    public long getMovementByDateRange(int accountId, LocalDateTime startDate, LocalDateTime endDate) {
+        return dao.getMovementByDateRange(accountId, startDate, endDate);
+    }
+}
@@ -1,25 +1,32 @@
 package com.sadengineer.budgetmaster.backend.repository;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.dao.BudgetDao;
 import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.database.DatabaseQueries;
 import com.sadengineer.budgetmaster.backend.entity.Budget;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository класс для работы с Budget Entity
  */
 public class BudgetRepository {
 
+    private final Context context;
     private final BudgetDao dao;
     
     public BudgetRepository(Context context) {
+        this.context = context.getApplicationContext();
         BudgetMasterDatabase database = BudgetMasterDatabase.getDatabase(context);
         this.dao = database.budgetDao();
     }
@@ -44,6 +51,16 @@ public class BudgetRepository {
         return dao.getAllByOperationType(operationTypeIndex, filter);
     }
 
+    /**
+     * Получить все бюджеты по типу операции синхронно
+     * @param operationType фильтр типа операции (EXPENSE, INCOME)
+     * @param filter фильтр для выборки бюджетов (ACTIVE, DELETED, ALL)
+     * @return список бюджетов
+     */
+    public List<Budget> getAllByOperationTypeSync(OperationTypeFilter operationType, EntityFilter filter) {
+        return dao.getAllByOperationTypeSync(operationType.getIndex(), filter);
+    }
+
     /**
      * Получить все бюджеты по ID валюты и по фильтру
      * @param currencyId ID валюты
@@ -170,10 +187,48 @@ public class BudgetRepository {
      * Получить общую сумму бюджета по ID валюты по фильтру
      * @param currencyId ID валюты
      * @param filter фильтр для выборки бюджетов (ACTIVE, DELETED, ALL)
-     * @return общая сумма бюджета по ID валюты
+     * @return LiveData с суммой (null, если бюджетов нет); обновляется при изменении бюджетов
      */
     public LiveData<Long> getTotalAmountByCurrency(int currencyId, EntityFilter filter) {
-        return dao.getTotalAmountByCurrency(currencyId, filter);
+        return DatabaseQueries.live(context, () -> getTotalAmountByCurrencySync(currencyId, filter),
+                RepositoryConstants.TABLE_BUDGETS);
     }
 
-} 
\ No newline at end of file
+    /**
+     * Получить общую сумму бюджета по ID валюты (синхронно)
+     * @param currencyId ID валюты
+     * @param filter фильтр для выборки бюджетов (ACTIVE, DELETED, ALL)
+     * @return сумма (null, если бюджетов нет)
+     */
+    public Long getTotalAmountByCurrencySync(int currencyId, EntityFilter filter) {
+        return dao.getTotalAmountByCurrencySync(currencyId, filter);
+    }
+
+    /**
+     * Получить общую сумму бюджета по ID валюты в пуле запросов
+     * @param currencyId ID валюты
+     * @param filter фильтр для выборки бюджетов (ACTIVE, DELETED, ALL)
+     * @return future с суммой (null, если бюджетов нет)
+     */
+    public CompletableFuture<Long> getTotalAmountByCurrencyAsync(int currencyId, EntityFilter filter) {
+        return DatabaseQueries.async(() -> getTotalAmountByCurrencySync(currencyId, filter));
+    }
+
+    /**
+     * Курсор для выгрузки по всем бюджетам (вызывающий код закрывает курсор)
+     * @return курсор
+     */
+    public Cursor getExportCursor() {
+        return dao.getExportCursor();
+    }
+
+    /**
+     * Окончательно удаляет пачку бюджетов, помеченных удаленными раньше указанного времени (синхронно)
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    public int purgeDeleted(LocalDateTime before, int limit) {
+        return dao.purgeDeleted(before, limit);
+    }
+}
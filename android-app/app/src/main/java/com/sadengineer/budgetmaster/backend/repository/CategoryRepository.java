@@ -1,6 +1,7 @@
 package com.sadengineer.budgetmaster.backend.repository;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.lifecycle.LiveData;
 
@@ -10,6 +11,7 @@ import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
 import com.sadengineer.budgetmaster.backend.entity.Category;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -33,6 +35,14 @@ public class CategoryRepository {
         return dao.getAll(filter);
     }
     
+    /**
+     * Получить все категории синхронно, включая удаленные
+     * @return список категорий в порядке отображения
+     */
+    public List<Category> getAllSync() {
+        return dao.getAllSync();
+    }
+
     /**
      * Получить все категории по типу операции
      * @param operationType тип операции
@@ -154,4 +164,22 @@ public class CategoryRepository {
     public int getCount(EntityFilter filter) {
         return dao.count(filter);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Курсор для выгрузки по всем категориям (вызывающий код закрывает курсор)
+     * @return курсор
+     */
+    public Cursor getExportCursor() {
+        return dao.getExportCursor();
+    }
+
+    /**
+     * Окончательно удаляет пачку категорий, помеченных удаленными раньше указанного времени (синхронно)
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    public int purgeDeleted(LocalDateTime before, int limit) {
+        return dao.purgeDeleted(before, limit);
+    }
+}
@@ -0,0 +1,59 @@
+package com.sadengineer.budgetmaster.backend.repository;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+
+import com.sadengineer.budgetmaster.backend.dao.CurrencyRateDao;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.CurrencyRate;
+
+import java.util.List;
+
+/**
+ * Repository класс для работы с CurrencyRate Entity
+ */
+public class CurrencyRateRepository {
+
+    private final CurrencyRateDao dao;
+
+    public CurrencyRateRepository(Context context) {
+        BudgetMasterDatabase database = BudgetMasterDatabase.getDatabase(context);
+        this.dao = database.currencyRateDao();
+    }
+
+    /**
+     * Записать курс валюты на день (заменяет курс того же дня)
+     * @param rate курс
+     */
+    public void insert(CurrencyRate rate) {
+        dao.insert(rate);
+    }
+
+    /**
+     * Удалить курс валюты, действующий с указанного дня
+     * @param currencyId ID валюты
+     * @param validFromEpochDay первый день действия курса
+     * @return количество удаленных записей
+     */
+    public int delete(int currencyId, int validFromEpochDay) {
+        return dao.delete(currencyId, validFromEpochDay);
+    }
+
+    /**
+     * Получить всю историю курсов
+     * @return курсы по возрастанию валюты и дня
+     */
+    public List<CurrencyRate> getAllSync() {
+        return dao.getAllSync();
+    }
+
+    /**
+     * Получить историю курсов валюты
+     * @param currencyId ID валюты
+     * @return курсы по возрастанию дня
+     */
+    public LiveData<List<CurrencyRate>> getByCurrency(int currencyId) {
+        return dao.getByCurrency(currencyId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.sadengineer.budgetmaster.backend.repository;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.lifecycle.LiveData;
 
@@ -9,6 +10,7 @@ import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -32,6 +34,15 @@ public class CurrencyRepository {
         return dao.getAll(filter);
     }
     
+    /**
+     * Получить все валюты по фильтру синхронно
+     * @param filter фильтр для выборки валют (ACTIVE, DELETED, ALL)
+     * @return список всех валют
+     */
+    public List<Currency> getAllSync(EntityFilter filter) {
+        return dao.getAllSync(filter);
+    }
+    
     /**
      * Получить валюту по ID (включая удаленные)
      * @param id ID валюты
@@ -225,4 +236,22 @@ public class CurrencyRepository {
     public List<Integer> getAvailableIdsSync(EntityFilter filter) {
         return dao.getAvailableIdsSync(filter);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Курсор для выгрузки по всем валютам (вызывающий код закрывает курсор)
+     * @return курсор
+     */
+    public Cursor getExportCursor() {
+        return dao.getExportCursor();
+    }
+
+    /**
+     * Окончательно удаляет пачку валют, помеченных удаленными раньше указанного времени (синхронно)
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    public int purgeDeleted(LocalDateTime before, int limit) {
+        return dao.purgeDeleted(before, limit);
+    }
+}
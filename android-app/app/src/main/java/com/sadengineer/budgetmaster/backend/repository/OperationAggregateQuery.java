@@ -0,0 +1,348 @@
+package com.sadengineer.budgetmaster.backend.repository;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsBucket;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.converter.DateTimeConverter;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Агрегатный запрос по операциям: сумма с любым набором условий и группировок
+ * Запрос компилируется в параметризованный SQL для @RawQuery OperationDao.
+ * Текст SQL зависит только от формы запроса (какие условия заданы, фильтр удаления,
+ * группировки) и кэшируется; значения условий передаются параметрами, поэтому
+ * одинаковые по форме запросы используют один и тот же план SQLite.
+ * Фильтр удаления встраивается в текст, а не передается через (:filter = ...) OR ...,
+ * чтобы планировщик мог использовать индексы по условиям.
+ * Вместо группировок можно задать интервал временного ряда (bucket): тогда запрос
+ * возвращает суммы по номерам интервалов от начала периода (BucketTotal)
+ */
+public final class OperationAggregateQuery {
+
+    /**
+     * Измерение группировки и его выражение в таблице операций
+     */
+    public enum Dimension {
+        CATEGORY("categoryId"),
+        ACCOUNT("accountId"),
+        CURRENCY("currencyId"),
+        TYPE("type"),
+        DAY("substr(operationDate, 1, 10)"),
+        MONTH("substr(operationDate, 1, 7)"),
+        YEAR("substr(operationDate, 1, 4)");
+
+        private final String expression;
+
+        Dimension(String expression) {
+            this.expression = expression;
+        }
+    }
+
+    /** Скомпилированные шаблоны SQL по форме запроса */
+    private static final Map<String, String> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final Integer type;
+    private final Integer categoryId;
+    private final Integer accountId;
+    private final Integer currencyId;
+    private final EntityFilter filter;
+    private final List<Dimension> groupBy;
+    private final StatisticsBucket bucket;
+    private final LocalDate bucketOrigin;
+
+    private OperationAggregateQuery(Builder builder) {
+        this.startDate = builder.startDate;
+        this.endDate = builder.endDate;
+        this.type = builder.type;
+        this.categoryId = builder.categoryId;
+        this.accountId = builder.accountId;
+        this.currencyId = builder.currencyId;
+        this.filter = builder.filter;
+        this.groupBy = Collections.unmodifiableList(new ArrayList<>(builder.groupBy));
+        this.bucket = builder.bucket;
+        this.bucketOrigin = builder.bucketOrigin;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * true, если запрос возвращает строки по группам (OperationAggregate), а не одну сумму
+     */
+    public boolean isGrouped() {
+        return !groupBy.isEmpty();
+    }
+
+    public List<Dimension> getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * true, если запрос возвращает суммы по интервалам временного ряда (BucketTotal)
+     */
+    public boolean isBucketed() {
+        return bucket != null;
+    }
+
+    /**
+     * Номер интервала, в который попадает дата (тот же, что вычисляет SQL)
+     * @param date дата
+     * @return номер интервала от начала периода
+     */
+    public int bucketIndexOf(LocalDate date) {
+        return bucket.numberOf((int) date.toEpochDay()) - bucket.numberOf((int) bucketOrigin.toEpochDay());
+    }
+
+    /**
+     * Компилирует запрос: шаблон SQL берется из кэша, параметры - из значений условий
+     * @return запрос для @RawQuery
+     */
+    public SupportSQLiteQuery compile() {
+        String sql = TEMPLATES.computeIfAbsent(shape(), key -> buildSql());
+        return new SimpleSQLiteQuery(sql, bindArgs());
+    }
+
+    /**
+     * Количество скомпилированных шаблонов (для логов и метрик)
+     */
+    public static int getTemplateCount() {
+        return TEMPLATES.size();
+    }
+
+    /**
+     * Форма запроса: заданные условия, фильтр и группировки (без значений)
+     */
+    private String shape() {
+        StringBuilder shape = new StringBuilder();
+        shape.append(startDate != null ? 'S' : '-')
+             .append(endDate != null ? 'E' : '-')
+             .append(type != null ? 'T' : '-')
+             .append(categoryId != null ? 'C' : '-')
+             .append(accountId != null ? 'A' : '-')
+             .append(currencyId != null ? 'V' : '-')
+             .append(filter);
+        for (Dimension dimension : groupBy) {
+            shape.append('|').append(dimension);
+        }
+        if (bucket != null) {
+            shape.append('#').append(bucket);
+        }
+        return shape.toString();
+    }
+
+    /**
+     * Строит текст SQL; порядок "?" совпадает с порядком bindArgs()
+     */
+    private String buildSql() {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (bucket != null) {
+            sql.append(bucketExpression()).append(" AS bucket, SUM(amount) AS total");
+        } else if (groupBy.isEmpty()) {
+            sql.append("SUM(amount)");
+        } else {
+            sql.append(groupKeyExpression()).append(" AS groupKey, SUM(amount) AS total, COUNT(*) AS count");
+        }
+        sql.append(" FROM ").append(RepositoryConstants.TABLE_OPERATIONS);
+
+        List<String> conditions = new ArrayList<>();
+        if (startDate != null) {
+            conditions.add("operationDate >= ?");
+        }
+        if (endDate != null) {
+            conditions.add("operationDate <= ?");
+        }
+        if (type != null) {
+            conditions.add("type = ?");
+        }
+        if (categoryId != null) {
+            conditions.add("categoryId = ?");
+        }
+        if (accountId != null) {
+            conditions.add("accountId = ?");
+        }
+        if (currencyId != null) {
+            conditions.add("currencyId = ?");
+        }
+        if (filter == EntityFilter.ACTIVE) {
+            conditions.add("deleteTime IS NULL");
+        } else if (filter == EntityFilter.DELETED) {
+            conditions.add("deleteTime IS NOT NULL");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (bucket != null) {
+            sql.append(" GROUP BY bucket");
+        } else if (!groupBy.isEmpty()) {
+            sql.append(" GROUP BY groupKey ORDER BY groupKey");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Номер интервала от начала периода; "?" - точка отсчета (bucketOriginArg).
+     * Разность с началом периода неотрицательна, поэтому целочисленное деление SQLite
+     * совпадает с floorDiv в StatisticsBucket
+     */
+    private String bucketExpression() {
+        switch (bucket) {
+            case DAY:
+                return "(" + RepositoryConstants.SQL_OPERATION_EPOCH_DAY + " - ?)";
+            case WEEK:
+                return "((" + RepositoryConstants.SQL_OPERATION_EPOCH_DAY + " - ?) / 7)";
+            case MONTH:
+                return "(CAST(substr(operationDate, 1, 4) AS INTEGER) * 12 + CAST(substr(operationDate, 6, 2) AS INTEGER) - ?)";
+            default:
+                return "(CAST(substr(operationDate, 1, 4) AS INTEGER) - ?)";
+        }
+    }
+
+    /**
+     * Точка отсчета номера интервала для bucketExpression
+     */
+    private long bucketOriginArg() {
+        LocalDate start = bucket.startOf(bucket.numberOf((int) bucketOrigin.toEpochDay()));
+        switch (bucket) {
+            case DAY:
+            case WEEK:
+                return start.toEpochDay();
+            case MONTH:
+                return start.getYear() * 12L + start.getMonthValue();
+            default:
+                return start.getYear();
+        }
+    }
+
+    private String groupKeyExpression() {
+        if (groupBy.size() == 1) {
+            return "CAST(" + groupBy.get(0).expression + " AS TEXT)";
+        }
+        List<String> parts = new ArrayList<>(groupBy.size());
+        for (Dimension dimension : groupBy) {
+            parts.add(dimension.expression);
+        }
+        return String.join(" || '|' || ", parts);
+    }
+
+    private Object[] bindArgs() {
+        List<Object> args = new ArrayList<>(7);
+        if (bucket != null) {
+            args.add(bucketOriginArg());
+        }
+        if (startDate != null) {
+            args.add(DateTimeConverter.dateToString(startDate));
+        }
+        if (endDate != null) {
+            args.add(DateTimeConverter.dateToString(endDate));
+        }
+        if (type != null) {
+            args.add(type);
+        }
+        if (categoryId != null) {
+            args.add(categoryId);
+        }
+        if (accountId != null) {
+            args.add(accountId);
+        }
+        if (currencyId != null) {
+            args.add(currencyId);
+        }
+        return args.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "OperationAggregateQuery{" + shape() + "}";
+    }
+
+    /**
+     * Builder агрегатного запроса; не заданное условие не ограничивает выборку
+     */
+    public static final class Builder {
+        private LocalDateTime startDate;
+        private LocalDateTime endDate;
+        private Integer type;
+        private Integer categoryId;
+        private Integer accountId;
+        private Integer currencyId;
+        private EntityFilter filter = EntityFilter.ACTIVE;
+        private final List<Dimension> groupBy = new ArrayList<>();
+        private StatisticsBucket bucket;
+        private LocalDate bucketOrigin;
+
+        private Builder() {
+        }
+
+        /** Период по дате операции, границы включительно */
+        public Builder period(LocalDateTime startDate, LocalDateTime endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            return this;
+        }
+
+        /** Тип операции (ModelConstants.OPERATION_TYPE_*), null - все типы */
+        public Builder type(Integer type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder category(Integer categoryId) {
+            this.categoryId = categoryId;
+            return this;
+        }
+
+        public Builder account(Integer accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        public Builder currency(Integer currencyId) {
+            this.currencyId = currencyId;
+            return this;
+        }
+
+        /** Фильтр удаления (по умолчанию ACTIVE) */
+        public Builder filter(EntityFilter filter) {
+            this.filter = filter != null ? filter : EntityFilter.ACTIVE;
+            return this;
+        }
+
+        /** Группировки в порядке частей groupKey */
+        public Builder groupBy(Dimension... dimensions) {
+            groupBy.addAll(Arrays.asList(dimensions));
+            return this;
+        }
+
+        /**
+         * Суммы по интервалам временного ряда вместо группировок
+         * @param bucket размер интервала
+         * @param origin дата, интервал которой получает номер 0 (обычно начало периода)
+         */
+        public Builder bucket(StatisticsBucket bucket, LocalDate origin) {
+            this.bucket = bucket;
+            this.bucketOrigin = origin;
+            return this;
+        }
+
+        public OperationAggregateQuery build() {
+            if (bucket != null && (!groupBy.isEmpty() || bucketOrigin == null)) {
+                throw new IllegalStateException("Интервал временного ряда требует точку отсчета и не совмещается с группировками");
+            }
+            return new OperationAggregateQuery(this);
+        }
+    }
+}
@@ -1,28 +1,46 @@
 package com.sadengineer.budgetmaster.backend.repository;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
 import com.sadengineer.budgetmaster.backend.dao.OperationDao;
 import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.database.DatabaseQueries;
+import com.sadengineer.budgetmaster.backend.entity.BucketTotal;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.entity.OperationAggregate;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository класс для работы с Operation Entity
  */
 public class OperationRepository {
 
+    private final Context context;
     private final OperationDao dao;
+    private final BudgetMasterDatabase database;
     
     public OperationRepository(Context context) {
-        BudgetMasterDatabase database = BudgetMasterDatabase.getDatabase(context);
+        this.context = context.getApplicationContext();
+        this.database = BudgetMasterDatabase.getDatabase(context);
         this.dao = database.operationDao();
     }
+    
+    /**
+     * Выполняет действия в одной транзакции базы данных
+     * Используется, когда запись операции и связанных данных (балансов счетов) должна быть атомарной
+     * @param body действия транзакции
+     */
+    public void runInTransaction(Runnable body) {
+        database.runInTransaction(body);
+    }
 
     /**
      * Подсчет операций с фильтром
@@ -250,6 +268,72 @@ public class OperationRepository {
         return dao.getById(id);
     }
     
+    /**
+     * Получает операцию по ID синхронно
+     * @param id ID операции
+     * @return операция или null
+     */
+    public Operation getByIdSync(int id) {
+        return dao.getByIdSync(id);
+    }
+
+    /**
+     * Получает операции по списку ID синхронно
+     * @param ids ID операций
+     * @return список операций
+     */
+    public List<Operation> getByIdsSync(List<Integer> ids) {
+        return dao.getByIdsSync(ids);
+    }
+
+    /**
+     * Курсор по активным операциям для аналитического снимка (вызывающий код закрывает курсор)
+     * @return курсор
+     */
+    public Cursor getSnapshotCursor() {
+        return dao.getSnapshotCursor();
+    }
+
+    /**
+     * Курсор по операциям, измененным после предыдущего обновления снимка (вызывающий код закрывает курсор)
+     * @param afterId наибольший ID, уже известный снимку
+     * @param since время начала предыдущего обновления
+     * @return курсор
+     */
+    public Cursor getSnapshotDeltaCursor(int afterId, LocalDateTime since) {
+        return dao.getSnapshotDeltaCursor(afterId, since);
+    }
+
+    /**
+     * Курсор по активным операциям с описанием для индекса подсказок (вызывающий код закрывает курсор)
+     * @return курсор (type, description, categoryId, accountId)
+     */
+    public Cursor getSuggestionCursor() {
+        return dao.getSuggestionCursor();
+    }
+
+    /**
+     * Помечает операции удаленными одним запросом
+     * @param ids ID операций (не больше RepositoryConstants.BULK_WRITE_CHUNK_SIZE)
+     * @param deleteTime время удаления
+     * @param deletedBy пользователь
+     * @return количество измененных операций
+     */
+    public int softDeleteByIds(List<Integer> ids, LocalDateTime deleteTime, String deletedBy) {
+        return dao.softDeleteByIds(ids, deleteTime, deletedBy);
+    }
+
+    /**
+     * Восстанавливает удаленные операции одним запросом
+     * @param ids ID операций (не больше RepositoryConstants.BULK_WRITE_CHUNK_SIZE)
+     * @param updateTime время изменения
+     * @param updatedBy пользователь
+     * @return количество восстановленных операций
+     */
+    public int restoreByIds(List<Integer> ids, LocalDateTime updateTime, String updatedBy) {
+        return dao.restoreByIds(ids, updateTime, updatedBy);
+    }
+    
     /**
      * Получает общую сумму операций по типу с фильтром
      * @param type тип операции
@@ -334,6 +418,18 @@ public class OperationRepository {
         return dao.getTotalAmountByDateRange(startDate, endDate, currencyId, filter);
     }
 
+    /**
+     * Получает общую сумму операций за период синхронно
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @param currencyId ID валюты
+     * @param filter фильтр сущностей
+     * @return общая сумма операций за период (null, если операций нет)
+     */
+    public Long getTotalAmountByDateRangeSync(LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter) {
+        return dao.getTotalAmountByDateRangeSync(startDate, endDate, currencyId, filter);
+    }
+
     /**
      * Получает общую сумму операций по типу за период
      * @param type тип операций
@@ -347,6 +443,19 @@ public class OperationRepository {
         return dao.getTotalAmountByTypeAndDateRange(type, startDate, endDate, currencyId, filter);
     }
 
+    /**
+     * Получает общую сумму операций по типу за период синхронно
+     * @param type тип операций
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @param currencyId ID валюты
+     * @param filter фильтр сущностей
+     * @return общая сумма операций по типу за период (null, если операций нет)
+     */
+    public Long getTotalAmountByTypeAndDateRangeSync(int type, LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter) {
+        return dao.getTotalAmountByTypeAndDateRangeSync(type, startDate, endDate, currencyId, filter);
+    }
+
     /**
      * Получить операции по типу и диапазону дат
      * @param type тип операции
@@ -372,6 +481,19 @@ public class OperationRepository {
         return dao.getTotalAmountByCategoryAndDateRange(categoryId, startDate, endDate, currencyId, filter);
     }
 
+    /**
+     * Получает общую сумму операций по категории за период синхронно
+     * @param categoryId ID категории
+     * @param startDate начало периода
+     * @param endDate конец периода
+     * @param currencyId ID валюты
+     * @param filter фильтр сущностей
+     * @return общая сумма операций по категории за период (null, если операций нет)
+     */
+    public Long getTotalAmountByCategoryAndDateRangeSync(Integer categoryId, LocalDateTime startDate, LocalDateTime endDate, int currencyId, EntityFilter filter) {
+        return dao.getTotalAmountByCategoryAndDateRangeSync(categoryId, startDate, endDate, currencyId, filter);
+    }
+
     /**
      * Получает общую сумму операций за месяц
      * @param year год
@@ -426,6 +548,15 @@ public class OperationRepository {
         return dao.getById((int)id);
     }
 
+    /**
+     * Вставить операцию синхронно
+     * @param operation операция
+     * @return ID вставленной операции или -1 при конфликте
+     */
+    public long insertSync(Operation operation) {
+        return dao.insert(operation);
+    }
+
     /**
      * Обновить операцию
      * @param operation операция для обновления
@@ -434,4 +565,106 @@ public class OperationRepository {
         dao.update(operation);
     }
 
-} 
\ No newline at end of file
+    /**
+     * Полнотекстовый поиск операций (страница)
+     * @param match выражение MATCH
+     * @param filter фильтр для выборки операций (ACTIVE, DELETED, ALL)
+     * @param limit размер страницы
+     * @param offset смещение страницы
+     * @return список найденных операций
+     */
+    public LiveData<List<Operation>> search(String match, EntityFilter filter, int limit, int offset) {
+        return dao.search(match, filter, limit, offset);
+    }
+
+    /**
+     * Количество операций, найденных полнотекстовым поиском
+     * @param match выражение MATCH
+     * @param filter фильтр для выборки операций (ACTIVE, DELETED, ALL)
+     * @return количество найденных операций
+     */
+    public LiveData<Integer> countSearch(String match, EntityFilter filter) {
+        return dao.countSearch(match, filter);
+    }
+
+    /**
+     * Курсор для выгрузки по всем операциям (вызывающий код закрывает курсор)
+     * @return курсор
+     */
+    public Cursor getExportCursor() {
+        return dao.getExportCursor();
+    }
+
+    /**
+     * Окончательно удаляет пачку операций, помеченных удаленными раньше указанного времени (синхронно)
+     * @param before граница времени удаления
+     * @param limit наибольшее число строк в пачке
+     * @return количество удаленных строк
+     */
+    public int purgeDeleted(LocalDateTime before, int limit) {
+        return dao.purgeDeleted(before, limit);
+    }
+
+    /**
+     * Сумма операций по агрегатному запросу
+     * @param query запрос без группировок
+     * @return LiveData с суммой (null, если операций нет); обновляется при изменении операций
+     */
+    public LiveData<Long> getTotalAmount(OperationAggregateQuery query) {
+        return DatabaseQueries.live(context, () -> getTotalAmountSync(query), RepositoryConstants.TABLE_OPERATIONS);
+    }
+
+    /**
+     * Сумма операций по агрегатному запросу в пуле запросов
+     * @param query запрос без группировок
+     * @return future с суммой (null, если операций нет)
+     */
+    public CompletableFuture<Long> getTotalAmountAsync(OperationAggregateQuery query) {
+        return DatabaseQueries.async(() -> getTotalAmountSync(query));
+    }
+
+    /**
+     * Сумма операций по агрегатному запросу (синхронно)
+     * @param query запрос без группировок
+     * @return сумма (null, если операций нет)
+     */
+    public Long getTotalAmountSync(OperationAggregateQuery query) {
+        return dao.getTotalAmountRawSync(query.compile());
+    }
+
+    /**
+     * Суммы операций по группам
+     * @param query запрос с группировками
+     * @return LiveData со списком групп; обновляется при изменении операций
+     */
+    public LiveData<List<OperationAggregate>> getAggregates(OperationAggregateQuery query) {
+        return DatabaseQueries.live(context, () -> getAggregatesSync(query), RepositoryConstants.TABLE_OPERATIONS);
+    }
+
+    /**
+     * Суммы операций по группам в пуле запросов
+     * @param query запрос с группировками
+     * @return future со списком групп
+     */
+    public CompletableFuture<List<OperationAggregate>> getAggregatesAsync(OperationAggregateQuery query) {
+        return DatabaseQueries.async(() -> getAggregatesSync(query));
+    }
+
+    /**
+     * Суммы операций по группам (синхронно)
+     * @param query запрос с группировками
+     * @return список групп
+     */
+    public List<OperationAggregate> getAggregatesSync(OperationAggregateQuery query) {
+        return dao.getAggregatesRawSync(query.compile());
+    }
+
+    /**
+     * Суммы операций по интервалам временного ряда (синхронно)
+     * @param query запрос с интервалом (OperationAggregateQuery.Builder.bucket)
+     * @return суммы непустых интервалов
+     */
+    public List<BucketTotal> getBucketTotalsSync(OperationAggregateQuery query) {
+        return dao.getBucketTotalsRawSync(query.compile());
+    }
+}
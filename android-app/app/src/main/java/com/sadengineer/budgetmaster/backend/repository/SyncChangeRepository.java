@@ -0,0 +1,181 @@
+package com.sadengineer.budgetmaster.backend.repository;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.sadengineer.budgetmaster.backend.dao.SyncChangeDao;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.entity.SyncChange;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository класс для работы с SyncChange Entity
+ * Кроме журнала изменений читает и записывает строки синхронизируемых таблиц целиком
+ * (по именам колонок схемы), чтобы передавать их без преобразования в сущности
+ */
+public class SyncChangeRepository {
+
+    private final SyncChangeDao dao;
+    private final BudgetMasterDatabase database;
+
+    /** Колонки таблиц по PRAGMA table_info (схема не меняется при открытой базе) */
+    private final Map<String, Set<String>> columns = new ConcurrentHashMap<>();
+
+    public SyncChangeRepository(Context context) {
+        this.database = BudgetMasterDatabase.getDatabase(context);
+        this.dao = database.syncChangeDao();
+    }
+
+    /**
+     * Выполняет действия в одной транзакции базы данных
+     * @param body действия транзакции
+     */
+    public void runInTransaction(Runnable body) {
+        database.runInTransaction(body);
+    }
+
+    /**
+     * Откладывает проверку внешних ключей до фиксации текущей транзакции
+     * (строки других устройств приходят не в порядке зависимостей)
+     */
+    public void deferForeignKeys() {
+        db().execSQL("PRAGMA defer_foreign_keys = ON");
+    }
+
+    /**
+     * Получить изменения после указанного номера
+     * @param afterSeq номер последнего отправленного изменения
+     * @param limit размер пачки
+     * @return изменения по возрастанию номера
+     */
+    public List<SyncChange> getAfter(long afterSeq, int limit) {
+        return dao.getAfter(afterSeq, limit);
+    }
+
+    /**
+     * Посчитать изменения после указанного номера
+     * @param afterSeq номер последнего отправленного изменения
+     * @return количество изменений
+     */
+    public int countAfter(long afterSeq) {
+        return dao.countAfter(afterSeq);
+    }
+
+    /**
+     * Получить последний номер изменения
+     * @return номер или 0
+     */
+    public long getMaxSeq() {
+        return dao.getMaxSeq();
+    }
+
+    /**
+     * Удалить подтвержденные изменения
+     * @param seq номер последнего подтвержденного изменения, включительно
+     * @return количество удаленных записей
+     */
+    public int deleteUpTo(long seq) {
+        return dao.deleteUpTo(seq);
+    }
+
+    /**
+     * Удалить изменения после указанного номера
+     * @param seq номер, после которого удалять
+     * @return количество удаленных записей
+     */
+    public int deleteAfter(long seq) {
+        return dao.deleteAfter(seq);
+    }
+
+    /**
+     * Получить колонки таблицы
+     * @param table имя таблицы
+     * @return имена колонок в порядке схемы
+     */
+    public Set<String> getColumns(String table) {
+        return columns.computeIfAbsent(table, t -> {
+            Set<String> names = new LinkedHashSet<>();
+            try (Cursor cursor = db().query("PRAGMA table_info(`" + t + "`)")) {
+                int nameIndex = cursor.getColumnIndexOrThrow("name");
+                while (cursor.moveToNext()) {
+                    names.add(cursor.getString(nameIndex));
+                }
+            }
+            return names;
+        });
+    }
+
+    /**
+     * Прочитать строку таблицы целиком
+     * @param table имя таблицы
+     * @param id ID строки
+     * @return значения колонок с типами SQLite или null, если строки нет
+     */
+    public ContentValues readRow(String table, int id) {
+        try (Cursor cursor = db().query("SELECT * FROM `" + table + "` WHERE id = ?", new Object[]{id})) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < cursor.getColumnCount(); i++) {
+                String name = cursor.getColumnName(i);
+                switch (cursor.getType(i)) {
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        values.put(name, cursor.getLong(i));
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT:
+                        values.put(name, cursor.getDouble(i));
+                        break;
+                    case Cursor.FIELD_TYPE_STRING:
+                        values.put(name, cursor.getString(i));
+                        break;
+                    case Cursor.FIELD_TYPE_BLOB:
+                        values.put(name, cursor.getBlob(i));
+                        break;
+                    default:
+                        values.putNull(name);
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Записать строку таблицы: обновить существующую или вставить новую
+     * REPLACE не используется: он удаляет строку и каскадно удаляет зависимые
+     * (например, контрольные точки баланса счета)
+     * @param table имя таблицы
+     * @param id ID строки
+     * @param values значения колонок (включая id)
+     */
+    public void upsertRow(String table, int id, ContentValues values) {
+        SupportSQLiteDatabase db = db();
+        int updated = db.update(table, SQLiteDatabase.CONFLICT_ABORT, values, "id = ?", new Object[]{id});
+        if (updated == 0) {
+            db.insert(table, SQLiteDatabase.CONFLICT_ABORT, values);
+        }
+    }
+
+    /**
+     * Удалить строку таблицы окончательно
+     * @param table имя таблицы
+     * @param id ID строки
+     * @return количество удаленных строк
+     */
+    public int deleteRow(String table, int id) {
+        return db().delete(table, "id = ?", new Object[]{id});
+    }
+
+    private SupportSQLiteDatabase db() {
+        return database.getOpenHelper().getWritableDatabase();
+    }
+}
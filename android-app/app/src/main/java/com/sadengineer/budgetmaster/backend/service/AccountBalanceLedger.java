@@ -0,0 +1,202 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.entity.AccountBalanceDrift;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Журнал балансов счетов
+ * Баланс счета = начальный остаток (openingAmount) + движения по активным операциям.
+ * Вместо пересчета по всем операциям баланс изменяется на дельту каждой записанной операции.
+ * Методы onOperationChanged должны вызываться в той же транзакции, что и запись операции.
+ */
+public class AccountBalanceLedger {
+    private static final String TAG = "AccountBalanceLedger";
+
+    private final AccountRepository accountRepo;
+    private final BalanceCheckpointService checkpoints;
+
+    public AccountBalanceLedger(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+        this.accountRepo = container.accountRepository();
+        this.checkpoints = container.balanceCheckpoints();
+    }
+
+    /**
+     * Применяет изменение операции к балансам счетов
+     * Старое состояние откатывается, новое применяется; удаленные операции не учитываются
+     * @param before состояние операции до записи (null - операции не было)
+     * @param after состояние операции после записи (null - операция удалена из БД)
+     */
+    public void onOperationChanged(Operation before, Operation after) {
+        BalanceDeltas deltas = new BalanceDeltas();
+        if (before != null && !before.isDeleted()) {
+            deltas.add(before, -1);
+        }
+        if (after != null && !after.isDeleted()) {
+            deltas.add(after, 1);
+        }
+        flush(deltas);
+    }
+
+    /**
+     * Откатывает пачку операций, которые были активны до пакетного удаления
+     * Изменения суммируются по счетам и месяцам, поэтому число UPDATE не зависит от размера пачки
+     * @param before состояния операций до удаления (удаленные пропускаются)
+     */
+    public void onOperationsDeleted(List<Operation> before) {
+        BalanceDeltas deltas = new BalanceDeltas();
+        for (Operation operation : before) {
+            if (!operation.isDeleted()) {
+                deltas.add(operation, -1);
+            }
+        }
+        flush(deltas);
+    }
+
+    /**
+     * Применяет пачку операций, которые были удалены до пакетного восстановления
+     * @param before состояния операций до восстановления (активные пропускаются)
+     */
+    public void onOperationsRestored(List<Operation> before) {
+        BalanceDeltas deltas = new BalanceDeltas();
+        for (Operation operation : before) {
+            if (operation.isDeleted()) {
+                deltas.add(operation, 1);
+            }
+        }
+        flush(deltas);
+    }
+
+    /**
+     * Записывает накопленные изменения в балансы счетов и контрольные точки
+     */
+    private void flush(BalanceDeltas deltas) {
+        for (Map.Entry<Integer, Long> entry : deltas.byAccount.entrySet()) {
+            if (entry.getValue() != 0) {
+                accountRepo.addToAmount(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<Integer, Map<YearMonth, Long>> account : deltas.byAccountMonth.entrySet()) {
+            for (Map.Entry<YearMonth, Long> month : account.getValue().entrySet()) {
+                checkpoints.onMovement(account.getKey(), month.getKey(), month.getValue());
+            }
+        }
+    }
+
+    /**
+     * Изменения балансов, накопленные по счетам и месяцам
+     */
+    private static class BalanceDeltas {
+        final Map<Integer, Long> byAccount = new HashMap<>();
+        final Map<Integer, Map<YearMonth, Long>> byAccountMonth = new HashMap<>();
+
+        /**
+         * Добавляет влияние операции на счета
+         * @param operation операция
+         * @param sign 1 - применить, -1 - откатить
+         */
+        void add(Operation operation, int sign) {
+            Integer toAccountId = operation.getToAccountId();
+            long sourceDelta;
+            if (toAccountId != null) {
+                sourceDelta = -operation.getAmount();
+            } else if (operation.getType() == ModelConstants.OPERATION_TYPE_INCOME) {
+                sourceDelta = operation.getAmount();
+            } else if (operation.getType() == ModelConstants.OPERATION_TYPE_EXPENSE) {
+                sourceDelta = -operation.getAmount();
+            } else {
+                sourceDelta = 0;
+            }
+            if (sourceDelta != 0) {
+                put(operation.getAccountId(), operation.getOperationDate(), sign * sourceDelta);
+            }
+            if (toAccountId != null) {
+                Long toAmount = operation.getToAmount();
+                long targetDelta = toAmount != null ? toAmount : operation.getAmount();
+                put(toAccountId, operation.getOperationDate(), sign * targetDelta);
+            }
+        }
+
+        private void put(int accountId, LocalDateTime date, long delta) {
+            byAccount.merge(accountId, delta, Long::sum);
+            // Операции без даты не попадают в контрольные точки
+            if (date != null) {
+                byAccountMonth.computeIfAbsent(accountId, id -> new HashMap<>())
+                        .merge(YearMonth.from(date), delta, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Находит счета, у которых сохраненный баланс расходится с журналом операций (синхронно)
+     * @return список расхождений (пустой, если балансы сходятся)
+     */
+    public List<AccountBalanceDrift> findDrifts() {
+        return accountRepo.getBalanceDriftsSync();
+    }
+
+    /**
+     * Пересчитывает балансы и контрольные точки всех счетов по журналу операций (синхронно)
+     */
+    public void rebuildAll() {
+        accountRepo.rebuildAmountsFromLedger();
+        checkpoints.rebuildAll();
+        Log.d(TAG, ServiceConstants.MSG_LEDGER_REPAIRED);
+    }
+
+    /**
+     * Пересчитывает балансы указанных счетов по журналу операций (синхронно)
+     * Контрольные точки не пересчитываются - для них BalanceCheckpointService.rebuildForAccount
+     * @param accountIds ID счетов
+     */
+    public void rebuildAmounts(List<Integer> accountIds) {
+        if (!accountIds.isEmpty()) {
+            accountRepo.rebuildAmountsFromLedger(accountIds);
+        }
+    }
+
+    /**
+     * Сверяет балансы счетов с журналом операций в фоновом потоке
+     * @param repair true - пересчитать балансы при найденных расхождениях
+     * @return future со списком найденных расхождений
+     */
+    public CompletableFuture<List<AccountBalanceDrift>> verifyAsync(boolean repair) {
+        return CompletableFuture.supplyAsync(() -> verify(repair), ThreadManager.getExecutor());
+    }
+
+    /**
+     * Сверяет балансы счетов с журналом операций (синхронно)
+     * @param repair true - пересчитать балансы при найденных расхождениях
+     * @return список найденных расхождений
+     */
+    public List<AccountBalanceDrift> verify(boolean repair) {
+        List<AccountBalanceDrift> drifts = findDrifts();
+        if (drifts.isEmpty()) {
+            Log.d(TAG, ServiceConstants.MSG_LEDGER_VERIFY_OK);
+            return drifts;
+        }
+        Log.w(TAG, String.format(ServiceConstants.MSG_LEDGER_DRIFT_FOUND, drifts.size()));
+        for (AccountBalanceDrift drift : drifts) {
+            Log.w(TAG, String.format(ServiceConstants.MSG_LEDGER_DRIFT, drift));
+        }
+        if (repair) {
+            accountRepo.runInTransaction(this::rebuildAll);
+        }
+        return drifts;
+    }
+}
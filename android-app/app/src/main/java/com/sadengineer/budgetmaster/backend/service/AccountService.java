@@ -7,15 +7,21 @@ import androidx.lifecycle.LiveData;
 import androidx.room.Transaction;
 
 import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
+import com.sadengineer.budgetmaster.backend.repository.OperationRepository;
 import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.backend.validator.AccountValidator;
+import com.sadengineer.budgetmaster.backend.interfaces.IBulkProgressListener;
 import com.sadengineer.budgetmaster.backend.interfaces.IService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -25,11 +31,20 @@ public class AccountService implements IService<Account> {
     private static final String TAG = "AccountService";
     
     private final AccountRepository repo;
+    private final BalanceCheckpointService checkpoints;
+    private final OperationRepository operationRepo;
+    private final AccountBalanceLedger ledger;
+    private final OperationTotalsCache totalsCache;
     private final ExecutorService executorService;
     private final String user;
 
     public AccountService(Context context, String user) {
-        this.repo = new AccountRepository(context);
+        BackendContainer container = BackendContainer.get(context);
+        this.repo = container.accountRepository();
+        this.checkpoints = container.balanceCheckpoints();
+        this.operationRepo = container.operationRepository();
+        this.ledger = container.ledger();
+        this.totalsCache = container.operationTotals();
         this.executorService = ThreadManager.getExecutor();
         this.user = user;
     }
@@ -150,6 +165,8 @@ public class AccountService implements IService<Account> {
         Account account = new Account();
         account.setTitle(title);
         account.setAmount(amount);
+        // Операций по новому счету еще нет, поэтому начальный остаток равен балансу
+        account.setOpeningAmount(amount);
         account.setCurrencyId(currencyId);
         account.setType(type);
         account.setClosed(closed);
@@ -197,13 +214,40 @@ public class AccountService implements IService<Account> {
     @Transaction
     public void deleteAccountInTransaction(Account account) {
         Log.d(TAG, String.format(ServiceConstants.MSG_DELETE_ACCOUNT_REQUEST, account.getTitle()));
+        // Операции счета удаляются каскадом мимо OperationService: кэш сумм сбрасывается
+        // целиком и не принимает значения, пока идет удаление
+        totalsCache.beginWrite();
         try {
-            repo.delete(account);
+            repo.runInTransaction(() -> {
+                // Переводы на другие счета откатываем в леджере заранее,
+                // иначе у счетов-получателей останется неверный баланс
+                ledger.onOperationsDeleted(findOutgoingTransfers(account.getId()));
+                totalsCache.invalidateAll();
+                repo.delete(account);
+            });
             Log.d(TAG, String.format(ServiceConstants.MSG_ACCOUNT_DELETED, account.getTitle()));
         } catch (Exception e) {
             Log.e(TAG, String.format(ServiceConstants.MSG_DELETE_ACCOUNT_ERROR, account.getTitle()) + e.getMessage(), e);
+        } finally {
+            totalsCache.endWrite();
         }
-    }   
+    }
+
+    /**
+     * Активные переводы со счета на другие счета, которые удалятся каскадом вместе со счетом
+     * @param accountId ID счета
+     * @return список переводов
+     */
+    private List<Operation> findOutgoingTransfers(int accountId) {
+        List<Operation> transfers = new ArrayList<>();
+        for (Operation operation : operationRepo.getAllByAccountSync(accountId, EntityFilter.ACTIVE)) {
+            Integer toAccountId = operation.getToAccountId();
+            if (toAccountId != null && toAccountId != accountId) {
+                transfers.add(operation);
+            }
+        }
+        return transfers;
+    }
     
     /**
      * Получить все счета
@@ -307,6 +351,56 @@ public class AccountService implements IService<Account> {
         }
     }
 
+    /**
+     * Пакетно удалить счета (soft delete)
+     * Все пачки выполняются в одной транзакции, позиции оставшихся счетов уплотняются одним запросом
+     * @param ids ID счетов
+     * @param listener слушатель прогресса (может быть null)
+     * @return future с количеством удаленных счетов (0 при ошибке)
+     */
+    public CompletableFuture<Integer> softDeleteAll(List<Integer> ids, IBulkProgressListener listener) {
+        return CompletableFuture.supplyAsync(() -> {
+            Log.d(TAG, String.format(ServiceConstants.MSG_BULK_SOFT_DELETE_ACCOUNTS_REQUEST, ids.size()));
+            LocalDateTime now = LocalDateTime.now();
+            int[] changed = {0};
+            try {
+                repo.runInTransaction(() -> {
+                    BulkChunks.forEachChunk(ids, listener,
+                            chunk -> changed[0] += repo.softDeleteByIds(chunk, now, user));
+                    repo.compactPositions();
+                });
+                Log.d(TAG, String.format(ServiceConstants.MSG_BULK_SOFT_DELETE_ACCOUNTS_SUCCESS, changed[0]));
+                return changed[0];
+            } catch (Exception e) {
+                Log.e(TAG, ServiceConstants.MSG_BULK_SOFT_DELETE_ACCOUNTS_ERROR + e.getMessage(), e);
+                return 0;
+            }
+        }, executorService);
+    }
+
+    /**
+     * Пакетно восстановить удаленные счета (в конец списка, в порядке ID)
+     * @param ids ID счетов
+     * @param listener слушатель прогресса (может быть null)
+     * @return future с количеством восстановленных счетов (0 при ошибке)
+     */
+    public CompletableFuture<Integer> restoreAll(List<Integer> ids, IBulkProgressListener listener) {
+        return CompletableFuture.supplyAsync(() -> {
+            Log.d(TAG, String.format(ServiceConstants.MSG_BULK_RESTORE_ACCOUNTS_REQUEST, ids.size()));
+            LocalDateTime now = LocalDateTime.now();
+            int[] changed = {0};
+            try {
+                repo.runInTransaction(() -> BulkChunks.forEachChunk(ids, listener,
+                        chunk -> changed[0] += repo.restoreByIds(chunk, now, user)));
+                Log.d(TAG, String.format(ServiceConstants.MSG_BULK_RESTORE_ACCOUNTS_SUCCESS, changed[0]));
+                return changed[0];
+            } catch (Exception e) {
+                Log.e(TAG, ServiceConstants.MSG_BULK_RESTORE_ACCOUNTS_ERROR + e.getMessage(), e);
+                return 0;
+            }
+        }, executorService);
+    }
+
     /**
      * Обновить счет
      * @param account счет
@@ -322,7 +416,7 @@ public class AccountService implements IService<Account> {
             account.setUpdateTime(LocalDateTime.now());
             account.setUpdatedBy(user);
             try {
-                repo.update(account);
+                repo.runInTransaction(() -> updateAccountInTransaction(account));
                 Log.d(TAG, String.format(ServiceConstants.MSG_ACCOUNT_UPDATED, account.getTitle()));
             } catch (Exception e) {
                 Log.e(TAG, String.format(ServiceConstants.MSG_UPDATE_ACCOUNT_ERROR, account.getTitle()) + e.getMessage(), e);
@@ -330,6 +424,35 @@ public class AccountService implements IService<Account> {
         });
     }
     
+    /**
+     * Транзакция для обновления счета
+     * Если пользователь изменил баланс вручную, начальный остаток пересчитывается так,
+     * чтобы баланс по-прежнему равнялся начальному остатку + движениям по операциям
+     * @param account счет
+     */
+    private void updateAccountInTransaction(Account account) {
+        Account stored = repo.getByIdSync(account.getId());
+        if (stored == null || stored.getAmount() != account.getAmount()) {
+            account.setOpeningAmount(account.getAmount() - repo.getLedgerSumSync(account.getId()));
+            if (stored != null) {
+                checkpoints.onOpeningAmountChanged(account.getId(), account.getOpeningAmount() - stored.getOpeningAmount());
+            }
+        } else {
+            account.setOpeningAmount(stored.getOpeningAmount());
+        }
+        repo.update(account);
+    }
+
+    /**
+     * Получить баланс счета на дату (синхронно, вызывать из фонового потока)
+     * @param accountId ID счета
+     * @param date дата
+     * @return баланс в копейках
+     */
+    public long getBalanceAtDateSync(int accountId, LocalDateTime date) {
+        return checkpoints.getBalanceAtDate(accountId, date);
+    }
+
     /**
      * Получить количество счетов
      * @param filter фильтр для выборки счетов
@@ -358,6 +481,31 @@ public class AccountService implements IService<Account> {
         return repo.getTotalAmountByCurrencyAndType(currencyId, type, filter);
     }
 
+    /**
+     * Получить общую сумму счетов по ID валюты, типу счета, фильтру (синхронно)
+     * Вызывать только из фонового потока
+     * @param currencyId ID валюты
+     * @param type тип счета (1 - текущие, 2 - сбережения, 3 - кредитные)
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return общая сумма счетов (0, если счетов нет)
+     */
+    public long getTotalAmountByCurrencyAndTypeSync(int currencyId, int type, EntityFilter filter) {
+        Long amount = repo.getTotalAmountByCurrencyAndTypeSync(currencyId, type, filter);
+        return amount != null ? amount : 0L;
+    }
+
+    /**
+     * Получить общую сумму счетов по ID валюты, типу счета, фильтру в пуле запросов
+     * @param currencyId ID валюты
+     * @param type тип счета (1 - текущие, 2 - сбережения, 3 - кредитные)
+     * @param filter фильтр для выборки счетов (ACTIVE, DELETED, ALL)
+     * @return future с общей суммой счетов (0, если счетов нет)
+     */
+    public CompletableFuture<Long> getTotalAmountByCurrencyAndTypeAsync(int currencyId, int type, EntityFilter filter) {
+        return repo.getTotalAmountByCurrencyAndTypeAsync(currencyId, type, filter)
+            .thenApply(amount -> amount != null ? amount : 0L);
+    }
+
     /**
      * Получить все счета по ID валюты (синхронно)
      * @param currencyId ID валюты
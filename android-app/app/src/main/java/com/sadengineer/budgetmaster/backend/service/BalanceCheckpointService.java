@@ -0,0 +1,183 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.BalanceCheckpoint;
+import com.sadengineer.budgetmaster.backend.entity.MonthlyMovement;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
+import com.sadengineer.budgetmaster.backend.repository.BalanceCheckpointRepository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Сервис контрольных точек баланса счетов
+ * Баланс на дату = последняя контрольная точка до месяца даты + движения за один месяц,
+ * поэтому стоимость запроса не растет с длиной истории операций.
+ * Контрольные точки поддерживаются инкрементально (AccountBalanceLedger) и
+ * заполняются в фоне при запуске (backfillAsync).
+ */
+public class BalanceCheckpointService {
+    private static final String TAG = "BalanceCheckpointService";
+
+    /** Нижняя граница периода, если у счета нет контрольной точки */
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    private final BalanceCheckpointRepository repo;
+    private final AccountRepository accountRepo;
+
+    public BalanceCheckpointService(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+        this.repo = container.balanceCheckpointRepository();
+        this.accountRepo = container.accountRepository();
+    }
+
+    /**
+     * Применяет суммарное движение по счету за месяц к контрольным точкам этого месяца и последующих
+     * Вызывается в транзакции записи операции
+     * @param accountId ID счета
+     * @param month месяц движения
+     * @param delta изменение баланса в копейках
+     */
+    public void onMovement(int accountId, YearMonth month, long delta) {
+        if (delta != 0) {
+            repo.addDelta(accountId, month.toString(), delta);
+        }
+    }
+
+    /**
+     * Применяет изменение начального остатка ко всем контрольным точкам счета
+     * @param accountId ID счета
+     * @param delta изменение начального остатка в копейках
+     */
+    public void onOpeningAmountChanged(int accountId, long delta) {
+        if (delta != 0) {
+            repo.addDeltaForAccount(accountId, delta);
+        }
+    }
+
+    /**
+     * Получает баланс счета на дату (синхронно)
+     * Учитываются активные операции с датой не позже указанной
+     * @param accountId ID счета
+     * @param date дата
+     * @return баланс в копейках (0, если счет не найден)
+     */
+    public long getBalanceAtDate(int accountId, LocalDateTime date) {
+        Account account = accountRepo.getByIdSync(accountId);
+        if (account == null) {
+            return 0;
+        }
+        BalanceCheckpoint checkpoint = repo.getLatestBefore(accountId, YearMonth.from(date).toString());
+        long base;
+        LocalDateTime from;
+        if (checkpoint != null) {
+            base = checkpoint.getClosingBalance();
+            from = YearMonth.parse(checkpoint.getYearMonth()).plusMonths(1).atDay(1).atStartOfDay();
+        } else {
+            base = account.getOpeningAmount();
+            from = HISTORY_START;
+        }
+        return base + repo.getMovementByDateRange(accountId, from, date);
+    }
+
+    /**
+     * Получает балансы счета на конец каждого месяца периода (для графика баланса)
+     * @param accountId ID счета
+     * @param from первый месяц
+     * @param to последний месяц
+     * @return контрольные точки по возрастанию месяца
+     */
+    public List<BalanceCheckpoint> getMonthEndBalances(int accountId, YearMonth from, YearMonth to) {
+        return repo.getRange(accountId, from.toString(), to.toString());
+    }
+
+    /**
+     * Заполняет контрольные точки в фоне для счетов, у которых они отсутствуют
+     * или не доходят до текущего месяца
+     * @return future с количеством пересчитанных счетов (-1 при ошибке)
+     */
+    public CompletableFuture<Integer> backfillAsync() {
+        return CompletableFuture.supplyAsync(this::backfill, ThreadManager.getExecutor())
+            .exceptionally(e -> {
+                Log.e(TAG, ServiceConstants.MSG_CHECKPOINTS_BACKFILL_ERROR + e.getMessage(), e);
+                return -1;
+            });
+    }
+
+    /**
+     * Заполняет контрольные точки (синхронно)
+     * @return количество пересчитанных счетов
+     */
+    public int backfill() {
+        Log.d(TAG, ServiceConstants.MSG_CHECKPOINTS_BACKFILL_START);
+        String currentMonth = YearMonth.now().toString();
+        int rebuilt = 0;
+        for (Account account : accountRepo.getAllSync(EntityFilter.ALL)) {
+            String lastMonth = repo.getLastYearMonth(account.getId());
+            if (lastMonth == null || lastMonth.compareTo(currentMonth) < 0) {
+                rebuildForAccount(account.getId());
+                rebuilt++;
+            }
+        }
+        Log.d(TAG, String.format(ServiceConstants.MSG_CHECKPOINTS_BACKFILL_COMPLETE, rebuilt));
+        return rebuilt;
+    }
+
+    /**
+     * Пересчитывает контрольные точки всех счетов с нуля (синхронно)
+     */
+    public void rebuildAll() {
+        for (Account account : accountRepo.getAllSync(EntityFilter.ALL)) {
+            rebuildForAccount(account.getId());
+        }
+    }
+
+    /**
+     * Пересчитывает контрольные точки счета с нуля в одной транзакции
+     * Точки создаются для каждого месяца от первой операции до текущего месяца
+     * (или до месяца последней операции, если она в будущем)
+     * @param accountId ID счета
+     */
+    public void rebuildForAccount(int accountId) {
+        repo.runInTransaction(() -> {
+            Account account = accountRepo.getByIdSync(accountId);
+            if (account == null) {
+                return;
+            }
+            List<MonthlyMovement> movements = repo.getMonthlyMovements(accountId);
+            YearMonth current = YearMonth.now();
+            YearMonth first = movements.isEmpty() ? current : YearMonth.parse(movements.get(0).getYearMonth());
+            YearMonth last = current;
+            if (!movements.isEmpty()) {
+                YearMonth lastMovement = YearMonth.parse(movements.get(movements.size() - 1).getYearMonth());
+                if (lastMovement.isAfter(last)) {
+                    last = lastMovement;
+                }
+            }
+
+            List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+            long balance = account.getOpeningAmount();
+            int index = 0;
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                String key = month.toString();
+                if (index < movements.size() && key.equals(movements.get(index).getYearMonth())) {
+                    balance += movements.get(index).getMovement();
+                    index++;
+                }
+                checkpoints.add(new BalanceCheckpoint(accountId, key, balance));
+            }
+            repo.replaceForAccount(accountId, checkpoints);
+            Log.d(TAG, String.format(ServiceConstants.MSG_CHECKPOINTS_ACCOUNT_REBUILT, accountId, checkpoints.size()));
+        });
+    }
+}
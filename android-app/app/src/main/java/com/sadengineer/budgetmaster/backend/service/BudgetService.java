@@ -12,6 +12,7 @@ import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
 import com.sadengineer.budgetmaster.backend.repository.BudgetRepository;
 import com.sadengineer.budgetmaster.backend.repository.CategoryRepository;
 import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.backend.validator.BudgetValidator;
 import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
@@ -19,6 +20,7 @@ import com.sadengineer.budgetmaster.backend.interfaces.IService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -34,11 +36,12 @@ public class BudgetService implements IService<Budget> {
     private final CurrencyRepository currencyRepo;
 
     public BudgetService(Context context, String user) {
-        this.repo = new BudgetRepository(context);
+        BackendContainer container = BackendContainer.get(context);
+        this.repo = container.budgetRepository();
         this.executorService = ThreadManager.getExecutor();
         this.user = user;
-        this.categoryRepo = new CategoryRepository(context);
-        this.currencyRepo = new CurrencyRepository(context);
+        this.categoryRepo = container.categoryRepository();
+        this.currencyRepo = container.currencyRepository();
     }
 
     /**
@@ -360,6 +363,29 @@ public class BudgetService implements IService<Budget> {
         return repo.getTotalAmountByCurrency(currencyId, filter);
     }
 
+    /**
+     * Получить общую сумму бюджета по ID валюты по фильтру (синхронно)
+     * Вызывать только из фонового потока
+     * @param currencyId ID валюты
+     * @param filter фильтр для выборки бюджетов (ACTIVE, DELETED, ALL)
+     * @return общая сумма бюджета (0, если бюджетов нет)
+     */
+    public long getTotalAmountByCurrencySync(int currencyId, EntityFilter filter) {
+        Long amount = repo.getTotalAmountByCurrencySync(currencyId, filter);
+        return amount != null ? amount : 0L;
+    }
+
+    /**
+     * Получить общую сумму бюджета по ID валюты по фильтру в пуле запросов
+     * @param currencyId ID валюты
+     * @param filter фильтр для выборки бюджетов (ACTIVE, DELETED, ALL)
+     * @return future с общей суммой бюджета (0, если бюджетов нет)
+     */
+    public CompletableFuture<Long> getTotalAmountByCurrencyAsync(int currencyId, EntityFilter filter) {
+        return repo.getTotalAmountByCurrencyAsync(currencyId, filter)
+            .thenApply(amount -> amount != null ? amount : 0L);
+    }
+
     /**
      * Получить все бюджеты по ID валюты (синхронно)
      * @param currencyId ID валюты
@@ -0,0 +1,33 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.interfaces.IBulkProgressListener;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Разбиение пакетных записей на пачки ID для UPDATE ... WHERE id IN (...)
+ */
+final class BulkChunks {
+
+    private BulkChunks() {
+    }
+
+    /**
+     * Обходит ID пачками по BULK_WRITE_CHUNK_SIZE и сообщает о прогрессе после каждой пачки
+     * @param ids ID сущностей
+     * @param listener слушатель прогресса (может быть null)
+     * @param action запись одной пачки
+     */
+    static void forEachChunk(List<Integer> ids, IBulkProgressListener listener, Consumer<List<Integer>> action) {
+        int total = ids.size();
+        for (int from = 0; from < total; from += RepositoryConstants.BULK_WRITE_CHUNK_SIZE) {
+            int to = Math.min(from + RepositoryConstants.BULK_WRITE_CHUNK_SIZE, total);
+            action.accept(ids.subList(from, to));
+            if (listener != null) {
+                listener.onProgress(to, total);
+            }
+        }
+    }
+}
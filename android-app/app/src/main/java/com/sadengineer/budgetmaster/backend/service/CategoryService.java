@@ -10,6 +10,7 @@ import com.sadengineer.budgetmaster.backend.entity.Category;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.repository.CategoryRepository;
 import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.backend.validator.CategoryValidator;
 import com.sadengineer.budgetmaster.backend.interfaces.IService;
@@ -30,7 +31,7 @@ public class CategoryService implements IService<Category> {
     private final String user;
 
     public CategoryService(Context context, String user) {
-        this.repo = new CategoryRepository(context);
+        this.repo = BackendContainer.get(context).categoryRepository();
         this.executorService = ThreadManager.getExecutor();
         this.user = user;
     }
@@ -1,87 +1,63 @@
 package com.sadengineer.budgetmaster.backend.service;
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
-import com.sadengineer.budgetmaster.backend.entity.Currency;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 
 /**
  * Сервис для кэширования валют
  * Предоставляет быстрый доступ к названиям валют по ID
+ * Данные берутся из общего снимка справочных данных (ReferenceDataCache), который
+ * пересобирается по событию DatabaseChangeBus об изменении таблицы валют
  */
 public class CurrencyCacheService {
     private static final String TAG = "CurrencyCacheService";
-    
-    private final CurrencyService mCurrencyService;
-    private final Map<Integer, String> mCurrencyCache = new HashMap<>();
-    private final MutableLiveData<Boolean> mCacheLoaded = new MutableLiveData<>(false);
-    
+
+    private final ReferenceDataCache mReferenceData;
+
     public CurrencyCacheService(Context context, String userName) {
-        mCurrencyService = new CurrencyService(context, userName);
-        loadCurrencies();
-    }
-    
-    /**
-     * Загружает валюты в кэш
-     */
-    private void loadCurrencies() {
-        mCurrencyCache.clear();
-        mCurrencyService.getAll().observeForever(currencies -> {
-            if (currencies != null) {
-                for (Currency currency : currencies) {
-                    if (currency.getShortName() != null && !currency.getShortName().isEmpty()) {
-                        mCurrencyCache.put(currency.getId(), currency.getShortName());
-                    }
-                }
-                Log.d(TAG, "Кэш валют загружен: " + mCurrencyCache.size() + " валют");
-                mCacheLoaded.setValue(true);
-            }
-        });
+        mReferenceData = BackendContainer.get(context).referenceData();
     }
-    
+
     /**
      * Возвращает короткое название валюты по ID
      * @param currencyId ID валюты
-     * @return короткое название валюты или "RUB" по умолчанию
+     * @return короткое название валюты или пустая строка, если валюта неизвестна
+     *         (снимок еще не загружен или валюты нет)
      */
     public String getCurrencyShortName(int currencyId) {
-        return mCurrencyCache.getOrDefault(currencyId, "RUB");
+        String shortName = mReferenceData.get().getCurrencyShortName(currencyId);
+        return shortName != null ? shortName : "";
     }
-    
+
     /**
      * Проверяет, загружен ли кэш
      * @return true если кэш загружен
      */
     public LiveData<Boolean> isCacheLoaded() {
-        return mCacheLoaded;
+        return mReferenceData.isLoaded();
     }
-    
+
     /**
      * Возвращает количество валют в кэше
      * @return количество валют
      */
     public int getCacheSize() {
-        return mCurrencyCache.size();
+        return mReferenceData.get().getCurrencyCount();
     }
-    
+
     /**
-     * Очищает кэш
+     * Перезагружает кэш
      */
-    public void clearCache() {
-        mCurrencyCache.clear();
-        mCacheLoaded.setValue(false);
+    public void reloadCache() {
+        mReferenceData.invalidate();
     }
-    
+
     /**
-     * Перезагружает кэш
+     * Ничего не делает: подпиской на шину изменений владеет общий ReferenceDataCache
      */
-    public void reloadCache() {
-        loadCurrencies();
+    public void release() {
     }
 }
@@ -0,0 +1,144 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
+import com.sadengineer.budgetmaster.backend.entity.CurrencyRate;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.repository.CurrencyRateRepository;
+import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
+import com.sadengineer.budgetmaster.backend.validator.CurrencyValidator;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервис истории курсов валют
+ * Держит в памяти временные ряды курсов (CurrencyRateTimeline) и пересчитывает суммы
+ * по курсу на дату операции. Ряды строятся заново при первом обращении после изменения
+ * валют или истории курсов (DatabaseChangeBus).
+ * Текущий курс валюты меняется через CurrencyService - история пополняется триггером;
+ * здесь задаются и удаляются курсы задним числом
+ */
+public class CurrencyRateService {
+    private static final String TAG = "CurrencyRateService";
+
+    private final CurrencyRateRepository repo;
+    private final CurrencyRepository currencyRepo;
+
+    private volatile CurrencyRateTimeline timeline;
+    /** Увеличивается при каждом сбросе: ряды, построенные до сброса, не сохраняются */
+    private final AtomicLong version = new AtomicLong();
+
+    public CurrencyRateService(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+        this.repo = container.currencyRateRepository();
+        this.currencyRepo = container.currencyRepository();
+        DatabaseChangeBus.getInstance(context).addListener(tables -> invalidate(),
+                RepositoryConstants.TABLE_CURRENCIES, RepositoryConstants.TABLE_CURRENCY_RATES);
+    }
+
+    /**
+     * Временные ряды курсов (загружаются при первом обращении, только из фонового потока)
+     * @return неизменяемые ряды курсов
+     */
+    public CurrencyRateTimeline getTimeline() {
+        CurrencyRateTimeline current = timeline;
+        if (current != null) {
+            return current;
+        }
+        long loadVersion = version.get();
+        long started = System.currentTimeMillis();
+        List<CurrencyRate> history = repo.getAllSync();
+        current = CurrencyRateTimeline.build(history, currencyRepo.getAllSync(EntityFilter.ALL));
+        if (version.get() == loadVersion) {
+            timeline = current;
+        }
+        Log.d(TAG, String.format(ServiceConstants.MSG_CURRENCY_RATES_LOADED, history.size(),
+                System.currentTimeMillis() - started));
+        return current;
+    }
+
+    /**
+     * Сбрасывает временные ряды (следующее обращение перечитает историю)
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        timeline = null;
+    }
+
+    /**
+     * Курс валюты к главной валюте на дату (только из фонового потока)
+     * @param currencyId ID валюты
+     * @param date дата
+     * @return курс или 0, если валюта неизвестна
+     */
+    public double getRate(int currencyId, LocalDate date) {
+        return getTimeline().rateAt(currencyId, (int) date.toEpochDay());
+    }
+
+    /**
+     * Пересчитывает сумму по курсу на дату (только из фонового потока)
+     * @param amount сумма в копейках исходной валюты
+     * @param fromCurrencyId ID исходной валюты
+     * @param toCurrencyId ID целевой валюты
+     * @param date дата операции
+     * @return сумма в копейках целевой валюты
+     */
+    public long convert(long amount, int fromCurrencyId, int toCurrencyId, LocalDate date) {
+        return getTimeline().convert(amount, fromCurrencyId, toCurrencyId, (int) date.toEpochDay());
+    }
+
+    /**
+     * Задает курс валюты, действующий с указанной даты (в фоне)
+     * Курс того же дня заменяется
+     * @param currencyId ID валюты
+     * @param validFrom первый день действия курса
+     * @param rate курс к главной валюте
+     * @throws IllegalArgumentException если курс невалиден
+     */
+    public void setRate(int currencyId, LocalDate validFrom, double rate) {
+        CurrencyValidator.validateExchangeRate(rate);
+        ThreadManager.getExecutor().execute(() -> {
+            try {
+                repo.insert(new CurrencyRate(currencyId, (int) validFrom.toEpochDay(), rate));
+                Log.d(TAG, String.format(ServiceConstants.MSG_CURRENCY_RATE_SET, currencyId, validFrom, rate));
+            } catch (Exception e) {
+                Log.e(TAG, ServiceConstants.MSG_CURRENCY_RATE_ERROR + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Удаляет курс валюты, действующий с указанной даты (в фоне)
+     * @param currencyId ID валюты
+     * @param validFrom первый день действия курса
+     */
+    public void removeRate(int currencyId, LocalDate validFrom) {
+        ThreadManager.getExecutor().execute(() -> {
+            try {
+                int deleted = repo.delete(currencyId, (int) validFrom.toEpochDay());
+                Log.d(TAG, String.format(ServiceConstants.MSG_CURRENCY_RATE_REMOVED, currencyId, validFrom, deleted));
+            } catch (Exception e) {
+                Log.e(TAG, ServiceConstants.MSG_CURRENCY_RATE_ERROR + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * История курсов валюты
+     * @param currencyId ID валюты
+     * @return курсы по возрастанию дня
+     */
+    public LiveData<List<CurrencyRate>> getHistory(int currencyId) {
+        return repo.getByCurrency(currencyId);
+    }
+}
@@ -0,0 +1,138 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import com.sadengineer.budgetmaster.backend.entity.Currency;
+import com.sadengineer.budgetmaster.backend.entity.CurrencyRate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Неизменяемые временные ряды курсов валют
+ * Для каждой валюты (индекс массива - ID валюты) хранятся отсортированные дни начала
+ * действия курсов и сами курсы в примитивных массивах; курс на дату ищется двоичным поиском.
+ * До первой записи действует первый курс, для валют без истории - текущий курс валюты.
+ * Курсы заданы к главной валюте, поэтому курс между валютами - их отношение на ту же дату
+ */
+public final class CurrencyRateTimeline {
+
+    private static final int[] NO_DAYS = new int[0];
+    private static final double[] NO_RATES = new double[0];
+
+    private final int[][] days;
+    private final double[][] rates;
+    private final double[] currentRates;
+
+    private CurrencyRateTimeline(int[][] days, double[][] rates, double[] currentRates) {
+        this.days = days;
+        this.rates = rates;
+        this.currentRates = currentRates;
+    }
+
+    /**
+     * Строит временные ряды
+     * @param history курсы по возрастанию валюты и дня (CurrencyRateDao.getAllSync)
+     * @param currencies валюты (текущий курс - для валют без истории)
+     * @return временные ряды курсов
+     */
+    public static CurrencyRateTimeline build(List<CurrencyRate> history, List<Currency> currencies) {
+        int maxId = 0;
+        for (Currency currency : currencies) {
+            maxId = Math.max(maxId, currency.getId());
+        }
+        for (CurrencyRate rate : history) {
+            maxId = Math.max(maxId, rate.getCurrencyId());
+        }
+
+        double[] currentRates = new double[maxId + 1];
+        for (Currency currency : currencies) {
+            currentRates[currency.getId()] = currency.getExchangeRate();
+        }
+
+        int[] counts = new int[maxId + 1];
+        for (CurrencyRate rate : history) {
+            counts[rate.getCurrencyId()]++;
+        }
+        int[][] days = new int[maxId + 1][];
+        double[][] rates = new double[maxId + 1][];
+        for (int id = 0; id <= maxId; id++) {
+            days[id] = counts[id] > 0 ? new int[counts[id]] : NO_DAYS;
+            rates[id] = counts[id] > 0 ? new double[counts[id]] : NO_RATES;
+        }
+        // История отсортирована по валюте и дню, поэтому ряды заполняются по порядку
+        int[] filled = new int[maxId + 1];
+        for (CurrencyRate rate : history) {
+            int id = rate.getCurrencyId();
+            days[id][filled[id]] = rate.getValidFromEpochDay();
+            rates[id][filled[id]] = rate.getRate();
+            filled[id]++;
+        }
+        return new CurrencyRateTimeline(days, rates, currentRates);
+    }
+
+    /**
+     * Курс валюты к главной валюте на день
+     * @param currencyId ID валюты
+     * @param epochDay день (LocalDate.toEpochDay())
+     * @return курс или 0, если валюта неизвестна
+     */
+    public double rateAt(int currencyId, int epochDay) {
+        if (currencyId < 0 || currencyId >= days.length) {
+            return 0;
+        }
+        int[] currencyDays = days[currencyId];
+        if (currencyDays.length == 0) {
+            return currentRates[currencyId];
+        }
+        int index = Arrays.binarySearch(currencyDays, epochDay);
+        if (index < 0) {
+            // Точки вставки - 1: последний курс, начавший действовать до этого дня
+            index = Math.max(-index - 2, 0);
+        }
+        return rates[currencyId][index];
+    }
+
+    /**
+     * Курс между валютами на день
+     * @param fromCurrencyId ID исходной валюты
+     * @param toCurrencyId ID целевой валюты
+     * @param epochDay день
+     * @return курс (1.0, если курс одной из валют не найден - сумма не пересчитывается)
+     */
+    public double crossRateAt(int fromCurrencyId, int toCurrencyId, int epochDay) {
+        if (fromCurrencyId == toCurrencyId) {
+            return 1.0;
+        }
+        double fromRate = rateAt(fromCurrencyId, epochDay);
+        double toRate = rateAt(toCurrencyId, epochDay);
+        if (fromRate <= 0 || toRate <= 0) {
+            return 1.0;
+        }
+        return fromRate / toRate;
+    }
+
+    /**
+     * Пересчитывает сумму по курсу на день (округление как в калькуляторах - отбрасывание дробной части)
+     * @param amount сумма в копейках исходной валюты
+     * @param fromCurrencyId ID исходной валюты
+     * @param toCurrencyId ID целевой валюты
+     * @param epochDay день
+     * @return сумма в копейках целевой валюты
+     */
+    public long convert(long amount, int fromCurrencyId, int toCurrencyId, int epochDay) {
+        if (amount == 0 || fromCurrencyId == toCurrencyId) {
+            return amount;
+        }
+        double rate = crossRateAt(fromCurrencyId, toCurrencyId, epochDay);
+        return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(rate)).longValue();
+    }
+
+    /**
+     * Количество записей истории валюты (для логов)
+     * @param currencyId ID валюты
+     * @return число курсов
+     */
+    public int size(int currencyId) {
+        return currencyId >= 0 && currencyId < days.length ? days[currencyId].length : 0;
+    }
+}
@@ -11,6 +11,7 @@ import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
 import com.sadengineer.budgetmaster.backend.validator.CurrencyValidator;
 import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.backend.interfaces.IService;
 
@@ -29,7 +30,7 @@ public class CurrencyService implements IService<Currency> {
     private final String user;
     
     public CurrencyService(Context context, String user) {
-        this.repo = new CurrencyRepository(context);
+        this.repo = BackendContainer.get(context).currencyRepository();
         this.executorService = ThreadManager.getExecutor();
         this.user = user;
     }
@@ -254,6 +255,15 @@ public class CurrencyService implements IService<Currency> {
         return repo.getAll(EntityFilter.ALL);
     }
     
+    /**
+     * Получить все валюты синхронно (включая удаленные)
+     * Вызывать только из фонового потока
+     * @return список всех валют
+     */
+    public List<Currency> getAllSync() {
+        return repo.getAllSync(EntityFilter.ALL);
+    }
+    
     /**
      * Получить валюту по ID
      * @param id ID валюты
@@ -0,0 +1,372 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.BuildConfig;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.interfaces.IBulkProgressListener;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Сервис выгрузки данных
+ * Каждая таблица читается через курсор Room только вперед и сразу пишется в буферизованный поток,
+ * поэтому расход памяти не зависит от длины истории операций.
+ * Форматы:
+ * - CSV: zip-архив с файлами currencies.csv, accounts.csv, categories.csv, budgets.csv, operations.csv
+ *   в раскладке колонок resorses/*.csv (поля схемы, которых там нет, добавлены в конец);
+ * - JSON: один документ {"date", "versionCode", "data": {таблица: [строки]}, "appVersion"}, при сжатии - gzip.
+ */
+public class DataExportService {
+    private static final String TAG = "DataExportService";
+
+    /**
+     * Формат выгрузки
+     */
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    private final ExportTable[] tables;
+
+    public DataExportService(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+        // Порядок таблиц - по зависимостям внешних ключей, удобный для обратной загрузки
+        this.tables = new ExportTable[]{
+                new ExportTable(RepositoryConstants.TABLE_CURRENCIES,
+                        container.currencyRepository()::getExportCursor,
+                        () -> container.currencyRepository().getCount(EntityFilter.ALL)),
+                new ExportTable(RepositoryConstants.TABLE_ACCOUNTS,
+                        container.accountRepository()::getExportCursor,
+                        () -> container.accountRepository().getCount(EntityFilter.ALL)),
+                new ExportTable(RepositoryConstants.TABLE_CATEGORIES,
+                        container.categoryRepository()::getExportCursor,
+                        () -> container.categoryRepository().getCount(EntityFilter.ALL)),
+                new ExportTable(RepositoryConstants.TABLE_BUDGETS,
+                        container.budgetRepository()::getExportCursor,
+                        () -> container.budgetRepository().getCount(EntityFilter.ALL)),
+                new ExportTable(RepositoryConstants.TABLE_OPERATIONS,
+                        container.operationRepository()::getExportCursor,
+                        () -> container.operationRepository().count(EntityFilter.ALL))
+        };
+    }
+
+    /**
+     * Выгружает данные в фоновом потоке
+     * @param out поток назначения (закрывается по завершении)
+     * @param format формат
+     * @param compress true - сжимать (gzip для JSON, deflate для CSV-архива)
+     * @param listener слушатель прогресса (может быть null)
+     * @param cancellation сигнал отмены (может быть null)
+     * @return future с количеством выгруженных строк (-1 при ошибке или отмене)
+     */
+    public CompletableFuture<Long> exportAsync(OutputStream out, Format format, boolean compress,
+                                               IBulkProgressListener listener, CancellationSignal cancellation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return export(out, format, compress, listener, cancellation);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, ThreadManager.getExecutor()).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof OperationCanceledException) {
+                Log.d(TAG, ServiceConstants.MSG_EXPORT_CANCELLED);
+            } else {
+                Log.e(TAG, ServiceConstants.MSG_EXPORT_ERROR + cause.getMessage(), cause);
+            }
+            return -1L;
+        });
+    }
+
+    /**
+     * Выгружает данные (синхронно)
+     * @param out поток назначения (закрывается по завершении)
+     * @param format формат
+     * @param compress true - сжимать
+     * @param listener слушатель прогресса (может быть null)
+     * @param cancellation сигнал отмены (может быть null)
+     * @return количество выгруженных строк
+     * @throws IOException ошибка записи
+     * @throws OperationCanceledException выгрузка отменена
+     */
+    public long export(OutputStream out, Format format, boolean compress,
+                       IBulkProgressListener listener, CancellationSignal cancellation) throws IOException {
+        long startMs = System.currentTimeMillis();
+        Progress progress;
+        // Поток закрывается и при ошибке до начала записи
+        try (OutputStream stream = out) {
+            int total = 0;
+            for (ExportTable table : tables) {
+                total += table.count.getAsInt();
+            }
+            Log.d(TAG, String.format(ServiceConstants.MSG_EXPORT_START, format, compress, total));
+
+            progress = new Progress(listener, cancellation, total);
+            if (format == Format.CSV) {
+                writeCsvArchive(stream, compress, progress);
+            } else {
+                writeJson(stream, compress, progress);
+            }
+        }
+        progress.report();
+        Log.d(TAG, String.format(ServiceConstants.MSG_EXPORT_COMPLETE, progress.processed, System.currentTimeMillis() - startMs));
+        return progress.processed;
+    }
+
+    // ========== CSV ==========
+
+    private void writeCsvArchive(OutputStream out, boolean compress, Progress progress) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, ServiceConstants.EXPORT_BUFFER_SIZE));
+        zip.setLevel(compress ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8),
+                ServiceConstants.EXPORT_BUFFER_SIZE)) {
+            for (ExportTable table : tables) {
+                zip.putNextEntry(new ZipEntry(table.name + ".csv"));
+                int rows = writeCsvTable(table, writer, progress);
+                writer.flush();
+                zip.closeEntry();
+                Log.d(TAG, String.format(ServiceConstants.MSG_EXPORT_TABLE_DONE, table.name, rows));
+            }
+        }
+    }
+
+    private int writeCsvTable(ExportTable table, Writer writer, Progress progress) throws IOException {
+        int rows = 0;
+        try (Cursor cursor = table.cursor.get()) {
+            int columns = cursor.getColumnCount();
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) {
+                    writer.write(',');
+                }
+                writeCsvText(writer, cursor.getColumnName(column));
+            }
+            writer.write('\n');
+
+            while (cursor.moveToNext()) {
+                for (int column = 0; column < columns; column++) {
+                    if (column > 0) {
+                        writer.write(',');
+                    }
+                    switch (cursor.getType(column)) {
+                        case Cursor.FIELD_TYPE_NULL:
+                            break;
+                        case Cursor.FIELD_TYPE_INTEGER:
+                            writer.write(Long.toString(cursor.getLong(column)));
+                            break;
+                        case Cursor.FIELD_TYPE_FLOAT:
+                            writer.write(BigDecimal.valueOf(cursor.getDouble(column)).toPlainString());
+                            break;
+                        default:
+                            writeCsvText(writer, cursor.getString(column));
+                            break;
+                    }
+                }
+                writer.write('\n');
+                rows++;
+                progress.onRow();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Пишет текстовое поле CSV; поле с запятой, кавычкой или переводом строки берется в кавычки
+     */
+    private static void writeCsvText(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    // ========== JSON ==========
+
+    private void writeJson(OutputStream out, boolean compress, Progress progress) throws IOException {
+        OutputStream target = new BufferedOutputStream(out, ServiceConstants.EXPORT_BUFFER_SIZE);
+        if (compress) {
+            target = new GZIPOutputStream(target, ServiceConstants.EXPORT_BUFFER_SIZE);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8),
+                ServiceConstants.EXPORT_BUFFER_SIZE)) {
+            writer.write("{\"date\":" + System.currentTimeMillis()
+                    + ",\"versionCode\":" + BuildConfig.VERSION_CODE + ",\"data\":{");
+            for (int i = 0; i < tables.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeJsonString(writer, tables[i].name);
+                writer.write(":[");
+                int rows = writeJsonTable(tables[i], writer, progress);
+                writer.write(']');
+                Log.d(TAG, String.format(ServiceConstants.MSG_EXPORT_TABLE_DONE, tables[i].name, rows));
+            }
+            writer.write("},\"appVersion\":");
+            writeJsonString(writer, BuildConfig.APP_VERSION);
+            writer.write('}');
+        }
+    }
+
+    private int writeJsonTable(ExportTable table, Writer writer, Progress progress) throws IOException {
+        int rows = 0;
+        try (Cursor cursor = table.cursor.get()) {
+            int columns = cursor.getColumnCount();
+            // Ключи строки ("имя": и ,"имя":) готовятся один раз на таблицу
+            String[] keys = new String[columns];
+            for (int column = 0; column < columns; column++) {
+                StringBuilder key = new StringBuilder(column == 0 ? "\"" : ",\"");
+                key.append(cursor.getColumnName(column)).append("\":");
+                keys[column] = key.toString();
+            }
+
+            while (cursor.moveToNext()) {
+                writer.write(rows == 0 ? "{" : ",{");
+                for (int column = 0; column < columns; column++) {
+                    writer.write(keys[column]);
+                    switch (cursor.getType(column)) {
+                        case Cursor.FIELD_TYPE_NULL:
+                            writer.write("null");
+                            break;
+                        case Cursor.FIELD_TYPE_INTEGER:
+                            writer.write(Long.toString(cursor.getLong(column)));
+                            break;
+                        case Cursor.FIELD_TYPE_FLOAT:
+                            writer.write(BigDecimal.valueOf(cursor.getDouble(column)).toPlainString());
+                            break;
+                        default:
+                            writeJsonString(writer, cursor.getString(column));
+                            break;
+                    }
+                }
+                writer.write('}');
+                rows++;
+                progress.onRow();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Пишет строку JSON в кавычках с экранированием
+     */
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+
+    // ========== Вспомогательные классы ==========
+
+    /**
+     * Таблица выгрузки: имя (имя файла/ключ JSON), курсор и количество строк для прогресса
+     */
+    private static final class ExportTable {
+        final String name;
+        final Supplier<Cursor> cursor;
+        final IntSupplier count;
+
+        ExportTable(String name, Supplier<Cursor> cursor, IntSupplier count) {
+            this.name = name;
+            this.cursor = cursor;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Счетчик строк: сообщает о прогрессе и проверяет отмену каждые EXPORT_PROGRESS_STEP строк
+     */
+    private static final class Progress {
+        private final IBulkProgressListener listener;
+        private final CancellationSignal cancellation;
+        private final int total;
+        int processed;
+
+        Progress(IBulkProgressListener listener, CancellationSignal cancellation, int total) {
+            this.listener = listener;
+            this.cancellation = cancellation;
+            this.total = total;
+        }
+
+        void onRow() {
+            processed++;
+            if (processed % ServiceConstants.EXPORT_PROGRESS_STEP == 0) {
+                if (cancellation != null) {
+                    cancellation.throwIfCanceled();
+                }
+                report();
+            }
+        }
+
+        void report() {
+            if (listener != null) {
+                // Строки, добавленные во время выгрузки, могут превысить исходный total
+                listener.onProgress(processed, Math.max(total, processed));
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.IoScheduler;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.database.BudgetMasterDatabase;
+import com.sadengineer.budgetmaster.backend.database.DatabaseMaintenance;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
+import com.sadengineer.budgetmaster.backend.repository.BudgetRepository;
+import com.sadengineer.budgetmaster.backend.repository.CategoryRepository;
+import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
+import com.sadengineer.budgetmaster.backend.repository.OperationRepository;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сервис очистки помеченных удаленными строк
+ * Строки, удаленные раньше срока хранения, удаляются окончательно небольшими пачками.
+ * Зависимые данные очищаются вместе с ними: индекс поиска - триггером, контрольные точки
+ * баланса - каскадом по внешнему ключу. Затем свободные страницы возвращаются системе
+ * (auto_vacuum=INCREMENTAL и incremental_vacuum).
+ * Фоновая очистка запускается, когда главный поток простаивает, не чаще RETENTION_INTERVAL_HOURS.
+ */
+public class DataRetentionService {
+    private static final String TAG = "DataRetentionService";
+
+    private static final String PREF_NAME = "data_retention";
+    private static final String KEY_RETENTION_DAYS = "retention_days";
+    private static final String KEY_LAST_RUN = "last_run";
+
+    /**
+     * Пачка окончательного удаления (purgeDeleted репозитория)
+     */
+    private interface BatchPurge {
+        int purge(LocalDateTime before, int limit);
+    }
+
+    private final Context context;
+    private final SharedPreferences preferences;
+    private final OperationRepository operationRepo;
+    private final BudgetRepository budgetRepo;
+    private final CategoryRepository categoryRepo;
+    private final AccountRepository accountRepo;
+    private final CurrencyRepository currencyRepo;
+    private final IoScheduler.Lane lane;
+    private final AtomicBoolean idleScheduled = new AtomicBoolean();
+
+    private volatile PurgeResult lastResult;
+
+    public DataRetentionService(Context context) {
+        this.context = context;
+        this.preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        BackendContainer container = BackendContainer.get(context);
+        this.operationRepo = container.operationRepository();
+        this.budgetRepo = container.budgetRepository();
+        this.categoryRepo = container.categoryRepository();
+        this.accountRepo = container.accountRepository();
+        this.currencyRepo = container.currencyRepository();
+        this.lane = IoScheduler.getInstance().openLane(TAG);
+    }
+
+    /**
+     * Срок хранения помеченных удаленными строк
+     * @return число дней
+     */
+    public int getRetentionDays() {
+        return preferences.getInt(KEY_RETENTION_DAYS, ServiceConstants.RETENTION_DEFAULT_DAYS);
+    }
+
+    /**
+     * Устанавливает срок хранения помеченных удаленными строк
+     * @param days число дней (не меньше RETENTION_MIN_DAYS)
+     */
+    public void setRetentionDays(int days) {
+        preferences.edit().putInt(KEY_RETENTION_DAYS, Math.max(days, ServiceConstants.RETENTION_MIN_DAYS)).apply();
+    }
+
+    /**
+     * Результат последней очистки в этом процессе
+     * @return результат или null, если очистка не выполнялась
+     */
+    public PurgeResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Запускает очистку при ближайшем простое главного потока, если с прошлой прошло
+     * не меньше RETENTION_INTERVAL_HOURS. Повторные вызовы до простоя игнорируются
+     */
+    public void scheduleOnIdle() {
+        if (!idleScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        Looper.getMainLooper().getQueue().addIdleHandler(() -> {
+            idleScheduled.set(false);
+            long sinceLastRun = System.currentTimeMillis() - preferences.getLong(KEY_LAST_RUN, 0);
+            if (sinceLastRun >= TimeUnit.HOURS.toMillis(ServiceConstants.RETENTION_INTERVAL_HOURS)) {
+                purgeAsync();
+            } else {
+                Log.d(TAG, String.format(ServiceConstants.MSG_RETENTION_NOT_DUE, sinceLastRun));
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Выполняет очистку в фоне
+     * @return результат или null при ошибке
+     */
+    public CompletableFuture<PurgeResult> purgeAsync() {
+        return CompletableFuture.supplyAsync(this::purge, lane)
+            .exceptionally(e -> {
+                Log.e(TAG, ServiceConstants.MSG_RETENTION_ERROR + e.getMessage(), e);
+                return null;
+            });
+    }
+
+    /**
+     * Выполняет очистку (синхронно, только из фонового потока)
+     * Операции удаляются первыми: после них освобождаются категории, счета и валюты,
+     * на которые ссылались только удаленные операции
+     * @return результат очистки
+     */
+    public PurgeResult purge() {
+        long started = SystemClock.elapsedRealtime();
+        LocalDateTime before = LocalDateTime.now().minusDays(getRetentionDays());
+        Log.d(TAG, String.format(ServiceConstants.MSG_RETENTION_START, before));
+
+        SupportSQLiteDatabase db = BudgetMasterDatabase.getDatabase(context).getOpenHelper().getWritableDatabase();
+        PurgeResult result = new PurgeResult();
+        result.pageSize = DatabaseMaintenance.getPageSize(db);
+        result.pagesBefore = DatabaseMaintenance.getPageCount(db);
+        result.activeScanNanosBefore = timeActiveScan();
+
+        // Удаленные операции входят в суммы с фильтрами DELETED и ALL: кэш сумм сбрасывается
+        // целиком и не принимает значения, пока идет удаление
+        OperationTotalsCache totals = BackendContainer.get(context).operationTotals();
+        totals.beginWrite();
+        try {
+            totals.invalidateAll();
+            result.operations = purgeInBatches(operationRepo::purgeDeleted, before);
+        } finally {
+            totals.endWrite();
+        }
+        result.budgets = purgeInBatches(budgetRepo::purgeDeleted, before);
+        result.categories = purgeInBatches(categoryRepo::purgeDeleted, before);
+        result.accounts = purgeInBatches(accountRepo::purgeDeleted, before);
+        result.currencies = purgeInBatches(currencyRepo::purgeDeleted, before);
+
+        if (result.operations > 0) {
+            DatabaseMaintenance.optimizeSearchIndex(db);
+        }
+        result.autoVacuumEnabled = DatabaseMaintenance.ensureIncrementalAutoVacuum(db);
+        DatabaseMaintenance.incrementalVacuum(db);
+
+        result.pagesAfter = DatabaseMaintenance.getPageCount(db);
+        result.activeScanNanosAfter = timeActiveScan();
+        result.durationMs = SystemClock.elapsedRealtime() - started;
+
+        preferences.edit().putLong(KEY_LAST_RUN, System.currentTimeMillis()).apply();
+        lastResult = result;
+        Log.d(TAG, String.format(ServiceConstants.MSG_RETENTION_COMPLETE, result));
+        return result;
+    }
+
+    /**
+     * Удаляет пачками, пока очередная пачка не окажется пустой
+     * Условия пачки пересчитываются каждый раз, поэтому родительская категория
+     * удаляется после своих подкатегорий в том же проходе
+     */
+    private int purgeInBatches(BatchPurge batch, LocalDateTime before) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = batch.purge(before, ServiceConstants.RETENTION_BATCH_SIZE);
+            total += deleted;
+            if (deleted > 0) {
+                SystemClock.sleep(ServiceConstants.RETENTION_BATCH_PAUSE_MS);
+            }
+        } while (deleted > 0);
+        return total;
+    }
+
+    /**
+     * Время типового запроса по активным строкам (полный проход таблицы операций)
+     */
+    private long timeActiveScan() {
+        long started = System.nanoTime();
+        operationRepo.count(EntityFilter.ACTIVE);
+        return System.nanoTime() - started;
+    }
+
+    /**
+     * Метрики одной очистки
+     */
+    public static final class PurgeResult {
+        private int operations;
+        private int budgets;
+        private int categories;
+        private int accounts;
+        private int currencies;
+        private long pageSize;
+        private long pagesBefore;
+        private long pagesAfter;
+        private boolean autoVacuumEnabled;
+        private long activeScanNanosBefore;
+        private long activeScanNanosAfter;
+        private long durationMs;
+
+        /** Всего окончательно удаленных строк */
+        public int getTotalRows() {
+            return operations + budgets + categories + accounts + currencies;
+        }
+
+        public int getOperations() {
+            return operations;
+        }
+
+        public int getBudgets() {
+            return budgets;
+        }
+
+        public int getCategories() {
+            return categories;
+        }
+
+        public int getAccounts() {
+            return accounts;
+        }
+
+        public int getCurrencies() {
+            return currencies;
+        }
+
+        /** Сколько страниц файл базы данных потерял за очистку */
+        public long getReclaimedPages() {
+            return Math.max(0, pagesBefore - pagesAfter);
+        }
+
+        /** Сколько байт файл базы данных потерял за очистку */
+        public long getReclaimedBytes() {
+            return getReclaimedPages() * pageSize;
+        }
+
+        public long getPagesBefore() {
+            return pagesBefore;
+        }
+
+        public long getPagesAfter() {
+            return pagesAfter;
+        }
+
+        /** true, если в эту очистку файл был переведен в auto_vacuum=INCREMENTAL */
+        public boolean isAutoVacuumEnabled() {
+            return autoVacuumEnabled;
+        }
+
+        public long getActiveScanNanosBefore() {
+            return activeScanNanosBefore;
+        }
+
+        public long getActiveScanNanosAfter() {
+            return activeScanNanosAfter;
+        }
+
+        /** Ускорение запроса по активным строкам (больше 1 - быстрее после очистки) */
+        public double getActiveScanSpeedup() {
+            return activeScanNanosAfter > 0 ? (double) activeScanNanosBefore / activeScanNanosAfter : 1.0;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        @Override
+        public String toString() {
+            return "PurgeResult{operations=" + operations + ", budgets=" + budgets + ", categories=" + categories
+                    + ", accounts=" + accounts + ", currencies=" + currencies
+                    + ", pages=" + pagesBefore + "->" + pagesAfter + ", reclaimedBytes=" + getReclaimedBytes()
+                    + ", autoVacuumEnabled=" + autoVacuumEnabled
+                    + ", activeScanSpeedup=" + String.format(Locale.ROOT, "%.2f", getActiveScanSpeedup())
+                    + ", durationMs=" + durationMs + "}";
+        }
+    }
+}
@@ -4,23 +4,40 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
 import androidx.room.Transaction;
 
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsBucket;
+import com.sadengineer.budgetmaster.backend.database.DatabaseQueries;
+import com.sadengineer.budgetmaster.backend.entity.BucketTotal;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.entity.OperationAggregate;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.filters.OperationPeriod;
 import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
 import com.sadengineer.budgetmaster.calculators.OperationCalculatorConfig;
+import com.sadengineer.budgetmaster.backend.repository.OperationAggregateQuery;
 import com.sadengineer.budgetmaster.backend.repository.OperationRepository;
 import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
 import com.sadengineer.budgetmaster.backend.repository.CategoryRepository;
 import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
 import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.backend.validator.OperationValidator;
+import com.sadengineer.budgetmaster.backend.interfaces.IBulkProgressListener;
 import com.sadengineer.budgetmaster.backend.interfaces.IService;
+import com.sadengineer.budgetmaster.backend.util.SearchQueryBuilder;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -37,12 +54,21 @@ public class OperationService implements IService<Operation> {
     private final AccountRepository accountRepo;
     private final CategoryRepository categoryRepo;
     private final CurrencyRepository currencyRepo;
+    private final AccountBalanceLedger ledger;
+    private final OperationTotalsCache totalsCache;
+    private final CurrencyRateService currencyRates;
+    private final OperationSuggestionIndex suggestions;
     
     public OperationService(Context context, String user) {
-        this.repo = new OperationRepository(context);
-        this.accountRepo = new AccountRepository(context);
-        this.categoryRepo = new CategoryRepository(context);
-        this.currencyRepo = new CurrencyRepository(context);
+        BackendContainer container = BackendContainer.get(context);
+        this.repo = container.operationRepository();
+        this.accountRepo = container.accountRepository();
+        this.categoryRepo = container.categoryRepository();
+        this.currencyRepo = container.currencyRepository();
+        this.ledger = container.ledger();
+        this.totalsCache = container.operationTotals();
+        this.currencyRates = container.currencyRates();
+        this.suggestions = container.suggestions();
         this.executorService = ThreadManager.getExecutor();
         this.user = user;
     }
@@ -92,8 +118,18 @@ public class OperationService implements IService<Operation> {
         operation.setAccountId(accountId);
         operation.setCurrencyId(currencyId);
         try {
-        repo.insert(operation);
-        Log.d(TAG, ServiceConstants.MSG_CREATE_OPERATION_SUCCESS);
+            runWrite(() -> {
+                long id = repo.insertSync(operation);
+                if (id != -1) {
+                    operation.setId((int) id);
+                    ledger.onOperationChanged(null, operation);
+                    totalsCache.invalidate(operation);
+                }
+            });
+            if (operation.getId() > 0) {
+                suggestions.onOperationChanged(null, operation);
+            }
+            Log.d(TAG, ServiceConstants.MSG_CREATE_OPERATION_SUCCESS);
         } catch (Exception e) {
             Log.e(TAG, ServiceConstants.MSG_CREATE_OPERATION_ERROR + e.getMessage(), e);
         }
@@ -144,7 +180,14 @@ public class OperationService implements IService<Operation> {
     public void deleteOperationInTransaction(Operation operation) {
         Log.d(TAG, ServiceConstants.MSG_DELETE_OPERATION_REQUEST + getOperationText(operation));
         try {
-            repo.delete(operation);
+            Operation[] stored = new Operation[1];
+            runWrite(() -> {
+                stored[0] = repo.getByIdSync(operation.getId());
+                repo.delete(operation);
+                ledger.onOperationChanged(stored[0], null);
+                totalsCache.invalidate(stored[0]);
+            });
+            suggestions.onOperationChanged(stored[0], null);
             Log.d(TAG, ServiceConstants.MSG_DELETE_OPERATION_SUCCESS + " " + getOperationText(operation));
         } catch (Exception e) {
             Log.e(TAG, String.format(ServiceConstants.MSG_DELETE_OPERATION_ERROR, getOperationText(operation)) + e.getMessage(), e);
@@ -167,6 +210,38 @@ public class OperationService implements IService<Operation> {
     public LiveData<List<Operation>> getAll() {
         return repo.getAll(EntityFilter.ALL);
     }
+    /**
+     * Полнотекстовый поиск операций по описанию, категории и счету
+     * Каждое слово запроса ищется по префиксу; совпадения в описании выше, затем более свежие
+     * @param text текст запроса
+     * @param filter фильтр для выборки операций
+     * @param page номер страницы (с 0)
+     * @param pageSize размер страницы
+     * @return LiveData со страницей найденных операций
+     */
+    public LiveData<List<Operation>> search(String text, EntityFilter filter, int page, int pageSize) {
+        String match = SearchQueryBuilder.prefixQuery(text);
+        if (match == null) {
+            Log.d(TAG, ServiceConstants.MSG_SEARCH_OPERATIONS_EMPTY_QUERY);
+            return new MutableLiveData<>(Collections.emptyList());
+        }
+        return repo.search(match, filter, pageSize, Math.max(page, 0) * pageSize);
+    }
+
+    /**
+     * Количество операций, найденных полнотекстовым поиском
+     * @param text текст запроса
+     * @param filter фильтр для выборки операций
+     * @return LiveData с количеством найденных операций
+     */
+    public LiveData<Integer> countSearch(String text, EntityFilter filter) {
+        String match = SearchQueryBuilder.prefixQuery(text);
+        if (match == null) {
+            return new MutableLiveData<>(0);
+        }
+        return repo.countSearch(match, filter);
+    }
+
     /**
      * Получить все операции по типу
      * @param type тип операции
@@ -465,7 +540,7 @@ public class OperationService implements IService<Operation> {
         deletedOperation.setUpdateTime(LocalDateTime.now());
         deletedOperation.setUpdatedBy(user);
         try {
-            repo.update(deletedOperation);
+            writeAndApplyToBalances(deletedOperation);
             Log.d(TAG, ServiceConstants.MSG_RESTORE_OPERATION_SUCCESS + getOperationText(deletedOperation));
         } catch (Exception e) {
             Log.e(TAG, String.format(ServiceConstants.MSG_RESTORE_OPERATION_ERROR, getOperationText(deletedOperation)) + e.getMessage(), e);
@@ -491,13 +566,75 @@ public class OperationService implements IService<Operation> {
         operation.setDeleteTime(LocalDateTime.now());
         operation.setDeletedBy(user);
         try {
-            repo.update(operation);
+            writeAndApplyToBalances(operation);
             Log.d(TAG, ServiceConstants.MSG_SOFT_DELETE_OPERATION_SUCCESS + getOperationText(operation));
         } catch (Exception e) {
             Log.e(TAG, String.format(ServiceConstants.MSG_SOFT_DELETE_OPERATION_ERROR, getOperationText(operation)) + e.getMessage(), e);
         }
     }
 
+    /**
+     * Пакетно удалить операции (soft delete)
+     * Все пачки по BULK_WRITE_CHUNK_SIZE ID выполняются в одной транзакции,
+     * поэтому наблюдающие запросы получают одну инвалидацию на весь пакет
+     * @param ids ID операций
+     * @param listener слушатель прогресса (может быть null)
+     * @return future с количеством удаленных операций (0 при ошибке)
+     */
+    public CompletableFuture<Integer> softDeleteAll(List<Integer> ids, IBulkProgressListener listener) {
+        return CompletableFuture.supplyAsync(() -> {
+            Log.d(TAG, String.format(ServiceConstants.MSG_BULK_SOFT_DELETE_OPERATIONS_REQUEST, ids.size()));
+            LocalDateTime now = LocalDateTime.now();
+            int[] changed = {0};
+            List<Operation> affected = new ArrayList<>();
+            try {
+                runWrite(() -> BulkChunks.forEachChunk(ids, listener, chunk -> {
+                    List<Operation> before = repo.getByIdsSync(chunk);
+                    changed[0] += repo.softDeleteByIds(chunk, now, user);
+                    ledger.onOperationsDeleted(before);
+                    totalsCache.invalidate(before);
+                    affected.addAll(before);
+                }));
+                suggestions.onOperationsDeleted(affected);
+                Log.d(TAG, String.format(ServiceConstants.MSG_BULK_SOFT_DELETE_OPERATIONS_SUCCESS, changed[0]));
+                return changed[0];
+            } catch (Exception e) {
+                Log.e(TAG, ServiceConstants.MSG_BULK_SOFT_DELETE_OPERATIONS_ERROR + e.getMessage(), e);
+                return 0;
+            }
+        }, executorService);
+    }
+
+    /**
+     * Пакетно восстановить удаленные операции
+     * @param ids ID операций
+     * @param listener слушатель прогресса (может быть null)
+     * @return future с количеством восстановленных операций (0 при ошибке)
+     */
+    public CompletableFuture<Integer> restoreAll(List<Integer> ids, IBulkProgressListener listener) {
+        return CompletableFuture.supplyAsync(() -> {
+            Log.d(TAG, String.format(ServiceConstants.MSG_BULK_RESTORE_OPERATIONS_REQUEST, ids.size()));
+            LocalDateTime now = LocalDateTime.now();
+            int[] changed = {0};
+            List<Operation> affected = new ArrayList<>();
+            try {
+                runWrite(() -> BulkChunks.forEachChunk(ids, listener, chunk -> {
+                    List<Operation> before = repo.getByIdsSync(chunk);
+                    changed[0] += repo.restoreByIds(chunk, now, user);
+                    ledger.onOperationsRestored(before);
+                    totalsCache.invalidate(before);
+                    affected.addAll(before);
+                }));
+                suggestions.onOperationsRestored(affected);
+                Log.d(TAG, String.format(ServiceConstants.MSG_BULK_RESTORE_OPERATIONS_SUCCESS, changed[0]));
+                return changed[0];
+            } catch (Exception e) {
+                Log.e(TAG, ServiceConstants.MSG_BULK_RESTORE_OPERATIONS_ERROR + e.getMessage(), e);
+                return 0;
+            }
+        }, executorService);
+    }
+
     /**
      * Обновить операцию
      * @param operation операция
@@ -513,7 +650,7 @@ public class OperationService implements IService<Operation> {
                 Log.d(TAG, ServiceConstants.MSG_UPDATE_OPERATION_REQUEST + getOperationText(operation));
                 operation.setUpdateTime(LocalDateTime.now());
                 operation.setUpdatedBy(user);
-                repo.update(operation);
+                writeAndApplyToBalances(operation);
                 Log.d(TAG, ServiceConstants.MSG_UPDATE_OPERATION_SUCCESS + getOperationText(operation));
             } catch (Exception e) {
                 Log.e(TAG, String.format(ServiceConstants.MSG_UPDATE_OPERATION_ERROR, getOperationText(operation)) + e.getMessage(), e);
@@ -521,6 +658,37 @@ public class OperationService implements IService<Operation> {
         });
     }
 
+    /**
+     * Обновляет операцию и применяет разницу к балансам счетов в одной транзакции
+     * Индекс подсказок обновляется после фиксации транзакции
+     * @param operation новое состояние операции
+     */
+    private void writeAndApplyToBalances(Operation operation) {
+        Operation[] stored = new Operation[1];
+        runWrite(() -> {
+            stored[0] = repo.getByIdSync(operation.getId());
+            repo.update(operation);
+            ledger.onOperationChanged(stored[0], operation);
+            totalsCache.invalidate(stored[0]);
+            totalsCache.invalidate(operation);
+        });
+        suggestions.onOperationChanged(stored[0], operation);
+    }
+
+    /**
+     * Выполняет запись операций в транзакции
+     * Пока запись не зафиксирована, кэш сумм не принимает новые значения (см. OperationTotalsCache)
+     * @param body тело транзакции; затронутые суммы сбрасываются в нем через totalsCache.invalidate
+     */
+    private void runWrite(Runnable body) {
+        totalsCache.beginWrite();
+        try {
+            repo.runInTransaction(body);
+        } finally {
+            totalsCache.endWrite();
+        }
+    }
+
     /**
      * Получает сумму доходов за период
      * @param startDate начало периода
@@ -533,6 +701,7 @@ public class OperationService implements IService<Operation> {
     
     /**
      * Получает общую сумму операций по конфигурации
+     * Все заданные условия (период, тип, категория, счет, валюта, фильтр) применяются вместе
      * @param config конфигурация калькулятора операций
      * @return общая сумма операций
      */
@@ -540,36 +709,227 @@ public class OperationService implements IService<Operation> {
         // TODO: сделать валидатор для конфигурации
         if (config == null || !config.isValid()) {
             Log.e(TAG, "Invalid OperationCalculatorConfig provided");
-            return new androidx.lifecycle.MutableLiveData<>(0L);
+            return new MutableLiveData<>(0L);
         }
-        
-        LocalDateTime startDate = config.getStartDate().atStartOfDay();
-        LocalDateTime endDate = config.getEndDate().atTime(23, 59, 59);
-        
-        // Если указана категория, используем метод по категории
-        if (config.getCategoryId() != null) {
-            return repo.getTotalAmountByCategoryAndDateRange(
-                config.getCategoryId(), 
-                startDate, 
-                endDate, 
-                config.getCurrencyId(),
-                config.getEntityFilter()
-            );
+        return repo.getTotalAmount(toAggregateQuery(config));
+    }
+
+    /**
+     * Получает суммы операций по конфигурации в разрезе измерений
+     * @param config конфигурация калькулятора операций
+     * @param groupBy измерения группировки (например, CATEGORY или MONTH, CATEGORY)
+     * @return суммы по группам
+     */
+    public LiveData<List<OperationAggregate>> getTotalsByConfig(OperationCalculatorConfig config,
+                                                               OperationAggregateQuery.Dimension... groupBy) {
+        if (config == null || !config.isValid()) {
+            Log.e(TAG, "Invalid OperationCalculatorConfig provided");
+            return new MutableLiveData<>(Collections.emptyList());
         }
-        
-        // Если указан тип операций, используем метод по типу
-        if (config.getOperationType() != OperationTypeFilter.ALL) {
-            return repo.getTotalAmountByTypeAndDateRange(
-                config.getOperationType().getIndex(), 
-                startDate, 
-                endDate, 
-                config.getCurrencyId(),
-                config.getEntityFilter()
-            );
+        return repo.getAggregates(toAggregateQuery(config, groupBy));
+    }
+
+    /**
+     * Получает общую сумму операций по конфигурации калькулятора синхронно
+     * Вызывать только из фонового потока
+     * @param config конфигурация калькулятора
+     * @return общая сумма операций (0, если операций нет или конфигурация некорректна)
+     */
+    public long getTotalAmountByConfigSync(OperationCalculatorConfig config) {
+        if (config == null || !config.isValid()) {
+            Log.e(TAG, "Invalid OperationCalculatorConfig provided");
+            return 0L;
         }
-        
-        // Иначе используем общий метод по периоду
-        return repo.getTotalAmountByDateRange(startDate, endDate, config.getCurrencyId(), config.getEntityFilter());
+        Long cached = totalsCache.get(config);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = totalsCache.getGeneration();
+        Long amount = repo.getTotalAmountSync(toAggregateQuery(config));
+        long total = amount != null ? amount : 0L;
+        totalsCache.put(config, total, generation);
+        return total;
+    }
+
+    /**
+     * Получает общую сумму операций по конфигурации калькулятора в пуле запросов
+     * Конфигурация читается в фоне: не изменяйте ее до завершения future
+     * @param config конфигурация калькулятора
+     * @return future с общей суммой операций (0, если операций нет или конфигурация некорректна)
+     */
+    public CompletableFuture<Long> getTotalAmountByConfigAsync(OperationCalculatorConfig config) {
+        return DatabaseQueries.async(() -> getTotalAmountByConfigSync(config));
+    }
+
+    /**
+     * Получает суммы операций по интервалам периода одним запросом (синхронно)
+     * Вызывать только из фонового потока
+     * @param period период
+     * @param baseDate базовая дата периода
+     * @param bucketSize размер интервала
+     * @param type тип операций
+     * @param currencyId ID валюты
+     * @return суммы по интервалам от начала периода (пустые интервалы - 0)
+     */
+    public long[] getTotalsByBucket(OperationPeriod period,
+                                    LocalDate baseDate,
+                                    StatisticsBucket bucketSize,
+                                    OperationTypeFilter type,
+                                    int currencyId) {
+        return getTotalsByBucketSync(new OperationCalculatorConfig(period, baseDate, type, null, currencyId,
+                EntityFilter.ACTIVE), bucketSize);
+    }
+
+    /**
+     * Получает суммы операций по интервалам периода от текущей даты (синхронно)
+     * Например, MONTH по YEAR - 12 месяцев текущего года
+     */
+    public long[] getTotalsByBucket(OperationPeriod period,
+                                    StatisticsBucket bucketSize,
+                                    OperationTypeFilter type,
+                                    int currencyId) {
+        return getTotalsByBucket(period, LocalDate.now(), bucketSize, type, currencyId);
+    }
+
+    /**
+     * Получает суммы операций по интервалам периода в фоне
+     * @return суммы по интервалам (пустой массив при ошибке)
+     */
+    public CompletableFuture<long[]> getTotalsByBucketAsync(OperationPeriod period,
+                                                            LocalDate baseDate,
+                                                            StatisticsBucket bucketSize,
+                                                            OperationTypeFilter type,
+                                                            int currencyId) {
+        return CompletableFuture.supplyAsync(
+                () -> getTotalsByBucket(period, baseDate, bucketSize, type, currencyId), executorService)
+            .exceptionally(e -> {
+                Log.e(TAG, ServiceConstants.MSG_BUCKET_TOTALS_ERROR + e.getMessage(), e);
+                return new long[0];
+            });
+    }
+
+    /**
+     * Получает суммы операций по конфигурации в разрезе интервалов периода (синхронно)
+     * Один GROUP BY по диапазону дат (индекс currencyId, operationDate); интервалы без
+     * операций заполняются нулями в памяти, поэтому длина массива всегда равна числу
+     * интервалов периода
+     * @param config конфигурация калькулятора
+     * @param bucketSize размер интервала
+     * @return суммы по интервалам от начала периода (пустой массив, если конфигурация некорректна)
+     */
+    public long[] getTotalsByBucketSync(OperationCalculatorConfig config, StatisticsBucket bucketSize) {
+        if (config == null || !config.isValid() || bucketSize == null) {
+            Log.e(TAG, "Invalid OperationCalculatorConfig provided");
+            return new long[0];
+        }
+        LocalDate start = config.getStartDate();
+        OperationAggregateQuery query = OperationAggregateQuery.builder()
+            .period(start.atStartOfDay(), config.getEndDate().atTime(23, 59, 59))
+            .type(config.getOperationType().getIndex())
+            .category(config.getCategoryId())
+            .account(config.getAccountId())
+            .currency(config.getCurrencyId())
+            .filter(config.getEntityFilter())
+            .bucket(bucketSize, start)
+            .build();
+        int count = query.bucketIndexOf(config.getEndDate()) + 1;
+        if (count > ServiceConstants.BUCKET_TOTALS_MAX_BUCKETS) {
+            Log.e(TAG, String.format(ServiceConstants.MSG_BUCKET_TOTALS_TOO_MANY, count, bucketSize));
+            return new long[0];
+        }
+        long[] totals = new long[count];
+        for (BucketTotal row : repo.getBucketTotalsSync(query)) {
+            if (row.getBucket() >= 0 && row.getBucket() < count) {
+                totals[row.getBucket()] = row.getTotal();
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Получает суммы по интервалам периода, пересчитанные в валюту по курсу на дату (синхронно)
+     * Сумма каждого интервала пересчитывается один раз по курсу на последний день интервала
+     * (но не позже конца периода)
+     * @param config конфигурация калькулятора с конкретной валютой
+     * @param bucketSize размер интервала
+     * @param toCurrencyId ID валюты результата
+     * @return суммы по интервалам от начала периода в валюте результата
+     */
+    public long[] getTotalsByBucketSync(OperationCalculatorConfig config, StatisticsBucket bucketSize, int toCurrencyId) {
+        long[] totals = getTotalsByBucketSync(config, bucketSize);
+        if (totals.length == 0 || config.getCurrencyId() == toCurrencyId) {
+            return totals;
+        }
+        CurrencyRateTimeline timeline = currencyRates.getTimeline();
+        int firstBucket = bucketSize.numberOf((int) config.getStartDate().toEpochDay());
+        int lastDay = (int) config.getEndDate().toEpochDay();
+        for (int i = 0; i < totals.length; i++) {
+            if (totals[i] != 0) {
+                int bucketEnd = (int) bucketSize.startOf(firstBucket + i + 1).toEpochDay() - 1;
+                totals[i] = timeline.convert(totals[i], config.getCurrencyId(), toCurrencyId, Math.min(bucketEnd, lastDay));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Получает суммы операций по конфигурации, пересчитанные в валюту по курсу на дату (синхронно)
+     * Один GROUP BY (валюта, месяц): сумма каждой группы пересчитывается один раз по курсу,
+     * действовавшему в последний день месяца (но не позже конца периода), а не по каждой операции.
+     * Вызывать только из фонового потока
+     * @param config конфигурация калькулятора (валюта 0 - все валюты)
+     * @param toCurrencyId ID валюты результата
+     * @return пересчитанные суммы по исходной валюте (пустая, если конфигурация некорректна)
+     */
+    public Map<Integer, Long> getConvertedTotalsSync(OperationCalculatorConfig config, int toCurrencyId) {
+        Map<Integer, Long> converted = new LinkedHashMap<>();
+        if (config == null || !config.isValid()) {
+            Log.e(TAG, "Invalid OperationCalculatorConfig provided");
+            return converted;
+        }
+        OperationAggregateQuery query = OperationAggregateQuery.builder()
+            .period(config.getStartDate().atStartOfDay(), config.getEndDate().atTime(23, 59, 59))
+            .type(config.getOperationType().getIndex())
+            .category(config.getCategoryId())
+            .account(config.getAccountId())
+            .currency(config.getCurrencyId() != 0 ? config.getCurrencyId() : null)
+            .filter(config.getEntityFilter())
+            .groupBy(OperationAggregateQuery.Dimension.CURRENCY, OperationAggregateQuery.Dimension.MONTH)
+            .build();
+        List<OperationAggregate> groups = repo.getAggregatesSync(query);
+        CurrencyRateTimeline timeline = currencyRates.getTimeline();
+        int lastDay = (int) config.getEndDate().toEpochDay();
+        for (OperationAggregate group : groups) {
+            // groupKey - "currencyId|yyyy-MM"; операции без даты не попадают в период
+            String key = group.getGroupKey();
+            int separator = key != null ? key.indexOf('|') : -1;
+            if (separator < 0) {
+                continue;
+            }
+            int currencyId = Integer.parseInt(key.substring(0, separator));
+            int monthEnd = (int) YearMonth.parse(key.substring(separator + 1)).atEndOfMonth().toEpochDay();
+            long amount = timeline.convert(group.getTotal(), currencyId, toCurrencyId, Math.min(monthEnd, lastDay));
+            converted.merge(currencyId, amount, Long::sum);
+        }
+        Log.d(TAG, String.format(ServiceConstants.MSG_CONVERTED_TOTALS, groups.size()));
+        return converted;
+    }
+
+    /**
+     * Переводит конфигурацию калькулятора в агрегатный запрос
+     * Период - с начала первого дня до 23:59:59 последнего
+     */
+    private static OperationAggregateQuery toAggregateQuery(OperationCalculatorConfig config,
+                                                            OperationAggregateQuery.Dimension... groupBy) {
+        return OperationAggregateQuery.builder()
+            .period(config.getStartDate().atStartOfDay(), config.getEndDate().atTime(23, 59, 59))
+            .type(config.getOperationType().getIndex())
+            .category(config.getCategoryId())
+            .account(config.getAccountId())
+            .currency(config.getCurrencyId())
+            .filter(config.getEntityFilter())
+            .groupBy(groupBy)
+            .build();
     }
     
     /**
@@ -0,0 +1,430 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.IoScheduler;
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.backend.repository.OperationRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс подсказок категории и счета по началу описания операции
+ * Префиксное дерево по нормализованным описаниям активных доходов и расходов (отдельно для
+ * каждого типа): каждый узел хранит, сколько раз операции с таким началом описания относились
+ * к каждой категории и к каждому счету, поэтому подсказка при вводе - это спуск по дереву
+ * на длину введенного текста и выбор лучших счетчиков одного узла, без обращений к БД.
+ * Дерево строится в фоновой очереди IoScheduler, затем обновляется OperationService после
+ * каждой записи операций; после получения изменений с сервера строится заново (invalidate).
+ * Память ограничена числом узлов (setMaxNodes): после достижения предела новые узлы не
+ * создаются, а счетчики продолжают копиться в уже существующих узлах пути.
+ */
+public class OperationSuggestionIndex {
+    private static final String TAG = "OperationSuggestionIndex";
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_IDS = new int[0];
+
+    /**
+     * Подсказка: ID категорий и счетов по убыванию частоты
+     */
+    public static final class Suggestions {
+        public static final Suggestions EMPTY = new Suggestions(NO_IDS, NO_IDS);
+
+        private final int[] categoryIds;
+        private final int[] accountIds;
+
+        private Suggestions(int[] categoryIds, int[] accountIds) {
+            this.categoryIds = categoryIds;
+            this.accountIds = accountIds;
+        }
+
+        /**
+         * @return ID категорий, не больше SUGGESTION_TOP_N (массив нельзя изменять)
+         */
+        public int[] getCategoryIds() {
+            return categoryIds;
+        }
+
+        /**
+         * @return ID счетов, не больше SUGGESTION_TOP_N (массив нельзя изменять)
+         */
+        public int[] getAccountIds() {
+            return accountIds;
+        }
+
+        public boolean isEmpty() {
+            return categoryIds.length == 0 && accountIds.length == 0;
+        }
+    }
+
+    private final OperationRepository repo;
+    private final IoScheduler.Lane lane;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** true, пока сборка стоит в очереди и еще не начала читать таблицу */
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    /** Счетчик инкрементальных изменений: сборка, пропустившая изменение, повторяется */
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private volatile int maxNodes = ServiceConstants.SUGGESTION_MAX_NODES;
+    // Под блокировкой lock
+    private Trie trie = new Trie(ServiceConstants.SUGGESTION_MAX_NODES);
+
+    public OperationSuggestionIndex(Context context) {
+        this.repo = BackendContainer.get(context).operationRepository();
+        this.lane = IoScheduler.getInstance().openLane(TAG);
+        invalidate();
+    }
+
+    /**
+     * Подсказка по началу описания (из любого потока, в том числе главного)
+     * @param operationType тип операции (ModelConstants.OPERATION_TYPE_*)
+     * @param text введенное начало описания
+     * @return лучшие категории и счета; пустая подсказка, если совпадений нет или индекс не построен
+     */
+    public Suggestions suggest(int operationType, CharSequence text) {
+        String prefix = normalize(text);
+        if (prefix.isEmpty()) {
+            return Suggestions.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = trie.find(operationType, prefix);
+            if (node == null) {
+                return Suggestions.EMPTY;
+            }
+            return new Suggestions(
+                    top(node.categoryIds, node.categoryCounts, node.categorySize),
+                    top(node.accountIds, node.accountCounts, node.accountSize));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество узлов дерева
+     * @return текущее число узлов
+     */
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return trie.nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Задает предел числа узлов и перестраивает индекс с новым пределом
+     * @param maxNodes наибольшее число узлов (не меньше 1)
+     */
+    public void setMaxNodes(int maxNodes) {
+        this.maxNodes = Math.max(1, maxNodes);
+        invalidate();
+    }
+
+    /**
+     * Планирует полную сборку индекса; повторные вызовы до начала сборки объединяются
+     */
+    public void invalidate() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            lane.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Учитывает изменение одной операции (вызывать после фиксации транзакции)
+     * @param before состояние до изменения (null - операция создана)
+     * @param after состояние после изменения (null - операция удалена из БД)
+     */
+    public void onOperationChanged(Operation before, Operation after) {
+        lock.writeLock().lock();
+        try {
+            if (before != null && !before.isDeleted()) {
+                trie.add(before, -1);
+            }
+            if (after != null && !after.isDeleted()) {
+                trie.add(after, 1);
+            }
+            writeCount.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Учитывает пакетное удаление (soft delete)
+     * @param before операции до удаления; уже удаленные пропускаются
+     */
+    public void onOperationsDeleted(List<Operation> before) {
+        applyAll(before, false, -1);
+    }
+
+    /**
+     * Учитывает пакетное восстановление
+     * @param before операции до восстановления; не удаленные пропускаются
+     */
+    public void onOperationsRestored(List<Operation> before) {
+        applyAll(before, true, 1);
+    }
+
+    private void applyAll(List<Operation> operations, boolean deleted, int delta) {
+        lock.writeLock().lock();
+        try {
+            for (Operation operation : operations) {
+                if (operation.isDeleted() == deleted) {
+                    trie.add(operation, delta);
+                }
+            }
+            writeCount.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Строит новое дерево в фоновой очереди и подменяет им текущее
+     * Чтение и сборка идут вне блокировки, подсказки по старому дереву не ждут
+     */
+    private void rebuild() {
+        // Изменения после этой точки запланируют следующую сборку
+        rebuildPending.set(false);
+        long writesBefore = writeCount.get();
+        try {
+            long started = SystemClock.elapsedRealtime();
+            Trie next = new Trie(maxNodes);
+            int rows = 0;
+            try (Cursor cursor = repo.getSuggestionCursor()) {
+                while (cursor.moveToNext()) {
+                    next.add(cursor.getInt(0), cursor.getString(1), cursor.getInt(2), cursor.getInt(3), 1);
+                    rows++;
+                }
+            }
+            boolean missedWrites;
+            lock.writeLock().lock();
+            try {
+                missedWrites = writeCount.get() != writesBefore;
+                trie = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Log.d(TAG, String.format(ServiceConstants.MSG_SUGGESTION_INDEX_BUILT, rows, next.nodeCount,
+                    SystemClock.elapsedRealtime() - started));
+            if (missedWrites) {
+                // Запись прошла между чтением таблицы и подменой и могла не попасть в дерево
+                invalidate();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, ServiceConstants.MSG_SUGGESTION_INDEX_ERROR + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Нормализует описание: нижний регистр, без пробелов по краям, пробелы внутри схлопнуты
+     * Длина ограничена SUGGESTION_MAX_PREFIX_LENGTH: более длинные начала различаются редко
+     */
+    static String normalize(CharSequence text) {
+        if (text == null) {
+            return "";
+        }
+        int limit = ServiceConstants.SUGGESTION_MAX_PREFIX_LENGTH;
+        StringBuilder result = new StringBuilder(Math.min(text.length(), limit));
+        boolean space = false;
+        for (int i = 0; i < text.length() && result.length() < limit; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = result.length() > 0;
+                continue;
+            }
+            if (space) {
+                result.append(' ');
+                space = false;
+                if (result.length() == limit) {
+                    break;
+                }
+            }
+            result.append(c);
+        }
+        return result.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Выбирает ID с наибольшими счетчиками (при равенстве - встреченный раньше)
+     */
+    private static int[] top(int[] ids, int[] counts, int size) {
+        int limit = ServiceConstants.SUGGESTION_TOP_N;
+        int[] bestIds = new int[limit];
+        int[] bestCounts = new int[limit];
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            int count = counts[i];
+            if (count <= 0 || (found == limit && count <= bestCounts[limit - 1])) {
+                continue;
+            }
+            int pos = Math.min(found, limit - 1);
+            while (pos > 0 && bestCounts[pos - 1] < count) {
+                bestIds[pos] = bestIds[pos - 1];
+                bestCounts[pos] = bestCounts[pos - 1];
+                pos--;
+            }
+            bestIds[pos] = ids[i];
+            bestCounts[pos] = count;
+            found = Math.min(found + 1, limit);
+        }
+        return found == limit ? bestIds : Arrays.copyOf(bestIds, found);
+    }
+
+    /**
+     * Префиксные деревья доходов и расходов с общим пределом числа узлов
+     */
+    private static final class Trie {
+        private final int maxNodes;
+        private final Node expenseRoot = new Node();
+        private final Node incomeRoot = new Node();
+        private int nodeCount;
+
+        Trie(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        private Node root(int operationType) {
+            if (operationType == ModelConstants.OPERATION_TYPE_EXPENSE) {
+                return expenseRoot;
+            }
+            if (operationType == ModelConstants.OPERATION_TYPE_INCOME) {
+                return incomeRoot;
+            }
+            return null;
+        }
+
+        /**
+         * Узел введенного начала
+         * @return узел или null, если такого начала среди описаний нет
+         */
+        Node find(int operationType, String prefix) {
+            Node node = root(operationType);
+            for (int i = 0; node != null && i < prefix.length(); i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        void add(Operation operation, int delta) {
+            if (operation.getToAccountId() != null) {
+                // Переводы не имеют категории
+                return;
+            }
+            add(operation.getType(), operation.getDescription(), operation.getCategoryId(),
+                    operation.getAccountId(), delta);
+        }
+
+        void add(int operationType, String description, int categoryId, int accountId, int delta) {
+            Node node = root(operationType);
+            String key = normalize(description);
+            if (node == null || key.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                Node child = node.child(c);
+                if (child == null) {
+                    if (delta < 0 || nodeCount >= maxNodes) {
+                        break;
+                    }
+                    child = node.addChild(c);
+                    nodeCount++;
+                }
+                node = child;
+                node.count(categoryId, accountId, delta);
+            }
+        }
+    }
+
+    /**
+     * Узел дерева: дочерние узлы по букве (ключи отсортированы) и счетчики категорий и счетов
+     */
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+
+        private int[] categoryIds = NO_IDS;
+        private int[] categoryCounts = NO_IDS;
+        private int categorySize;
+        private int[] accountIds = NO_IDS;
+        private int[] accountCounts = NO_IDS;
+        private int accountSize;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(char c) {
+            int index = -Arrays.binarySearch(keys, 0, childCount, c) - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            Node child = new Node();
+            keys[index] = c;
+            children[index] = child;
+            childCount++;
+            return child;
+        }
+
+        void count(int categoryId, int accountId, int delta) {
+            int i = indexOf(categoryIds, categorySize, categoryId);
+            if (i < 0 && delta > 0) {
+                if (categorySize == categoryIds.length) {
+                    int capacity = Math.max(1, categorySize * 2);
+                    categoryIds = Arrays.copyOf(categoryIds, capacity);
+                    categoryCounts = Arrays.copyOf(categoryCounts, capacity);
+                }
+                i = categorySize++;
+                categoryIds[i] = categoryId;
+            }
+            if (i >= 0) {
+                categoryCounts[i] = Math.max(0, categoryCounts[i] + delta);
+            }
+
+            int j = indexOf(accountIds, accountSize, accountId);
+            if (j < 0 && delta > 0) {
+                if (accountSize == accountIds.length) {
+                    int capacity = Math.max(1, accountSize * 2);
+                    accountIds = Arrays.copyOf(accountIds, capacity);
+                    accountCounts = Arrays.copyOf(accountCounts, capacity);
+                }
+                j = accountSize++;
+                accountIds[j] = accountId;
+            }
+            if (j >= 0) {
+                accountCounts[j] = Math.max(0, accountCounts[j] + delta);
+            }
+        }
+
+        private static int indexOf(int[] ids, int size, int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.calculators.OperationCalculatorConfig;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU-кэш сумм операций по конфигурации калькулятора
+ * Запись операции сбрасывает только суммы, в период и валюту которых она попадает
+ * (месяц даты операции, currencyId), а не весь кэш.
+ * Запись оборачивается в beginWrite/endWrite, затронутые суммы сбрасываются внутри
+ * транзакции. Пока запись не завершена, кэш не принимает новые значения, а сумма,
+ * чтение которой началось до завершения записи, отбрасывается по поколению.
+ * Поэтому после фиксации в кэше не может остаться значение, прочитанное до нее
+ */
+public class OperationTotalsCache {
+    private static final String TAG = "OperationTotalsCache";
+
+    private final Map<OperationCalculatorConfig, Long> entries =
+            new LinkedHashMap<OperationCalculatorConfig, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<OperationCalculatorConfig, Long> eldest) {
+                    if (size() > ServiceConstants.OPERATION_TOTALS_CACHE_SIZE) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    // Все поля ниже защищены монитором this
+    private long generation;
+    private int activeWrites;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Сумма из кэша
+     * @param config конфигурация
+     * @return сумма или null при промахе
+     */
+    public synchronized Long get(OperationCalculatorConfig config) {
+        Long total = entries.get(config);
+        if (total != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return total;
+    }
+
+    /**
+     * Текущее поколение кэша; запоминается перед чтением суммы из БД и передается в put
+     * @return поколение
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Отмечает начало записи операций (до открытия транзакции)
+     */
+    public synchronized void beginWrite() {
+        activeWrites++;
+        generation++;
+    }
+
+    /**
+     * Отмечает завершение записи операций (после фиксации или отката транзакции)
+     */
+    public synchronized void endWrite() {
+        activeWrites--;
+        generation++;
+    }
+
+    /**
+     * Кладет сумму в кэш, если с начала ее чтения не было записей и инвалидаций
+     * @param config конфигурация (копируется: исходный объект изменяемый)
+     * @param total сумма
+     * @param readGeneration поколение, полученное до чтения суммы
+     */
+    public synchronized void put(OperationCalculatorConfig config, long total, long readGeneration) {
+        if (readGeneration == generation && activeWrites == 0) {
+            entries.put(copyOf(config), total);
+        }
+    }
+
+    /**
+     * Сбрасывает суммы, затронутые записываемыми операциями
+     * Вызывать внутри транзакции записи, между beginWrite и endWrite
+     * @param operations состояния операций до и/или после записи (null пропускаются)
+     */
+    public void invalidate(Collection<Operation> operations) {
+        for (Operation operation : operations) {
+            invalidate(operation);
+        }
+    }
+
+    /**
+     * Сбрасывает суммы, затронутые операцией
+     * @param operation состояние операции (null пропускается)
+     */
+    public void invalidate(Operation operation) {
+        if (operation == null) {
+            return;
+        }
+        if (operation.getOperationDate() == null) {
+            invalidateAll();
+            return;
+        }
+        invalidate(YearMonth.from(operation.getOperationDate()), operation.getCurrencyId());
+    }
+
+    /**
+     * Сбрасывает суммы, период которых включает месяц, в указанной валюте
+     * @param month месяц
+     * @param currencyId ID валюты
+     */
+    public synchronized void invalidate(YearMonth month, int currencyId) {
+        generation++;
+        invalidations++;
+        int removed = 0;
+        Iterator<OperationCalculatorConfig> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            OperationCalculatorConfig config = iterator.next();
+            if (config.getCurrencyId() == currencyId
+                    && !month.isBefore(YearMonth.from(config.getStartDate()))
+                    && !month.isAfter(YearMonth.from(config.getEndDate()))) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            Log.d(TAG, String.format(ServiceConstants.MSG_OPERATION_TOTALS_INVALIDATED, month, currencyId, removed));
+        }
+    }
+
+    /**
+     * Сбрасывает весь кэш (записи операций в обход OperationService)
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Доля попаданий
+     * @return от 0 до 1 (0, если обращений не было)
+     */
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests > 0 ? (double) hits / requests : 0;
+    }
+
+    /**
+     * Метрики кэша для логов
+     */
+    @Override
+    public synchronized String toString() {
+        return "OperationTotalsCache{size=" + entries.size() + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + ", invalidations=" + invalidations + "}";
+    }
+
+    private static OperationCalculatorConfig copyOf(OperationCalculatorConfig config) {
+        OperationCalculatorConfig copy = new OperationCalculatorConfig(config.getPeriod(), config.getBaseDate(),
+                config.getOperationType(), config.getCategoryId(), config.getCurrencyId(), config.getEntityFilter());
+        copy.setAccountId(config.getAccountId());
+        return copy;
+    }
+}
@@ -0,0 +1,374 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.IoScheduler;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
+import com.sadengineer.budgetmaster.backend.entity.Account;
+import com.sadengineer.budgetmaster.backend.entity.Category;
+import com.sadengineer.budgetmaster.backend.entity.Currency;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.repository.AccountRepository;
+import com.sadengineer.budgetmaster.backend.repository.CategoryRepository;
+import com.sadengineer.budgetmaster.backend.repository.CurrencyRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Общий на процесс кэш справочных данных: счета, категории и валюты
+ * Все три таблицы малы, поэтому держатся в памяти целиком в неизменяемом снимке (Snapshot):
+ * массивы по ID, поиск по названию и связи родитель - дочерние категории.
+ * Снимок строится заново в фоновой очереди после изменения любой из таблиц (DatabaseChangeBus)
+ * и публикуется одной записью volatile-поля, поэтому читать его можно из любого потока без
+ * блокировок. Пока новый снимок строится, читатели видят предыдущий.
+ */
+public class ReferenceDataCache {
+    private static final String TAG = "ReferenceDataCache";
+
+    private final AccountRepository accountRepo;
+    private final CategoryRepository categoryRepo;
+    private final CurrencyRepository currencyRepo;
+    private final IoScheduler.Lane lane;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    /** true, пока сборка снимка стоит в очереди и еще не начала читать таблицы */
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final MutableLiveData<Snapshot> snapshotLive = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> loaded = new MutableLiveData<>(false);
+    private final CompletableFuture<Void> firstBuild = new CompletableFuture<>();
+
+    public ReferenceDataCache(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+        this.accountRepo = container.accountRepository();
+        this.categoryRepo = container.categoryRepository();
+        this.currencyRepo = container.currencyRepository();
+        this.lane = IoScheduler.getInstance().openLane(TAG);
+        DatabaseChangeBus.getInstance(context).addListener(tables -> invalidate(),
+                RepositoryConstants.TABLE_ACCOUNTS, RepositoryConstants.TABLE_CATEGORIES,
+                RepositoryConstants.TABLE_CURRENCIES);
+        invalidate();
+    }
+
+    /**
+     * Текущий снимок (из любого потока, без ожидания)
+     * @return снимок; до первой загрузки - пустой (isLoaded() == false)
+     */
+    public Snapshot get() {
+        return snapshot;
+    }
+
+    /**
+     * Снимки по мере публикации (значение приходит в главном потоке)
+     * Экраны и адаптеры наблюдают его со своим жизненным циклом, чтобы дождаться первого
+     * снимка или перерисоваться после изменения справочников
+     * @return LiveData со снимком
+     */
+    public LiveData<Snapshot> getSnapshot() {
+        return snapshotLive;
+    }
+
+    /**
+     * Признак загрузки первого снимка
+     * @return LiveData: true после публикации первого снимка
+     */
+    public LiveData<Boolean> isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Future, завершающийся после первой сборки снимка (в том числе неудачной)
+     * Ждать его блокирующе в потоке общего пула нельзя: сборка выполняется в том же пуле
+     * @return future первой сборки
+     */
+    public CompletableFuture<Void> whenLoaded() {
+        return firstBuild;
+    }
+
+    /**
+     * Планирует сборку нового снимка; повторные вызовы до начала сборки объединяются
+     */
+    public void invalidate() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            lane.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Собирает снимок в фоновой очереди и публикует его
+     */
+    private void rebuild() {
+        // Изменения после этой точки запланируют следующую сборку
+        rebuildPending.set(false);
+        try {
+            long started = SystemClock.elapsedRealtime();
+            Snapshot next = Snapshot.build(snapshot.version + 1,
+                    currencyRepo.getAllSync(EntityFilter.ALL),
+                    accountRepo.getAllSync(EntityFilter.ALL),
+                    categoryRepo.getAllSync());
+            snapshot = next;
+            Log.d(TAG, String.format(ServiceConstants.MSG_REFERENCE_DATA_LOADED, next.version,
+                    next.currencyCount, next.accountCount, next.categoryCount,
+                    SystemClock.elapsedRealtime() - started));
+            mainHandler.post(() -> publish(next));
+        } catch (Exception e) {
+            Log.e(TAG, ServiceConstants.MSG_REFERENCE_DATA_ERROR + e.getMessage(), e);
+        } finally {
+            firstBuild.complete(null);
+        }
+    }
+
+    private void publish(Snapshot next) {
+        snapshotLive.setValue(next);
+        if (!Boolean.TRUE.equals(loaded.getValue())) {
+            loaded.setValue(true);
+        }
+    }
+
+    /**
+     * Неизменяемый снимок справочных данных
+     * Сущности в снимке общие для всех читателей: изменять их нельзя, для редактирования
+     * нужно загрузить свою копию через сервис
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = build(0, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList());
+
+        private final long version;
+        private final int currencyCount;
+        private final int accountCount;
+        private final int categoryCount;
+
+        // Сущности по ID (включая удаленные), null - нет такой строки
+        private final Currency[] currencies;
+        private final Account[] accounts;
+        private final Category[] categories;
+
+        // Поиск по названию: не удаленная строка важнее удаленной
+        private final Map<String, Currency> currenciesByShortName;
+        private final Map<String, Account> accountsByTitle;
+        private final Map<String, Category> categoriesByTitle;
+
+        // Не удаленные строки в порядке отображения (как в DAO)
+        private final List<Account> activeAccounts;
+        private final Map<Integer, List<Category>> activeCategoriesByOperationType;
+        private final Map<Integer, List<Category>> activeChildrenByParent;
+
+        private Snapshot(long version, List<Currency> currencyList, List<Account> accountList,
+                         List<Category> categoryList) {
+            this.version = version;
+            this.currencyCount = currencyList.size();
+            this.accountCount = accountList.size();
+            this.categoryCount = categoryList.size();
+
+            this.currencies = new Currency[maxId(currencyList, Currency::getId) + 1];
+            Map<String, Currency> byShortName = new HashMap<>();
+            for (Currency currency : currencyList) {
+                currencies[currency.getId()] = currency;
+                putPreferActive(byShortName, currency.getShortName(), currency, currency.isDeleted());
+            }
+            this.currenciesByShortName = Collections.unmodifiableMap(byShortName);
+
+            this.accounts = new Account[maxId(accountList, Account::getId) + 1];
+            Map<String, Account> accountTitles = new HashMap<>();
+            List<Account> active = new ArrayList<>();
+            for (Account account : accountList) {
+                accounts[account.getId()] = account;
+                putPreferActive(accountTitles, account.getTitle(), account, account.isDeleted());
+                if (!account.isDeleted()) {
+                    active.add(account);
+                }
+            }
+            active.sort(Comparator.comparingInt(Snapshot::displayOrder));
+            this.accountsByTitle = Collections.unmodifiableMap(accountTitles);
+            this.activeAccounts = Collections.unmodifiableList(active);
+
+            // Категории приходят из DAO уже в порядке отображения
+            this.categories = new Category[maxId(categoryList, Category::getId) + 1];
+            Map<String, Category> categoryTitles = new HashMap<>();
+            Map<Integer, List<Category>> byOperationType = new HashMap<>();
+            Map<Integer, List<Category>> byParent = new HashMap<>();
+            for (Category category : categoryList) {
+                categories[category.getId()] = category;
+                putPreferActive(categoryTitles, category.getTitle(), category, category.isDeleted());
+                if (!category.isDeleted()) {
+                    addTo(byOperationType, category.getOperationType(), category);
+                    if (category.getParentId() != null) {
+                        addTo(byParent, category.getParentId(), category);
+                    }
+                }
+            }
+            this.categoriesByTitle = Collections.unmodifiableMap(categoryTitles);
+            this.activeCategoriesByOperationType = Collections.unmodifiableMap(byOperationType);
+            this.activeChildrenByParent = Collections.unmodifiableMap(byParent);
+        }
+
+        static Snapshot build(long version, List<Currency> currencies, List<Account> accounts,
+                              List<Category> categories) {
+            return new Snapshot(version,
+                    currencies != null ? currencies : Collections.emptyList(),
+                    accounts != null ? accounts : Collections.emptyList(),
+                    categories != null ? categories : Collections.emptyList());
+        }
+
+        /** true, если снимок загружен из базы данных */
+        public boolean isLoaded() {
+            return version > 0;
+        }
+
+        /** Номер снимка: растет при каждой пересборке */
+        public long getVersion() {
+            return version;
+        }
+
+        public int getCurrencyCount() {
+            return currencyCount;
+        }
+
+        public int getAccountCount() {
+            return accountCount;
+        }
+
+        public int getCategoryCount() {
+            return categoryCount;
+        }
+
+        // ========== Валюты ==========
+
+        public Currency getCurrency(int currencyId) {
+            return currencyId >= 0 && currencyId < currencies.length ? currencies[currencyId] : null;
+        }
+
+        /**
+         * Короткое название валюты
+         * @param currencyId ID валюты
+         * @return короткое название или null, если валюты нет в снимке
+         */
+        public String getCurrencyShortName(int currencyId) {
+            Currency currency = getCurrency(currencyId);
+            return currency != null ? currency.getShortName() : null;
+        }
+
+        public Currency findCurrencyByShortName(String shortName) {
+            return shortName != null ? currenciesByShortName.get(shortName) : null;
+        }
+
+        // ========== Счета ==========
+
+        public Account getAccount(int accountId) {
+            return accountId >= 0 && accountId < accounts.length ? accounts[accountId] : null;
+        }
+
+        public Account findAccountByTitle(String title) {
+            return title != null ? accountsByTitle.get(title) : null;
+        }
+
+        /**
+         * Короткое название валюты счета
+         * @param accountId ID счета
+         * @return короткое название или null, если счета или его валюты нет в снимке
+         */
+        public String getAccountCurrencyShortName(int accountId) {
+            Account account = getAccount(accountId);
+            return account != null ? getCurrencyShortName(account.getCurrencyId()) : null;
+        }
+
+        /** Не удаленные счета в порядке отображения */
+        public List<Account> getActiveAccounts() {
+            return activeAccounts;
+        }
+
+        // ========== Категории ==========
+
+        public Category getCategory(int categoryId) {
+            return categoryId >= 0 && categoryId < categories.length ? categories[categoryId] : null;
+        }
+
+        /**
+         * Название категории
+         * @param categoryId ID категории
+         * @return название или null, если категории нет в снимке
+         */
+        public String getCategoryTitle(int categoryId) {
+            Category category = getCategory(categoryId);
+            return category != null ? category.getTitle() : null;
+        }
+
+        public Category findCategoryByTitle(String title) {
+            return title != null ? categoriesByTitle.get(title) : null;
+        }
+
+        /**
+         * Родительская категория
+         * @param categoryId ID категории
+         * @return родитель или null для корневой или неизвестной категории
+         */
+        public Category getParent(int categoryId) {
+            Category category = getCategory(categoryId);
+            return category != null && category.getParentId() != null ? getCategory(category.getParentId()) : null;
+        }
+
+        /** Не удаленные прямые потомки категории в порядке отображения */
+        public List<Category> getChildren(int parentId) {
+            List<Category> children = activeChildrenByParent.get(parentId);
+            return children != null ? Collections.unmodifiableList(children) : Collections.emptyList();
+        }
+
+        /** Не удаленные категории типа операции в порядке отображения */
+        public List<Category> getActiveCategories(int operationType) {
+            List<Category> list = activeCategoriesByOperationType.get(operationType);
+            return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+        }
+
+        // ========== Сборка ==========
+
+        private interface IdOf<T> {
+            int id(T entity);
+        }
+
+        private static <T> int maxId(List<T> entities, IdOf<T> idOf) {
+            int max = 0;
+            for (T entity : entities) {
+                max = Math.max(max, idOf.id(entity));
+            }
+            return max;
+        }
+
+        private static <T> void putPreferActive(Map<String, T> map, String key, T entity, boolean deleted) {
+            if (key != null && (!deleted || !map.containsKey(key))) {
+                map.put(key, entity);
+            }
+        }
+
+        private static void addTo(Map<Integer, List<Category>> map, int key, Category category) {
+            List<Category> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<>();
+                map.put(key, list);
+            }
+            list.add(category);
+        }
+
+        /** Порядок отображения DAO: позиция 0 в конце */
+        private static int displayOrder(Account account) {
+            return account.getPosition() == 0 ? Integer.MAX_VALUE : account.getPosition();
+        }
+    }
+}
@@ -34,6 +34,8 @@ import static com.sadengineer.budgetmaster.backend.constants.ServiceConstants.MS
 import androidx.room.Transaction;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -43,7 +45,9 @@ import java.util.concurrent.ExecutorService;
 public class ServiceManager {
     private static final String TAG = "ServiceManager";
     
-    private static ServiceManager instance;
+    private static volatile ServiceManager instance;
+    // Экземпляры по пользователю: изменения записываются от имени того, кто запросил менеджер
+    private static final Map<String, ServiceManager> instancesByUser = new ConcurrentHashMap<>();
     private final Context context;
     private final String userName;
     private final ExecutorService executorService;
@@ -82,14 +86,16 @@ public class ServiceManager {
      * @return экземпляр ServiceManager
      */
     public static ServiceManager getInstance(Context context, String userName) {
+        ServiceManager manager = instancesByUser.computeIfAbsent(userName,
+                user -> new ServiceManager(context.getApplicationContext(), user));
         if (instance == null) {
-            instance = new ServiceManager(context, userName);
+            instance = manager;
         }
-        return instance;
+        return manager;
     }
     
     /**
-     * Получить существующий экземпляр ServiceManager
+     * Получить существующий экземпляр ServiceManager (созданный первым)
      * @return экземпляр ServiceManager или null, если не инициализирован
      */
     public static ServiceManager getInstance() {
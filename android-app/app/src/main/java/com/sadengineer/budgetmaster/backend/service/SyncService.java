@@ -0,0 +1,420 @@
+package com.sadengineer.budgetmaster.backend.service;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.IoScheduler;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+import com.sadengineer.budgetmaster.backend.converter.DateTimeConverter;
+import com.sadengineer.budgetmaster.backend.entity.SyncChange;
+import com.sadengineer.budgetmaster.backend.repository.SyncChangeRepository;
+import com.sadengineer.budgetmaster.backend.sync.HttpSyncTransport;
+import com.sadengineer.budgetmaster.backend.sync.SyncCodec;
+import com.sadengineer.budgetmaster.backend.sync.SyncTransport;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Сервис инкрементальной синхронизации с сервером
+ * Триггеры записывают каждую измененную строку синхронизируемых таблиц в журнал
+ * sync_changes с растущим номером. Синхронизация отправляет только строки из журнала
+ * после последнего подтвержденного номера (сжатыми пачками), затем получает изменения
+ * других устройств после последнего полученного номера сервера.
+ * Конфликты решаются по версии строки (последнее из времени создания, обновления
+ * и удаления): побеждает более поздняя, при равных - версия сервера.
+ * Строки сопоставляются по ID, поэтому устройства должны использовать общее пространство ID
+ */
+public class SyncService {
+    private static final String TAG = "SyncService";
+
+    private static final String PREF_NAME = "sync";
+    private static final String KEY_DEVICE_ID = "device_id";
+    private static final String KEY_LAST_PUSHED = "last_pushed_seq";
+    private static final String KEY_LAST_PULLED = "last_pulled_seq";
+    private static final String KEY_SERVER_URL = "server_url";
+
+    private static final Set<String> SYNC_TABLES = new HashSet<>(Arrays.asList(RepositoryConstants.SYNC_TABLES));
+
+    private final Context context;
+    private final SharedPreferences preferences;
+    private final SyncChangeRepository repo;
+    private final IoScheduler.Lane lane;
+
+    private volatile SyncTransport transport;
+    private volatile SyncResult lastResult;
+
+    public SyncService(Context context) {
+        this.context = context;
+        this.preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.repo = BackendContainer.get(context).syncChangeRepository();
+        this.lane = IoScheduler.getInstance().openLane(TAG);
+        String url = preferences.getString(KEY_SERVER_URL, null);
+        if (url != null) {
+            this.transport = new HttpSyncTransport(url);
+        }
+    }
+
+    /**
+     * Задает адрес сервера синхронизации (сохраняется между запусками)
+     * @param url адрес сервера или null, чтобы отключить синхронизацию
+     */
+    public void configureServer(String url) {
+        preferences.edit().putString(KEY_SERVER_URL, url).apply();
+        transport = url != null ? new HttpSyncTransport(url) : null;
+    }
+
+    /**
+     * Задает транспорт напрямую (не сохраняется), например для LocalSyncServer в отладочной сборке
+     * @param transport транспорт или null
+     */
+    public void setTransport(SyncTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * ID устройства, создается при первом обращении
+     * @return ID устройства
+     */
+    public String getDeviceId() {
+        String deviceId = preferences.getString(KEY_DEVICE_ID, null);
+        if (deviceId == null) {
+            deviceId = UUID.randomUUID().toString();
+            preferences.edit().putString(KEY_DEVICE_ID, deviceId).apply();
+        }
+        return deviceId;
+    }
+
+    /**
+     * Количество изменений, ожидающих отправки (только из фонового потока)
+     * @return количество строк в журнале после последнего отправленного номера
+     */
+    public int getPendingCount() {
+        return repo.countAfter(preferences.getLong(KEY_LAST_PUSHED, 0));
+    }
+
+    /**
+     * Результат последней синхронизации в этом процессе
+     * @return результат или null, если синхронизация не выполнялась
+     */
+    public SyncResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Выполняет синхронизацию в фоне
+     * @return future с результатом или null, если сервер не настроен или произошла ошибка
+     */
+    public CompletableFuture<SyncResult> syncAsync() {
+        return CompletableFuture.supplyAsync(this::sync, lane)
+            .exceptionally(e -> {
+                Log.e(TAG, ServiceConstants.MSG_SYNC_ERROR + e.getMessage(), e);
+                return null;
+            });
+    }
+
+    /**
+     * Выполняет синхронизацию (синхронно, только из фонового потока):
+     * сначала отправка локальных изменений, затем получение изменений других устройств
+     * @return результат или null, если сервер не настроен или произошла ошибка
+     */
+    public synchronized SyncResult sync() {
+        SyncTransport current = transport;
+        if (current == null) {
+            Log.w(TAG, ServiceConstants.MSG_SYNC_NOT_CONFIGURED);
+            return null;
+        }
+        long started = SystemClock.elapsedRealtime();
+        String deviceId = getDeviceId();
+        Log.d(TAG, String.format(ServiceConstants.MSG_SYNC_START, preferences.getLong(KEY_LAST_PUSHED, 0),
+                preferences.getLong(KEY_LAST_PULLED, 0), getPendingCount()));
+
+        SyncResult result = new SyncResult();
+        try {
+            push(current, deviceId, result);
+            Log.d(TAG, String.format(ServiceConstants.MSG_SYNC_PUSHED, result.pushedChanges, result.pushedBytes, result.acceptedChanges));
+            pull(current, deviceId, result);
+            Log.d(TAG, String.format(ServiceConstants.MSG_SYNC_PULLED, result.pulledChanges, result.pulledBytes,
+                    result.appliedChanges, result.conflictsSkipped));
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, ServiceConstants.MSG_SYNC_ERROR + e.getMessage(), e);
+            return null;
+        }
+        result.durationMs = SystemClock.elapsedRealtime() - started;
+        lastResult = result;
+        Log.d(TAG, String.format(ServiceConstants.MSG_SYNC_COMPLETE, result));
+        return result;
+    }
+
+    /**
+     * Отправляет журнал пачками; подтвержденные сервером записи удаляются из журнала
+     */
+    private void push(SyncTransport transport, String deviceId, SyncResult result) throws IOException, JSONException {
+        long lastPushed = preferences.getLong(KEY_LAST_PUSHED, 0);
+        List<SyncChange> batch;
+        while (!(batch = repo.getAfter(lastPushed, ServiceConstants.SYNC_BATCH_SIZE)).isEmpty()) {
+            JSONArray changes = new JSONArray();
+            for (SyncChange change : batch) {
+                changes.put(toPayload(change));
+            }
+            byte[] payload = SyncCodec.encode(new JSONObject().put("changes", changes));
+            JSONObject response = SyncCodec.decode(transport.push(deviceId, payload));
+
+            lastPushed = batch.get(batch.size() - 1).getSeq();
+            preferences.edit().putLong(KEY_LAST_PUSHED, lastPushed).apply();
+            repo.deleteUpTo(lastPushed);
+
+            result.pushedChanges += batch.size();
+            result.pushedBytes += payload.length;
+            result.acceptedChanges += response.optInt("accepted");
+        }
+    }
+
+    /**
+     * Изменение для отправки: текущее состояние строки или отметка об удалении,
+     * если строки уже нет
+     */
+    private JSONObject toPayload(SyncChange change) throws JSONException {
+        JSONObject entry = new JSONObject()
+                .put("table", change.getTableName())
+                .put("id", change.getRowId());
+        ContentValues row = repo.readRow(change.getTableName(), change.getRowId());
+        if (row == null) {
+            return entry.put("deleted", true)
+                    .put("version", DateTimeConverter.dateToString(change.getChangeTime()));
+        }
+        JSONObject values = new JSONObject();
+        for (String column : row.keySet()) {
+            Object value = row.get(column);
+            values.put(column, value != null ? value : JSONObject.NULL);
+        }
+        return entry.put("row", values).put("version", versionOf(row));
+    }
+
+    /**
+     * Получает изменения пачками, пока сервер сообщает, что есть еще
+     */
+    private void pull(SyncTransport transport, String deviceId, SyncResult result) throws IOException, JSONException {
+        long lastPulled = preferences.getLong(KEY_LAST_PULLED, 0);
+        boolean more = true;
+        Set<Integer> touchedAccounts = new HashSet<>();
+        while (more) {
+            byte[] payload = transport.pull(deviceId, lastPulled, ServiceConstants.SYNC_BATCH_SIZE);
+            JSONObject response = SyncCodec.decode(payload);
+            JSONArray changes = response.getJSONArray("changes");
+            result.pulledChanges += changes.length();
+            result.pulledBytes += payload.length;
+            if (changes.length() > 0) {
+                apply(changes, result, touchedAccounts);
+            }
+            lastPulled = response.getLong("lastSeq");
+            more = response.optBoolean("more");
+            preferences.edit().putLong(KEY_LAST_PULLED, lastPulled).apply();
+        }
+
+        // Контрольные точки пересчитываются каждая в своей транзакции, после применения пачек
+        BalanceCheckpointService checkpoints = BackendContainer.get(context).balanceCheckpoints();
+        for (int accountId : touchedAccounts) {
+            checkpoints.rebuildForAccount(accountId);
+        }
+    }
+
+    /**
+     * Применяет пачку изменений в одной транзакции
+     * Записи журнала, созданные триггерами при применении, удаляются в той же транзакции,
+     * чтобы полученные изменения не отправлялись обратно
+     */
+    private void apply(JSONArray changes, SyncResult result, Set<Integer> touchedAccounts) {
+        OperationTotalsCache totals = BackendContainer.get(context).operationTotals();
+        boolean[] operationsTouched = {false};
+        Set<Integer> batchAccounts = new HashSet<>();
+        totals.beginWrite();
+        try {
+            repo.runInTransaction(() -> {
+                repo.deferForeignKeys();
+                long before = repo.getMaxSeq();
+                totals.invalidateAll();
+                int applied = 0;
+                for (int i = 0; i < changes.length(); i++) {
+                    JSONObject change = changes.optJSONObject(i);
+                    String table = change != null ? change.optString("table") : null;
+                    int id = change != null ? change.optInt("id", -1) : -1;
+                    if (!SYNC_TABLES.contains(table) || id < 0) {
+                        continue;
+                    }
+                    ContentValues local = repo.readRow(table, id);
+                    if (local != null && SyncCodec.compareVersions(change.optString("version", null), versionOf(local)) < 0) {
+                        result.conflictsSkipped++;
+                        continue;
+                    }
+                    collectAccounts(table, local, batchAccounts);
+                    if (change.optBoolean("deleted")) {
+                        if (local != null) {
+                            repo.deleteRow(table, id);
+                        }
+                    } else {
+                        JSONObject row = change.optJSONObject("row");
+                        if (row == null) {
+                            continue;
+                        }
+                        ContentValues values = toValues(table, row);
+                        values.put("id", id);
+                        repo.upsertRow(table, id, values);
+                        collectAccounts(table, values, batchAccounts);
+                    }
+                    if (RepositoryConstants.TABLE_OPERATIONS.equals(table)) {
+                        operationsTouched[0] = true;
+                    }
+                    applied++;
+                }
+                // Баланс счета производный: пересчитываются по журналу операций
+                // только счета, которых касаются строки пачки
+                BackendContainer.get(context).ledger().rebuildAmounts(new ArrayList<>(batchAccounts));
+                repo.deleteAfter(before);
+                result.appliedChanges += applied;
+            });
+            touchedAccounts.addAll(batchAccounts);
+            if (operationsTouched[0]) {
+                // Полученные операции не проходят через OperationService: снимок операций
+                // и индекс подсказок строятся заново, выборка изменений снимка их может не увидеть
+                BackendContainer.get(context).operationSnapshot().requestFullReload();
+                BackendContainer.get(context).suggestions().invalidate();
+            }
+        } finally {
+            totals.endWrite();
+        }
+    }
+
+    /**
+     * Значения строки для записи: только колонки локальной схемы
+     */
+    private ContentValues toValues(String table, JSONObject row) {
+        ContentValues values = new ContentValues();
+        for (String column : repo.getColumns(table)) {
+            if (!row.has(column)) {
+                continue;
+            }
+            Object value = row.opt(column);
+            if (value == null || value == JSONObject.NULL) {
+                values.putNull(column);
+            } else if (value instanceof Integer || value instanceof Long) {
+                values.put(column, ((Number) value).longValue());
+            } else if (value instanceof Number) {
+                values.put(column, ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                values.put(column, (Boolean) value);
+            } else {
+                values.put(column, value.toString());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Счета, балансы и контрольные точки которых затрагивает строка
+     */
+    private static void collectAccounts(String table, ContentValues row, Set<Integer> accounts) {
+        if (row == null) {
+            return;
+        }
+        if (RepositoryConstants.TABLE_ACCOUNTS.equals(table)) {
+            accounts.add(row.getAsInteger("id"));
+        } else if (RepositoryConstants.TABLE_OPERATIONS.equals(table)) {
+            Integer accountId = row.getAsInteger("accountId");
+            Integer toAccountId = row.getAsInteger("toAccountId");
+            if (accountId != null) {
+                accounts.add(accountId);
+            }
+            if (toAccountId != null) {
+                accounts.add(toAccountId);
+            }
+        }
+    }
+
+    /**
+     * Версия строки: последнее из времени создания, обновления и удаления
+     * (мягкое удаление меняет только deleteTime)
+     */
+    private static String versionOf(ContentValues row) {
+        String version = row.getAsString("createTime");
+        for (String column : new String[]{"updateTime", "deleteTime"}) {
+            String time = row.getAsString(column);
+            if (SyncCodec.compareVersions(time, version) > 0) {
+                version = time;
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Метрики одной синхронизации
+     */
+    public static final class SyncResult {
+        private int pushedChanges;
+        private int acceptedChanges;
+        private long pushedBytes;
+        private int pulledChanges;
+        private int appliedChanges;
+        private int conflictsSkipped;
+        private long pulledBytes;
+        private long durationMs;
+
+        public int getPushedChanges() {
+            return pushedChanges;
+        }
+
+        /** Сколько отправленных изменений сервер принял (остальные проиграли конфликт) */
+        public int getAcceptedChanges() {
+            return acceptedChanges;
+        }
+
+        /** Размер отправленных сжатых пачек в байтах */
+        public long getPushedBytes() {
+            return pushedBytes;
+        }
+
+        public int getPulledChanges() {
+            return pulledChanges;
+        }
+
+        public int getAppliedChanges() {
+            return appliedChanges;
+        }
+
+        /** Сколько полученных изменений пропущено: локальная версия строки новее */
+        public int getConflictsSkipped() {
+            return conflictsSkipped;
+        }
+
+        /** Размер полученных сжатых пачек в байтах */
+        public long getPulledBytes() {
+            return pulledBytes;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        @Override
+        public String toString() {
+            return "SyncResult{pushed=" + pushedChanges + " (" + pushedBytes + " B, accepted " + acceptedChanges + ")"
+                    + ", pulled=" + pulledChanges + " (" + pulledBytes + " B, applied " + appliedChanges
+                    + ", conflicts " + conflictsSkipped + "), durationMs=" + durationMs + "}";
+        }
+    }
+}
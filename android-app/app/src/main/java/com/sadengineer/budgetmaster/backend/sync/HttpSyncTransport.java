@@ -0,0 +1,78 @@
+package com.sadengineer.budgetmaster.backend.sync;
+
+import com.sadengineer.budgetmaster.backend.constants.ServiceConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+
+/**
+ * HTTP-транспорт синхронизации
+ * POST {base}/sync/push?device=... и GET {base}/sync/pull?device=...&since=...&limit=...
+ * Тела передаются как есть (SYNC_CONTENT_TYPE), без Content-Encoding: сжатие - часть формата
+ */
+public class HttpSyncTransport implements SyncTransport {
+
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl адрес сервера без завершающего "/", например http://127.0.0.1:8080
+     */
+    public HttpSyncTransport(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public byte[] push(String deviceId, byte[] payload) throws IOException {
+        HttpURLConnection connection = open("/sync/push?device=" + encode(deviceId));
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", ServiceConstants.SYNC_CONTENT_TYPE);
+            connection.setFixedLengthStreamingMode(payload.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(payload);
+            }
+            return readResponse(connection);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public byte[] pull(String deviceId, long since, int limit) throws IOException {
+        HttpURLConnection connection = open("/sync/pull?device=" + encode(deviceId) + "&since=" + since + "&limit=" + limit);
+        try {
+            connection.setRequestMethod("GET");
+            return readResponse(connection);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setConnectTimeout(ServiceConstants.SYNC_CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(ServiceConstants.SYNC_READ_TIMEOUT_MS);
+        connection.setUseCaches(false);
+        connection.setRequestProperty("Accept", ServiceConstants.SYNC_CONTENT_TYPE);
+        return connection;
+    }
+
+    private static byte[] readResponse(HttpURLConnection connection) throws IOException {
+        int code = connection.getResponseCode();
+        if (code != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Сервер синхронизации ответил " + code + " " + connection.getResponseMessage());
+        }
+        try (InputStream in = connection.getInputStream()) {
+            return SyncCodec.readAll(in);
+        }
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+}
@@ -0,0 +1,82 @@
+package com.sadengineer.budgetmaster.backend.sync;
+
+import com.sadengineer.budgetmaster.backend.converter.DateTimeConverter;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие тел запросов синхронизации: JSON в UTF-8, сжатый gzip
+ */
+public final class SyncCodec {
+
+    private SyncCodec() {
+    }
+
+    /**
+     * Сжимает JSON
+     * @param json объект
+     * @return сжатые байты
+     */
+    public static byte[] encode(JSONObject json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Распаковывает JSON
+     * @param payload сжатые байты
+     * @return объект
+     * @throws IOException если данные повреждены или не являются JSON-объектом
+     */
+    public static JSONObject decode(byte[] payload) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return new JSONObject(new String(readAll(in), StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            throw new IOException("Некорректный JSON синхронизации: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Сравнивает версии строк (время последнего изменения в ISO-формате)
+     * Сравниваются даты, а не строки: ISO-формат опускает нулевые доли секунды
+     * @param a первая версия (null - раньше любой)
+     * @param b вторая версия (null - раньше любой)
+     * @return отрицательное, ноль или положительное число, как Comparator
+     */
+    public static int compareVersions(String a, String b) {
+        LocalDateTime first = DateTimeConverter.fromString(a);
+        LocalDateTime second = DateTimeConverter.fromString(b);
+        if (first == null || second == null) {
+            return first == null ? (second == null ? 0 : -1) : 1;
+        }
+        return first.compareTo(second);
+    }
+
+    /**
+     * Читает поток до конца
+     * @param in поток
+     * @return прочитанные байты
+     */
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,29 @@
+package com.sadengineer.budgetmaster.backend.sync;
+
+import java.io.IOException;
+
+/**
+ * Транспорт синхронизации: передает сжатые пачки изменений на сервер и обратно
+ * Тела запросов и ответов - JSON, сжатый gzip (SyncCodec); транспорт их не разбирает
+ */
+public interface SyncTransport {
+
+    /**
+     * Отправляет пачку локальных изменений
+     * @param deviceId ID устройства
+     * @param payload сжатый JSON {"changes": [...]}
+     * @return сжатый JSON {"accepted": n}
+     * @throws IOException при ошибке сети или ответе сервера с ошибкой
+     */
+    byte[] push(String deviceId, byte[] payload) throws IOException;
+
+    /**
+     * Получает пачку изменений других устройств
+     * @param deviceId ID устройства (его собственные изменения сервер не возвращает)
+     * @param since номер последнего полученного изменения сервера
+     * @param limit размер пачки
+     * @return сжатый JSON {"changes": [...], "lastSeq": n, "more": bool}
+     * @throws IOException при ошибке сети или ответе сервера с ошибкой
+     */
+    byte[] pull(String deviceId, long since, int limit) throws IOException;
+}
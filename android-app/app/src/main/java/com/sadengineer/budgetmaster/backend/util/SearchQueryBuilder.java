@@ -0,0 +1,49 @@
+package com.sadengineer.budgetmaster.backend.util;
+
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+
+import java.util.Locale;
+
+/**
+ * Утилитарный класс для построения выражений MATCH полнотекстового поиска
+ * Пользовательский текст не передается в MATCH как есть: кавычки, звездочки и
+ * операторы FTS (AND, OR, NOT, NEAR) отбрасываются, остаются только слова
+ */
+public class SearchQueryBuilder {
+
+    /**
+     * Строит запрос "все слова по префиксу": "кофе мак" -> "кофе* мак*"
+     * Слова - последовательности букв и цифр, приводятся к нижнему регистру,
+     * "ё" приводится к "е" так же, как в индексе
+     * @param text текст запроса
+     * @return выражение MATCH или null, если в тексте нет ни одного слова
+     */
+    public static String prefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        StringBuilder match = new StringBuilder();
+        int terms = 0;
+        int i = 0;
+        int length = normalized.length();
+        while (i < length && terms < RepositoryConstants.SEARCH_MAX_TERMS) {
+            // Пропускаем разделители
+            while (i < length && !Character.isLetterOrDigit(normalized.codePointAt(i))) {
+                i += Character.charCount(normalized.codePointAt(i));
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(normalized.codePointAt(i))) {
+                i += Character.charCount(normalized.codePointAt(i));
+            }
+            if (i > start) {
+                if (terms > 0) {
+                    match.append(' ');
+                }
+                match.append(normalized, start, i).append('*');
+                terms++;
+            }
+        }
+        return terms == 0 ? null : match.toString();
+    }
+}
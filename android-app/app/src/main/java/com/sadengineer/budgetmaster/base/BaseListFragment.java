@@ -18,6 +18,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.sadengineer.budgetmaster.navigation.ScreenPrefetcher;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.io.Serializable;
@@ -182,6 +183,9 @@ public abstract class BaseListFragment<T extends Serializable, A extends Recycle
             
             setAdapterData(items);
             LogManager.d(TAG, "Список данных обновлён");
+            if (getActivity() != null) {
+                ScreenPrefetcher.getInstance(requireContext()).reportFirstContent(getActivity().getClass());
+            }
             
             // // Сбрасываем счетчик свайпов при изменении содержимого списка
             // if (getActivity() instanceof BaseNavigationActivity) {
@@ -16,6 +16,7 @@ import com.sadengineer.budgetmaster.backend.entity.Budget;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.validator.BudgetValidator;
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
@@ -43,7 +44,7 @@ public class BudgetEditActivity extends BaseEditActivity<Budget> {
     // Сервисы для работы с данными
     private ServiceManager serviceManager;
     private BudgetValidator validator = new BudgetValidator();
-    private CurrencyAmountFormatter formatter = new CurrencyAmountFormatter();
+    private CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
     
     // Поля для хранения данных бюджета
     private Budget currentBudget;
@@ -12,6 +12,8 @@ import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.calculators.BudgetCalculatorViewModel;
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
+import com.sadengineer.budgetmaster.navigation.ScreenPrefetcher;
 import com.sadengineer.budgetmaster.start.StartScreenViewModel;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
@@ -34,7 +36,7 @@ public class BudgetLimitsFragment extends BaseListFragment<Budget, BudgetAdapter
     
     // Калькулятор для общей суммы бюджетов
     private BudgetCalculatorViewModel budgetCalculator;
-    private CurrencyAmountFormatter formatter = new CurrencyAmountFormatter();
+    private CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -84,6 +86,12 @@ public class BudgetLimitsFragment extends BaseListFragment<Budget, BudgetAdapter
      */
     @Override
     protected void performDataLoading() {
+        // Данные, предзагруженные на соседнем экране, показываем сразу
+        List<Budget> prefetched = ScreenPrefetcher.getInstance(requireContext())
+            .take(requireActivity().getClass(), ScreenPrefetcher.budgetsKey(operationType));
+        if (prefetched != null) {
+            handleDataLoaded(prefetched);
+        }
         serviceManager.budgets.getAllByOperationType(operationType, EntityFilter.ACTIVE).observe(getViewLifecycleOwner(), this::handleDataLoaded);
         LogManager.d(TAG, "Загружаем бюджеты только для категорий расходов (operation_type = " + operationType.getIndex() + ")");
     }
@@ -1,20 +1,27 @@
 package com.sadengineer.budgetmaster.calculators;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Observer;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
 import com.sadengineer.budgetmaster.backend.service.AccountService;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.filters.AccountTypeFilter;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel для расчета общих сумм счетов по валютам и типам
@@ -30,9 +37,14 @@ public class AccountCalculatorViewModel extends BasicCalculatorForCurrencyItems
     /** Фильтр типа счетов */
     private final AccountTypeFilter accountTypeFilter;
     
-    /** Счетчики для отслеживания загрузки валют */
-    private int loadedCurrenciesCount = 0;
-    private int totalCurrenciesCount = 0;
+    /** Номер последней загрузки: результаты устаревших загрузок отбрасываются */
+    private int loadGeneration = 0;
+    
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // Перезагрузка сумм один раз на серию записей в таблицу
+    private final DatabaseChangeBus changeBus;
+    private final DatabaseChangeBus.OnTablesChangedListener changeListener = tables -> loadAccountAmounts();
 
     /**
      * Конструктор
@@ -43,9 +55,13 @@ public class AccountCalculatorViewModel extends BasicCalculatorForCurrencyItems
         super(application);
         
         // Инициализируем сервис счетов
-        accountService = new AccountService(application, "AccountCalculator");
+        accountService = BackendContainer.get(application).accounts("AccountCalculator");
         this.accountTypeFilter = accountTypeFilter;
         
+        // Суммы перезагружаются после изменения таблицы
+        this.changeBus = DatabaseChangeBus.getInstance(application);
+        this.changeBus.addListener(changeListener, RepositoryConstants.TABLE_ACCOUNTS);
+        
         LogManager.d(TAG, "AccountCalculatorViewModel создан с фильтром: " + accountTypeFilter);
     }
 
@@ -53,15 +69,11 @@ public class AccountCalculatorViewModel extends BasicCalculatorForCurrencyItems
     protected void updateForNewCurrencyIds(List<Integer> newCurrencyIds) {
         LogManager.d(TAG, "Обновление сумм счетов для " + newCurrencyIds.size() + " валют, тип: " + accountTypeFilter);
         
-        // Сбрасываем счетчики
-        loadedCurrenciesCount = 0;
-        totalCurrenciesCount = newCurrencyIds.size();
-        
-        // Инициализируем и загружаем данные для каждой валюты
+        // Инициализируем суммы новых валют и загружаем суммы всех валют
         for (Integer currencyId : newCurrencyIds) {
             initializeCurrencyAmount(currencyId);
-            loadAccountAmount(currencyId);
         }
+        loadAccountAmounts();
     }
 
     @Override
@@ -95,56 +107,44 @@ public class AccountCalculatorViewModel extends BasicCalculatorForCurrencyItems
     }
 
     /**
-     * Загружает сумму счетов для указанной валюты
-     * @param currencyId ID валюты
+     * Загружает суммы счетов по всем валютам в пуле запросов
+     * Суммы применяются и итог пересчитывается один раз, когда готовы все валюты
      */
-    private void loadAccountAmount(Integer currencyId) {
-        LogManager.d(TAG, "Загрузка суммы счетов для валюты ID: " + currencyId + ", тип: " + accountTypeFilter);
-        
-        LiveData<Long> serviceAmount = accountService.getTotalAmountByCurrencyAndType(currencyId, accountTypeFilter.getIndex(), EntityFilter.ACTIVE);
+    private void loadAccountAmounts() {
+        final List<Integer> currencyIds = new ArrayList<>(getCurrencyAmounts().keySet());
+        if (currencyIds.isEmpty()) {
+            // Список валют еще не получен: суммы загрузятся в updateForNewCurrencyIds
+            return;
+        }
+        final int generation = ++loadGeneration;
+        LogManager.d(TAG, "Загрузка сумм счетов (" + accountTypeFilter + ") для " + currencyIds.size() + " валют");
         
-        if (serviceAmount != null) {
-            serviceAmount.observeForever(new Observer<Long>() {
-                @Override
-                public void onChanged(Long newAmount) {
-                    if (newAmount != null) {
-                        LogManager.d(TAG, "Валюты ID " + currencyId + " (" + accountTypeFilter + "): сумма " + newAmount);
-                        setCurrencyAmount(currencyId, newAmount);
-                    } else {
-                        LogManager.d(TAG, "Валюты ID " + currencyId + " (" + accountTypeFilter + "): сумма null, устанавливаем 0");
-                        setCurrencyAmount(currencyId, 0L);
-                    }
-                    
-                    // Увеличиваем счетчик загруженных валют
-                    loadedCurrenciesCount++;
-                    LogManager.d(TAG, "Загружено валют: " + loadedCurrenciesCount + "/" + totalCurrenciesCount);
-                    
-                    // Если все валюты загружены, выполняем пересчет
-                    if (loadedCurrenciesCount >= totalCurrenciesCount) {
-                        LogManager.d(TAG, "Все валюты загружены, выполняем пересчет");
-                        ThreadManager.getExecutor().execute(() -> {
-                            recalculateResultAmount();
-                        });
+        final Map<Integer, CompletableFuture<Long>> amounts = new HashMap<>();
+        for (Integer currencyId : currencyIds) {
+            amounts.put(currencyId, accountService.getTotalAmountByCurrencyAndTypeAsync(currencyId, accountTypeFilter.getIndex(), EntityFilter.ACTIVE));
+        }
+        CompletableFuture.allOf(amounts.values().toArray(new CompletableFuture[0]))
+            .whenComplete((ignored, error) -> mainHandler.post(() -> {
+                if (generation != loadGeneration) {
+                    LogManager.d(TAG, "Пропуск устаревших сумм счетов");
+                    return;
+                }
+                for (Map.Entry<Integer, CompletableFuture<Long>> entry : amounts.entrySet()) {
+                    try {
+                        setCurrencyAmount(entry.getKey(), entry.getValue().join());
+                    } catch (Exception e) {
+                        LogManager.e(TAG, "Ошибка загрузки суммы счетов для валюты " + entry.getKey(), e);
                     }
                 }
-            });
-        } else {
-            LogManager.w(TAG, "accountService.getTotalAmountByCurrencyAndType() вернул null для валюты ID: " + currencyId);
-            setCurrencyAmount(currencyId, 0L);
-            
-            // Увеличиваем счетчик загруженных валют даже для null
-            loadedCurrenciesCount++;
-            LogManager.d(TAG, "Загружено валют: " + loadedCurrenciesCount + "/" + totalCurrenciesCount);
-            
-            // Если все валюты загружены, выполняем пересчет
-            if (loadedCurrenciesCount >= totalCurrenciesCount) {
-                LogManager.d(TAG, "Все валюты загружены, выполняем пересчет");
-                ThreadManager.getExecutor().execute(() -> {
-                    recalculateResultAmount();
-                });
-            }
-        }
-    }    
+                recalculateResultAmount();
+            }));
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        changeBus.removeListener(changeListener);
+    }
     
     /**
      * Получает фильтр типа счетов
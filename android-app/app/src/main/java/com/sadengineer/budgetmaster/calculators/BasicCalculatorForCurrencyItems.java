@@ -9,6 +9,7 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.service.CurrencyService;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
@@ -35,6 +36,9 @@ public abstract class BasicCalculatorForCurrencyItems extends AndroidViewModel {
     /** Результат математической операции для вывода во внешние виджеты */
     private final MutableLiveData<Long> resultAmount = new MutableLiveData<>(0L);
     
+    /** Флаг: результат уже посчитан (начальный 0 в resultAmount - не результат) */
+    private volatile boolean resultReady = false;
+    
     /** Доступные ID валют */
     private final MutableLiveData<List<Integer>> availableCurrencyIds = new MutableLiveData<>();
 
@@ -61,7 +65,7 @@ public abstract class BasicCalculatorForCurrencyItems extends AndroidViewModel {
         super(application);
 
         // Инициализируем сервисы
-        currencyService = new CurrencyService(application, userName);
+        currencyService = BackendContainer.get(application).currencies(userName);
         
         LogManager.d(TAG, "BasicCalculatorForCurrencyItems создан");
     }
@@ -177,9 +181,18 @@ public abstract class BasicCalculatorForCurrencyItems extends AndroidViewModel {
      * @param amount новая сумма
      */
     protected void setResultAmount(long amount) {
+        resultReady = true;
         resultAmount.postValue(amount);
     }
     
+    /**
+     * Посчитан ли результат хотя бы один раз
+     * @return true, если resultAmount содержит посчитанную сумму
+     */
+    public boolean isResultReady() {
+        return resultReady;
+    }
+    
     /**
      * Получает LiveData с суммой для конкретной валюты
      * @param currencyId ID валюты
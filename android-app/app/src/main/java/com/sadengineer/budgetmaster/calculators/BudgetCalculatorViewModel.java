@@ -1,19 +1,25 @@
 package com.sadengineer.budgetmaster.calculators;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
-import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Observer;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
 import com.sadengineer.budgetmaster.backend.service.BudgetService;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel для расчета общих сумм бюджетов по валютам
@@ -26,9 +32,14 @@ public class BudgetCalculatorViewModel extends BasicCalculatorForCurrencyItems {
     /** Сервис для работы с бюджетами */
     private final BudgetService budgetService;
     
-    /** Счетчик загруженных валют для отслеживания завершения загрузки */
-    private int loadedCurrenciesCount = 0;
-    private int totalCurrenciesCount = 0;
+    /** Номер последней загрузки: результаты устаревших загрузок отбрасываются */
+    private int loadGeneration = 0;
+    
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // Перезагрузка сумм один раз на серию записей в таблицу
+    private final DatabaseChangeBus changeBus;
+    private final DatabaseChangeBus.OnTablesChangedListener changeListener = tables -> loadBudgetAmounts();
 
     /**
      * Конструктор
@@ -38,7 +49,11 @@ public class BudgetCalculatorViewModel extends BasicCalculatorForCurrencyItems {
         super(application);
         
         // Инициализируем сервис бюджетов
-        budgetService = new BudgetService(application, "BudgetCalculator");
+        budgetService = BackendContainer.get(application).budgets("BudgetCalculator");
+        
+        // Суммы перезагружаются после изменения таблицы
+        this.changeBus = DatabaseChangeBus.getInstance(application);
+        this.changeBus.addListener(changeListener, RepositoryConstants.TABLE_BUDGETS);
         
         LogManager.d(TAG, "BudgetCalculatorViewModel создан");
     }
@@ -47,15 +62,11 @@ public class BudgetCalculatorViewModel extends BasicCalculatorForCurrencyItems {
     protected void updateForNewCurrencyIds(List<Integer> newCurrencyIds) {
         LogManager.d(TAG, "Обновление сумм бюджетов для " + newCurrencyIds.size() + " валют");
         
-        // Сбрасываем счетчики
-        loadedCurrenciesCount = 0;
-        totalCurrenciesCount = newCurrencyIds.size();
-        
-        // Инициализируем и загружаем данные для каждой валюты
+        // Инициализируем суммы новых валют и загружаем суммы всех валют
         for (Integer currencyId : newCurrencyIds) {
             initializeCurrencyAmount(currencyId);
-            loadBudgetAmount(currencyId);
         }
+        loadBudgetAmounts();
     }
 
     @Override
@@ -95,51 +106,43 @@ public class BudgetCalculatorViewModel extends BasicCalculatorForCurrencyItems {
     }
 
     /**
-     * Загружает сумму бюджета для указанной валюты
-     * @param currencyId ID валюты
+     * Загружает суммы бюджетов по всем валютам в пуле запросов
+     * Суммы применяются и итог пересчитывается один раз, когда готовы все валюты
      */
-    private void loadBudgetAmount(Integer currencyId) {
-        LogManager.d(TAG, "Загрузка суммы бюджета для валюты ID: " + currencyId);
-        
-        LiveData<Long> serviceAmount = budgetService.getTotalAmountByCurrency(currencyId, EntityFilter.ACTIVE);
+    private void loadBudgetAmounts() {
+        final List<Integer> currencyIds = new ArrayList<>(getCurrencyAmounts().keySet());
+        if (currencyIds.isEmpty()) {
+            // Список валют еще не получен: суммы загрузятся в updateForNewCurrencyIds
+            return;
+        }
+        final int generation = ++loadGeneration;
+        LogManager.d(TAG, "Загрузка сумм бюджетов для " + currencyIds.size() + " валют");
         
-        if (serviceAmount != null) {
-            serviceAmount.observeForever(new Observer<Long>() {
-                @Override
-                public void onChanged(Long newAmount) {
-                    if (newAmount != null) {
-                        LogManager.d(TAG, "Валюты ID " + currencyId + ": сумма " + newAmount);
-                        setCurrencyAmount(currencyId, newAmount);
-                    } else {
-                        LogManager.d(TAG, "Валюты ID " + currencyId + ": сумма null, устанавливаем 0");
-                        setCurrencyAmount(currencyId, 0L);
-                    }
-                    
-                    // Увеличиваем счетчик загруженных валют
-                    loadedCurrenciesCount++;
-                    LogManager.d(TAG, "Загружено валют: " + loadedCurrenciesCount + "/" + totalCurrenciesCount);
-                    
-                    // Если все валюты загружены, выполняем пересчет
-                    if (loadedCurrenciesCount >= totalCurrenciesCount) {
-                        LogManager.d(TAG, "Все валюты загружены, выполняем пересчет");
-                        recalculateResultAmount();
+        final Map<Integer, CompletableFuture<Long>> amounts = new HashMap<>();
+        for (Integer currencyId : currencyIds) {
+            amounts.put(currencyId, budgetService.getTotalAmountByCurrencyAsync(currencyId, EntityFilter.ACTIVE));
+        }
+        CompletableFuture.allOf(amounts.values().toArray(new CompletableFuture[0]))
+            .whenComplete((ignored, error) -> mainHandler.post(() -> {
+                if (generation != loadGeneration) {
+                    LogManager.d(TAG, "Пропуск устаревших сумм бюджетов");
+                    return;
+                }
+                for (Map.Entry<Integer, CompletableFuture<Long>> entry : amounts.entrySet()) {
+                    try {
+                        setCurrencyAmount(entry.getKey(), entry.getValue().join());
+                    } catch (Exception e) {
+                        LogManager.e(TAG, "Ошибка загрузки суммы бюджетов для валюты " + entry.getKey(), e);
                     }
                 }
-            });
-        } else {
-            LogManager.w(TAG, "budgetService.getTotalAmountByCurrency() вернул null для валюты ID: " + currencyId);
-            setCurrencyAmount(currencyId, 0L);
-            
-            // Увеличиваем счетчик загруженных валют
-            loadedCurrenciesCount++;
-            LogManager.d(TAG, "Загружено валют (null): " + loadedCurrenciesCount + "/" + totalCurrenciesCount);
-            
-            // Если все валюты загружены, выполняем пересчет
-            if (loadedCurrenciesCount >= totalCurrenciesCount) {
-                LogManager.d(TAG, "Все валюты загружены (null), выполняем пересчет");
                 recalculateResultAmount();
-            }
-        }
+            }));
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        changeBus.removeListener(changeListener);
     }
 }
 
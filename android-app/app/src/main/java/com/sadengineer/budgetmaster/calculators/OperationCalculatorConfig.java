@@ -16,6 +16,7 @@ public class OperationCalculatorConfig {
     private LocalDate baseDate;
     private OperationTypeFilter operationType;
     private Integer categoryId;
+    private Integer accountId;
     private int currencyId;
     private EntityFilter entityFilter;
     
@@ -27,6 +28,7 @@ public class OperationCalculatorConfig {
         this.baseDate = LocalDate.now();
         this.operationType = OperationTypeFilter.ALL;
         this.categoryId = null;
+        this.accountId = null;
         this.currencyId = ModelConstants.DEFAULT_CURRENCY_ID; // ID валюты по умолчанию
         this.entityFilter = EntityFilter.ACTIVE;
     }
@@ -240,6 +242,17 @@ public class OperationCalculatorConfig {
         this.categoryId = categoryId;
     }
     
+    /**
+     * ID счета (null = все счета)
+     */
+    public Integer getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Integer accountId) {
+        this.accountId = accountId;
+    }
+    
     public int getCurrencyId() {
         return currencyId;
     }
@@ -290,6 +303,7 @@ public class OperationCalculatorConfig {
                 ", baseDate=" + baseDate +
                 ", operationType=" + operationType +
                 ", categoryId=" + categoryId +
+                ", accountId=" + accountId +
                 ", currencyId=" + currencyId +
                 ", entityFilter=" + entityFilter +
                 '}';
@@ -306,6 +320,7 @@ public class OperationCalculatorConfig {
         if (baseDate != null ? !baseDate.equals(that.baseDate) : that.baseDate != null) return false;
         if (operationType != that.operationType) return false;
         if (categoryId != null ? !categoryId.equals(that.categoryId) : that.categoryId != null) return false;
+        if (accountId != null ? !accountId.equals(that.accountId) : that.accountId != null) return false;
         if (currencyId != that.currencyId) return false;
         return entityFilter == that.entityFilter;
     }
@@ -316,6 +331,7 @@ public class OperationCalculatorConfig {
         result = 31 * result + (baseDate != null ? baseDate.hashCode() : 0);
         result = 31 * result + (operationType != null ? operationType.hashCode() : 0);
         result = 31 * result + (categoryId != null ? categoryId.hashCode() : 0);
+        result = 31 * result + (accountId != null ? accountId.hashCode() : 0);
         result = 31 * result + currencyId;
         result = 31 * result + (entityFilter != null ? entityFilter.hashCode() : 0);
         return result;
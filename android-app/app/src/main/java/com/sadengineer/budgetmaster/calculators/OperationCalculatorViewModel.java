@@ -1,10 +1,16 @@
 package com.sadengineer.budgetmaster.calculators;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsBucket;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
 import com.sadengineer.budgetmaster.backend.service.OperationService;
@@ -13,6 +19,9 @@ import com.sadengineer.budgetmaster.backend.filters.OperationPeriod;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 
@@ -29,14 +38,32 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
     // Конфигурация калькулятора
     private OperationCalculatorConfig config;
     
-    // Счетчики для отслеживания загрузки данных
-    private int loadedCurrenciesCount = 0;
-    private int totalCurrenciesCount = 0;
+    // Размер интервала сумм по периоду (null - суммы по интервалам не считаются)
+    private StatisticsBucket bucketSize;
+    private final MutableLiveData<long[]> bucketTotals = new MutableLiveData<>(new long[0]);
+    
+    // Номер последней загрузки: результаты устаревших загрузок отбрасываются
+    private int loadGeneration = 0;
+    
+    // Суммы по валютам, пересчитанные по курсу на дату операций, и валюта, в которую они пересчитаны
+    // (пишутся в главном потоке, читаются в recalculateResultAmount)
+    private volatile Map<Integer, Long> convertedAmounts;
+    private volatile Integer convertedCurrencyId;
+    
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // Пересчет один раз на серию записей в операции/валюты
+    private final DatabaseChangeBus changeBus;
+    private final DatabaseChangeBus.OnTablesChangedListener changeListener = tables -> loadOperationAmounts();
     
     public OperationCalculatorViewModel(Application application) {
         super(application);
-        this.operationService = new OperationService(application, "OperationCalculator");
+        this.operationService = BackendContainer.get(application).operations("OperationCalculator");
         this.config = new OperationCalculatorConfig(); // Конфигурация по умолчанию
+        this.changeBus = DatabaseChangeBus.getInstance(application);
+        this.changeBus.addListener(changeListener,
+            RepositoryConstants.TABLE_OPERATIONS, RepositoryConstants.TABLE_CURRENCIES,
+            RepositoryConstants.TABLE_CURRENCY_RATES);
     }
     
     /**
@@ -126,6 +153,38 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
         }
     }
     
+    /**
+     * Установить валюту вывода: суммы заново пересчитываются по курсам на даты операций
+     * @param currencyId ID валюты
+     */
+    @Override
+    public void setDisplayCurrencyId(int currencyId) {
+        super.setDisplayCurrencyId(currencyId);
+        loadOperationAmounts();
+    }
+    
+    /**
+     * Включить суммы по интервалам периода (например, MONTH для графика по месяцам года)
+     * Суммы считаются одним запросом на валюту вместе с общей суммой
+     * @param bucketSize размер интервала (null - отключить)
+     */
+    public void setBucketSize(StatisticsBucket bucketSize) {
+        this.bucketSize = bucketSize;
+        if (bucketSize == null) {
+            bucketTotals.setValue(new long[0]);
+            return;
+        }
+        loadOperationAmounts();
+    }
+    
+    /**
+     * Суммы по интервалам периода в валюте вывода
+     * @return суммы от начала периода (пустой массив, если интервал не задан)
+     */
+    public LiveData<long[]> getBucketTotals() {
+        return bucketTotals;
+    }
+    
     /**
      * Загрузить суммы операций по валютам
      */
@@ -135,40 +194,25 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
             return;
         }
 
-        LogManager.d(TAG, "Loading operation amounts for config: " + config.toString());
-
-        try {
-            // Если указана конкретная валюта (не 0), загружаем только её
-            if (config.getCurrencyId() != 0) {
-                loadOperationAmountForCurrency(config.getCurrencyId());
-                return;
-            }
-            
-            // Получаем все валюты из уже инициализированных
-            Map<Integer, MutableLiveData<Long>> currencyAmounts = getCurrencyAmounts();
-            totalCurrenciesCount = currencyAmounts.size();
-            loadedCurrenciesCount = 0;
-            
-            LogManager.d(TAG, "Total currencies to load: " + totalCurrenciesCount);
-            
-            // Загружаем суммы для каждой валюты
-            for (Map.Entry<Integer, MutableLiveData<Long>> entry : currencyAmounts.entrySet()) {
-                Integer currencyId = entry.getKey();
-                loadOperationAmountForCurrency(currencyId);
-            }
-            
-        } catch (Exception e) {
-            LogManager.e(TAG, "Error loading operation amounts", e);
+        // Если указана конкретная валюта (не 0), загружаем только её
+        if (config.getCurrencyId() != 0) {
+            loadOperationAmounts(Collections.singletonList(config.getCurrencyId()));
+        } else {
+            loadOperationAmounts(new ArrayList<>(getCurrencyAmounts().keySet()));
         }
     }
     
     /**
-     * Загрузить сумму операций для конкретной валюты
-     * @param currencyId ID валюты
+     * Загрузить суммы операций для списка валют одной фоновой задачей
+     * Суммы применяются и итог пересчитывается один раз, когда готовы все валюты
+     * @param currencyIds ID валют
      */
-    private void loadOperationAmountForCurrency(int currencyId) {
-        try {
-            // Создаем конфигурацию для конкретной валюты
+    private void loadOperationAmounts(List<Integer> currencyIds) {
+        LogManager.d(TAG, "Loading operation amounts for config: " + config.toString());
+        
+        // Конфигурации снимаются в главном потоке, т.к. config изменяемый
+        final Map<Integer, OperationCalculatorConfig> configs = new HashMap<>();
+        for (Integer currencyId : currencyIds) {
             OperationCalculatorConfig currencyConfig = new OperationCalculatorConfig(
                 config.getPeriod(),
                 config.getBaseDate(),
@@ -177,45 +221,93 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
                 currencyId, // Указываем конкретную валюту
                 config.getEntityFilter()
             );
+            currencyConfig.setAccountId(config.getAccountId());
+            configs.put(currencyId, currencyConfig);
+        }
+        final OperationCalculatorConfig allCurrenciesConfig = new OperationCalculatorConfig(
+            config.getPeriod(),
+            config.getBaseDate(),
+            config.getOperationType(),
+            config.getCategoryId(),
+            config.getCurrencyId(),
+            config.getEntityFilter()
+        );
+        allCurrenciesConfig.setAccountId(config.getAccountId());
+        final int generation = ++loadGeneration;
+        final StatisticsBucket bucket = bucketSize;
+        final Integer outputCurrencyId = getDisplayCurrencyId().getValue();
+        
+        ThreadManager.getExecutor().execute(() -> {
+            Map<Integer, Long> amounts = new HashMap<>();
+            long[] buckets = null;
+            for (Map.Entry<Integer, OperationCalculatorConfig> entry : configs.entrySet()) {
+                try {
+                    amounts.put(entry.getKey(), operationService.getTotalAmountByConfigSync(entry.getValue()));
+                    if (bucket != null) {
+                        buckets = addBucketTotals(buckets, outputCurrencyId != null
+                            ? operationService.getTotalsByBucketSync(entry.getValue(), bucket, outputCurrencyId)
+                            : operationService.getTotalsByBucketSync(entry.getValue(), bucket));
+                    }
+                } catch (Exception e) {
+                    LogManager.e(TAG, "Error loading operation amount for currency " + entry.getKey(), e);
+                }
+            }
+            final long[] loadedBuckets = buckets;
             
-            // Получаем сумму операций для этой валюты
-            LiveData<Long> amountLiveData = operationService.getTotalAmountByConfig(currencyConfig);
+            // Пересчет по курсу на дату нужен, только если есть валюты кроме валюты вывода
+            Map<Integer, Long> converted = null;
+            if (outputCurrencyId != null && !(amounts.size() == 1 && amounts.containsKey(outputCurrencyId))) {
+                try {
+                    converted = operationService.getConvertedTotalsSync(allCurrenciesConfig, outputCurrencyId);
+                    converted.keySet().retainAll(amounts.keySet());
+                } catch (Exception e) {
+                    LogManager.e(TAG, "Error loading converted operation amounts", e);
+                }
+            }
+            final Map<Integer, Long> loadedConverted = converted;
             
-            // Подписываемся на результат
-            amountLiveData.observeForever(amount -> {
-                if (amount != null) {
-                    LogManager.d(TAG, "Loaded amount for currency " + currencyId + ": " + amount);
-                    setCurrencyAmount(currencyId, amount);
-                    
-                    loadedCurrenciesCount++;
-                    LogManager.d(TAG, "Loaded currencies: " + loadedCurrenciesCount + "/" + totalCurrenciesCount);
-                    
-                    // Если загрузили все валюты, пересчитываем результат
-                    if (loadedCurrenciesCount >= totalCurrenciesCount) {
-                        recalculateResultAmount();
-                    }
+            mainHandler.post(() -> {
+                if (generation != loadGeneration) {
+                    LogManager.d(TAG, "Skipping stale operation amounts");
+                    return;
+                }
+                convertedAmounts = loadedConverted;
+                convertedCurrencyId = outputCurrencyId;
+                for (Map.Entry<Integer, Long> entry : amounts.entrySet()) {
+                    setCurrencyAmount(entry.getKey(), entry.getValue());
                 }
+                LogManager.d(TAG, "Loaded amounts for " + amounts.size() + " currencies");
+                if (bucket != null) {
+                    bucketTotals.setValue(loadedBuckets != null ? loadedBuckets : new long[0]);
+                }
+                recalculateResultAmount();
             });
-            
-        } catch (Exception e) {
-            LogManager.e(TAG, "Error loading operation amount for currency " + currencyId, e);
-            loadedCurrenciesCount++;
+        });
+    }
+    
+    /**
+     * Прибавляет суммы валюты по интервалам (уже в валюте вывода) к накопленным
+     * @return накопленные суммы
+     */
+    private long[] addBucketTotals(long[] accumulated, long[] totals) {
+        if (accumulated == null) {
+            accumulated = new long[totals.length];
         }
+        int count = Math.min(accumulated.length, totals.length);
+        for (int i = 0; i < count; i++) {
+            accumulated[i] += totals[i];
+        }
+        return accumulated;
     }
     
     @Override
     protected void updateForNewCurrencyIds(List<Integer> newCurrencyIds) {
         LogManager.d(TAG, "Обновление сумм операций для " + newCurrencyIds.size() + " валют");
         
-        // Сбрасываем счетчики
-        loadedCurrenciesCount = 0;
-        totalCurrenciesCount = newCurrencyIds.size();
-        
-        // Инициализируем и загружаем данные для каждой валюты
         for (Integer currencyId : newCurrencyIds) {
             initializeCurrencyAmount(currencyId);
-            loadOperationAmountForCurrency(currencyId);
         }
+        loadOperationAmounts();
     }
     
     /**
@@ -236,9 +328,12 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
                     return;
                 }
                 
-                // Конвертируем все суммы в валюту вывода
+                // Конвертируем все суммы в валюту вывода: по курсу на дату операций, если
+                // пересчитанные суммы загружены для этой валюты, иначе по текущему курсу
                 long totalAmount = 0L;
                 Integer outputCurrencyId = getDisplayCurrencyId().getValue();
+                Map<Integer, Long> converted = outputCurrencyId != null && outputCurrencyId.equals(convertedCurrencyId)
+                    ? convertedAmounts : null;
                 
                 for (Map.Entry<Integer, MutableLiveData<Long>> entry : currencyAmounts.entrySet()) {
                     Integer currencyId = entry.getKey();
@@ -248,6 +343,8 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
                         if (currencyId.equals(outputCurrencyId)) {
                             // Если валюта совпадает с валютой вывода, просто добавляем
                             totalAmount += amount;
+                        } else if (converted != null && converted.containsKey(currencyId)) {
+                            totalAmount += converted.get(currencyId);
                         } else {
                             // Конвертируем в валюту вывода
                             long convertedAmount = convertAmountToDisplayCurrency(amount, currencyId, outputCurrencyId);
@@ -373,6 +470,7 @@ public class OperationCalculatorViewModel extends BasicCalculatorForCurrencyItem
     @Override
     protected void onCleared() {
         super.onCleared();
+        changeBus.removeListener(changeListener);
         LogManager.d(TAG, "OperationCalculatorViewModel cleared");
     }
 }
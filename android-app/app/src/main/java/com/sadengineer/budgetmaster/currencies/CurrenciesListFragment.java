@@ -4,6 +4,7 @@ import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.service.ServiceManager;
 import com.sadengineer.budgetmaster.base.BaseListFragment;
+import com.sadengineer.budgetmaster.navigation.ScreenPrefetcher;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.util.List;
@@ -67,6 +68,12 @@ public class CurrenciesListFragment extends BaseListFragment<Currency, CurrencyA
      */
     @Override
     protected void performDataLoading() {
+        // Данные, предзагруженные на соседнем экране, показываем сразу
+        List<Currency> prefetched = ScreenPrefetcher.getInstance(requireContext())
+            .take(requireActivity().getClass(), ScreenPrefetcher.KEY_CURRENCIES);
+        if (prefetched != null) {
+            handleDataLoaded(prefetched);
+        }
         ServiceManager serviceManager = getServiceInstance();
         serviceManager.currencies.getAll().observe(getViewLifecycleOwner(), this::handleDataLoaded);
     }
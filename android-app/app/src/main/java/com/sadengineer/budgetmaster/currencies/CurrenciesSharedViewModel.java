@@ -7,6 +7,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.sadengineer.budgetmaster.backend.IoScheduler;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.service.ServiceManager;
 import com.sadengineer.budgetmaster.base.SelectionListViewModel;
@@ -14,8 +15,6 @@ import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Shared ViewModel для управления состоянием экрана валют
@@ -35,7 +34,8 @@ public class CurrenciesSharedViewModel extends AndroidViewModel implements Selec
     private final MutableLiveData<Integer> softDeletionDone = new MutableLiveData<>();
     private final MutableLiveData<List<Currency>> selectedCurrencies = new MutableLiveData<>();
     
-    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    // Последовательная очередь на общем пуле; при закрытии ViewModel дорабатывает начатые удаления
+    private final IoScheduler.Lane ioLane = IoScheduler.getInstance().openDrainingLane(TAG);
     
     /**
      * Конструктор
@@ -43,6 +43,7 @@ public class CurrenciesSharedViewModel extends AndroidViewModel implements Selec
      */
     public CurrenciesSharedViewModel(@NonNull Application application) {
         super(application);
+        addCloseable(ioLane);
         // Инициализация ServiceManager
         serviceManager = ServiceManager.getInstance(application.getApplicationContext(), userName);
     }
@@ -129,7 +130,7 @@ public class CurrenciesSharedViewModel extends AndroidViewModel implements Selec
         LogManager.d(TAG, "Начато удаление валют. Количество: " + currenciesToDelete.size());
         // Устанавливаем состояние удаления
         deleting.setValue(true);
-        ioExecutor.execute(() -> {
+        ioLane.execute(() -> {
             int deletedCount = 0;
             for (Currency currency : currenciesToDelete) {
                 try {
@@ -6,20 +6,19 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
-import com.sadengineer.budgetmaster.backend.service.CategoryService;
-import com.sadengineer.budgetmaster.backend.service.AccountService;
-import com.sadengineer.budgetmaster.backend.service.CurrencyService;
+import com.sadengineer.budgetmaster.backend.service.ReferenceDataCache;
 import com.sadengineer.budgetmaster.animations.StandartViewHolder;
+import com.sadengineer.budgetmaster.operations.OperationRowModel;
+import com.sadengineer.budgetmaster.operations.OperationRowModelCache;
 
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Адаптер для отображения операций расходов
@@ -34,12 +33,9 @@ public class ExpenseAdapter extends RecyclerView.Adapter<StandartViewHolder> {
     private OnExpenseClickListener clickListener;
     private OnExpenseLongClickListener longClickListener;
     private OnSelectedExpensesChangedListener selectedListener;
-    private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-    private CategoryService categoryService;
-    private AccountService accountService;
-    private CurrencyService currencyService;
-    private Map<Integer, String> categoryCache = new HashMap<>();
-    private Map<Integer, String> currencyCache = new HashMap<>();
+    private List<OperationRowModel> rows = new ArrayList<>();
+    private final OperationRowModelCache rowModelCache = new OperationRowModelCache();
+    private final ReferenceDataCache referenceData;
     
     public interface OnExpenseClickListener {
         void onExpenseClick(Operation expense);
@@ -53,11 +49,21 @@ public class ExpenseAdapter extends RecyclerView.Adapter<StandartViewHolder> {
         void onSelectedExpensesChanged(List<Operation> selectedExpenses);
     }
     
-    public ExpenseAdapter(OnExpenseClickListener clickListener, Context context) {
+    /**
+     * @param clickListener обработчик нажатия на операцию
+     * @param context контекст
+     * @param lifecycleOwner владелец (жизненный цикл View фрагмента): пока он активен,
+     *                       строки перерисовываются при публикации нового снимка справочных данных
+     */
+    public ExpenseAdapter(OnExpenseClickListener clickListener, Context context, LifecycleOwner lifecycleOwner) {
         this.clickListener = clickListener;
-        this.categoryService = new CategoryService(context, "adapter");
-        this.accountService = new AccountService(context, "adapter");
-        this.currencyService = new CurrencyService(context, "adapter");
+        this.referenceData = BackendContainer.get(context).referenceData();
+        // Новый снимок: заглушки до первой загрузки и переименованные категории/счета обновляются
+        referenceData.getSnapshot().observe(lifecycleOwner, snapshot -> {
+            if (!expenses.isEmpty()) {
+                notifyDataSetChanged();
+            }
+        });
     }
     
     @NonNull
@@ -113,11 +119,11 @@ public class ExpenseAdapter extends RecyclerView.Adapter<StandartViewHolder> {
             String categoryName = getCategoryName(expense.getCategoryId());
             // Получаем валюту из счета операции
             String currencyShortName = getCurrencyShortName(expense.getAccountId());
-            String dateStr = expense.getOperationDate() != null ? 
-                expense.getOperationDate().format(dateFormatter) : "01.01.2024";
+            // Сумма и дата подготовлены заранее в фоновом потоке
+            OperationRowModel row = rows.get(position);
             
             holder.bindOperation(position + 1, categoryName, expense.getDescription(), 
-                expense.getId(), expense.getAmount(), currencyShortName, dateStr, 
+                expense.getId(), row.getAmountText(), currencyShortName, row.getDateText(), 
                 isSelectionMode, selectedExpenses.contains(expense));
         }
     }
@@ -127,9 +133,16 @@ public class ExpenseAdapter extends RecyclerView.Adapter<StandartViewHolder> {
         return expenses.size();
     }
     
+    /**
+     * Устанавливает список операций
+     * Строки для отображения форматируются в фоне, список обновляется после их подготовки
+     */
     public void setExpenses(List<Operation> expenses) {
-        this.expenses = expenses != null ? expenses : new ArrayList<>();
-        notifyDataSetChanged();
+        rowModelCache.submit(expenses, (operations, preparedRows) -> {
+            this.expenses = operations;
+            this.rows = preparedRows;
+            notifyDataSetChanged();
+        });
     }
     
     public void setSelectionMode(boolean isSelectionMode) {
@@ -164,57 +177,21 @@ public class ExpenseAdapter extends RecyclerView.Adapter<StandartViewHolder> {
     }
     
     /**
-     * Получает название категории по ID
+     * Получает название категории по ID из снимка справочных данных
+     * Если категории нет (снимок еще не опубликован или строка удалена очисткой), показывается
+     * заглушка; после публикации снимка строки перерисовываются наблюдателем getSnapshot()
      */
     private String getCategoryName(int categoryId) {
-        // Проверяем кэш
-        if (categoryCache.containsKey(categoryId)) {
-            return categoryCache.get(categoryId);
-        }
-        
-        // Если нет в кэше, возвращаем заглушку и загружаем асинхронно
-        String placeholder = "Категория " + categoryId;
-        categoryCache.put(categoryId, placeholder);
-        
-        // Загружаем категорию асинхронно
-        categoryService.getById(categoryId).observeForever(category -> {
-            if (category != null) {
-                categoryCache.put(categoryId, category.getTitle());
-                // Уведомляем адаптер об изменении данных
-                notifyDataSetChanged();
-            }
-        });
-        
-        return placeholder;
+        String title = referenceData.get().getCategoryTitle(categoryId);
+        return title != null ? title : "Категория " + categoryId;
     }
     
     /**
-     * Получает короткое название валюты по ID счета
+     * Получает короткое название валюты по ID счета из снимка справочных данных
+     * @return название валюты или пустая строка, если счет или валюта неизвестны
      */
     private String getCurrencyShortName(int accountId) {
-        // Проверяем кэш валют
-        if (currencyCache.containsKey(accountId)) {
-            return currencyCache.get(accountId);
-        }
-        
-        // Если нет в кэше, возвращаем заглушку и загружаем асинхронно
-        String placeholder = "₽";
-        currencyCache.put(accountId, placeholder);
-        
-        // Загружаем счет асинхронно
-        accountService.getById(accountId).observeForever(account -> {
-            if (account != null) {
-                // Загружаем валюту счета
-                currencyService.getById(account.getCurrencyId()).observeForever(currency -> {
-                    if (currency != null) {
-                        currencyCache.put(accountId, currency.getShortName());
-                        // Уведомляем адаптер об изменении данных
-                        notifyDataSetChanged();
-                    }
-                });
-            }
-        });
-        
-        return placeholder;
+        String shortName = referenceData.get().getAccountCurrencyShortName(accountId);
+        return shortName != null ? shortName : "";
     }
 }
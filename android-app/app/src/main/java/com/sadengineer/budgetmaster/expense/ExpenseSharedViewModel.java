@@ -7,6 +7,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
 import com.sadengineer.budgetmaster.backend.service.OperationService;
 import com.sadengineer.budgetmaster.base.SelectionListViewModel;    
@@ -14,8 +15,6 @@ import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Shared ViewModel для экрана операций расходов. Держит общий режим выбора и
@@ -36,8 +35,6 @@ public class ExpenseSharedViewModel extends AndroidViewModel implements Selectio
     private final MutableLiveData<Integer> softDeletionDone = new MutableLiveData<>();
     private final MutableLiveData<List<Operation>> selectedExpenses = new MutableLiveData<>();
 
-    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
-
     /**
      * Конструктор
      * @param application
@@ -45,7 +42,7 @@ public class ExpenseSharedViewModel extends AndroidViewModel implements Selectio
     public ExpenseSharedViewModel(@NonNull Application application) {
         super(application);
         // Сервисы для работы с данными
-        operationService = new OperationService(application.getApplicationContext(), userName);
+        operationService = BackendContainer.get(application).operations(userName);
     }
 
     /**
@@ -101,7 +98,7 @@ public class ExpenseSharedViewModel extends AndroidViewModel implements Selectio
     }
 
     /**
-     * Делает softDelete для каждой операции из переданного списка в фоне.
+     * Делает пакетный softDelete операций из переданного списка в фоне.
      */
     public void deleteExpensesSoft(List<Operation> expenses) {
         if (expenses == null || expenses.isEmpty()) {
@@ -130,25 +127,20 @@ public class ExpenseSharedViewModel extends AndroidViewModel implements Selectio
         LogManager.d(TAG, "Начато удаление операций. Количество: " + expensesToDelete.size());
         // Устанавливаем состояние удаления
         deleting.setValue(true);
-        ioExecutor.execute(() -> {
-            int deletedCount = 0;
-            for (Operation expense : expensesToDelete) {
-                try {
-                    LogManager.d(TAG, "Удаление операции: ID=" + expense.getId());
-                    // TODO: Реализовать метод delete в OperationService
-                    // operationService.delete(true, expense);
-                    deletedCount++;
-                    LogManager.d(TAG, "Операция ID: " + expense.getId() + " успешно удалена");
-                } catch (Exception e) {
-                    LogManager.e(TAG, "Ошибка удаления операции: ID=" + expense.getId() + ", причина: " + e.getMessage());
-                }
-            }
-            deleting.postValue(false);
-            softDeletionDone.postValue(deletedCount);
-            selectionMode.postValue(false);
-            selectedExpenses.postValue(null);
-            LogManager.d(TAG, "Удаление завершено. Удалено операций: " + deletedCount);
-        });
+        List<Integer> ids = new ArrayList<>();
+        for (Operation expense : expensesToDelete) {
+            ids.add(expense.getId());
+        }
+        // Один пакет: одна транзакция и одна инвалидация наблюдающих запросов
+        operationService.softDeleteAll(ids, (processed, total) ->
+                LogManager.d(TAG, "Удалено операций: " + processed + " из " + total))
+            .thenAccept(deletedCount -> {
+                deleting.postValue(false);
+                softDeletionDone.postValue(deletedCount);
+                selectionMode.postValue(false);
+                selectedExpenses.postValue(null);
+                LogManager.d(TAG, "Удаление завершено. Удалено операций: " + deletedCount);
+            });
     }
 
      /**
@@ -4,6 +4,7 @@ import com.ibm.icu.text.NumberFormat;
 import com.ibm.icu.util.ULocale;
 
 import java.util.Locale;
+import java.text.DecimalFormatSymbols;
 import java.text.ParseException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -19,14 +20,39 @@ public class CurrencyAmountFormatter {
     private NumberFormat currencyFormatter;
     private ULocale currentULocale;
     private Locale currentLocale;
+    /** Код валюты, для которой настроен currencyFormatter (null - валюта локали) */
+    private String currencyCode;
+    /** Экземпляр выдан из CurrencyAmountFormatterPool и не может перенастраиваться */
+    private boolean shared;
+    
+    /** Буфер для компактного форматирования (экземпляр не потокобезопасен, как и NumberFormat) */
+    private final StringBuilder compactBuffer = new StringBuilder(16);
+    /** Десятичный разделитель локали по умолчанию (как у String.format) */
+    private final char defaultDecimalSeparator =
+            DecimalFormatSymbols.getInstance(Locale.getDefault()).getDecimalSeparator();
+    
+    private static final long[] COMPACT_DIVISORS = {
+            1_000_000_000_000_000L, 1_000_000_000_000L, 1_000_000_000L, 1_000_000L, 1_000L
+    };
+    private static final char[] COMPACT_SUFFIXES = {'Q', 'T', 'B', 'M', 'K'};
     
     /**
      * Конструктор с указанием локали
      * @param locale локаль для форматирования (например, new Locale("ru", "RU"))
      */
     public CurrencyAmountFormatter(Locale locale) {
+        this(locale, null);
+    }
+    
+    /**
+     * Конструктор с указанием локали и валюты для formatCurrency
+     * @param locale локаль для форматирования
+     * @param currencyCode код валюты (например, "RUB"), может быть null
+     */
+    public CurrencyAmountFormatter(Locale locale, String currencyCode) {
         this.currentLocale = locale;
         this.currentULocale = new ULocale(locale.toString().replace("_", "-"));
+        this.currencyCode = currencyCode;
         initializeFormatters();
     }
     
@@ -53,6 +79,26 @@ public class CurrencyAmountFormatter {
         
         // Валютный форматтер
         this.currencyFormatter = NumberFormat.getCurrencyInstance(currentULocale);
+        if (currencyCode != null) {
+            this.currencyFormatter.setCurrency(com.ibm.icu.util.Currency.getInstance(currencyCode));
+        }
+    }
+    
+    /**
+     * Помечает экземпляр как общий (вызывается CurrencyAmountFormatterPool)
+     */
+    void markShared() {
+        this.shared = true;
+    }
+    
+    /**
+     * Проверяет, что экземпляр можно перенастраивать
+     * @throws IllegalStateException если экземпляр получен из пула
+     */
+    private void ensureMutable() {
+        if (shared) {
+            throw new IllegalStateException("Общий форматтер из CurrencyAmountFormatterPool нельзя перенастраивать");
+        }
     }
     
     /**
@@ -142,6 +188,9 @@ public class CurrencyAmountFormatter {
      * @return отформатированная строка с символом валюты
      */
     public String formatCurrency(double amount, String currencyCode) {
+        if (currencyCode != null && currencyCode.equalsIgnoreCase(this.currencyCode)) {
+            return currencyFormatter.format(amount);
+        }
         NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(currentULocale);
         currencyFormat.setCurrency(com.ibm.icu.util.Currency.getInstance(currencyCode));
         return currencyFormat.format(amount);
@@ -153,19 +202,22 @@ public class CurrencyAmountFormatter {
      * @return отформатированная строка
      */
     public String formatCompact(double amount) {
-        if (amount >= 1e15) { // Квадриллионы (Q)
-            return String.format("%.1fQ", amount / 1e15);
-        } else if (amount >= 1e12) { // Триллионы (T)
-            return String.format("%.1fT", amount / 1e12);
-        } else if (amount >= 1e9) { // Миллиарды (B)
-            return String.format("%.1fB", amount / 1e9);
-        } else if (amount >= 1e6) { // Миллионы (M)
-            return String.format("%.1fM", amount / 1e6);
-        } else if (amount >= 1e3) { // Тысячи (K)
-            return String.format("%.1fK", amount / 1e3);
-        } else {
-            return String.format("%.2f", amount);
+        if (Double.isNaN(amount) || Double.isInfinite(amount) || Math.abs(amount) >= 9e15) {
+            return formatCompactSlow(amount);
+        }
+        StringBuilder sb = compactBuffer;
+        sb.setLength(0);
+        for (int i = 0; i < COMPACT_DIVISORS.length; i++) {
+            if (amount >= COMPACT_DIVISORS[i]) {
+                appendFixed(sb, Math.round(amount * 10 / COMPACT_DIVISORS[i]), 1);
+                return sb.append(COMPACT_SUFFIXES[i]).toString();
+            }
+        }
+        if (amount < 0) {
+            sb.append('-');
         }
+        appendFixed(sb, Math.round(Math.abs(amount) * 100), 2);
+        return sb.toString();
     }
     
     /**
@@ -174,19 +226,48 @@ public class CurrencyAmountFormatter {
      * @return отформатированная строка
      */
     public String formatCompact(long amount) {
-        if (amount >= 1_000_000_000_000_000L) { // Квадриллионы (Q)
+        StringBuilder sb = compactBuffer;
+        sb.setLength(0);
+        for (int i = 0; i < COMPACT_DIVISORS.length; i++) {
+            long divisor = COMPACT_DIVISORS[i];
+            if (amount >= divisor) {
+                // Округление до десятых половиной вверх в целых числах
+                long step = divisor / 10;
+                long tenths = amount / step;
+                if ((amount % step) * 2 >= step) {
+                    tenths++;
+                }
+                appendFixed(sb, tenths, 1);
+                return sb.append(COMPACT_SUFFIXES[i]).toString();
+            }
+        }
+        return String.valueOf(amount);
+    }
+    
+    /**
+     * Дописывает неотрицательное число, заданное в единицах 10^-digits, с десятичным разделителем
+     * @param sb буфер
+     * @param scaled значение, умноженное на 10^digits
+     * @param digits количество знаков после разделителя (1 или 2)
+     */
+    private void appendFixed(StringBuilder sb, long scaled, int digits) {
+        long unit = digits == 1 ? 10 : 100;
+        sb.append(scaled / unit).append(defaultDecimalSeparator);
+        long fraction = scaled % unit;
+        if (digits == 2 && fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+    
+    /**
+     * Компактное форматирование через String.format для граничных значений
+     */
+    private String formatCompactSlow(double amount) {
+        if (amount >= 1e15) { // Квадриллионы (Q)
             return String.format("%.1fQ", amount / 1e15);
-        } else if (amount >= 1_000_000_000_000L) { // Триллионы (T)
-            return String.format("%.1fT", amount / 1e12);
-        } else if (amount >= 1_000_000_000L) { // Миллиарды (B)
-            return String.format("%.1fB", amount / 1e9);
-        } else if (amount >= 1_000_000L) { // Миллионы (M)
-            return String.format("%.1fM", amount / 1e6);
-        } else if (amount >= 1_000L) { // Тысячи (K)
-            return String.format("%.1fK", amount / 1e3);
-        } else {
-            return String.valueOf(amount);
         }
+        return String.format("%.2f", amount);
     }
     
     /**
@@ -277,8 +358,10 @@ public class CurrencyAmountFormatter {
     /**
      * Обновляет локаль форматтера
      * @param locale новая локаль
+     * @throws IllegalStateException если экземпляр получен из CurrencyAmountFormatterPool
      */
     public void setLocale(Locale locale) {
+        ensureMutable();
         this.currentLocale = locale;
         this.currentULocale = new ULocale(locale.toString().replace("_", "-"));
         initializeFormatters();
@@ -289,6 +372,7 @@ public class CurrencyAmountFormatter {
      * @param currencyCode код валюты
      */
     public void setCurrency(String currencyCode) {
+        ensureMutable();
         Locale locale = getLocaleForCurrency(currencyCode);
         setLocale(locale);
     }
@@ -298,6 +382,7 @@ public class CurrencyAmountFormatter {
      * @param minDigits минимальное количество знаков
      */
     public void setMinimumFractionDigits(int minDigits) {
+        ensureMutable();
         this.formatter.setMinimumFractionDigits(minDigits);
     }
     
@@ -306,6 +391,7 @@ public class CurrencyAmountFormatter {
      * @param maxDigits максимальное количество знаков
      */
     public void setMaximumFractionDigits(int maxDigits) {
+        ensureMutable();
         this.formatter.setMaximumFractionDigits(maxDigits);
     }
     
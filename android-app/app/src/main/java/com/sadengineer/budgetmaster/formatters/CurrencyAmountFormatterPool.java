@@ -0,0 +1,108 @@
+package com.sadengineer.budgetmaster.formatters;
+
+import com.ibm.icu.util.ULocale;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Общий кэш форматтеров сумм для всего процесса
+ *
+ * Создание CurrencyAmountFormatter дорогое (три NumberFormat из ICU4J), поэтому
+ * экземпляры создаются один раз на пару (ULocale, код валюты) и переиспользуются.
+ * NumberFormat из ICU не потокобезопасен, поэтому кэш привязан к потоку:
+ * каждый поток получает собственные экземпляры и никогда не делит их с другими.
+ *
+ * Возвращаемые форматтеры общие для всех вызывающих в потоке - их нельзя
+ * перенастраивать (setLocale, setCurrency, set*FractionDigits бросают IllegalStateException).
+ */
+public final class CurrencyAmountFormatterPool {
+
+    /** Локаль по умолчанию (как у конструктора CurrencyAmountFormatter без параметров) */
+    private static final Locale DEFAULT_LOCALE = new Locale("ru", "RU");
+
+    /** Разделитель ключа кэша */
+    private static final char KEY_SEPARATOR = '|';
+
+    /** Кэш форматтеров текущего потока: ключ "ulocale|currencyCode" */
+    private static final ThreadLocal<Map<String, CurrencyAmountFormatter>> CACHE =
+            new ThreadLocal<Map<String, CurrencyAmountFormatter>>() {
+                @Override
+                protected Map<String, CurrencyAmountFormatter> initialValue() {
+                    return new HashMap<>();
+                }
+            };
+
+    private CurrencyAmountFormatterPool() {
+    }
+
+    /**
+     * Получить форматтер с локалью по умолчанию (ru-RU)
+     * @return общий для текущего потока форматтер
+     */
+    public static CurrencyAmountFormatter get() {
+        return get(DEFAULT_LOCALE, null);
+    }
+
+    /**
+     * Получить форматтер для указанной локали
+     * @param locale локаль форматирования
+     * @return общий для текущего потока форматтер
+     */
+    public static CurrencyAmountFormatter get(Locale locale) {
+        return get(locale, null);
+    }
+
+    /**
+     * Получить форматтер для валюты (локаль определяется по коду валюты)
+     * @param currencyCode код валюты (например, "RUB", "USD")
+     * @return общий для текущего потока форматтер
+     */
+    public static CurrencyAmountFormatter forCurrency(String currencyCode) {
+        return get(CurrencyAmountFormatter.getLocaleForCurrency(currencyCode), currencyCode);
+    }
+
+    /**
+     * Получить форматтер для локали и кода валюты
+     * @param locale локаль форматирования
+     * @param currencyCode код валюты для formatCurrency (может быть null)
+     * @return общий для текущего потока форматтер
+     */
+    public static CurrencyAmountFormatter get(Locale locale, String currencyCode) {
+        Locale targetLocale = locale != null ? locale : DEFAULT_LOCALE;
+        String code = currencyCode != null ? currencyCode.toUpperCase(Locale.ROOT) : "";
+        String key = toULocale(targetLocale).getName() + KEY_SEPARATOR + code;
+
+        Map<String, CurrencyAmountFormatter> cache = CACHE.get();
+        CurrencyAmountFormatter formatter = cache.get(key);
+        if (formatter == null) {
+            formatter = new CurrencyAmountFormatter(targetLocale, code.isEmpty() ? null : code);
+            formatter.markShared();
+            cache.put(key, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * Количество форматтеров в кэше текущего потока
+     * @return размер кэша
+     */
+    public static int size() {
+        return CACHE.get().size();
+    }
+
+    /**
+     * Очищает кэш текущего потока
+     */
+    public static void clear() {
+        CACHE.get().clear();
+    }
+
+    /**
+     * Преобразует Locale в ULocale так же, как это делает CurrencyAmountFormatter
+     */
+    private static ULocale toULocale(Locale locale) {
+        return new ULocale(locale.toString().replace("_", "-"));
+    }
+}
@@ -1,18 +1,49 @@
 package com.sadengineer.budgetmaster.import_export;
 
+import android.net.Uri;
 import android.os.Bundle;
- 
+import android.view.View;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.lifecycle.ViewModelProvider;
+
 import com.sadengineer.budgetmaster.R;
+import com.sadengineer.budgetmaster.backend.service.DataExportService;
 import com.sadengineer.budgetmaster.base.BaseContentActivity;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
 /**
  * Activity для экспорта данных
  */
 public class ExportDataActivity extends BaseContentActivity {
-    
+
     private static final String TAG = "ExportDataActivity";
 
+    /** Метка времени в имени файла выгрузки */
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm");
+
+    private ExportDataViewModel viewModel;
+    private CheckBox compressCheckBox;
+
+    // Выбор файла назначения (MIME-тип задается при регистрации)
+    private final ActivityResultLauncher<String> csvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/zip"),
+            uri -> onDocumentCreated(uri, DataExportService.Format.CSV));
+    private final ActivityResultLauncher<String> jsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"),
+            uri -> onDocumentCreated(uri, DataExportService.Format.JSON));
+    private final ActivityResultLauncher<String> jsonGzipLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/gzip"),
+            uri -> onDocumentCreated(uri, DataExportService.Format.JSON));
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -23,6 +54,50 @@ public class ExportDataActivity extends BaseContentActivity {
         // Устанавливаем заголовок
         setToolbarTitle(R.string.menu_export_data, R.dimen.toolbar_text);
 
+        viewModel = new ViewModelProvider(this).get(ExportDataViewModel.class);
+
+        compressCheckBox = findViewById(R.id.export_compress_checkbox);
+        Button csvButton = findViewById(R.id.export_csv_button);
+        Button jsonButton = findViewById(R.id.export_json_button);
+        Button cancelButton = findViewById(R.id.export_cancel_button);
+        ProgressBar progressBar = findViewById(R.id.export_progress);
+        TextView statusText = findViewById(R.id.export_status);
+
+        csvButton.setOnClickListener(v -> csvLauncher.launch(fileName("zip")));
+        jsonButton.setOnClickListener(v -> {
+            if (compressCheckBox.isChecked()) {
+                jsonGzipLauncher.launch(fileName("json.gz"));
+            } else {
+                jsonLauncher.launch(fileName("json"));
+            }
+        });
+        cancelButton.setOnClickListener(v -> viewModel.cancel());
+
+        viewModel.isRunning().observe(this, running -> {
+            csvButton.setEnabled(!running);
+            jsonButton.setEnabled(!running);
+            compressCheckBox.setEnabled(!running);
+            progressBar.setVisibility(running ? View.VISIBLE : View.GONE);
+            cancelButton.setVisibility(running ? View.VISIBLE : View.GONE);
+        });
+        viewModel.getPercent().observe(this, progressBar::setProgress);
+        viewModel.getStatus().observe(this, statusText::setText);
+
         LogManager.d(TAG, "ExportDataActivity создана");
     }
-} 
\ No newline at end of file
+
+    /**
+     * Обработка выбранного файла: null - пользователь отменил выбор
+     */
+    private void onDocumentCreated(Uri uri, DataExportService.Format format) {
+        if (uri == null) {
+            LogManager.d(TAG, "Выбор файла для выгрузки отменен");
+            return;
+        }
+        viewModel.startExport(uri, format, compressCheckBox.isChecked());
+    }
+
+    private static String fileName(String extension) {
+        return "BudgetMaster-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + extension;
+    }
+}
@@ -0,0 +1,116 @@
+package com.sadengineer.budgetmaster.import_export;
+
+import android.app.Application;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.provider.DocumentsContract;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.sadengineer.budgetmaster.R;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.service.DataExportService;
+import com.sadengineer.budgetmaster.utils.LogManager;
+
+import java.io.OutputStream;
+
+/**
+ * ViewModel экрана выгрузки данных
+ * Держит выгрузку между пересозданиями Activity и отменяет ее при закрытии экрана
+ */
+public class ExportDataViewModel extends AndroidViewModel {
+    private static final String TAG = "ExportDataViewModel";
+
+    private final DataExportService exportService;
+    private final MutableLiveData<Boolean> running = new MutableLiveData<>(false);
+    private final MutableLiveData<Integer> percent = new MutableLiveData<>(0);
+    private final MutableLiveData<String> status = new MutableLiveData<>("");
+
+    private CancellationSignal cancellation;
+
+    public ExportDataViewModel(@NonNull Application application) {
+        super(application);
+        this.exportService = BackendContainer.get(application).dataExport();
+    }
+
+    public LiveData<Boolean> isRunning() {
+        return running;
+    }
+
+    public LiveData<Integer> getPercent() {
+        return percent;
+    }
+
+    public LiveData<String> getStatus() {
+        return status;
+    }
+
+    /**
+     * Запускает выгрузку в выбранный пользователем документ
+     * @param uri документ назначения
+     * @param format формат
+     * @param compress true - сжимать
+     */
+    public void startExport(Uri uri, DataExportService.Format format, boolean compress) {
+        if (Boolean.TRUE.equals(running.getValue())) {
+            return;
+        }
+        Application application = getApplication();
+        OutputStream out;
+        try {
+            out = application.getContentResolver().openOutputStream(uri, "w");
+        } catch (Exception e) {
+            LogManager.e(TAG, "Не удалось открыть файл для выгрузки: " + e.getMessage(), e);
+            out = null;
+        }
+        if (out == null) {
+            status.setValue(application.getString(R.string.export_status_failed));
+            return;
+        }
+
+        CancellationSignal signal = new CancellationSignal();
+        cancellation = signal;
+        running.setValue(true);
+        percent.setValue(0);
+        exportService.exportAsync(out, format, compress, (processed, total) -> {
+            percent.postValue(total > 0 ? (int) (processed * 100L / total) : 100);
+            status.postValue(application.getString(R.string.export_status_progress, processed, total));
+        }, signal).thenAccept(rows -> {
+            running.postValue(false);
+            if (rows >= 0) {
+                status.postValue(application.getString(R.string.export_status_done, rows));
+                return;
+            }
+            // Недописанный файл не оставляем
+            deleteDocument(uri);
+            status.postValue(application.getString(signal.isCanceled()
+                    ? R.string.export_status_cancelled : R.string.export_status_failed));
+        });
+    }
+
+    /**
+     * Отменяет текущую выгрузку
+     */
+    public void cancel() {
+        if (cancellation != null) {
+            cancellation.cancel();
+        }
+    }
+
+    private void deleteDocument(Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(getApplication().getContentResolver(), uri);
+        } catch (Exception e) {
+            LogManager.w(TAG, "Не удалось удалить недописанный файл: " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancel();
+    }
+}
@@ -6,20 +6,19 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
-import com.sadengineer.budgetmaster.backend.service.CategoryService;
-import com.sadengineer.budgetmaster.backend.service.AccountService;
-import com.sadengineer.budgetmaster.backend.service.CurrencyService;
+import com.sadengineer.budgetmaster.backend.service.ReferenceDataCache;
 import com.sadengineer.budgetmaster.animations.StandartViewHolder;
+import com.sadengineer.budgetmaster.operations.OperationRowModel;
+import com.sadengineer.budgetmaster.operations.OperationRowModelCache;
 
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Адаптер для отображения операций доходов
@@ -34,12 +33,9 @@ public class IncomeAdapter extends RecyclerView.Adapter<StandartViewHolder> {
     private OnIncomeClickListener clickListener;
     private OnIncomeLongClickListener longClickListener;
     private OnSelectedIncomesChangedListener selectedListener;
-    private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-    private CategoryService categoryService;
-    private AccountService accountService;
-    private CurrencyService currencyService;
-    private Map<Integer, String> categoryCache = new HashMap<>();
-    private Map<Integer, String> currencyCache = new HashMap<>();
+    private List<OperationRowModel> rows = new ArrayList<>();
+    private final OperationRowModelCache rowModelCache = new OperationRowModelCache();
+    private final ReferenceDataCache referenceData;
     
     public interface OnIncomeClickListener {
         void onIncomeClick(Operation income);
@@ -53,11 +49,21 @@ public class IncomeAdapter extends RecyclerView.Adapter<StandartViewHolder> {
         void onSelectedIncomesChanged(List<Operation> selectedIncomes);
     }
     
-    public IncomeAdapter(OnIncomeClickListener clickListener, Context context) {
+    /**
+     * @param clickListener обработчик нажатия на операцию
+     * @param context контекст
+     * @param lifecycleOwner владелец (жизненный цикл View фрагмента): пока он активен,
+     *                       строки перерисовываются при публикации нового снимка справочных данных
+     */
+    public IncomeAdapter(OnIncomeClickListener clickListener, Context context, LifecycleOwner lifecycleOwner) {
         this.clickListener = clickListener;
-        this.categoryService = new CategoryService(context, "adapter");
-        this.accountService = new AccountService(context, "adapter");
-        this.currencyService = new CurrencyService(context, "adapter");
+        this.referenceData = BackendContainer.get(context).referenceData();
+        // Новый снимок: заглушки до первой загрузки и переименованные категории/счета обновляются
+        referenceData.getSnapshot().observe(lifecycleOwner, snapshot -> {
+            if (!incomes.isEmpty()) {
+                notifyDataSetChanged();
+            }
+        });
     }
     
     @NonNull
@@ -113,11 +119,11 @@ public class IncomeAdapter extends RecyclerView.Adapter<StandartViewHolder> {
             String categoryName = getCategoryName(income.getCategoryId());
             // Получаем валюту из счета операции
             String currencyShortName = getCurrencyShortName(income.getAccountId());
-            String dateStr = income.getOperationDate() != null ? 
-                income.getOperationDate().format(dateFormatter) : "01.01.2024";
+            // Сумма и дата подготовлены заранее в фоновом потоке
+            OperationRowModel row = rows.get(position);
             
             holder.bindOperation(position + 1, categoryName, income.getDescription(), 
-                income.getId(), income.getAmount(), currencyShortName, dateStr, 
+                income.getId(), row.getAmountText(), currencyShortName, row.getDateText(), 
                 isSelectionMode, selectedIncomes.contains(income));
         }
     }
@@ -127,9 +133,16 @@ public class IncomeAdapter extends RecyclerView.Adapter<StandartViewHolder> {
         return incomes.size();
     }
     
+    /**
+     * Устанавливает список операций
+     * Строки для отображения форматируются в фоне, список обновляется после их подготовки
+     */
     public void setIncomes(List<Operation> incomes) {
-        this.incomes = incomes != null ? incomes : new ArrayList<>();
-        notifyDataSetChanged();
+        rowModelCache.submit(incomes, (operations, preparedRows) -> {
+            this.incomes = operations;
+            this.rows = preparedRows;
+            notifyDataSetChanged();
+        });
     }
     
     public void setSelectionMode(boolean isSelectionMode) {
@@ -164,57 +177,21 @@ public class IncomeAdapter extends RecyclerView.Adapter<StandartViewHolder> {
     }
     
     /**
-     * Получает название категории по ID
+     * Получает название категории по ID из снимка справочных данных
+     * Если категории нет (снимок еще не опубликован или строка удалена очисткой), показывается
+     * заглушка; после публикации снимка строки перерисовываются наблюдателем getSnapshot()
      */
     private String getCategoryName(int categoryId) {
-        // Проверяем кэш
-        if (categoryCache.containsKey(categoryId)) {
-            return categoryCache.get(categoryId);
-        }
-        
-        // Если нет в кэше, возвращаем заглушку и загружаем асинхронно
-        String placeholder = "Категория " + categoryId;
-        categoryCache.put(categoryId, placeholder);
-        
-        // Загружаем категорию асинхронно
-        categoryService.getById(categoryId).observeForever(category -> {
-            if (category != null) {
-                categoryCache.put(categoryId, category.getTitle());
-                // Уведомляем адаптер об изменении данных
-                notifyDataSetChanged();
-            }
-        });
-        
-        return placeholder;
+        String title = referenceData.get().getCategoryTitle(categoryId);
+        return title != null ? title : "Категория " + categoryId;
     }
     
     /**
-     * Получает короткое название валюты по ID счета
+     * Получает короткое название валюты по ID счета из снимка справочных данных
+     * @return название валюты или пустая строка, если счет или валюта неизвестны
      */
     private String getCurrencyShortName(int accountId) {
-        // Проверяем кэш валют
-        if (currencyCache.containsKey(accountId)) {
-            return currencyCache.get(accountId);
-        }
-        
-        // Если нет в кэше, возвращаем заглушку и загружаем асинхронно
-        String placeholder = "₽";
-        currencyCache.put(accountId, placeholder);
-        
-        // Загружаем счет асинхронно
-        accountService.getById(accountId).observeForever(account -> {
-            if (account != null) {
-                // Загружаем валюту счета
-                currencyService.getById(account.getCurrencyId()).observeForever(currency -> {
-                    if (currency != null) {
-                        currencyCache.put(accountId, currency.getShortName());
-                        // Уведомляем адаптер об изменении данных
-                        notifyDataSetChanged();
-                    }
-                });
-            }
-        });
-        
-        return placeholder;
+        String shortName = referenceData.get().getAccountCurrencyShortName(accountId);
+        return shortName != null ? shortName : "";
     }
 }
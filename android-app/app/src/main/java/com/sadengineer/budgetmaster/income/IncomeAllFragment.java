@@ -23,6 +23,7 @@ import com.sadengineer.budgetmaster.calculators.OperationCalculatorViewModel;
 import com.sadengineer.budgetmaster.calculators.OperationCalculatorConfig;
 import com.sadengineer.budgetmaster.backend.filters.OperationPeriod;
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.settings.AppSettings;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
@@ -57,7 +58,7 @@ public class IncomeAllFragment extends BaseListFragment<Operation, IncomeAdapter
         // Инициализация ДО вызова super.onCreateView()
         currentMonth = LocalDate.now().withDayOfMonth(1);
         monthYearFormatter = DateTimeFormatter.ofPattern("MMMM yyyy", java.util.Locale.getDefault());
-        formatter = new CurrencyAmountFormatter();
+        formatter = CurrencyAmountFormatterPool.get();
         appSettings = new AppSettings(requireContext());
         
         View view = super.onCreateView(inflater, container, savedInstanceState);
@@ -298,7 +299,7 @@ public class IncomeAllFragment extends BaseListFragment<Operation, IncomeAdapter
                 LogManager.d(TAG, "Переход к окну редактирования операции дохода");
                 goToEdit(income);
             }
-        }, requireContext());
+        }, requireContext(), getViewLifecycleOwner());
         
         adapter.setLongClickListener(new IncomeAdapter.OnIncomeLongClickListener() {
             @Override
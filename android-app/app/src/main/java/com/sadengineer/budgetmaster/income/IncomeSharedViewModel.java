@@ -7,6 +7,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
 import com.sadengineer.budgetmaster.backend.service.OperationService;
 import com.sadengineer.budgetmaster.base.SelectionListViewModel;    
@@ -14,8 +15,6 @@ import com.sadengineer.budgetmaster.utils.LogManager;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Shared ViewModel для экрана операций доходов. Держит общий режим выбора и
@@ -36,8 +35,6 @@ public class IncomeSharedViewModel extends AndroidViewModel implements Selection
     private final MutableLiveData<Integer> softDeletionDone = new MutableLiveData<>();
     private final MutableLiveData<List<Operation>> selectedIncomes = new MutableLiveData<>();
 
-    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
-
     /**
      * Конструктор
      * @param application
@@ -45,7 +42,7 @@ public class IncomeSharedViewModel extends AndroidViewModel implements Selection
     public IncomeSharedViewModel(@NonNull Application application) {
         super(application);
         // Сервисы для работы с данными
-        operationService = new OperationService(application.getApplicationContext(), userName);
+        operationService = BackendContainer.get(application).operations(userName);
     }
 
     /**
@@ -101,7 +98,7 @@ public class IncomeSharedViewModel extends AndroidViewModel implements Selection
     }
 
     /**
-     * Делает softDelete для каждой операции из переданного списка в фоне.
+     * Делает пакетный softDelete операций из переданного списка в фоне.
      */
     public void deleteIncomesSoft(List<Operation> incomes) {
         if (incomes == null || incomes.isEmpty()) {
@@ -130,25 +127,20 @@ public class IncomeSharedViewModel extends AndroidViewModel implements Selection
         LogManager.d(TAG, "Начато удаление операций. Количество: " + incomesToDelete.size());
         // Устанавливаем состояние удаления
         deleting.setValue(true);
-        ioExecutor.execute(() -> {
-            int deletedCount = 0;
-            for (Operation income : incomesToDelete) {
-                try {
-                    LogManager.d(TAG, "Удаление операции: ID=" + income.getId());
-                    // TODO: Реализовать метод delete в OperationService
-                    // operationService.delete(true, income);
-                    deletedCount++;
-                    LogManager.d(TAG, "Операция ID: " + income.getId() + " успешно удалена");
-                } catch (Exception e) {
-                    LogManager.e(TAG, "Ошибка удаления операции: ID=" + income.getId() + ", причина: " + e.getMessage());
-                }
-            }
-            deleting.postValue(false);
-            softDeletionDone.postValue(deletedCount);
-            selectionMode.postValue(false);
-            selectedIncomes.postValue(null);
-            LogManager.d(TAG, "Удаление завершено. Удалено операций: " + deletedCount);
-        });
+        List<Integer> ids = new ArrayList<>();
+        for (Operation income : incomesToDelete) {
+            ids.add(income.getId());
+        }
+        // Один пакет: одна транзакция и одна инвалидация наблюдающих запросов
+        operationService.softDeleteAll(ids, (processed, total) ->
+                LogManager.d(TAG, "Удалено операций: " + processed + " из " + total))
+            .thenAccept(deletedCount -> {
+                deleting.postValue(false);
+                softDeletionDone.postValue(deletedCount);
+                selectionMode.postValue(false);
+                selectedIncomes.postValue(null);
+                LogManager.d(TAG, "Удаление завершено. Удалено операций: " + deletedCount);
+            });
     }
 
      /**
@@ -1,6 +1,8 @@
 package com.sadengineer.budgetmaster.navigation;
 
 import android.content.Intent;
+import android.os.Bundle;
+import android.os.Looper;
  
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.drawerlayout.widget.DrawerLayout;
@@ -26,6 +28,23 @@ public abstract class BaseNavigationActivity extends AppCompatActivity {
     protected MenuHandler menuHandler;
     protected NavigationController navigationController;
 
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        ScreenPrefetcher.getInstance(this).markScreenStart(getClass());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Когда экран отрисован и простаивает, предзагружаем данные соседних экранов
+        Looper.myQueue().addIdleHandler(() -> {
+            if (!isFinishing()) {
+                ScreenPrefetcher.getInstance(this).prefetchNeighbours(getClass());
+            }
+            return false;
+        });
+    }
 
     /**
      * Инициализация навигационного меню
@@ -0,0 +1,224 @@
+package com.sadengineer.budgetmaster.navigation;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.sadengineer.budgetmaster.accounts.AccountsActivity;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
+import com.sadengineer.budgetmaster.backend.filters.AccountTypeFilter;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
+import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
+import com.sadengineer.budgetmaster.budget.BudgetActivity;
+import com.sadengineer.budgetmaster.currencies.CurrenciesActivity;
+import com.sadengineer.budgetmaster.utils.LogManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Предзагрузка данных соседних экранов
+ * Когда экран простаивает, основные запросы предыдущего и следующего экрана в порядке
+ * навигации (SwipeNavigationHelper) выполняются в фоне и кладутся в общий кэш с коротким
+ * сроком жизни. Экран при открытии сразу показывает данные из кэша, а LiveData
+ * продолжает обновлять список как обычно.
+ * Для каждого экрана считается время от onCreate до первого показанного списка.
+ */
+public class ScreenPrefetcher {
+    private static final String TAG = "ScreenPrefetcher";
+
+    /** Срок жизни предзагруженных данных */
+    private static final long PREFETCH_TTL_MS = 15_000;
+
+    // Ключи основных запросов экранов
+    public static final String KEY_CURRENCIES = "currencies";
+    private static final String KEY_ACCOUNTS = "accounts:";
+    private static final String KEY_BUDGETS = "budgets:";
+
+    private static volatile ScreenPrefetcher INSTANCE;
+
+    /**
+     * Предзагруженный результат запроса
+     */
+    private static final class Entry {
+        final List<?> items;
+        final long loadedAt;
+
+        Entry(List<?> items, long loadedAt) {
+            this.items = items;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final Map<Class<?>, Map<String, Callable<List<?>>>> screenQueries = new HashMap<>();
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    // Время до первого контента: только главный поток
+    private final Map<Class<?>, Long> screenStarts = new HashMap<>();
+    private final Map<Class<?>, Boolean> screenWarm = new HashMap<>();
+    private final Map<Class<?>, Long> timeToFirstContent = new HashMap<>();
+
+    private ScreenPrefetcher(Context context) {
+        BackendContainer container = BackendContainer.get(context);
+
+        Map<String, Callable<List<?>>> currencies = new HashMap<>();
+        currencies.put(KEY_CURRENCIES, () -> container.currencyRepository().getAllSync(EntityFilter.ALL));
+        screenQueries.put(CurrenciesActivity.class, currencies);
+
+        Map<String, Callable<List<?>>> accounts = new HashMap<>();
+        for (AccountTypeFilter type : AccountTypeFilter.values()) {
+            if (type.getIndex() != null) {
+                accounts.put(accountsKey(type),
+                        () -> container.accountRepository().getAllByTypeSync(type.getIndex(), EntityFilter.ALL));
+            }
+        }
+        screenQueries.put(AccountsActivity.class, accounts);
+
+        Map<String, Callable<List<?>>> budgets = new HashMap<>();
+        budgets.put(budgetsKey(OperationTypeFilter.EXPENSE),
+                () -> container.budgetRepository().getAllByOperationTypeSync(OperationTypeFilter.EXPENSE, EntityFilter.ACTIVE));
+        screenQueries.put(BudgetActivity.class, budgets);
+
+        // Любая запись в исходные таблицы делает предзагруженные данные устаревшими
+        DatabaseChangeBus.getInstance(context).addListener(tables -> {
+            LogManager.d(TAG, "Сброс предзагруженных данных: изменены " + tables);
+            cache.clear();
+        }, RepositoryConstants.TABLE_ACCOUNTS, RepositoryConstants.TABLE_BUDGETS,
+           RepositoryConstants.TABLE_CATEGORIES, RepositoryConstants.TABLE_CURRENCIES);
+    }
+
+    /**
+     * Получение экземпляра
+     * @param context контекст
+     * @return экземпляр предзагрузчика
+     */
+    public static ScreenPrefetcher getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ScreenPrefetcher.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ScreenPrefetcher(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Ключ списка счетов по типу
+     */
+    public static String accountsKey(AccountTypeFilter type) {
+        return KEY_ACCOUNTS + type.getIndex();
+    }
+
+    /**
+     * Ключ списка бюджетов по типу операций
+     */
+    public static String budgetsKey(OperationTypeFilter type) {
+        return KEY_BUDGETS + type.getIndex();
+    }
+
+    /**
+     * Предзагружает основные запросы соседних экранов
+     * Вызывается в главном потоке, когда текущий экран простаивает
+     * @param currentActivity класс текущего экрана
+     */
+    public void prefetchNeighbours(Class<?> currentActivity) {
+        for (Class<?> neighbour : SwipeNavigationHelper.getNeighbours(currentActivity)) {
+            Map<String, Callable<List<?>>> queries = screenQueries.get(neighbour);
+            if (queries == null) {
+                continue;
+            }
+            for (Map.Entry<String, Callable<List<?>>> query : queries.entrySet()) {
+                prefetch(query.getKey(), query.getValue());
+            }
+        }
+    }
+
+    private void prefetch(String key, Callable<List<?>> query) {
+        Entry entry = cache.get(key);
+        if (entry != null && isFresh(entry)) {
+            return;
+        }
+        if (!inFlight.add(key)) {
+            return;
+        }
+        ThreadManager.getExecutor().execute(() -> {
+            try {
+                List<?> items = query.call();
+                if (items != null) {
+                    cache.put(key, new Entry(items, SystemClock.elapsedRealtime()));
+                    LogManager.d(TAG, "Предзагружено " + key + ": " + items.size());
+                }
+            } catch (Exception e) {
+                LogManager.e(TAG, "Ошибка предзагрузки " + key + ": " + e.getMessage(), e);
+            } finally {
+                inFlight.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Забирает предзагруженные данные (один раз: дальше список обновляет LiveData)
+     * @param activity экран, который показывает данные
+     * @param key ключ запроса
+     * @return данные или null, если их нет или они устарели
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> take(Class<?> activity, String key) {
+        Entry entry = cache.remove(key);
+        if (entry == null || !isFresh(entry)) {
+            return null;
+        }
+        screenWarm.put(activity, true);
+        LogManager.d(TAG, "Экран " + activity.getSimpleName() + " открыт с предзагруженными данными " + key);
+        return (List<T>) entry.items;
+    }
+
+    private static boolean isFresh(Entry entry) {
+        return SystemClock.elapsedRealtime() - entry.loadedAt <= PREFETCH_TTL_MS;
+    }
+
+    /**
+     * Отмечает начало открытия экрана (onCreate)
+     * @param activity класс экрана
+     */
+    public void markScreenStart(Class<?> activity) {
+        screenStarts.put(activity, SystemClock.elapsedRealtime());
+        screenWarm.remove(activity);
+    }
+
+    /**
+     * Отмечает первый показанный экраном список; повторные вызовы до следующего
+     * открытия экрана игнорируются
+     * @param activity класс экрана
+     */
+    public void reportFirstContent(Class<?> activity) {
+        Long started = screenStarts.remove(activity);
+        if (started == null) {
+            return;
+        }
+        long elapsed = SystemClock.elapsedRealtime() - started;
+        timeToFirstContent.put(activity, elapsed);
+        boolean warm = Boolean.TRUE.equals(screenWarm.remove(activity));
+        LogManager.d(TAG, "Время до первого контента " + activity.getSimpleName() + ": " + elapsed + " мс ("
+                + (warm ? "предзагружено" : "без предзагрузки") + ")");
+    }
+
+    /**
+     * Время до первого контента при последнем открытии экрана
+     * @param activity класс экрана
+     * @return миллисекунды или -1, если экран еще не показывал данные
+     */
+    public long getTimeToFirstContent(Class<?> activity) {
+        Long elapsed = timeToFirstContent.get(activity);
+        return elapsed != null ? elapsed : -1;
+    }
+}
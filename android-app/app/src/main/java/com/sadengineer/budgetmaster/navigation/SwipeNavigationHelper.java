@@ -54,7 +54,7 @@ public class SwipeNavigationHelper {
     // private boolean shouldNavigateOnNextSwipe = false;
     
     // Порядок экранов для навигации вниз по дереву меню
-    private final Class<?>[] navigationOrder = {
+    private static final Class<?>[] navigationOrder = {
         StartActivity.class,
         InstructionsActivity.class,
         CurrenciesActivity.class,
@@ -82,6 +82,26 @@ public class SwipeNavigationHelper {
         LogManager.d(TAG, "SwipeNavigationHelper создан для активности: " + activity.getClass().getSimpleName());
     }
     
+    /**
+     * Соседние экраны в порядке навигации (предыдущий и следующий)
+     * @param currentActivity класс текущего экрана
+     * @return соседние экраны (пустой массив, если экрана нет в порядке навигации)
+     */
+    public static Class<?>[] getNeighbours(Class<?> currentActivity) {
+        for (int i = 0; i < navigationOrder.length; i++) {
+            if (navigationOrder[i] == currentActivity) {
+                if (i == 0) {
+                    return new Class<?>[] { navigationOrder[1] };
+                }
+                if (i == navigationOrder.length - 1) {
+                    return new Class<?>[] { navigationOrder[i - 1] };
+                }
+                return new Class<?>[] { navigationOrder[i - 1], navigationOrder[i + 1] };
+            }
+        }
+        return new Class<?>[0];
+    }
+    
     /**
      * Включает/выключает обработку свайпов
      * @param enabled true - включить обработку свайпов, false - выключить
@@ -6,6 +6,7 @@ import android.os.Bundle;
 import android.text.TextUtils;
  
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.EditText;
 import android.widget.GridLayout;
@@ -15,19 +16,21 @@ import android.widget.TextView;
 import android.widget.ArrayAdapter;
 
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Observer;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.base.BaseEditActivity;
 import com.sadengineer.budgetmaster.backend.service.OperationService;
-import com.sadengineer.budgetmaster.backend.service.CategoryService;
-import com.sadengineer.budgetmaster.backend.service.AccountService;
+import com.sadengineer.budgetmaster.backend.service.OperationSuggestionIndex;
+import com.sadengineer.budgetmaster.backend.service.ReferenceDataCache;
 import com.sadengineer.budgetmaster.backend.entity.Operation;
 import com.sadengineer.budgetmaster.backend.entity.Category;
 import com.sadengineer.budgetmaster.backend.entity.Account;
 import com.sadengineer.budgetmaster.backend.validator.OperationValidator;
 import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
-import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
@@ -58,10 +61,10 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
     
     // Сервисы для работы с данными
     private OperationService operationService;
-    private CategoryService categoryService;
-    private AccountService accountService;
+    private ReferenceDataCache referenceData;
+    private OperationSuggestionIndex suggestions;
     private OperationValidator validator = new OperationValidator();
-    private CurrencyAmountFormatter formatter = new CurrencyAmountFormatter();
+    private CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
     
     // Поля для хранения данных операции
     private Operation currentOperation;
@@ -71,6 +74,9 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
     private List<Category> categories = new ArrayList<>();
     private List<Account> accounts = new ArrayList<>();
     private LocalDateTime selectedDate = LocalDateTime.now();
+    // Категорию или счет выбрал пользователь: подсказки по описанию их больше не меняют
+    private boolean categoryPickedByUser = false;
+    private boolean accountPickedByUser = false;
     private ModelConstants constants = new ModelConstants();
     
     // Переменная для хранения ссылки на GridLayout календаря
@@ -110,9 +116,9 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
         setupBackButton(R.id.back_button);
 
         // Инициализация сервисов
-        operationService = new OperationService(this, userName);
-        categoryService = new CategoryService(this, userName);
-        accountService = new AccountService(this, userName);
+        operationService = BackendContainer.get(this).operations(userName);
+        referenceData = BackendContainer.get(this).referenceData();
+        suggestions = BackendContainer.get(this).suggestions();
         
         // Получаем данные из Intent и заполняем поля
         loadOperationData();
@@ -126,66 +132,89 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
     
     /**
      * Настраивает спиннеры для категорий и счетов
+     * Списки берутся из снимка справочных данных без запроса к базе данных
      */
     private void setupSpinners() {
+        ReferenceDataCache.Snapshot snapshot = referenceData.get();
+        if (snapshot.isLoaded()) {
+            fillSpinners(snapshot);
+        } else {
+            // Первый снимок еще строится: заполняем спиннеры при его публикации
+            // (наблюдатель снимается вместе с Activity)
+            referenceData.getSnapshot().observe(this, new Observer<ReferenceDataCache.Snapshot>() {
+                @Override
+                public void onChanged(ReferenceDataCache.Snapshot published) {
+                    if (published != null && published.isLoaded()) {
+                        referenceData.getSnapshot().removeObserver(this);
+                        fillSpinners(published);
+                    }
+                }
+            });
+        }
+    }
+    
+    private void fillSpinners(ReferenceDataCache.Snapshot snapshot) {
         // Загружаем категории в зависимости от типа операции
-        loadCategories();
+        loadCategories(snapshot);
         
         // Загружаем все активные счета
-        loadAccounts();
+        loadAccounts(snapshot);
     }
     
     /**
      * Загружает категории в зависимости от типа операции
      */
-    private void loadCategories() {
-        categoryService.getAllByOperationType(operationType, EntityFilter.ACTIVE).observe(this, categories -> {
-            if (categories != null && !categories.isEmpty()) {
-                this.categories = categories;
-                
-                // Создаем массив названий категорий
-                String[] categoryTitles = new String[categories.size()];
-                for (int i = 0; i < categories.size(); i++) {
-                    categoryTitles[i] = categories.get(i).getTitle();
-                }
-                
-                ArrayAdapter<String> categoryAdapter = new ArrayAdapter<>(this, 
-                    android.R.layout.simple_spinner_item, categoryTitles);
-                categoryAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                categorySpinner.setAdapter(categoryAdapter);
-                
-                LogManager.d(TAG, "Спиннер категорий настроен: " + categories.size() + " категорий");
+    private void loadCategories(ReferenceDataCache.Snapshot snapshot) {
+        List<Category> categories = snapshot.getActiveCategories(operationType);
+        if (!categories.isEmpty()) {
+            this.categories = categories;
+            
+            // Создаем массив названий категорий
+            String[] categoryTitles = new String[categories.size()];
+            for (int i = 0; i < categories.size(); i++) {
+                categoryTitles[i] = categories.get(i).getTitle();
             }
-        });
+            
+            ArrayAdapter<String> categoryAdapter = new ArrayAdapter<>(this, 
+                android.R.layout.simple_spinner_item, categoryTitles);
+            categoryAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            categorySpinner.setAdapter(categoryAdapter);
+            
+            LogManager.d(TAG, "Спиннер категорий настроен: " + categories.size() + " категорий");
+            
+            // Если есть операция для редактирования, устанавливаем выбранную категорию
+            if (currentOperation != null && isEditMode) {
+                setSelectedCategory(currentOperation.getCategoryId());
+            }
+        }
     }
     
     /**
      * Загружает все активные счета
      */
-    private void loadAccounts() {
-        accountService.getAll(EntityFilter.ACTIVE).observe(this, accounts -> {
-            if (accounts != null && !accounts.isEmpty()) {
-                this.accounts = accounts;
-                
-                // Создаем массив названий счетов
-                String[] accountTitles = new String[accounts.size()];
-                for (int i = 0; i < accounts.size(); i++) {
-                    accountTitles[i] = accounts.get(i).getTitle();
-                }
-                
-                ArrayAdapter<String> accountAdapter = new ArrayAdapter<>(this, 
-                    android.R.layout.simple_spinner_item, accountTitles);
-                accountAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                accountSpinner.setAdapter(accountAdapter);
-                
-                LogManager.d(TAG, "Спиннер счетов настроен: " + accounts.size() + " счетов");
-                
-                // Если есть операция для редактирования, устанавливаем выбранный счет
-                if (currentOperation != null && isEditMode) {
-                    setSelectedAccount(currentOperation.getAccountId());
-                }
+    private void loadAccounts(ReferenceDataCache.Snapshot snapshot) {
+        List<Account> accounts = snapshot.getActiveAccounts();
+        if (!accounts.isEmpty()) {
+            this.accounts = accounts;
+            
+            // Создаем массив названий счетов
+            String[] accountTitles = new String[accounts.size()];
+            for (int i = 0; i < accounts.size(); i++) {
+                accountTitles[i] = accounts.get(i).getTitle();
             }
-        });
+            
+            ArrayAdapter<String> accountAdapter = new ArrayAdapter<>(this, 
+                android.R.layout.simple_spinner_item, accountTitles);
+            accountAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            accountSpinner.setAdapter(accountAdapter);
+            
+            LogManager.d(TAG, "Спиннер счетов настроен: " + accounts.size() + " счетов");
+            
+            // Если есть операция для редактирования, устанавливаем выбранный счет
+            if (currentOperation != null && isEditMode) {
+                setSelectedAccount(currentOperation.getAccountId());
+            }
+        }
     }
     
     /**
@@ -243,6 +272,40 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
             }
         });
         
+        // Подсказка категории и счета по началу описания (только для новой операции)
+        commentEdit.addTextChangedListener(new android.text.TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+                // Ничего не делаем
+            }
+            
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Ничего не делаем
+            }
+            
+            @Override
+            public void afterTextChanged(android.text.Editable s) {
+                if (!isEditMode) {
+                    applySuggestions(s);
+                }
+            }
+        });
+        
+        // Касание спиннера - ручной выбор, после него подсказки не меняют значение
+        categorySpinner.setOnTouchListener((v, event) -> {
+            if (event.getAction() == MotionEvent.ACTION_UP) {
+                categoryPickedByUser = true;
+            }
+            return false;
+        });
+        accountSpinner.setOnTouchListener((v, event) -> {
+            if (event.getAction() == MotionEvent.ACTION_UP) {
+                accountPickedByUser = true;
+            }
+            return false;
+        });
+        
         // Обработчик изменения счета для автоматического определения валюты
         accountSpinner.setOnItemSelectedListener(new android.widget.AdapterView.OnItemSelectedListener() {
             @Override
@@ -258,6 +321,32 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
         });
     }
     
+    /**
+     * Выбирает в спиннерах категорию и счет, чаще всего встречавшиеся с таким началом описания
+     * Берется первая подсказка, которая есть в спиннере (удаленные категории и счета пропускаются)
+     * @param text введенное описание
+     */
+    private void applySuggestions(CharSequence text) {
+        OperationSuggestionIndex.Suggestions suggestion = suggestions.suggest(operationType, text);
+        if (suggestion.isEmpty()) {
+            return;
+        }
+        if (!categoryPickedByUser) {
+            for (int categoryId : suggestion.getCategoryIds()) {
+                if (setSelectedCategory(categoryId)) {
+                    break;
+                }
+            }
+        }
+        if (!accountPickedByUser) {
+            for (int accountId : suggestion.getAccountIds()) {
+                if (setSelectedAccount(accountId)) {
+                    break;
+                }
+            }
+        }
+    }
+    
     /**
      * Показывает диалог выбора даты
      */
@@ -633,7 +722,7 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
             // Устанавливаем выбранную категорию
             setSelectedCategory(currentOperation.getCategoryId());
             
-            // Счет будет установлен в loadAccounts() после загрузки счетов
+            // Категория и счет выбираются и после заполнения спиннеров (loadCategories, loadAccounts)
             
             LogManager.d(TAG, "Данные операции загружены в поля");
         } else {
@@ -643,26 +732,30 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
     
     /**
      * Устанавливает выбранную категорию по ID
+     * @return true, если категория есть в спиннере
      */
-    private void setSelectedCategory(int categoryId) {
+    private boolean setSelectedCategory(int categoryId) {
         for (int i = 0; i < categories.size(); i++) {
             if (categories.get(i).getId() == categoryId) {
                 categorySpinner.setSelection(i);
-                break;
+                return true;
             }
         }
+        return false;
     }
     
     /**
      * Устанавливает выбранный счет по ID
+     * @return true, если счет есть в спиннере
      */
-    private void setSelectedAccount(int accountId) {
+    private boolean setSelectedAccount(int accountId) {
         for (int i = 0; i < accounts.size(); i++) {
             if (accounts.get(i).getId() == accountId) {
                 accountSpinner.setSelection(i);
-                break;
+                return true;
             }
         }
+        return false;
     }
     
     /**
@@ -797,13 +890,9 @@ public class OperationEditActivity extends BaseEditActivity<Operation> {
      * Получает ID валюты из счета
      */
     private int getCurrencyIdFromAccount(int accountId) {
-        //TODO: Оптимизация получения валюты счета
-        // метод сервиса для получения валюты счета по ID
-        // заглушка для обработки окном
-        for (Account account : accounts) {
-            if (account.getId() == accountId) {
-                return account.getCurrencyId();
-            }
+        Account account = referenceData.get().getAccount(accountId);
+        if (account != null) {
+            return account.getCurrencyId();
         }
         // Возвращаем валюту по умолчанию (RUB)
         return 1;
@@ -0,0 +1,52 @@
+package com.sadengineer.budgetmaster.operations;
+
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Неизменяемая модель строки списка операций с заранее отформатированными значениями
+ * Строки готовятся в фоновом потоке, ViewHolder только вызывает setText
+ */
+public final class OperationRowModel {
+
+    private final int id;
+    private final LocalDateTime updateTime;
+    private final CharSequence amountText;
+    private final CharSequence dateText;
+
+    public OperationRowModel(int id, LocalDateTime updateTime, CharSequence amountText, CharSequence dateText) {
+        this.id = id;
+        this.updateTime = updateTime;
+        this.amountText = amountText;
+        this.dateText = dateText;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public CharSequence getAmountText() {
+        return amountText;
+    }
+
+    public CharSequence getDateText() {
+        return dateText;
+    }
+
+    /**
+     * Проверяет, построена ли модель для этой версии операции
+     * @param operation операция
+     * @return true, если совпадают id и время изменения
+     */
+    public boolean isFor(Operation operation) {
+        return operation != null
+                && operation.getId() == id
+                && Objects.equals(operation.getUpdateTime(), updateTime);
+    }
+}
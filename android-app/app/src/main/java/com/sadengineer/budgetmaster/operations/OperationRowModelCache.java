@@ -0,0 +1,120 @@
+package com.sadengineer.budgetmaster.operations;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.entity.Operation;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
+import com.sadengineer.budgetmaster.utils.LogManager;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подготавливает модели строк списка операций в фоновом потоке
+ * Кэширует модели по (id, updateTime): неизменённые операции повторно не форматируются
+ */
+public class OperationRowModelCache {
+
+    private static final String TAG = "OperationRowModelCache";
+
+    /** Дата для операций без даты (как было в адаптерах) */
+    private static final String DEFAULT_DATE_TEXT = "01.01.2024";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile Map<Integer, OperationRowModel> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Колбэк с готовыми моделями строк (вызывается в главном потоке)
+     */
+    public interface OnRowsReadyListener {
+        void onRowsReady(List<Operation> operations, List<OperationRowModel> rows);
+    }
+
+    /**
+     * Подготавливает модели для списка операций
+     * Результат устаревших вызовов (если успел прийти новый список) отбрасывается
+     * @param operations список операций
+     * @param listener получатель готовых моделей
+     */
+    public void submit(List<Operation> operations, OnRowsReadyListener listener) {
+        final List<Operation> source = operations != null ? operations : Collections.emptyList();
+        final int requestGeneration = generation.incrementAndGet();
+
+        ThreadManager.getExecutor().execute(() -> {
+            try {
+                List<OperationRowModel> rows = buildRows(source, requestGeneration);
+                mainHandler.post(() -> {
+                    if (requestGeneration == generation.get()) {
+                        listener.onRowsReady(source, rows);
+                    }
+                });
+            } catch (Exception e) {
+                LogManager.e(TAG, "Ошибка подготовки строк списка операций: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Очищает кэш моделей
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Строит модели строк, переиспользуя кэшированные для неизменённых операций
+     * Кэш после вызова содержит только операции текущего списка.
+     * Сборки выполняются в общем пуле параллельно, поэтому кэш заменяется только сборкой
+     * последнего запроса: устаревшая сборка не затирает более новый кэш
+     * @param requestGeneration номер запроса submit
+     */
+    private List<OperationRowModel> buildRows(List<Operation> operations, int requestGeneration) {
+        Map<Integer, OperationRowModel> previous = cache;
+        Map<Integer, OperationRowModel> next = new ConcurrentHashMap<>(Math.max(16, operations.size() * 2));
+        List<OperationRowModel> rows = new ArrayList<>(operations.size());
+        int reused = 0;
+
+        for (Operation operation : operations) {
+            if (operation == null) {
+                rows.add(null);
+                continue;
+            }
+            OperationRowModel row = previous.get(operation.getId());
+            if (row != null && row.isFor(operation)) {
+                reused++;
+            } else {
+                row = createRow(operation);
+            }
+            next.put(operation.getId(), row);
+            rows.add(row);
+        }
+
+        if (requestGeneration == generation.get()) {
+            cache = next;
+        }
+        LogManager.d(TAG, "Подготовлено строк: " + rows.size() + ", из кэша: " + reused);
+        return rows;
+    }
+
+    /**
+     * Форматирует сумму и дату операции
+     */
+    private OperationRowModel createRow(Operation operation) {
+        String amountText = CurrencyAmountFormatterPool.get().formatCompact(operation.getAmount() / 100.0);
+        String dateText = operation.getOperationDate() != null
+                ? operation.getOperationDate().format(DATE_FORMATTER)
+                : DEFAULT_DATE_TEXT;
+        return new OperationRowModel(operation.getId(), operation.getUpdateTime(), amountText, dateText);
+    }
+}
@@ -10,6 +10,7 @@ import android.widget.Spinner;
 
 import androidx.lifecycle.LiveData;
 
+import com.sadengineer.budgetmaster.backend.BackendContainer;
 import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.backend.entity.Currency;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
@@ -49,7 +50,7 @@ public class SettingsActivity extends BaseContentActivity {
         appSettings = new AppSettings(this);
 
         // Инициализация сервиса валют
-        currencyService = new CurrencyService(this, "settings_user");
+        currencyService = BackendContainer.get(this).currencies("settings_user");
 
         // Инициализация навигации
         initializeNavigation();
@@ -0,0 +1,194 @@
+package com.sadengineer.budgetmaster.start;
+
+import android.content.Context;
+import android.util.AtomicFile;
+
+import com.sadengineer.budgetmaster.backend.constants.DatabaseConstants;
+import com.sadengineer.budgetmaster.utils.LogManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Снимок главного экрана в небольшом бинарном файле
+ * Последние посчитанные суммы и их отформатированные строки сохраняются после каждого
+ * обновления и читаются при запуске до открытия базы данных, чтобы главный экран сразу
+ * показывал последние значения, а не нули.
+ * Снимок отбрасывается, если изменился формат файла, версия схемы базы данных или
+ * отображаемая валюта; при изменении таблицы валют файл удаляется (discard).
+ */
+public final class DashboardSnapshot {
+    private static final String TAG = "DashboardSnapshot";
+
+    private static final String FILE_NAME = "dashboard_snapshot.bin";
+
+    /** Сигнатура файла ("BMDS") */
+    private static final int MAGIC = 0x424D4453;
+    /** Версия формата файла: увеличивать при изменении состава полей */
+    private static final int FORMAT_VERSION = 1;
+
+    private final int displayCurrencyId;
+    private final long savedAt;
+    private final MainScreenData data;
+    private final long earned;
+    private final long accounts;
+    private final long savings;
+    private final long budget;
+    private final String formattedEarned;
+    private final String formattedAccounts;
+    private final String formattedSavings;
+    private final String formattedBudget;
+    private final String formattedReserve;
+
+    public DashboardSnapshot(int displayCurrencyId, long savedAt, MainScreenData data,
+                             long earned, long accounts, long savings, long budget,
+                             String formattedEarned, String formattedAccounts, String formattedSavings,
+                             String formattedBudget, String formattedReserve) {
+        this.displayCurrencyId = displayCurrencyId;
+        this.savedAt = savedAt;
+        this.data = data;
+        this.earned = earned;
+        this.accounts = accounts;
+        this.savings = savings;
+        this.budget = budget;
+        this.formattedEarned = formattedEarned;
+        this.formattedAccounts = formattedAccounts;
+        this.formattedSavings = formattedSavings;
+        this.formattedBudget = formattedBudget;
+        this.formattedReserve = formattedReserve;
+    }
+
+    /**
+     * Читает снимок (синхронно: файл меньше килобайта)
+     * @param context контекст
+     * @param displayCurrencyId текущая отображаемая валюта
+     * @return снимок или null, если файла нет, он поврежден или устарел
+     */
+    public static DashboardSnapshot read(Context context, int displayCurrencyId) {
+        AtomicFile file = file(context);
+        if (!file.getBaseFile().exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(file.readFully()))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                LogManager.d(TAG, "Снимок главного экрана другого формата, отброшен");
+                return null;
+            }
+            int schemaVersion = in.readInt();
+            int currencyId = in.readInt();
+            if (schemaVersion != DatabaseConstants.DATABASE_VERSION || currencyId != displayCurrencyId) {
+                LogManager.d(TAG, "Снимок главного экрана устарел (схема " + schemaVersion + ", валюта " + currencyId + "), отброшен");
+                return null;
+            }
+            long savedAt = in.readLong();
+            MainScreenData data = new MainScreenData(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+            return new DashboardSnapshot(currencyId, savedAt, data,
+                    in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+        } catch (IOException e) {
+            LogManager.w(TAG, "Не удалось прочитать снимок главного экрана: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Записывает снимок атомарно (вызывать из фонового потока)
+     * @param context контекст
+     */
+    public void write(Context context) {
+        AtomicFile file = file(context);
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(DatabaseConstants.DATABASE_VERSION);
+            out.writeInt(displayCurrencyId);
+            out.writeLong(savedAt);
+            out.writeLong(data.getTotalAccountsBalance());
+            out.writeLong(data.getMonthlyEarned());
+            out.writeLong(data.getTotalSavingsBalance());
+            out.writeLong(data.getTotalBudgetRemaining());
+            out.writeLong(data.getReserveAmount());
+            out.writeLong(earned);
+            out.writeLong(accounts);
+            out.writeLong(savings);
+            out.writeLong(budget);
+            out.writeUTF(formattedEarned);
+            out.writeUTF(formattedAccounts);
+            out.writeUTF(formattedSavings);
+            out.writeUTF(formattedBudget);
+            out.writeUTF(formattedReserve);
+            out.flush();
+            file.finishWrite(stream);
+            LogManager.d(TAG, "Снимок главного экрана сохранен");
+        } catch (IOException e) {
+            LogManager.w(TAG, "Не удалось сохранить снимок главного экрана: " + e.getMessage());
+            if (stream != null) {
+                file.failWrite(stream);
+            }
+        }
+    }
+
+    /**
+     * Удаляет снимок (например, после изменения валют)
+     * @param context контекст
+     */
+    public static void discard(Context context) {
+        file(context).delete();
+        LogManager.d(TAG, "Снимок главного экрана удален");
+    }
+
+    private static AtomicFile file(Context context) {
+        return new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public MainScreenData getData() {
+        return data;
+    }
+
+    public long getEarned() {
+        return earned;
+    }
+
+    public long getAccounts() {
+        return accounts;
+    }
+
+    public long getSavings() {
+        return savings;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public String getFormattedEarned() {
+        return formattedEarned;
+    }
+
+    public String getFormattedAccounts() {
+        return formattedAccounts;
+    }
+
+    public String getFormattedSavings() {
+        return formattedSavings;
+    }
+
+    public String getFormattedBudget() {
+        return formattedBudget;
+    }
+
+    public String getFormattedReserve() {
+        return formattedReserve;
+    }
+}
@@ -5,6 +5,8 @@ import android.content.Context;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
 import com.sadengineer.budgetmaster.backend.service.ServiceManager;
 import com.sadengineer.budgetmaster.backend.ThreadManager;
 import com.sadengineer.budgetmaster.utils.LogManager;
@@ -24,6 +26,9 @@ public class MainScreenRepository {
     private final MutableLiveData<MainScreenData> data;
     private final MutableLiveData<Boolean> isLoading;
     private final MutableLiveData<String> errorMessage;
+    private volatile boolean loaded = false;
+    private final DatabaseChangeBus changeBus;
+    private final DatabaseChangeBus.OnTablesChangedListener changeListener = tables -> refreshData();
     
     public MainScreenRepository(Context context, String userName) {
         this.sm = ServiceManager.getInstance(context, userName);
@@ -31,6 +36,14 @@ public class MainScreenRepository {
         this.isLoading = new MutableLiveData<>(false);
         this.errorMessage = new MutableLiveData<>();
         
+        // Данные главного экрана пересчитываются один раз на серию записей в базу
+        this.changeBus = DatabaseChangeBus.getInstance(context);
+        this.changeBus.addListener(changeListener,
+                RepositoryConstants.TABLE_ACCOUNTS,
+                RepositoryConstants.TABLE_BUDGETS,
+                RepositoryConstants.TABLE_CURRENCIES,
+                RepositoryConstants.TABLE_OPERATIONS);
+        
         LogManager.d(TAG, "MainScreenRepository инициализирован для пользователя: " + userName);
     }
     
@@ -55,6 +68,13 @@ public class MainScreenRepository {
         return errorMessage;
     }
     
+    /**
+     * Загружены ли данные хотя бы один раз (начальные нули - не данные)
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
     /**
      * Обновить все данные главного экрана
      * Сервисы сами управляют своими потоками выполнения
@@ -68,6 +88,7 @@ public class MainScreenRepository {
         ThreadManager.getExecutor().execute(() -> {
             try {
                 MainScreenData newData = loadAllData();
+                loaded = true;
                 data.postValue(newData);
                 LogManager.d(TAG, "Данные главного экрана обновлены: " + newData);
             } catch (Exception e) {
@@ -247,4 +268,11 @@ public class MainScreenRepository {
         data.setValue(newData);
         LogManager.d(TAG, "Обновлено поле " + fieldName + " = " + value);
     }
+    
+    /**
+     * Отписывает репозиторий от шины изменений базы данных
+     */
+    public void release() {
+        changeBus.removeListener(changeListener);
+    }
 }
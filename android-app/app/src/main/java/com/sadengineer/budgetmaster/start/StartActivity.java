@@ -10,6 +10,7 @@ import com.sadengineer.budgetmaster.accounts.AccountsActivity;
 import com.sadengineer.budgetmaster.income.IncomeActivity;
 import com.sadengineer.budgetmaster.expense.ExpenseActivity;
 import com.sadengineer.budgetmaster.budget.BudgetActivity;
+import com.sadengineer.budgetmaster.calculators.BasicCalculatorForCurrencyItems;
 import com.sadengineer.budgetmaster.navigation.BaseNavigationActivity;
 import com.sadengineer.budgetmaster.backend.database.DatabaseManager;
 import com.sadengineer.budgetmaster.settings.SettingsManager;
@@ -32,6 +33,9 @@ public class StartActivity extends BaseNavigationActivity {
     private TextView valueSavings;
     private TextView valueBudget;
     private TextView valueReserve;
+    
+    // Последние суммы из прошлого запуска (null - снимка нет или он устарел)
+    private DashboardSnapshot snapshot;
 
     /** Имя пользователя по умолчанию */
     /** TODO: передлать на получение имени пользователя из SharedPreferences */
@@ -42,11 +46,16 @@ public class StartActivity extends BaseNavigationActivity {
         super.onCreate(savedInstanceState);
         LogManager.d(TAG, "StartActivity.onCreate() - начало инициализации");
         setContentView(R.layout.activity_main);
+        // Инициализация UI элементов
+        initializeUIElements();
+        // Последние суммы из снимка показываем сразу, до открытия базы данных
+        appSettings = new AppSettings(this);
+        snapshot = DashboardSnapshot.read(this, appSettings.getDefaultCurrencyId());
+        showSnapshot();
         // Инициализация базы данных
         initializeDatabase();
         // Инициализация настроек
         SettingsManager.init(this);
-        appSettings = new AppSettings(this);
         // Инициализация навигации
         initializeNavigation(true);
         // Инициализация менеджера сервисов
@@ -63,9 +72,6 @@ public class StartActivity extends BaseNavigationActivity {
         // Настройка наблюдателей LiveData
         setupObservers();
         
-        // Инициализация UI элементов
-        initializeUIElements();
-        
         // Загрузка данных
         viewModel.refreshData();
         
@@ -165,7 +171,7 @@ public class StartActivity extends BaseNavigationActivity {
         
         // Наблюдаем за общей суммой бюджетов для отладки
         viewModel.getTotalBudgetAmount().observe(this, totalAmount -> {
-            if (totalAmount != null) {
+            if (totalAmount != null && !keepSnapshot(viewModel.getBudgetCalculator())) {
                 valueBudget.setText(viewModel.getFormattedTotalBudgetAmount());
                 valueBudget.setTextColor(viewModel.getBudgetRemainingColor());
                 LogManager.d(TAG, "Общая сумма бюджетов обновлена: " + totalAmount);
@@ -174,7 +180,7 @@ public class StartActivity extends BaseNavigationActivity {
         
         // Наблюдаем за суммой текущих счетов
         viewModel.getCurrentTotalAccountsAmount().observe(this, totalAmount -> {
-            if (totalAmount != null) {
+            if (totalAmount != null && !keepSnapshot(viewModel.getCurrentAccountsCalculator())) {
                 valueAccounts.setText(viewModel.getFormattedTotalAccountsBalance());
                 valueAccounts.setTextColor(viewModel.getAmountColor(totalAmount));
                 LogManager.d(TAG, "Сумма текущих счетов обновлена: " + totalAmount);
@@ -183,7 +189,7 @@ public class StartActivity extends BaseNavigationActivity {
         
         // Наблюдаем за суммой сберегательных счетов
         viewModel.getSavingsAccountsCalculator().getResultAmount().observe(this, totalAmount -> {
-            if (totalAmount != null) {
+            if (totalAmount != null && !keepSnapshot(viewModel.getSavingsAccountsCalculator())) {
                 valueSavings.setText(viewModel.getFormattedTotalSavingsBalance());
                 valueSavings.setTextColor(viewModel.getAmountColor(totalAmount));
                 LogManager.d(TAG, "Сумма сберегательных счетов обновлена: " + totalAmount);
@@ -192,7 +198,7 @@ public class StartActivity extends BaseNavigationActivity {
         
         // Наблюдаем за суммой месячного дохода
         viewModel.getMonthlyEarnedCalculator().getResultAmount().observe(this, totalAmount -> {
-            if (totalAmount != null) {
+            if (totalAmount != null && !keepSnapshot(viewModel.getMonthlyEarnedCalculator())) {
                 valueEarned.setText(viewModel.getFormattedMonthlyEarned());
                 valueEarned.setTextColor(viewModel.getAmountColor(totalAmount));
                 LogManager.d(TAG, "Сумма месячного дохода обновлена: " + totalAmount);
@@ -217,17 +223,55 @@ public class StartActivity extends BaseNavigationActivity {
     private void updateUI(MainScreenData data) {
         LogManager.d(TAG, "Обновление UI с данными: " + data);
         
+        // Начальные нули не перекрывают значения из снимка
+        if (snapshot != null && !viewModel.isMainScreenDataLoaded()) {
+            LogManager.d(TAG, "Данные еще не загружены, оставляем значения из снимка");
+            return;
+        }
+        
         // Обновляем текстовые поля с форматированными значениями
-        valueEarned.setText(viewModel.getFormattedMonthlyEarned());
+        if (!keepSnapshot(viewModel.getMonthlyEarnedCalculator())) {
+            valueEarned.setText(viewModel.getFormattedMonthlyEarned());
+            valueEarned.setTextColor(viewModel.getAmountColor(data.getMonthlyEarned()));
+        }
         valueReserve.setText(viewModel.getFormattedReserveAmount());
         
         // Устанавливаем цвета для сумм
         valueReserve.setTextColor(viewModel.getAmountColor(data.getReserveAmount()));
-        valueEarned.setTextColor(viewModel.getAmountColor(data.getMonthlyEarned()));
         
         LogManager.d(TAG, "UI успешно обновлен");
     }
             
+    /**
+     * Показывает суммы из снимка прошлого запуска
+     */
+    private void showSnapshot() {
+        if (snapshot == null) {
+            LogManager.d(TAG, "Снимка главного экрана нет, ждем данные из базы");
+            return;
+        }
+        // Цвета считаются так же, как для живых данных (StartScreenViewModel)
+        valueEarned.setText(snapshot.getFormattedEarned());
+        valueEarned.setTextColor(getColor(snapshot.getEarned() >= 0 ? R.color.green : R.color.red));
+        valueAccounts.setText(snapshot.getFormattedAccounts());
+        valueAccounts.setTextColor(getColor(snapshot.getAccounts() >= 0 ? R.color.green : R.color.red));
+        valueSavings.setText(snapshot.getFormattedSavings());
+        valueSavings.setTextColor(getColor(snapshot.getSavings() >= 0 ? R.color.green : R.color.red));
+        valueBudget.setText(snapshot.getFormattedBudget());
+        long remaining = snapshot.getData().getTotalBudgetRemaining();
+        valueBudget.setTextColor(getColor(remaining > 0 ? R.color.green : remaining == 0 ? R.color.orange : R.color.red));
+        valueReserve.setText(snapshot.getFormattedReserve());
+        valueReserve.setTextColor(getColor(snapshot.getData().getReserveAmount() >= 0 ? R.color.green : R.color.red));
+        LogManager.d(TAG, "Показан снимок главного экрана от " + snapshot.getSavedAt());
+    }
+    
+    /**
+     * Пока калькулятор не посчитал сумму, на экране остается значение из снимка
+     */
+    private boolean keepSnapshot(BasicCalculatorForCurrencyItems calculator) {
+        return snapshot != null && !calculator.isResultReady();
+    }
+    
     /**
      * Возобновление активности
      */
@@ -1,19 +1,26 @@
 package com.sadengineer.budgetmaster.start;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
  
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
 import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.R;
 import com.sadengineer.budgetmaster.calculators.BudgetCalculatorViewModel;
 import com.sadengineer.budgetmaster.calculators.AccountCalculatorViewModel;
 import com.sadengineer.budgetmaster.calculators.OperationCalculatorViewModel;
 import com.sadengineer.budgetmaster.settings.AppSettings;
+import com.sadengineer.budgetmaster.backend.ThreadManager;
+import com.sadengineer.budgetmaster.backend.constants.RepositoryConstants;
+import com.sadengineer.budgetmaster.backend.database.DatabaseChangeBus;
 import com.sadengineer.budgetmaster.backend.filters.AccountTypeFilter;
 import com.sadengineer.budgetmaster.backend.filters.OperationTypeFilter;
 import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
@@ -31,12 +38,21 @@ public class StartScreenViewModel extends AndroidViewModel {
     
     private final MainScreenRepository repository;
     private final MutableLiveData<Boolean> isRefreshing;
-    private CurrencyAmountFormatter formatter = new CurrencyAmountFormatter();
+    private CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
     private BudgetCalculatorViewModel budgetCalculator;
     private AccountCalculatorViewModel currentAccountsCalculator;
     private AccountCalculatorViewModel savingsAccountsCalculator;
     private OperationCalculatorViewModel monthlyEarnedCalculator;
     private AppSettings appSettings;
+    
+    // Снимок главного экрана сохраняется один раз на серию обновлений
+    private static final long SNAPSHOT_SAVE_DELAY_MS = 500;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable saveSnapshotTask = this::saveSnapshot;
+    private final Observer<Object> snapshotSourceObserver = value -> scheduleSnapshotSave();
+    private final DatabaseChangeBus changeBus;
+    private final DatabaseChangeBus.OnTablesChangedListener currencyListener =
+        tables -> DashboardSnapshot.discard(getApplication());
 
     /** Имя пользователя по умолчанию */
     /** TODO: передлать на получение имени пользователя из SharedPreferences */
@@ -70,6 +86,17 @@ public class StartScreenViewModel extends AndroidViewModel {
         this.monthlyEarnedCalculator.setOperationType(OperationTypeFilter.INCOME);
         this.monthlyEarnedCalculator.setEntityFilter(EntityFilter.ACTIVE);
         
+        // Снимок пересохраняется после каждого обновления сумм
+        repository.getMainScreenData().observeForever(snapshotSourceObserver);
+        budgetCalculator.getResultAmount().observeForever(snapshotSourceObserver);
+        currentAccountsCalculator.getResultAmount().observeForever(snapshotSourceObserver);
+        savingsAccountsCalculator.getResultAmount().observeForever(snapshotSourceObserver);
+        monthlyEarnedCalculator.getResultAmount().observeForever(snapshotSourceObserver);
+        
+        // После изменения валют сохраненные суммы недействительны
+        this.changeBus = DatabaseChangeBus.getInstance(application);
+        this.changeBus.addListener(currencyListener, RepositoryConstants.TABLE_CURRENCIES);
+        
         LogManager.d(TAG, "StartScreenViewModel инициализирован");
     }
     
@@ -133,6 +160,67 @@ public class StartScreenViewModel extends AndroidViewModel {
         refreshData();
     }
     
+    /**
+     * Прочитать снимок главного экрана (до открытия базы данных)
+     * @return снимок или null, если его нет или он устарел
+     */
+    public DashboardSnapshot readSnapshot() {
+        return DashboardSnapshot.read(getApplication(), appSettings.getDefaultCurrencyId());
+    }
+    
+    /**
+     * Загружены ли данные главного экрана (MainScreenRepository) хотя бы один раз
+     */
+    public boolean isMainScreenDataLoaded() {
+        return repository.isLoaded();
+    }
+    
+    /**
+     * Все ли суммы главного экрана посчитаны по базе данных
+     */
+    public boolean isLiveDataReady() {
+        return repository.isLoaded()
+            && budgetCalculator.isResultReady()
+            && currentAccountsCalculator.isResultReady()
+            && savingsAccountsCalculator.isResultReady()
+            && monthlyEarnedCalculator.isResultReady();
+    }
+    
+    private void scheduleSnapshotSave() {
+        mainHandler.removeCallbacks(saveSnapshotTask);
+        mainHandler.postDelayed(saveSnapshotTask, SNAPSHOT_SAVE_DELAY_MS);
+    }
+    
+    /**
+     * Сохраняет снимок, когда посчитаны все суммы (иначе в файл попали бы нули)
+     * Значения и строки снимаются в главном потоке, файл пишется в фоне
+     */
+    private void saveSnapshot() {
+        MainScreenData data = getMainScreenData().getValue();
+        if (data == null || !isLiveDataReady()) {
+            return;
+        }
+        DashboardSnapshot snapshot = new DashboardSnapshot(
+            appSettings.getDefaultCurrencyId(),
+            System.currentTimeMillis(),
+            data.copy(),
+            valueOf(monthlyEarnedCalculator.getResultAmount().getValue()),
+            valueOf(currentAccountsCalculator.getResultAmount().getValue()),
+            valueOf(savingsAccountsCalculator.getResultAmount().getValue()),
+            valueOf(budgetCalculator.getResultAmount().getValue()),
+            getFormattedMonthlyEarned(),
+            getFormattedTotalAccountsBalance(),
+            getFormattedTotalSavingsBalance(),
+            getFormattedTotalBudgetAmount(),
+            getFormattedReserveAmount());
+        Application application = getApplication();
+        ThreadManager.getExecutor().execute(() -> snapshot.write(application));
+    }
+    
+    private static long valueOf(Long amount) {
+        return amount != null ? amount : 0L;
+    }
+    
     /**
      * Получить отформатированную сумму для отображения
      */
@@ -313,6 +401,16 @@ public class StartScreenViewModel extends AndroidViewModel {
     protected void onCleared() {
         super.onCleared();
         
+        repository.release();
+        
+        mainHandler.removeCallbacks(saveSnapshotTask);
+        changeBus.removeListener(currencyListener);
+        repository.getMainScreenData().removeObserver(snapshotSourceObserver);
+        budgetCalculator.getResultAmount().removeObserver(snapshotSourceObserver);
+        currentAccountsCalculator.getResultAmount().removeObserver(snapshotSourceObserver);
+        savingsAccountsCalculator.getResultAmount().removeObserver(snapshotSourceObserver);
+        monthlyEarnedCalculator.getResultAmount().removeObserver(snapshotSourceObserver);
+        
         // Освобождаем ресурсы калькуляторов
         if (budgetCalculator != null) {
             // ViewModel автоматически очищается системой
@@ -1,18 +1,47 @@
 package com.sadengineer.budgetmaster.statistics;
 
 import android.os.Bundle;
- 
+import android.util.SparseArray;
+import android.widget.TextView;
+
+import androidx.lifecycle.ViewModelProvider;
+
 import com.sadengineer.budgetmaster.R;
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsReport;
+import com.sadengineer.budgetmaster.backend.entity.Category;
+import com.sadengineer.budgetmaster.backend.filters.EntityFilter;
 import com.sadengineer.budgetmaster.base.BaseContentActivity;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatter;
+import com.sadengineer.budgetmaster.formatters.CurrencyAmountFormatterPool;
 import com.sadengineer.budgetmaster.utils.LogManager;
 
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Activity для отображения статистики
  */
 public class StatisticsActivity extends BaseContentActivity {
-    
+
     private static final String TAG = "StatisticsActivity";
 
+    /** Формат месяца в ряду */
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("LLLL yyyy", new Locale("ru"));
+
+    /** Имя пользователя по умолчанию */
+    private String userName = "default_user";
+
+    private final CurrencyAmountFormatter formatter = CurrencyAmountFormatterPool.get();
+    private final SparseArray<String> categoryTitles = new SparseArray<>();
+    private StatisticsReport lastReport;
+
+    private TextView totalsView;
+    private TextView seriesView;
+    private TextView topCategoriesView;
+    private TextView topDescriptionsView;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -23,6 +52,69 @@ public class StatisticsActivity extends BaseContentActivity {
         // Устанавливаем заголовок
         setToolbarTitle(R.string.menu_statistics, R.dimen.toolbar_text);
 
+        totalsView = findViewById(R.id.statistics_totals);
+        seriesView = findViewById(R.id.statistics_series);
+        topCategoriesView = findViewById(R.id.statistics_top_categories);
+        topDescriptionsView = findViewById(R.id.statistics_top_descriptions);
+
+        // Названия категорий для топа
+        BackendContainer.get(this).categories(userName).getAll(EntityFilter.ALL).observe(this, categories -> {
+            categoryTitles.clear();
+            if (categories != null) {
+                for (Category category : categories) {
+                    categoryTitles.put(category.getId(), category.getTitle());
+                }
+            }
+            render(lastReport);
+        });
+
+        StatisticsViewModel viewModel = new ViewModelProvider(this).get(StatisticsViewModel.class);
+        viewModel.getReport().observe(this, this::render);
+
         LogManager.d(TAG, "StatisticsActivity создана");
     }
-} 
\ No newline at end of file
+
+    /**
+     * Отображает отчет
+     */
+    private void render(StatisticsReport report) {
+        lastReport = report;
+        if (report == null) {
+            return;
+        }
+
+        totalsView.setText(getString(R.string.statistics_totals_title) + "\n"
+                + getString(R.string.statistics_income, formatter.formatFromCents(report.getTotalIncome())) + "\n"
+                + getString(R.string.statistics_expense, formatter.formatFromCents(report.getTotalExpense())));
+
+        StringBuilder series = new StringBuilder(getString(R.string.statistics_series_title));
+        for (int i = 0; i < report.getBucketCount(); i++) {
+            series.append('\n').append(getString(R.string.statistics_series_row,
+                    MONTH_FORMAT.format(report.getBucketStart(i)),
+                    formatter.formatFromCents(report.getIncome(i)),
+                    formatter.formatFromCents(report.getExpense(i))));
+        }
+        seriesView.setText(series);
+
+        topCategoriesView.setText(formatTop(R.string.statistics_top_categories_title,
+                report.getTopExpenseCategories(), false));
+        topDescriptionsView.setText(formatTop(R.string.statistics_top_descriptions_title,
+                report.getTopExpenseDescriptions(), true));
+    }
+
+    /**
+     * Форматирует топ в текст: заголовок и строка на элемент
+     */
+    private String formatTop(int titleRes, List<StatisticsReport.TopEntry> entries, boolean descriptions) {
+        StringBuilder text = new StringBuilder(getString(titleRes));
+        if (entries.isEmpty()) {
+            text.append('\n').append(getString(R.string.statistics_no_data));
+        }
+        for (StatisticsReport.TopEntry entry : entries) {
+            String label = descriptions ? entry.getLabel() : categoryTitles.get(entry.getKey(), String.valueOf(entry.getKey()));
+            text.append('\n').append(getString(R.string.statistics_top_row,
+                    label, formatter.formatFromCents(entry.getAmount()), entry.getCount()));
+        }
+        return text.toString();
+    }
+}
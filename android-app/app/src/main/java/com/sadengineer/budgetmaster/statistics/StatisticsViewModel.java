@@ -0,0 +1,97 @@
+package com.sadengineer.budgetmaster.statistics;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.sadengineer.budgetmaster.backend.BackendContainer;
+import com.sadengineer.budgetmaster.backend.analytics.OperationSnapshot;
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsBucket;
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsEngine;
+import com.sadengineer.budgetmaster.backend.analytics.StatisticsReport;
+import com.sadengineer.budgetmaster.backend.constants.AnalyticsConstants;
+import com.sadengineer.budgetmaster.backend.constants.ModelConstants;
+import com.sadengineer.budgetmaster.backend.filters.OperationPeriod;
+import com.sadengineer.budgetmaster.utils.LogManager;
+
+import java.time.LocalDate;
+
+/**
+ * ViewModel экрана статистики
+ * Запрашивает отчет у StatisticsEngine и пересчитывает его при обновлении снимка операций
+ */
+public class StatisticsViewModel extends AndroidViewModel {
+    private static final String TAG = "StatisticsViewModel";
+
+    private final StatisticsEngine engine;
+    private final OperationSnapshot snapshot;
+    private final MutableLiveData<StatisticsReport> report = new MutableLiveData<>();
+    private final OperationSnapshot.OnSnapshotChangedListener snapshotListener = version -> load();
+
+    private volatile OperationPeriod period = OperationPeriod.SIX_MONTHS;
+    private volatile StatisticsBucket bucket = StatisticsBucket.MONTH;
+    private volatile int displayCurrencyId = ModelConstants.DEFAULT_CURRENCY_ID;
+
+    public StatisticsViewModel(@NonNull Application application) {
+        super(application);
+        BackendContainer container = BackendContainer.get(application);
+        this.engine = container.statistics();
+        this.snapshot = container.operationSnapshot();
+        snapshot.addListener(snapshotListener);
+        load();
+    }
+
+    /**
+     * Получить текущий отчет
+     */
+    public LiveData<StatisticsReport> getReport() {
+        return report;
+    }
+
+    /**
+     * Установить период и интервал ряда и пересчитать отчет
+     */
+    public void setPeriod(OperationPeriod period, StatisticsBucket bucket) {
+        this.period = period;
+        this.bucket = bucket;
+        load();
+    }
+
+    /**
+     * Установить валюту отображения сумм и пересчитать отчет
+     */
+    public void setDisplayCurrencyId(int currencyId) {
+        this.displayCurrencyId = currencyId;
+        load();
+    }
+
+    /**
+     * Запрашивает отчет в фоне; повторный запрос с тем же ключом берется из кэша движка
+     */
+    private void load() {
+        OperationPeriod requestedPeriod = period;
+        StatisticsBucket requestedBucket = bucket;
+        int requestedCurrencyId = displayCurrencyId;
+        engine.getReportAsync(requestedPeriod, LocalDate.now(), requestedBucket, AnalyticsConstants.STATISTICS_DEFAULT_TOP_N,
+                requestedCurrencyId)
+            .thenAccept(result -> {
+                if (result == null) {
+                    LogManager.w(TAG, "Отчет статистики не рассчитан");
+                    return;
+                }
+                // Ответ на устаревший запрос не показываем
+                if (requestedPeriod == period && requestedBucket == bucket && requestedCurrencyId == displayCurrencyId) {
+                    report.postValue(result);
+                }
+            });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        snapshot.removeListener(snapshotListener);
+    }
+}